@@ -170,6 +170,12 @@ public final class ModOptions {
 		@Comment("Minimum rain intensity level for background thunder to occur")
 		public static float stormThunderThreshold = 0.75F;
 
+		@Option("Storm Cells")
+		@DefaultValue("true")
+		@LangKey(rain.PREFIX + ".StormCells")
+		@Comment("Rain and background thunder come from storm cells that drift across the dimension rather than being the same everywhere")
+		public static boolean enableStormCells = true;
+
 		@Option("Default Minimum Rain Strength")
 		@DefaultValue("0.0")
 		@LangKey(rain.PREFIX + ".MinRainStrength")
@@ -282,6 +288,13 @@ public final class ModOptions {
 		@LangKey(general.PREFIX + ".ChunkCaching")
 		@Comment("Enable/disable client side chunk caching (performance)")
 		public static boolean enableClientChunkCaching = true;
+
+		@Option("Server Tick Budget")
+		@DefaultValue("2000")
+		@LangKey(general.PREFIX + ".TickBudget")
+		@Comment("Microseconds per server tick the mod's services can spend before work is deferred to later ticks")
+		@RangeInt(min = 100, max = 50000)
+		public static int serverTickBudget = 2000;
 	}
 
 	public static final String CATEGORY_AURORA = "aurora";
@@ -576,6 +589,12 @@ public final class ModOptions {
 		@Comment("Enable/disable rain puddle sound when moving in the rain")
 		public static boolean enablePuddleSound = true;
 
+		@Option("Sound Occlusion")
+		@DefaultValue("true")
+		@LangKey(sound.PREFIX + ".Occlusion")
+		@Comment("Muffle sounds based on the blocks between the player and the sound (off if Sound Physics is installed)")
+		public static boolean enableOcclusion = true;
+
 		@Option("Sound Culling Threshold")
 		@DefaultValue("20")
 		@LangKey(sound.PREFIX + ".CullInterval")
@@ -671,6 +690,34 @@ public final class ModOptions {
 		@Comment("Range at which a SpeechBubble is visible (filtering occurs server side)")
 		public static float speechBubbleRange = 16;
 
+		@Option("Bubble Rate")
+		@DefaultValue("0.5")
+		@LangKey(speechbubbles.PREFIX + ".Rate")
+		@RangeFloat(min = 0.1F, max = 10.0F)
+		@Comment("Number of speech bubbles per second a player earns (flood control, server side)")
+		public static float speechBubbleRate = 0.5F;
+
+		@Option("Bubble Burst")
+		@DefaultValue("3")
+		@LangKey(speechbubbles.PREFIX + ".Burst")
+		@RangeInt(min = 1, max = 20)
+		@Comment("Number of speech bubbles a player can send back to back before the rate applies (server side)")
+		public static int speechBubbleBurst = 3;
+
+		@Option("Coalesce Window")
+		@DefaultValue("250")
+		@LangKey(speechbubbles.PREFIX + ".Window")
+		@RangeInt(min = 0, max = 2000)
+		@Comment("Milliseconds of chat from a player gathered into a single speech bubble (server side)")
+		public static int speechBubbleWindow = 250;
+
+		@Option("Recipient Cap")
+		@DefaultValue("4")
+		@LangKey(speechbubbles.PREFIX + ".RecipientCap")
+		@RangeInt(min = 1, max = 32)
+		@Comment("Maximum number of speech bubbles sent to a single player each tick (server side)")
+		public static int speechBubbleRecipientCap = 4;
+
 		@Option("Animania Badges")
 		@DefaultValue("true")
 		@LangKey(speechbubbles.PREFIX + ".AnimaniaBadges")
@@ -30,6 +30,7 @@ import javax.annotation.Nullable;
 import org.orecruncher.dsurround.ModInfo;
 import org.orecruncher.dsurround.capabilities.entitydata.EntityData;
 import org.orecruncher.dsurround.capabilities.entitydata.EntityDataTables;
+import org.orecruncher.dsurround.capabilities.entitydata.EntityDataTracker;
 import org.orecruncher.dsurround.capabilities.entitydata.IEntityData;
 import org.orecruncher.dsurround.capabilities.entitydata.IEntityDataSettable;
 import org.orecruncher.dsurround.network.Network;
@@ -42,16 +43,18 @@ import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLiving;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.util.ResourceLocation;
-import net.minecraft.world.World;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.capabilities.CapabilityInject;
 import net.minecraftforge.common.capabilities.CapabilityManager;
 import net.minecraftforge.common.capabilities.ICapabilityProvider;
 import net.minecraftforge.event.AttachCapabilitiesEvent;
-import net.minecraftforge.event.entity.living.LivingEvent.LivingUpdateEvent;
+import net.minecraftforge.event.entity.EntityJoinWorldEvent;
+import net.minecraftforge.event.entity.living.LivingSetAttackTargetEvent;
 import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
 
 public final class CapabilityEntityData {
 
@@ -102,21 +105,40 @@ public final class CapabilityEntityData {
 		}
 
 		/*
-		 * Called when an entity is being updated. Need to evaluate new states.
+		 * Event generated when an entity joins a world. Server side the executing
+		 * task sets are instrumented so changes trigger an assessment.
 		 */
-		@SubscribeEvent()
-		public static void livingUpdate(@Nonnull final LivingUpdateEvent event) {
-			final Entity entity = event.getEntity();
-			final World world = entity.getEntityWorld();
-			// Don't tick if this is the client thread. We only check 4 times a
-			// second as if that is enough :)
-			if (world.isRemote || (entity.ticksExisted % 5) != 0)
+		@SubscribeEvent
+		public static void joinWorld(@Nonnull final EntityJoinWorldEvent event) {
+			if (event.getWorld().isRemote || !(event.getEntity() instanceof EntityLiving))
 				return;
 			final IEntityDataSettable data = (IEntityDataSettable) getCapability(event.getEntity());
-			if (data != null) {
-				EntityDataTables.assess(data);
-				data.sync();
-			}
+			if (data != null)
+				EntityDataTables.track(data);
+		}
+
+		/*
+		 * Called when an entity changes its attack target. Need to evaluate new
+		 * states.
+		 */
+		@SubscribeEvent
+		public static void attackTarget(@Nonnull final LivingSetAttackTargetEvent event) {
+			final Entity entity = event.getEntity();
+			if (entity.getEntityWorld().isRemote || !(entity instanceof EntityLiving))
+				return;
+			final IEntityDataSettable data = (IEntityDataSettable) getCapability(entity);
+			if (data != null)
+				EntityDataTracker.markDirty(data);
+		}
+
+		/*
+		 * Assess the entities whose state may have changed during the tick and send
+		 * out the changes.
+		 */
+		@SubscribeEvent
+		public static void serverTick(@Nonnull final TickEvent.ServerTickEvent event) {
+			if (event.phase == Phase.END)
+				EntityDataTracker.process();
 		}
 	}
 
@@ -26,9 +26,6 @@ package org.orecruncher.dsurround.capabilities.entitydata;
 
 import javax.annotation.Nonnull;
 
-import org.orecruncher.dsurround.network.Network;
-import org.orecruncher.dsurround.network.PacketEntityData;
-
 import net.minecraft.entity.EntityLiving;
 import net.minecraft.nbt.NBTTagCompound;
 
@@ -81,20 +78,14 @@ public final class EntityData implements IEntityDataSettable {
 		this.isFleeing = flag;
 	}
 
+	@Override
 	public boolean needsSync() {
 		return this.sync;
 	}
 
-	private void clearSync() {
-		this.sync = false;
-	}
-
 	@Override
-	public void sync() {
-		if (needsSync() && this.entity != null && !this.entity.getEntityWorld().isRemote) {
-			Network.sendToEntityViewers(this.entity, new PacketEntityData(this));
-			clearSync();
-		}
+	public void clearSync() {
+		this.sync = false;
 	}
 
 	@Override
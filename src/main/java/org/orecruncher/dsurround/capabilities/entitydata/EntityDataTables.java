@@ -25,7 +25,6 @@
 package org.orecruncher.dsurround.capabilities.entitydata;
 
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 import javax.annotation.Nonnull;
@@ -39,7 +38,6 @@ import net.minecraft.entity.ai.EntityAIAttackMelee;
 import net.minecraft.entity.ai.EntityAIAttackRanged;
 import net.minecraft.entity.ai.EntityAIAttackRangedBow;
 import net.minecraft.entity.ai.EntityAIAvoidEntity;
-import net.minecraft.entity.ai.EntityAIBase;
 import net.minecraft.entity.ai.EntityAICreeperSwell;
 import net.minecraft.entity.ai.EntityAIFleeSun;
 import net.minecraft.entity.ai.EntityAIHurtByTarget;
@@ -80,10 +78,16 @@ public final class EntityDataTables {
 	// Describes the type of EntityAIBase task instance
 	private enum TaskType {
 		//@formatter:off
-		None,
-		Attack,
-		Flee
+		None(0),
+		Attack(1),
+		Flee(2);
 		//@formatter:on
+
+		private final int flag;
+
+		TaskType(final int flag) {
+			this.flag = flag;
+		}
 	}
 
 	// Class types mapped to a TaskType
@@ -114,27 +118,32 @@ public final class EntityDataTables {
 		return i > 0 ? n.substring(i + 1) : n;
 	}
 
+	/*
+	 * Resolves the TaskType for an AI task class. The class hierarchy is walked
+	 * from the most specific class upward so that the closest registered ancestor
+	 * wins. The result is cached against the original class so each class is
+	 * resolved only once.
+	 */
 	@Nonnull
-	private static TaskType find(@Nonnull final EntityAIBase aiTask) {
-		final Class<?> clazz = aiTask.getClass();
+	private static TaskType find(@Nonnull final Class<?> clazz) {
 		TaskType ct = AI_TASKS.get(clazz);
 		if (ct == null) {
-			// Find a match by inheritance
-			for (final Entry<Class<?>, TaskType> kvp : AI_TASKS.entrySet()) {
-				if (kvp.getKey().isInstance(aiTask)) {
-					ct = kvp.getValue();
+			ct = TaskType.None;
+			for (Class<?> c = clazz.getSuperclass(); c != null && c != Object.class; c = c.getSuperclass()) {
+				TaskType t = AI_TASKS.get(c);
+				if (t == null)
+					t = MAPPINGS.get(resolveName(c));
+				if (t != null) {
+					ct = t;
 					break;
 				}
 			}
 
-			// If we can't find by inheritance look in name mappings
-			if (ct == null) {
-				final String name = resolveName(clazz);
-				ct = MAPPINGS.get(name);
-				if (ct == null) {
-					// Not something we are interested in
-					ct = TaskType.None;
-				}
+			// The class itself may be one of the inaccessible inner classes
+			if (ct == TaskType.None) {
+				final TaskType t = MAPPINGS.get(resolveName(clazz));
+				if (t != null)
+					ct = t;
 			}
 
 			// Stick it in the map so we don't have to repeat
@@ -194,28 +203,39 @@ public final class EntityDataTables {
 		add(EntityWolf.class, TaskType.Flee, "AIAvoidEntity", "a");
 	}
 
-	private static boolean eval(@Nonnull final EntityLiving entity, @Nonnull TaskType desiredType) {
-
-		
-		for (final EntityAITaskEntry task : executingTasks.get(entity.tasks)) {
-			if (find(task.action) == desiredType)
-				return true;
-		}
-
-		for (final EntityAITaskEntry task : executingTasks.get(entity.targetTasks)) {
-			if (find(task.action) == desiredType)
-				return true;
-		}
+	/**
+	 * Replaces the executing task sets of the entity with versions that notify
+	 * the tracker when tasks start or stop executing. Assessment of the entity
+	 * then only needs to happen when something actually changed.
+	 *
+	 * @param data The entity data to track
+	 */
+	public static void track(@Nonnull final IEntityDataSettable data) {
+		final EntityLiving entity = data.getEntity();
+		install(entity.tasks, data);
+		install(entity.targetTasks, data);
+		EntityDataTracker.markDirty(data);
+	}
 
-		return false;
+	private static void install(@Nonnull final EntityAITasks tasks, @Nonnull final IEntityDataSettable data) {
+		final Set<EntityAITaskEntry> current = executingTasks.get(tasks);
+		if (current instanceof TrackedTaskSet)
+			return;
+		executingTasks.set(tasks, new TrackedTaskSet(data, current));
 	}
 
 	public static void assess(@Nonnull final IEntityDataSettable data) {
 		final EntityLiving entity = data.getEntity();
-		final boolean isAttacking = eval(entity, TaskType.Attack);
-		final boolean isFleeing = eval(entity, TaskType.Flee);
-		data.setAttacking(isAttacking);
-		data.setFleeing(isFleeing);
+		int flags = scan(executingTasks.get(entity.tasks), 0);
+		flags = scan(executingTasks.get(entity.targetTasks), flags);
+		data.setAttacking((flags & TaskType.Attack.flag) != 0);
+		data.setFleeing((flags & TaskType.Flee.flag) != 0);
+	}
+
+	private static int scan(@Nonnull final Set<EntityAITaskEntry> tasks, int flags) {
+		for (final EntityAITaskEntry task : tasks)
+			flags |= find(task.action.getClass()).flag;
+		return flags;
 	}
 
 }
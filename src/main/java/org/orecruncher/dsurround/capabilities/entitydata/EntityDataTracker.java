@@ -0,0 +1,114 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.capabilities.entitydata;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.dsurround.network.Network;
+import org.orecruncher.dsurround.network.PacketEntityData;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import net.minecraft.entity.EntityLiving;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.world.WorldServer;
+
+/**
+ * Collects entities whose AI state may have changed during a server tick.
+ * Entities are only re-assessed when their executing task set or attack
+ * target changes, and only those whose attack/flee state actually flipped
+ * are sent to the players that are tracking them. Updates are batched so
+ * that each player receives at most one PacketEntityData per tick.
+ */
+public final class EntityDataTracker {
+
+	private static final Set<IEntityDataSettable> dirty = new ReferenceLinkedOpenHashSet<>();
+	private static final Reference2ObjectOpenHashMap<EntityPlayerMP, List<IEntityData>> batches = new Reference2ObjectOpenHashMap<>();
+
+	private EntityDataTracker() {
+
+	}
+
+	/**
+	 * Flags the entity data as needing assessment at the end of the current tick.
+	 *
+	 * @param data The entity data that needs to be assessed
+	 */
+	public static void markDirty(@Nonnull final IEntityDataSettable data) {
+		dirty.add(data);
+	}
+
+	/**
+	 * Assesses all entities that have been flagged during the tick and sends the
+	 * changes to the interested players. Should be called once at the end of the
+	 * server tick.
+	 */
+	public static void process() {
+		if (dirty.isEmpty())
+			return;
+
+		for (final IEntityDataSettable data : dirty) {
+			final EntityLiving entity = data.getEntity();
+			if (entity == null || entity.isDead || entity.getEntityWorld().isRemote)
+				continue;
+
+			EntityDataTables.assess(data);
+
+			if (data.needsSync()) {
+				data.clearSync();
+				final Set<? extends EntityPlayer> players = ((WorldServer) entity.getEntityWorld())
+						.getEntityTracker().getTrackingPlayers(entity);
+				for (final EntityPlayer p : players) {
+					if (p instanceof EntityPlayerMP) {
+						List<IEntityData> batch = batches.get(p);
+						if (batch == null)
+							batches.put((EntityPlayerMP) p, batch = new ObjectArrayList<>());
+						batch.add(data);
+					}
+				}
+			}
+		}
+
+		dirty.clear();
+
+		if (!batches.isEmpty()) {
+			batches.forEach((player, batch) -> Network.sendToPlayer(player, new PacketEntityData(batch)));
+			batches.clear();
+		}
+	}
+
+	/**
+	 * Drops any pending state. Called when the server is shutting down.
+	 */
+	public static void clear() {
+		dirty.clear();
+		batches.clear();
+	}
+}
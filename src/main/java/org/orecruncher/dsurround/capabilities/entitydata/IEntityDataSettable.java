@@ -34,5 +34,13 @@ public interface IEntityDataSettable extends IEntityData {
 
 	void setFleeing(final boolean flag);
 
-	void sync();
+	/**
+	 * Indicates if the attack/flee state changed since the last time the data
+	 * was sent to clients.
+	 *
+	 * @return true if the state needs to be sent; false otherwise
+	 */
+	boolean needsSync();
+
+	void clearSync();
 }
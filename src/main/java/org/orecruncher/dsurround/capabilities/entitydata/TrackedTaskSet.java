@@ -0,0 +1,101 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.capabilities.entitydata;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+import javax.annotation.Nonnull;
+
+import net.minecraft.entity.ai.EntityAITasks.EntityAITaskEntry;
+
+/*
+ * Drop in replacement for the executing task set of an EntityAITasks. Any
+ * change to the set of executing tasks flags the owning entity data for
+ * re-assessment at the end of the server tick.
+ */
+final class TrackedTaskSet extends LinkedHashSet<EntityAITaskEntry> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final IEntityDataSettable data;
+
+	TrackedTaskSet(@Nonnull final IEntityDataSettable data, @Nonnull final Collection<EntityAITaskEntry> current) {
+		this.data = data;
+		addAll(current);
+	}
+
+	private void changed() {
+		EntityDataTracker.markDirty(this.data);
+	}
+
+	@Override
+	public boolean add(@Nonnull final EntityAITaskEntry entry) {
+		final boolean result = super.add(entry);
+		if (result)
+			changed();
+		return result;
+	}
+
+	@Override
+	public boolean remove(@Nonnull final Object entry) {
+		final boolean result = super.remove(entry);
+		if (result)
+			changed();
+		return result;
+	}
+
+	@Override
+	public void clear() {
+		if (!isEmpty()) {
+			super.clear();
+			changed();
+		}
+	}
+
+	@Override
+	@Nonnull
+	public Iterator<EntityAITaskEntry> iterator() {
+		final Iterator<EntityAITaskEntry> itr = super.iterator();
+		return new Iterator<EntityAITaskEntry>() {
+			@Override
+			public boolean hasNext() {
+				return itr.hasNext();
+			}
+
+			@Override
+			public EntityAITaskEntry next() {
+				return itr.next();
+			}
+
+			@Override
+			public void remove() {
+				itr.remove();
+				changed();
+			}
+		};
+	}
+}
@@ -70,25 +70,28 @@ public class EntityEffectHandler extends EntityEffectStateBase implements IEntit
 	}
 
 	protected final ObjectArray<EntityEffect> activeEffects;
+	protected final EntityPerception perception;
 	protected boolean isAlive = true;
-	protected double rangeToPlayer;
 
 	protected EntityEffectHandler(@Nonnull final Entity entity)
 	{
 		super(entity);
 		this.activeEffects = null;
+		this.perception = new EntityPerception(entity);
 	}
 
 	public EntityEffectHandler(@Nonnull final Entity entity, @Nonnull final IParticleHelper ph,
 			@Nonnull final ISoundHelper sh) {
 		super(entity, ph, sh);
 		this.activeEffects = null;
+		this.perception = new EntityPerception(entity);
 	}
 
 	public EntityEffectHandler(@Nonnull final Entity entity, @Nonnull final ObjectArray<EntityEffect> effects,
 			@Nonnull final IParticleHelper ph, @Nonnull final ISoundHelper sh) {
 		super(entity, ph, sh);
 		this.activeEffects = effects;
+		this.perception = new EntityPerception(entity);
 		for (final EntityEffect ee : this.activeEffects)
 			ee.initialize(this);
 	}
@@ -107,13 +110,15 @@ public class EntityEffectHandler extends EntityEffectStateBase implements IEntit
 			final Entity entity = this.subject.get();
 			if (entity != null) {
 				final EntityPlayer player = Minecraft.getMinecraft().player;
-				this.rangeToPlayer = entity.getDistanceSq(player);
+				this.perception.begin(entity, player, entity.getEntityWorld().getTotalWorldTime());
 
 				for (int i = 0; i < this.activeEffects.size(); i++) {
 					final EntityEffect e = this.activeEffects.get(i);
 					if (this.isAlive || e.receiveLastCall())
 						e.update(entity);
 				}
+
+				this.perception.end();
 			}
 		}
 	}
@@ -159,4 +164,15 @@ public class EntityEffectHandler extends EntityEffectStateBase implements IEntit
 		return this.isAlive;
 	}
 
+	/**
+	 * What is known about the subject for the current tick.
+	 *
+	 * @return Perception snapshot for the subject
+	 */
+	@Override
+	@Nonnull
+	public EntityPerception getPerception() {
+		return this.perception;
+	}
+
 }
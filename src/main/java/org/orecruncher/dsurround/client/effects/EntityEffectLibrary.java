@@ -25,14 +25,17 @@
 package org.orecruncher.dsurround.client.effects;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.orecruncher.dsurround.registry.RegistryManager;
 import org.orecruncher.dsurround.registry.effect.EntityEffectInfo;
 import org.orecruncher.lib.collections.ObjectArray;
 
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import net.minecraft.entity.Entity;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
@@ -46,8 +49,13 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 @SideOnly(Side.CLIENT)
 public class EntityEffectLibrary {
 
+	// Archetypes are stored as a bit mask of factory indices
+	protected static final int MAX_FACTORIES = Long.SIZE;
+
 	protected final ObjectArray<IEntityEffectFactoryFilter> filters = new ObjectArray<>();
+	protected final ObjectArray<IEntityEffectFactoryFilter> entityFilters = new ObjectArray<>();
 	protected final ObjectArray<IEntityEffectFactory> factories = new ObjectArray<>();
+	protected final Map<Class<? extends Entity>, Archetype> archetypes = new Reference2ObjectOpenHashMap<>();
 	protected final IParticleHelper particleHelper;
 	protected final ISoundHelper soundHelper;
 
@@ -61,6 +69,10 @@ public class EntityEffectLibrary {
 	 * is used by the EntityEffectLibrary to determine if an EntityEffect applies to
 	 * a target entity.
 	 *
+	 * The filter is evaluated once per entity class and EntityEffectInfo, and the
+	 * result is reused for every entity of that class. It must only depend on the
+	 * class of the entity and the EntityEffectInfo provided.
+	 *
 	 * @param filter  IEntityEffectFactoryFilter used to determine if the
 	 *                IEntityEffectFactory should be used to create an EntityEffect.
 	 * @param factory IEntityEffectFactory used to create an EntityEffect if the
@@ -68,8 +80,30 @@ public class EntityEffectLibrary {
 	 */
 	public void register(@Nonnull final IEntityEffectFactoryFilter filter,
 			@Nonnull final IEntityEffectFactory factory) {
+		register(filter, null, factory);
+	}
+
+	/**
+	 * Registers an IEntityEffectFactory with a class level filter as well as a
+	 * per-entity filter. The class level filter is cached as described above. The
+	 * entity filter, if provided, is evaluated each time a handler is created for
+	 * an entity that passes the class level filter.
+	 *
+	 * @param filter       IEntityEffectFactoryFilter evaluated once per entity
+	 *                     class and EntityEffectInfo.
+	 * @param entityFilter IEntityEffectFactoryFilter evaluated per entity. Can be
+	 *                     null.
+	 * @param factory      IEntityEffectFactory used to create an EntityEffect if
+	 *                     the filters return true.
+	 */
+	public void register(@Nonnull final IEntityEffectFactoryFilter filter,
+			@Nullable final IEntityEffectFactoryFilter entityFilter, @Nonnull final IEntityEffectFactory factory) {
+		if (this.factories.size() == MAX_FACTORIES)
+			throw new IllegalStateException("Too many entity effect factories registered (max " + MAX_FACTORIES + ")");
 		this.filters.add(filter);
+		this.entityFilters.add(entityFilter);
 		this.factories.add(factory);
+		this.archetypes.clear();
 	}
 
 	/**
@@ -82,24 +116,60 @@ public class EntityEffectLibrary {
 	 */
 	@Nonnull
 	public Optional<EntityEffectHandler> create(@Nonnull final Entity entity) {
-		final ObjectArray<EntityEffect> effectToApply = new ObjectArray<>();
-
 		final EntityEffectInfo eei = RegistryManager.EFFECTS.getEffects(entity);
-		for (int i = 0; i < this.filters.size(); i++)
-			if (this.filters.get(i).applies(entity, eei)) {
-				final List<EntityEffect> r = this.factories.get(i).create(entity);
-				effectToApply.addAll(r);
+		final long mask = getArchetype(entity, eei).mask;
+
+		if (mask != 0) {
+			final ObjectArray<EntityEffect> effectToApply = new ObjectArray<>(Long.bitCount(mask));
+			for (long m = mask; m != 0; m &= m - 1) {
+				final int i = Long.numberOfTrailingZeros(m);
+				final IEntityEffectFactoryFilter ef = this.entityFilters.get(i);
+				if (ef == null || ef.applies(entity, eei)) {
+					final List<EntityEffect> r = this.factories.get(i).create(entity);
+					effectToApply.addAll(r);
+				}
 			}
 
-		final EntityEffectHandler result;
-		if (effectToApply.size() > 0) {
-			result = new EntityEffectHandler(entity, effectToApply, this.particleHelper, this.soundHelper);
-		} else {
-			// No effects. Return a dummy handler.
-			result = new EntityEffectHandler.Dummy(entity);
+			if (effectToApply.size() > 0)
+				return Optional.of(
+						new EntityEffectHandler(entity, effectToApply, this.particleHelper, this.soundHelper));
 		}
 
-		return Optional.of(result);
+		// No effects. Return a dummy handler.
+		return Optional.of(new EntityEffectHandler.Dummy(entity));
+	}
+
+	/*
+	 * Gets the archetype for the entity's class, building it if needed. The
+	 * EntityEffectInfo is part of the key; a registry reload hands out new info
+	 * instances so stale archetypes get rebuilt the next time they are seen.
+	 */
+	@Nonnull
+	protected Archetype getArchetype(@Nonnull final Entity entity, @Nonnull final EntityEffectInfo eei) {
+		Archetype a = this.archetypes.get(entity.getClass());
+		if (a == null || a.info != eei) {
+			long mask = 0;
+			for (int i = 0; i < this.filters.size(); i++)
+				if (this.filters.get(i).applies(entity, eei))
+					mask |= 1L << i;
+			this.archetypes.put(entity.getClass(), a = new Archetype(eei, mask));
+		}
+		return a;
+	}
+
+	/*
+	 * The set of factories that apply to a given entity class and
+	 * EntityEffectInfo.
+	 */
+	protected static final class Archetype {
+
+		public final EntityEffectInfo info;
+		public final long mask;
+
+		public Archetype(@Nonnull final EntityEffectInfo info, final long mask) {
+			this.info = info;
+			this.mask = mask;
+		}
 	}
 
 }
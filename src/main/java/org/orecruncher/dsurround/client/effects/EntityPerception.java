@@ -0,0 +1,216 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.client.effects;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.dsurround.capabilities.CapabilitySeasonInfo;
+import org.orecruncher.dsurround.capabilities.season.ISeasonInfo;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * What the client knows about an entity subject for the current tick. The
+ * EntityEffectHandler refreshes it once per tick before running its effects
+ * so that the effects can share the answers rather than each going to the
+ * world. Cheap facts are gathered up front. Expensive ones are filled in on
+ * first use and then held for a number of ticks, with the refresh staggered
+ * by entity ID so that a crowd of entities does not refresh on the same tick.
+ */
+@SideOnly(Side.CLIENT)
+public final class EntityPerception {
+
+	public enum DistanceBand {
+		NEAR(16), MEDIUM(32), FAR(64), REMOTE(Integer.MAX_VALUE);
+
+		private final double rangeSq;
+
+		DistanceBand(final int range) {
+			this.rangeSq = (double) range * range;
+		}
+
+		@Nonnull
+		public static DistanceBand of(final double distanceSq) {
+			for (final DistanceBand band : values())
+				if (distanceSq <= band.rangeSq)
+					return band;
+			return REMOTE;
+		}
+	}
+
+	// How long, in ticks, the expensive facts are held before refresh
+	private static final int SIGHT_INTERVAL = 4;
+	private static final int LIGHT_INTERVAL = 10;
+	private static final int TEMPERATURE_INTERVAL = 20;
+
+	private final BlockPos.MutableBlockPos headPos = new BlockPos.MutableBlockPos();
+	private final int stagger;
+
+	// Only held for the duration of a tick
+	private Entity entity;
+	private EntityPlayer player;
+
+	private long tick;
+	private double distanceSq = Double.MAX_VALUE;
+	private DistanceBand band = DistanceBand.REMOTE;
+
+	private long headTick = -1;
+	private IBlockState headBlock = Blocks.AIR.getDefaultState();
+
+	private long sightExpiry = -1;
+	private boolean canBeSeen;
+
+	private long lightExpiry = -1;
+	private int light;
+
+	private long temperatureExpiry = -1;
+	private float temperature;
+	private boolean frostBreath;
+
+	public EntityPerception(@Nonnull final Entity entity) {
+		this.stagger = entity.getEntityId() & 0xFF;
+	}
+
+	/**
+	 * Sets up the snapshot for the tick. Called by the EntityEffectHandler prior
+	 * to updating its effects.
+	 */
+	void begin(@Nonnull final Entity entity, @Nonnull final EntityPlayer player, final long tick) {
+		this.entity = entity;
+		this.player = player;
+		this.tick = tick;
+		this.distanceSq = entity.getDistanceSq(player);
+		this.band = DistanceBand.of(this.distanceSq);
+	}
+
+	/**
+	 * Drops the references taken at the start of the tick so that the snapshot
+	 * does not keep the subject alive.
+	 */
+	void end() {
+		this.entity = null;
+		this.player = null;
+	}
+
+	private long expiry(final int interval) {
+		// The first refresh lands on a phase determined by the entity so that
+		// later ones stay spread out.
+		return this.tick + interval - ((this.tick + this.stagger) % interval);
+	}
+
+	/**
+	 * Square of the distance between the subject and the player.
+	 */
+	public double getDistanceSq() {
+		return this.distanceSq;
+	}
+
+	@Nonnull
+	public DistanceBand getDistanceBand() {
+		return this.band;
+	}
+
+	/**
+	 * Block state at the eye level of the subject.
+	 */
+	@Nonnull
+	public IBlockState getHeadBlock() {
+		if (this.headTick != this.tick && this.entity != null) {
+			this.headTick = this.tick;
+			this.headPos.setPos(this.entity.posX, this.entity.posY + this.entity.getEyeHeight(), this.entity.posZ);
+			this.headBlock = this.entity.getEntityWorld().getBlockState(this.headPos);
+		}
+		return this.headBlock;
+	}
+
+	/**
+	 * Indicates if the head of the subject is in a liquid.
+	 */
+	public boolean isSubmerged() {
+		return getHeadBlock().getMaterial().isLiquid();
+	}
+
+	/**
+	 * Indicates if the player can see the subject. The player can always see
+	 * itself unless in spectator mode.
+	 */
+	public boolean canBeSeen() {
+		if (this.tick >= this.sightExpiry && this.entity != null) {
+			this.sightExpiry = expiry(SIGHT_INTERVAL);
+			if (this.entity == this.player)
+				this.canBeSeen = !this.player.isSpectator();
+			else
+				this.canBeSeen = !this.entity.isInvisibleToPlayer(this.player)
+						&& this.player.canEntityBeSeen(this.entity);
+		}
+		return this.canBeSeen;
+	}
+
+	/**
+	 * Combined sky and block light at the position of the subject.
+	 */
+	public int getLight() {
+		if (this.tick >= this.lightExpiry && this.entity != null) {
+			this.lightExpiry = expiry(LIGHT_INTERVAL);
+			this.light = this.entity.getEntityWorld().getCombinedLight(this.entity.getPosition(), 0);
+		}
+		return this.light;
+	}
+
+	/**
+	 * Temperature at the position of the subject as adjusted by the season.
+	 */
+	public float getTemperature() {
+		updateTemperature();
+		return this.temperature;
+	}
+
+	/**
+	 * Indicates if the temperature at the position of the subject is low enough
+	 * for breath to be visible.
+	 */
+	public boolean showFrostBreath() {
+		updateTemperature();
+		return this.frostBreath;
+	}
+
+	private void updateTemperature() {
+		if (this.tick >= this.temperatureExpiry && this.entity != null) {
+			this.temperatureExpiry = expiry(TEMPERATURE_INTERVAL);
+			final World world = this.entity.getEntityWorld();
+			final BlockPos pos = this.entity.getPosition();
+			final ISeasonInfo season = CapabilitySeasonInfo.getCapability(world);
+			this.temperature = season.getTemperature(pos);
+			this.frostBreath = season.showFrostBreath(pos);
+		}
+	}
+
+}
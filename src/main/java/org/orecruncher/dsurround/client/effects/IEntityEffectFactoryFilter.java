@@ -33,8 +33,9 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 
 /**
  * An IEntityEffectFactoryFilter is used by the EntityEffectLibrary to determine
- * if a particular EntityEffect would be applied to an Entity.
- *
+ * if a particular EntityEffect would be applied to an Entity. Filters passed
+ * as the class level filter are evaluated once per entity class and the result
+ * is cached, so they should not depend on the state of an individual Entity.
  */
 @SideOnly(Side.CLIENT)
 @FunctionalInterface
@@ -23,6 +23,8 @@
  */
 package org.orecruncher.dsurround.client.effects;
 
+import javax.annotation.Nonnull;
+
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
@@ -40,4 +42,13 @@ public interface IEntityEffectHandlerState extends IEntityEffectState {
 	 */
 	boolean isAlive();
 
+	/**
+	 * What is known about the subject for the current tick. Effects should use
+	 * this rather than query the world for the same information.
+	 *
+	 * @return Perception snapshot for the subject
+	 */
+	@Nonnull
+	EntityPerception getPerception();
+
 }
@@ -46,6 +46,7 @@ import org.orecruncher.dsurround.registry.footstep.Variator;
 import org.orecruncher.dsurround.registry.sound.SoundRegistry;
 import org.orecruncher.lib.TimeUtils;
 import org.orecruncher.lib.chunk.ClientChunkCache;
+import org.orecruncher.lib.chunk.IBlockAccessEx;
 import org.orecruncher.lib.collections.ObjectArray;
 import org.orecruncher.lib.compat.EntityLivingBaseUtil;
 import org.orecruncher.lib.compat.EntityUtil;
@@ -63,6 +64,12 @@ import net.minecraft.world.World;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
+/**
+ * Works out the footsteps, jumps and landings of an entity from how it moves
+ * each tick. The world, the clock, and where sounds and accents go are reached
+ * through protected methods so the generator can be driven without a running
+ * client.
+ */
 @SideOnly(Side.CLIENT)
 public class Generator {
 
@@ -116,9 +123,14 @@ public class Generator {
 	protected final SoundPlayer soundPlayer;
 
 	public Generator(@Nonnull final Variator var) {
+		this(var, RegistryManager.FOOTSTEPS.getBlockMap(), new SoundPlayer(var.VOLUME_SCALE));
+	}
+
+	protected Generator(@Nonnull final Variator var, @Nonnull final BlockMap blockMap,
+			@Nonnull final SoundPlayer soundPlayer) {
 		this.VAR = var;
-		this.blockMap = RegistryManager.FOOTSTEPS.getBlockMap();
-		this.soundPlayer = new SoundPlayer(this.VAR.VOLUME_SCALE);
+		this.blockMap = blockMap;
+		this.soundPlayer = soundPlayer;
 	}
 
 	public int getPedometer() {
@@ -148,9 +160,6 @@ public class Generator {
 		simulateAirborne(entity);
 		simulateBrushes(entity);
 
-		// Flush!
-		this.soundPlayer.think();
-
 		if (this.footprints.size() > 0) {
 			this.footprints.forEach(GENERATE_PRINT);
 			this.footprints.clear();
@@ -165,6 +174,28 @@ public class Generator {
 					null);
 		}
 
+		updateStepDistance(entity);
+	}
+
+	/**
+	 * Block access used to work out what the entity is walking on.
+	 */
+	@Nonnull
+	protected IBlockAccessEx getWorld() {
+		return ClientChunkCache.instance();
+	}
+
+	/**
+	 * Clock used to time immobility and brushes, in milliseconds.
+	 */
+	protected long currentTimeMillis() {
+		return TimeUtils.currentTimeMillis();
+	}
+
+	/**
+	 * Keeps vanilla from playing its own step sounds while ours are audible.
+	 */
+	protected void updateStepDistance(@Nonnull final EntityLivingBase entity) {
 		if (SoundEngine.getVolume(SoundRegistry.FOOTSTEPS) > 0) {
 			EntityUtil.setNextStepDistance(entity, Integer.MAX_VALUE);
 		} else {
@@ -175,7 +206,7 @@ public class Generator {
 	}
 
 	protected boolean stoppedImmobile(float reference) {
-		final long current = TimeUtils.currentTimeMillis();
+		final long current = currentTimeMillis();
 		final float diff = this.lastReference - reference;
 		this.lastReference = reference;
 		if (!this.isImmobile && diff == 0f) {
@@ -345,7 +376,7 @@ public class Generator {
 	}
 
 	protected void simulateBrushes(@Nonnull final EntityLivingBase entity) {
-		final long current = TimeUtils.currentTimeMillis();
+		final long current = currentTimeMillis();
 		if (current >= this.brushesTime) {
 			this.brushesTime = current + BRUSH_INTERVAL;
 			if (proceedWithStep() && (entity.motionX != 0d || entity.motionZ != 0d)) {
@@ -421,10 +452,7 @@ public class Generator {
 		final FootStrikeLocation loc = new FootStrikeLocation(entity, xx, minY - PROBE_DEPTH - verticalOffsetAsMinus,
 				zz);
 
-		final AcousticResolver resolver = new AcousticResolver(ClientChunkCache.instance(), this.blockMap, loc,
-				this.VAR.DISTANCE_TO_CENTER);
-
-		final Association result = addSoundOverlay(entity, resolver.findAssociationForEvent());
+		final Association result = addSoundOverlay(entity, createResolver(loc).findAssociationForEvent());
 
 		// It is possible that the association has no position, so it
 		// needs to be checked.
@@ -443,6 +471,11 @@ public class Generator {
 		return result;
 	}
 
+	@Nonnull
+	protected AcousticResolver createResolver(@Nonnull final FootStrikeLocation loc) {
+		return new AcousticResolver(getWorld(), this.blockMap, loc, this.VAR.DISTANCE_TO_CENTER);
+	}
+
 	/**
 	 * Play special sounds that must stop the usual footstep figuring things out
 	 * process.
@@ -476,7 +509,7 @@ public class Generator {
 			@Nonnull final BlockPos pos) {
 		Association result = null;
 		final BlockPos up = pos.up();
-		final IBlockState above = ClientChunkCache.instance().getBlockState(up);
+		final IBlockState above = getWorld().getBlockState(up);
 
 		if (above != Blocks.AIR.getDefaultState()) {
 			IAcoustic[] acoustics = this.blockMap.getBlockAcoustics(above, Substrate.MESSY);
@@ -501,7 +534,7 @@ public class Generator {
 		if (entity.onGround) {
 			accents.clear();
 			final BlockPos pos = assoc != null ? assoc.getStepPos() : null;
-			FootstepAccents.provide(entity, pos, accents);
+			provideAccents(entity, pos, accents);
 			if (accents.size() > 0) {
 				if (assoc == null)
 					assoc = new Association(entity, accents.toArray(new IAcoustic[0]));
@@ -513,6 +546,14 @@ public class Generator {
 		return assoc;
 	}
 
+	/**
+	 * Gathers the accents, like armor or rain splashes, to play along with a step.
+	 */
+	protected void provideAccents(@Nonnull final EntityLivingBase entity, @Nullable final BlockPos pos,
+			@Nonnull final ObjectArray<IAcoustic> accents) {
+		FootstepAccents.provide(entity, pos, accents);
+	}
+
 	@Override
 	public String toString() {
 		final StringBuilder builder = new StringBuilder();
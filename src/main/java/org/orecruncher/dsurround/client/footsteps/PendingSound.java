@@ -33,38 +33,53 @@ import net.minecraft.util.math.Vec3d;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
+/**
+ * A sound waiting in the PendingSoundQueue. Instances are pooled by the queue
+ * and reused once the sound has been played or dropped.
+ */
 @SideOnly(Side.CLIENT)
 public class PendingSound {
 
 	private static final float LATENESS_SLACK_FACTOR = 1.2f;
 
-	private final Vec3d location;
-	private final SoundEvent sound;
-	private final float volume;
-	private final float pitch;
-	private final long timeToPlay;
-	private final long maximum;
-	private final float lateTolerance;
+	ISoundPlayer player;
+	Vec3d location;
+	SoundEvent sound;
+	float volume;
+	float pitch;
+	long timeToPlay;
+	long maximum;
+	float lateTolerance;
+	long sequence;
+
+	PendingSound() {
+		// Created by the queue
+	}
 
-	public PendingSound(@Nonnull final Vec3d location, @Nonnull final SoundEvent sound, final float volume,
-			final float pitch, final long timeToPlay, final long maximum) {
+	void init(@Nonnull final ISoundPlayer player, @Nonnull final Vec3d location, @Nonnull final SoundEvent sound,
+			final float volume, final float pitch, final long timeToPlay, final long maximum, final long sequence) {
+		this.player = player;
 		this.location = location;
 		this.sound = sound;
 		this.volume = volume;
 		this.pitch = pitch;
-
 		this.timeToPlay = timeToPlay;
 		this.maximum = maximum;
 		this.lateTolerance = maximum * LATENESS_SLACK_FACTOR;
+		this.sequence = sequence;
+	}
+
+	void release() {
+		this.player = null;
+		this.location = null;
+		this.sound = null;
 	}
 
 	/**
 	 * Play the sound stored in this pending sound.
-	 *
-	 * @param player
 	 */
-	public void playSound(@Nonnull final ISoundPlayer player) {
-		player.playSound(this.location, this.sound, this.volume, this.pitch, null);
+	public void playSound() {
+		this.player.playSound(this.location, this.sound, this.volume, this.pitch, null);
 	}
 
 	/**
@@ -101,4 +116,11 @@ public class PendingSound {
 		return time - this.timeToPlay;
 	}
 
-}
\ No newline at end of file
+	// Earliest deadline first; sounds due at the same time go in the order queued
+	boolean before(@Nonnull final PendingSound other) {
+		if (this.timeToPlay != other.timeToPlay)
+			return this.timeToPlay < other.timeToPlay;
+		return this.sequence < other.sequence;
+	}
+
+}
@@ -0,0 +1,195 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.footsteps;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.orecruncher.dsurround.registry.acoustics.ISoundPlayer;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.util.SoundEvent;
+import net.minecraft.util.math.Vec3d;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Delayed sounds for the footstep system, shared by all the SoundPlayers. Sounds
+ * are kept in a binary heap ordered by the time they are to play, with ties
+ * going in the order they were queued, and the entries are pooled so steady
+ * state queueing does not allocate.
+ *
+ * Time is whatever the caller says it is; nothing in here reads a clock, so the
+ * ordering and the lateness rules can be exercised with a fake one. When a sound
+ * comes due it is played unless the current time is past its deadline by more
+ * than its late tolerance, in which case it is dropped. A sound queued with a
+ * negative maximum delay is never dropped.
+ */
+@SideOnly(Side.CLIENT)
+public final class PendingSoundQueue {
+
+	private final ObjectArrayList<PendingSound> pool = new ObjectArrayList<>();
+	private PendingSound[] heap = new PendingSound[32];
+	private int size;
+	private long sequence;
+	private int played;
+	private int dropped;
+
+	/**
+	 * Queues a sound.
+	 *
+	 * @param player     Player that will play the sound when it comes due
+	 * @param location   Location of the sound
+	 * @param sound      Sound to play
+	 * @param volume     Volume of the sound
+	 * @param pitch      Pitch of the sound
+	 * @param timeToPlay Time at which the sound is to be played
+	 * @param maximum    Maximum delay the sound was queued with; used to determine
+	 *                   how late the sound can be before it is dropped
+	 */
+	public void add(@Nonnull final ISoundPlayer player, @Nonnull final Vec3d location,
+			@Nonnull final SoundEvent sound, final float volume, final float pitch, final long timeToPlay,
+			final long maximum) {
+		final PendingSound entry = this.pool.isEmpty() ? new PendingSound() : this.pool.pop();
+		entry.init(player, location, sound, volume, pitch, timeToPlay, maximum, this.sequence++);
+
+		if (this.size == this.heap.length)
+			this.heap = Arrays.copyOf(this.heap, this.size * 2);
+		this.heap[this.size] = entry;
+		siftUp(this.size++);
+	}
+
+	/**
+	 * Plays, or drops, every sound that is due as of the time specified.
+	 *
+	 * @param time Current time
+	 * @return Number of sounds that came due
+	 */
+	public int process(final long time) {
+		int count = 0;
+		while (this.size > 0 && this.heap[0].getTimeToPlay() <= time) {
+			final PendingSound entry = this.heap[0];
+			removeTop();
+			count++;
+			if (entry.isLate(time)) {
+				this.dropped++;
+			} else {
+				this.played++;
+				entry.playSound();
+			}
+			entry.release();
+			this.pool.push(entry);
+		}
+		return count;
+	}
+
+	/**
+	 * Time at which the next sound comes due, or Long.MAX_VALUE if there is
+	 * nothing queued.
+	 */
+	public long nextTime() {
+		return this.size > 0 ? this.heap[0].getTimeToPlay() : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Entry that comes due next, or null if there is nothing queued.
+	 */
+	@Nullable
+	PendingSound peek() {
+		return this.size > 0 ? this.heap[0] : null;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Number of sounds played since the queue was created.
+	 */
+	public int getPlayed() {
+		return this.played;
+	}
+
+	/**
+	 * Number of sounds dropped for being late since the queue was created.
+	 */
+	public int getDropped() {
+		return this.dropped;
+	}
+
+	/**
+	 * Drops everything in the queue without playing it.
+	 */
+	public void clear() {
+		for (int i = 0; i < this.size; i++) {
+			this.heap[i].release();
+			this.pool.push(this.heap[i]);
+			this.heap[i] = null;
+		}
+		this.size = 0;
+	}
+
+	private void removeTop() {
+		final int last = --this.size;
+		this.heap[0] = this.heap[last];
+		this.heap[last] = null;
+		if (last > 0)
+			siftDown(0);
+	}
+
+	private void siftUp(int idx) {
+		final PendingSound entry = this.heap[idx];
+		while (idx > 0) {
+			final int parent = (idx - 1) >>> 1;
+			if (!entry.before(this.heap[parent]))
+				break;
+			this.heap[idx] = this.heap[parent];
+			idx = parent;
+		}
+		this.heap[idx] = entry;
+	}
+
+	private void siftDown(int idx) {
+		final PendingSound entry = this.heap[idx];
+		final int half = this.size >>> 1;
+		while (idx < half) {
+			int child = (idx << 1) + 1;
+			final int right = child + 1;
+			if (right < this.size && this.heap[right].before(this.heap[child]))
+				child = right;
+			if (!this.heap[child].before(entry))
+				break;
+			this.heap[idx] = this.heap[child];
+			idx = child;
+		}
+		this.heap[idx] = entry;
+	}
+}
@@ -31,29 +31,47 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import org.orecruncher.dsurround.ModBase;
+import org.orecruncher.dsurround.ModInfo;
 import org.orecruncher.dsurround.ModOptions.Trace;
 import org.orecruncher.dsurround.client.handlers.SoundEffectHandler;
 import org.orecruncher.dsurround.client.sound.SoundBuilder;
 import org.orecruncher.dsurround.client.sound.SoundInstance;
+import org.orecruncher.dsurround.event.DiagnosticEvent;
+import org.orecruncher.dsurround.registry.RegistryManager;
 import org.orecruncher.dsurround.registry.acoustics.EventType;
 import org.orecruncher.dsurround.registry.acoustics.IAcoustic;
 import org.orecruncher.dsurround.registry.acoustics.IOptions;
 import org.orecruncher.dsurround.registry.acoustics.ISoundPlayer;
 import org.orecruncher.dsurround.registry.sound.SoundRegistry;
-import org.orecruncher.lib.TimeUtils;
-import org.orecruncher.lib.collections.ObjectArray;
 import org.orecruncher.lib.random.XorShiftRandom;
 
+import net.minecraft.client.Minecraft;
 import net.minecraft.util.SoundEvent;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.text.TextFormatting;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 @SideOnly(Side.CLIENT)
+@EventBusSubscriber(value = Side.CLIENT, modid = ModInfo.MOD_ID)
 public class SoundPlayer implements ISoundPlayer {
 
+	private static final double MILLIS_PER_TICK = 50D;
+
+	// Delayed sounds for all the players. Timed against a clock that only
+	// advances while the game is running so a pause or a hitch in the system
+	// clock does not cause a burst of sounds, or sounds to be skipped.
+	private static final PendingSoundQueue pending = new PendingSoundQueue();
+	private static int ticks;
+	private static long clock;
+
 	protected final Random random = XorShiftRandom.current();
-	protected final ObjectArray<PendingSound> pending = new ObjectArray<>();
 	protected final float scale;
 
 	public SoundPlayer(final float volumeScale) {
@@ -76,7 +94,8 @@ public class SoundPlayer implements ISoundPlayer {
 			@Nonnull final EventType event, @Nullable final IOptions inputOptions) {
 		if (acoustics != null && acoustics.length > 0) {
 			logAcousticPlay(acoustics, event);
-			for (IAcoustic acoustic : acoustics) acoustic.playSound(this, location, event, inputOptions);
+			for (final IAcoustic acoustic : acoustics)
+				RegistryManager.ACOUSTICS.getProgram(acoustic).execute(this, location, event, inputOptions);
 		}
 	}
 
@@ -85,9 +104,8 @@ public class SoundPlayer implements ISoundPlayer {
 			final float pitch, @Nullable final IOptions options) {
 		// If it is a delayed sound queue it up. Otherwise play it.
 		if (options != null && options.isDelayedSound()) {
-			final long delay = TimeUtils.currentTimeMillis()
-					+ randAB(this.random, options.getDelayMin(), options.getDelayMax());
-			this.pending.add(new PendingSound(location, sound, volume, pitch, delay, options.getDelayMax()));
+			final long delay = clock + randAB(this.random, options.getDelayMin(), options.getDelayMax());
+			pending.add(this, location, sound, volume, pitch, delay, options.getDelayMax());
 		} else {
 			actuallyPlaySound(location, sound, volume, pitch);
 		}
@@ -109,17 +127,43 @@ public class SoundPlayer implements ISoundPlayer {
 		return this.random;
 	}
 
-	public void think() {
-		final long time = TimeUtils.currentTimeMillis();
-
-		this.pending.removeIf(sound -> {
-			if (sound.getTimeToPlay() <= time) {
-				if (!sound.isLate(time))
-					sound.playSound(this);
-				return true;
-			}
-			return false;
-		});
+	/**
+	 * Game time in milliseconds, interpolated between ticks. Does not advance
+	 * while the game is paused and never goes backwards.
+	 */
+	private static long updateClock() {
+		final Minecraft mc = Minecraft.getMinecraft();
+		if (!mc.isGamePaused()) {
+			final long now = (long) ((ticks + (double) mc.getRenderPartialTicks()) * MILLIS_PER_TICK);
+			if (now > clock)
+				clock = now;
+		}
+		return clock;
+	}
+
+	@SubscribeEvent
+	public static void onClientTick(@Nonnull final TickEvent.ClientTickEvent event) {
+		if (event.phase == Phase.START && !Minecraft.getMinecraft().isGamePaused())
+			ticks++;
+		pending.process(updateClock());
+	}
+
+	@SubscribeEvent
+	public static void onRenderTick(@Nonnull final TickEvent.RenderTickEvent event) {
+		if (event.phase == Phase.START)
+			pending.process(updateClock());
+	}
+
+	@SubscribeEvent
+	public static void onWorldUnload(@Nonnull final WorldEvent.Unload event) {
+		if (event.getWorld().isRemote)
+			pending.clear();
+	}
+
+	@SubscribeEvent(priority = EventPriority.LOW)
+	public static void diagnostics(@Nonnull final DiagnosticEvent.Gather event) {
+		event.output.add(TextFormatting.AQUA + "Footsteps  : " + pending.size() + " pending (" + pending.getPlayed()
+				+ " played, " + pending.getDropped() + " dropped)");
 	}
 
 	private long randAB(@Nonnull final Random rng, final long a, final long b) {
@@ -23,11 +23,13 @@
 
 package org.orecruncher.dsurround.client.footsteps.facade;
 
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
@@ -50,9 +52,16 @@ final class EnderIOFacadeAccessor extends FacadeAccessor {
 		return this.IFacadeClass.getMethod(method, IBlockState.class, IBlockAccess.class, BlockPos.class);
 	}
 
+	@Override
+	@Nonnull
+	protected MethodType getHandleType() {
+		return MethodType.methodType(IBlockState.class, Block.class, IBlockState.class, IBlockAccess.class,
+				BlockPos.class);
+	}
+
 	@Override
 	protected IBlockState call(@Nonnull final IBlockState state, @Nonnull final IBlockAccess world,
 			@Nonnull final BlockPos pos, @Nullable final EnumFacing side) throws Throwable {
-		return (IBlockState) this.accessor.invoke(state.getBlock(), state, world, pos);
+		return (IBlockState) this.accessor.invokeExact(state.getBlock(), state, world, pos);
 	}
 }
@@ -22,6 +22,9 @@
  */
 package org.orecruncher.dsurround.client.footsteps.facade;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 
 import javax.annotation.Nonnull;
@@ -39,16 +42,21 @@ import net.minecraft.world.IBlockAccess;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
+/**
+ * Accessor for mods that expose the facade state through a method on the
+ * block. The method is looked up once and bound as a method handle so the
+ * per footstep call does not go through reflection.
+ */
 @SideOnly(Side.CLIENT)
 class FacadeAccessor implements IFacadeAccessor {
 
 	protected Class<?> IFacadeClass;
-	protected Method accessor;
+	protected MethodHandle accessor;
 
 	public FacadeAccessor(@Nonnull final String clazz, @Nonnull final String method) {
 		try {
 			this.IFacadeClass = Class.forName(clazz);
-			this.accessor = getMethod(method);
+			this.accessor = MethodHandles.publicLookup().unreflect(getMethod(method)).asType(getHandleType());
 		} catch (@Nonnull final Throwable t) {
 			this.IFacadeClass = null;
 			this.accessor = null;
@@ -92,9 +100,19 @@ class FacadeAccessor implements IFacadeAccessor {
 		return this.IFacadeClass.getMethod(method, IBlockAccess.class, BlockPos.class, EnumFacing.class);
 	}
 
+	/**
+	 * Type the method handle is adapted to. The receiver is widened to Block so
+	 * that call() can use invokeExact.
+	 */
+	@Nonnull
+	protected MethodType getHandleType() {
+		return MethodType.methodType(IBlockState.class, Block.class, IBlockAccess.class, BlockPos.class,
+				EnumFacing.class);
+	}
+
 	protected IBlockState call(@Nonnull final IBlockState state, @Nonnull final IBlockAccess world,
 			@Nonnull final BlockPos pos, @Nullable final EnumFacing side) throws Throwable {
-		return (IBlockState) this.accessor.invoke(state.getBlock(), world, pos, side);
+		return (IBlockState) this.accessor.invokeExact(state.getBlock(), world, pos, side);
 	}
 
 }
@@ -0,0 +1,134 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.footsteps.facade;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Remembers the state a facade resolved to keyed by block position and side.
+ * Each entry also records the state it was resolved from so that a block that
+ * changed without an update reaching the cache is never served a stale
+ * result.
+ */
+@SideOnly(Side.CLIENT)
+final class FacadeCache {
+
+	// Entries are dropped wholesale if the cache grows past this
+	private static final int MAX_ENTRIES = 4096;
+
+	// One map per side plus one for lookups that do not specify a side
+	private static final int NO_SIDE = EnumFacing.VALUES.length;
+
+	private static final class Entry {
+		public final IBlockState source;
+		public final IBlockState resolved;
+
+		public Entry(@Nonnull final IBlockState source, @Nonnull final IBlockState resolved) {
+			this.source = source;
+			this.resolved = resolved;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private final Long2ObjectOpenHashMap<Entry>[] sides = new Long2ObjectOpenHashMap[NO_SIDE + 1];
+	private int size;
+
+	public FacadeCache() {
+		for (int i = 0; i < this.sides.length; i++)
+			this.sides[i] = new Long2ObjectOpenHashMap<>();
+	}
+
+	private static int index(@Nullable final EnumFacing side) {
+		return side == null ? NO_SIDE : side.getIndex();
+	}
+
+	/**
+	 * Returns the cached resolution for the state at the position, or null if
+	 * there is nothing cached or the block has since changed.
+	 */
+	@Nullable
+	public IBlockState get(final long pos, @Nullable final EnumFacing side, @Nonnull final IBlockState state) {
+		final Entry entry = this.sides[index(side)].get(pos);
+		return entry != null && entry.source == state ? entry.resolved : null;
+	}
+
+	public void put(final long pos, @Nullable final EnumFacing side, @Nonnull final IBlockState state,
+			@Nonnull final IBlockState resolved) {
+		if (this.size >= MAX_ENTRIES)
+			clear();
+		if (this.sides[index(side)].put(pos, new Entry(state, resolved)) == null)
+			this.size++;
+	}
+
+	/**
+	 * Drops everything cached for the position regardless of side.
+	 */
+	public void invalidate(final long pos) {
+		if (this.size == 0)
+			return;
+		for (final Long2ObjectOpenHashMap<Entry> map : this.sides)
+			if (map.remove(pos) != null)
+				this.size--;
+	}
+
+	/**
+	 * Drops everything cached for positions within the chunk.
+	 */
+	public void invalidateChunk(final int chunkX, final int chunkZ) {
+		if (this.size == 0)
+			return;
+		for (final Long2ObjectOpenHashMap<Entry> map : this.sides) {
+			final ObjectIterator<Long2ObjectMap.Entry<Entry>> itr = map.long2ObjectEntrySet().fastIterator();
+			while (itr.hasNext()) {
+				final BlockPos pos = BlockPos.fromLong(itr.next().getLongKey());
+				if ((pos.getX() >> 4) == chunkX && (pos.getZ() >> 4) == chunkZ) {
+					itr.remove();
+					this.size--;
+				}
+			}
+		}
+	}
+
+	public void clear() {
+		for (final Long2ObjectOpenHashMap<Entry> map : this.sides)
+			map.clear();
+		this.size = 0;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+}
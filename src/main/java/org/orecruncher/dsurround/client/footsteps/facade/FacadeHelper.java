@@ -25,29 +25,32 @@ package org.orecruncher.dsurround.client.footsteps.facade;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import org.orecruncher.dsurround.ModBase;
+import org.orecruncher.dsurround.event.BlockUpdateEvent;
 import org.orecruncher.dsurround.lib.compat.ModEnvironment;
 
-import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.EntityLivingBase;
-import net.minecraft.init.Blocks;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.IBlockAccess;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 @SideOnly(Side.CLIENT)
 public final class FacadeHelper {
 
-	private static final Map<Block, IFacadeAccessor> crackers = new Reference2ObjectOpenHashMap<>();
+	// Built on first use so that every mod has had a chance to register its
+	// blocks. The event handlers below can fire before that happens.
+	private static FacadeResolver resolver;
 
 	private static void addAccessor(@Nonnull final List<IFacadeAccessor> accessors,
 			@Nonnull final IFacadeAccessor accessor) {
@@ -57,7 +60,8 @@ public final class FacadeHelper {
 		}
 	}
 
-	static {
+	@Nonnull
+	private static FacadeResolver createResolver() {
 
 		final List<IFacadeAccessor> accessors = new ArrayList<>();
 
@@ -77,18 +81,7 @@ public final class FacadeHelper {
 		// Last hail mary - is this even supported anymore?
 		addAccessor(accessors, new ChiselFacadeAccessor());
 
-		// Iterate through the block list filling out our cracker list.
-		if (accessors.size() > 0) {
-			for (Block b : Block.REGISTRY) {
-				for (final IFacadeAccessor accessor : accessors) {
-					if (accessor.instanceOf(b)) {
-						crackers.put(b, accessor);
-						break;
-					}
-				}
-			}
-		}
-
+		return new FacadeResolver(accessors, Block.REGISTRY);
 	}
 
 	protected FacadeHelper() {
@@ -98,15 +91,27 @@ public final class FacadeHelper {
 	@Nonnull
 	public static IBlockState resolveState(@Nonnull final EntityLivingBase entity, @Nonnull final IBlockState state,
 			@Nonnull final IBlockAccess world, @Nonnull final Vec3d pos, @Nullable final EnumFacing side) {
-		if (crackers.size() > 0 && state != Blocks.AIR.getDefaultState()) {
-			final IFacadeAccessor accessor = crackers.get(state.getBlock());
-			if (accessor != null) {
-				final IBlockState newState = accessor.getBlockState(entity, state, world, pos, side);
-				if (newState != null)
-					return newState;
-			}
-		}
-		return state;
+		if (resolver == null)
+			resolver = createResolver();
+		return resolver.resolve(entity, state, world, pos, side);
+	}
+
+	@SubscribeEvent
+	public static void onBlockUpdate(@Nonnull final BlockUpdateEvent event) {
+		if (resolver != null)
+			resolver.invalidate(event.pos);
+	}
+
+	@SubscribeEvent
+	public static void onChunkUnload(@Nonnull final ChunkEvent.Unload event) {
+		if (resolver != null && event.getWorld().isRemote)
+			resolver.invalidateChunk(event.getChunk().x, event.getChunk().z);
+	}
+
+	@SubscribeEvent
+	public static void onWorldUnload(@Nonnull final WorldEvent.Unload event) {
+		if (resolver != null && event.getWorld().isRemote)
+			resolver.clear();
 	}
 
 }
@@ -0,0 +1,113 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.footsteps.facade;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.IBlockAccess;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Maps blocks to the facade accessor that handles them and caches what each
+ * position resolves to. Does not depend on any particular mod being present
+ * so it can be driven with whatever accessors are handed to it.
+ */
+@SideOnly(Side.CLIENT)
+final class FacadeResolver {
+
+	private final Map<Block, IFacadeAccessor> crackers = new Reference2ObjectOpenHashMap<>();
+	private final FacadeCache cache = new FacadeCache();
+	private final BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+
+	public FacadeResolver(@Nonnull final List<IFacadeAccessor> accessors, @Nonnull final Iterable<Block> blocks) {
+		// Order of the accessors is important - the first one that claims a
+		// block wins.
+		if (accessors.size() > 0) {
+			for (final Block b : blocks) {
+				for (final IFacadeAccessor accessor : accessors) {
+					if (accessor.instanceOf(b)) {
+						this.crackers.put(b, accessor);
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	@Nonnull
+	public IBlockState resolve(@Nonnull final EntityLivingBase entity, @Nonnull final IBlockState state,
+			@Nonnull final IBlockAccess world, @Nonnull final Vec3d pos, @Nullable final EnumFacing side) {
+		if (this.crackers.size() > 0 && state != Blocks.AIR.getDefaultState()) {
+			final IFacadeAccessor accessor = this.crackers.get(state.getBlock());
+			if (accessor != null) {
+				if (!accessor.isCacheable())
+					return resolve(accessor, entity, state, world, pos, side);
+
+				final long key = this.mutable.setPos(pos.x, pos.y, pos.z).toLong();
+				IBlockState result = this.cache.get(key, side, state);
+				if (result == null) {
+					result = resolve(accessor, entity, state, world, pos, side);
+					this.cache.put(key, side, state, result);
+				}
+				return result;
+			}
+		}
+		return state;
+	}
+
+	@Nonnull
+	private static IBlockState resolve(@Nonnull final IFacadeAccessor accessor,
+			@Nonnull final EntityLivingBase entity, @Nonnull final IBlockState state,
+			@Nonnull final IBlockAccess world, @Nonnull final Vec3d pos, @Nullable final EnumFacing side) {
+		final IBlockState newState = accessor.getBlockState(entity, state, world, pos, side);
+		return newState != null ? newState : state;
+	}
+
+	public void invalidate(@Nonnull final BlockPos pos) {
+		this.cache.invalidate(pos.toLong());
+	}
+
+	public void invalidateChunk(final int chunkX, final int chunkZ) {
+		this.cache.invalidateChunk(chunkX, chunkZ);
+	}
+
+	public void clear() {
+		this.cache.clear();
+	}
+
+}
@@ -65,6 +65,11 @@ final class ForgeMultiPartCBE implements IFacadeAccessor {
 		return true;
 	}
 
+	@Override
+	public boolean isCacheable() {
+		return false;
+	}
+
 	@Override
 	public IBlockState getBlockState(@Nonnull final EntityLivingBase entity, @Nonnull final IBlockState state,
 			@Nonnull final IBlockAccess world, @Nonnull final Vec3d vec, @Nullable final EnumFacing side) {
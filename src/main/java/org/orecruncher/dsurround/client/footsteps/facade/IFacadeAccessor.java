@@ -55,6 +55,15 @@ interface IFacadeAccessor {
 	 */
 	boolean isValid();
 
+	/*
+	 * Indicates if the result for a block position and side can be cached until
+	 * the block is updated. Accessors that depend on where within the block the
+	 * probe lands, like microblocks, should return false.
+	 */
+	default boolean isCacheable() {
+		return true;
+	}
+
 	/*
 	 * Requests the underlying IBlockState for the block. The underlying IBlockState
 	 * is what should be used when generating sound effects.
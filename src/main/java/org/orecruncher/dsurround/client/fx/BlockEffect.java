@@ -77,16 +77,26 @@ public abstract class BlockEffect implements ISpecialEffect {
 	}
 
 	/**
-	 * Determines if the effect can trigger. Classes that override this method
-	 * should make sure to call the parent last to avoid necessary CPU churn related
-	 * to the script check.
+	 * Determines if the effect can trigger. The random chance roll is made first
+	 * since it is the cheapest check, followed by the location checks.
 	 */
 	@Override
-	public boolean canTrigger(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
+	public final boolean canTrigger(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
 			@Nonnull final BlockPos pos, @Nonnull final Random random) {
 		if (!alwaysExecute() && random.nextInt(getChance()) != 0)
 			return false;
 
+		return canTriggerAt(provider, state, pos);
+	}
+
+	/**
+	 * Determines if the effect can trigger at the location, independent of the
+	 * random chance roll. Used directly by callers that perform the chance roll
+	 * themselves. Classes that override this method should make sure to call the
+	 * parent last to avoid necessary CPU churn related to the script check.
+	 */
+	public boolean canTriggerAt(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
+			@Nonnull final BlockPos pos) {
 		return ExpressionEngine.instance().check(getConditions());
 	}
 
@@ -50,20 +50,21 @@ public class BubbleJetEffect extends JetEffect {
 		return BlockEffectType.BUBBLE_JET;
 	}
 
+	public static boolean isValidSpawnBlock(@Nonnull final IBlockState state, @Nonnull final IBlockAccessEx provider,
+			@Nonnull final BlockPos pos) {
+		return state.getMaterial().isLiquid() && provider.getBlockState(pos.down()).getMaterial().isSolid();
+	}
+
 	@Override
-	public boolean canTrigger(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
-			@Nonnull final BlockPos pos, @Nonnull final Random random) {
-		if (state.getMaterial().isLiquid()) {
-			final boolean isSolidBlock = provider.getBlockState(pos.down()).getMaterial().isSolid();
-			return isSolidBlock && super.canTrigger(provider, state, pos, random);
-		}
-		return false;
+	public boolean canTriggerAt(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
+			@Nonnull final BlockPos pos) {
+		return isValidSpawnBlock(state, provider, pos) && super.canTriggerAt(provider, state, pos);
 	}
 
 	@Override
 	public void doEffect(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
 			@Nonnull final BlockPos pos, @Nonnull final Random random) {
-		final int liquidBlocks = countBlocks(provider, pos, s -> s.getMaterial().isLiquid(), 1);
+		final int liquidBlocks = LIQUID_UP.count(provider, pos);
 		if (liquidBlocks > 0) {
 			final ParticleJet effect = new ParticleBubbleJet(liquidBlocks, provider.getWorld(), pos.getX() + 0.5D,
 					pos.getY() + 0.1D, pos.getZ() + 0.5D);
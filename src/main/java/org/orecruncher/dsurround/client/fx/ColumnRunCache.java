@@ -0,0 +1,119 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.fx;
+
+import java.util.function.BiPredicate;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.lib.chunk.IBlockAccessEx;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Caches the length of vertical runs of blocks that match a predicate. The
+ * predicate is given the state of the block the run starts at as well as the
+ * state being tested, and it must hold for every block within a run when
+ * tested against any other block in the same run. This lets a single scan
+ * seed the cache for every block along the run.
+ */
+@SideOnly(Side.CLIENT)
+final class ColumnRunCache {
+
+	// Entries are dropped wholesale if the cache grows past this
+	private static final int MAX_ENTRIES = 8192;
+
+	private final BiPredicate<IBlockState, IBlockState> pred;
+	private final int step;
+	private final int limit;
+	private final Long2IntOpenHashMap runs = new Long2IntOpenHashMap();
+	private final BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+
+	public ColumnRunCache(@Nonnull final BiPredicate<IBlockState, IBlockState> pred, final int step,
+			final int limit) {
+		this.pred = pred;
+		this.step = step;
+		this.limit = limit;
+		this.runs.defaultReturnValue(-1);
+	}
+
+	/**
+	 * Gets the number of blocks in the run starting at the specified position,
+	 * capped at the limit.
+	 */
+	public int count(@Nonnull final IBlockAccessEx provider, @Nonnull final BlockPos pos) {
+		final long key = pos.toLong();
+		int count = this.runs.get(key);
+		if (count >= 0)
+			return count;
+
+		final int x = pos.getX();
+		final int z = pos.getZ();
+		final IBlockState origin = provider.getBlockState(pos);
+		count = 0;
+		for (int y = pos.getY(); count < this.limit
+				&& this.pred.test(origin, provider.getBlockState(x, y, z)); count++, y += this.step)
+			;
+
+		if (this.runs.size() >= MAX_ENTRIES)
+			this.runs.clear();
+
+		this.runs.put(key, count);
+
+		// If the run ended before the limit the length from each block along
+		// the run is known.
+		if (count < this.limit) {
+			for (int i = 1; i < count; i++) {
+				this.mutable.setPos(x, pos.getY() + i * this.step, z);
+				this.runs.put(this.mutable.toLong(), count - i);
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Drops any runs that could be affected by a change at the specified
+	 * position.
+	 */
+	public void invalidate(@Nonnull final BlockPos pos) {
+		if (this.runs.isEmpty())
+			return;
+		final int y = pos.getY();
+		for (int i = y - this.limit; i <= y + this.limit; i++) {
+			this.mutable.setPos(pos.getX(), i, pos.getZ());
+			this.runs.remove(this.mutable.toLong());
+		}
+	}
+
+	public void clear() {
+		this.runs.clear();
+	}
+
+}
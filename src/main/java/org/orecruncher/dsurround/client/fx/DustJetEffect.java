@@ -50,10 +50,15 @@ public class DustJetEffect extends JetEffect {
 		return BlockEffectType.DUST_JET;
 	}
 
+	public static boolean isValidSpawnBlock(@Nonnull final IBlockState state, @Nonnull final IBlockAccessEx provider,
+			@Nonnull final BlockPos pos) {
+		return provider.isAirBlock(pos.down());
+	}
+
 	@Override
-	public boolean canTrigger(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
-			@Nonnull final BlockPos pos, @Nonnull final Random random) {
-		return provider.isAirBlock(pos.down()) && super.canTrigger(provider, state, pos, random);
+	public boolean canTriggerAt(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
+			@Nonnull final BlockPos pos) {
+		return isValidSpawnBlock(state, provider, pos) && super.canTriggerAt(provider, state, pos);
 	}
 
 	@Override
@@ -52,12 +52,15 @@ public class FireJetEffect extends JetEffect {
 		return BlockEffectType.FIRE_JET;
 	}
 
+	public static boolean isValidSpawnBlock(@Nonnull final IBlockState state, @Nonnull final IBlockAccessEx provider,
+			@Nonnull final BlockPos pos) {
+		return (state.getMaterial().isSolid() || state.getMaterial().isLiquid()) && provider.isAirBlock(pos.up());
+	}
+
 	@Override
-	public boolean canTrigger(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
-			@Nonnull final BlockPos pos, @Nonnull final Random random) {
-		if (state.getMaterial().isSolid() || state.getMaterial().isLiquid())
-			return provider.isAirBlock(pos.up()) && super.canTrigger(provider, state, pos, random);
-		return false;
+	public boolean canTriggerAt(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
+			@Nonnull final BlockPos pos) {
+		return isValidSpawnBlock(state, provider, pos) && super.canTriggerAt(provider, state, pos);
 	}
 
 	@Override
@@ -72,7 +75,7 @@ public class FireJetEffect extends JetEffect {
 			blockCount = 2;
 			spawnHeight = pos.getY() + 1.1F;
 		} else if (blockMaterial.isLiquid()) {
-			blockCount = countBlocks(provider, pos, s -> s.getMaterial() == blockMaterial, -1);
+			blockCount = SAME_MATERIAL_DOWN.count(provider, pos);
 			spawnHeight = BlockLiquid.getLiquidHeight(state, provider, pos);
 		} else {
 			// Fail safe - shouldn't get here
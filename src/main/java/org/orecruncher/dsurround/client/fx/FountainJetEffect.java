@@ -51,9 +51,9 @@ public class FountainJetEffect extends JetEffect {
 	}
 
 	@Override
-	public boolean canTrigger(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
-			@Nonnull final BlockPos pos, @Nonnull final Random random) {
-		return provider.isAirBlock(pos.up()) && super.canTrigger(provider, state, pos, random);
+	public boolean canTriggerAt(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
+			@Nonnull final BlockPos pos) {
+		return provider.isAirBlock(pos.up()) && super.canTriggerAt(provider, state, pos);
 	}
 
 	@Override
@@ -24,14 +24,10 @@
 
 package org.orecruncher.dsurround.client.fx;
 
-import java.util.Random;
-import java.util.function.Predicate;
-
 import javax.annotation.Nonnull;
 
 import org.orecruncher.dsurround.client.fx.particle.system.ParticleJet;
 import org.orecruncher.dsurround.client.handlers.ParticleSystemHandler;
-import org.orecruncher.dsurround.expression.ExpressionEngine;
 import org.orecruncher.lib.chunk.IBlockAccessEx;
 
 import net.minecraft.block.state.IBlockState;
@@ -44,14 +40,31 @@ public abstract class JetEffect extends BlockEffect {
 
 	protected static final int MAX_STRENGTH = 10;
 
-	protected static int countBlocks(final IBlockAccessEx provider, final BlockPos pos,
-			final Predicate<IBlockState> pred, final int step) {
-		int count = 0;
-		int idx = pos.getY();
-		for (; count < MAX_STRENGTH
-				&& pred.test(provider.getBlockState(pos.getX(), idx, pos.getZ())); count++, idx += step)
-			;
-		return count;
+	/*
+	 * Column runs the jets care about. The bubble jet looks upward through
+	 * liquid, and the fire jet looks downward through the same liquid it is
+	 * sitting on.
+	 */
+	protected static final ColumnRunCache LIQUID_UP = new ColumnRunCache(
+			(origin, s) -> s.getMaterial().isLiquid(), 1, MAX_STRENGTH);
+	protected static final ColumnRunCache SAME_MATERIAL_DOWN = new ColumnRunCache(
+			(origin, s) -> s.getMaterial() == origin.getMaterial(), -1, MAX_STRENGTH);
+
+	/**
+	 * Drops cached column data affected by a block change at the specified
+	 * position.
+	 */
+	public static void invalidateColumn(@Nonnull final BlockPos pos) {
+		LIQUID_UP.invalidate(pos);
+		SAME_MATERIAL_DOWN.invalidate(pos);
+	}
+
+	/**
+	 * Drops all cached column data, such as when the player changes dimension.
+	 */
+	public static void clearColumns() {
+		LIQUID_UP.clear();
+		SAME_MATERIAL_DOWN.clear();
 	}
 
 	public JetEffect(final int chance) {
@@ -59,12 +72,9 @@ public abstract class JetEffect extends BlockEffect {
 	}
 
 	@Override
-	public boolean canTrigger(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
-			@Nonnull final BlockPos pos, @Nonnull final Random random) {
-		if (alwaysExecute() || random.nextInt(getChance()) == 0) {
-			return ParticleSystemHandler.okToSpawn(pos) && ExpressionEngine.instance().check(getConditions());
-		}
-		return false;
+	public boolean canTriggerAt(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
+			@Nonnull final BlockPos pos) {
+		return ParticleSystemHandler.okToSpawn(pos) && super.canTriggerAt(provider, state, pos);
 	}
 
 	protected void addEffect(final ParticleJet fx) {
@@ -79,9 +79,9 @@ public class SteamJetEffect extends JetEffect {
 	}
 
 	@Override
-	public boolean canTrigger(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
-			@Nonnull final BlockPos pos, @Nonnull final Random random) {
-		return isValidSpawnBlock(state, provider, pos) && super.canTrigger(provider, state, pos, random);
+	public boolean canTriggerAt(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
+			@Nonnull final BlockPos pos) {
+		return isValidSpawnBlock(state, provider, pos) && super.canTriggerAt(provider, state, pos);
 	}
 
 	@Override
@@ -114,9 +114,9 @@ public class WaterSplashJetEffect extends JetEffect {
 	}
 
 	@Override
-	public boolean canTrigger(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
-			@Nonnull final BlockPos pos, @Nonnull final Random random) {
-		return isValidSpawnBlock(provider, state, pos) && super.canTrigger(provider, state, pos, random);
+	public boolean canTriggerAt(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
+			@Nonnull final BlockPos pos) {
+		return isValidSpawnBlock(provider, state, pos) && super.canTriggerAt(provider, state, pos);
 	}
 
 	@Override
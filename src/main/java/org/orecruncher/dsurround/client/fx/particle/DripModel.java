@@ -0,0 +1,259 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.fx.particle;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.orecruncher.lib.WorldUtils;
+
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IBlockAccess;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Closed form model of a vanilla drip particle. A drip hangs from the ceiling
+ * for a number of "bob" ticks where its motion is heavily damped, and then
+ * falls under gravity with the usual particle drag. Each tick the particle
+ * does:
+ *
+ * <pre>
+ * u = v - g
+ * y += s * u
+ * v = drag * s * u
+ * </pre>
+ *
+ * where s is 0.02 while bobbing and 1 otherwise. With r = drag * s the
+ * displacement term follows u' = r * u - g which has a geometric closed form.
+ * This lets the particle compute its position for any tick, as well as the
+ * tick it will land, without simulating each step.
+ */
+@SideOnly(Side.CLIENT)
+public final class DripModel {
+
+	public static final double DRAG = 0.9800000190734863D;
+	public static final double BOB_SCALE = 0.02D;
+	public static final int BOB_TICKS = 40;
+
+	private DripModel() {
+
+	}
+
+	/*
+	 * Value of the displacement term after n steps of u' = r * u - g.
+	 */
+	private static double term(final double u0, final double r, final double g, final int n) {
+		final double fixed = -g / (1.0D - r);
+		return fixed + (u0 - fixed) * Math.pow(r, n);
+	}
+
+	/*
+	 * Sum of the first n displacement terms of u' = r * u - g.
+	 */
+	private static double sum(final double u0, final double r, final double g, final int n) {
+		final double fixed = -g / (1.0D - r);
+		return n * fixed + (u0 - fixed) * (1.0D - Math.pow(r, n)) / (1.0D - r);
+	}
+
+	/**
+	 * Vertical displacement of a drip after the specified number of ticks.
+	 *
+	 * @param v0      Vertical motion at tick 0
+	 * @param bob     Number of bob ticks remaining at tick 0
+	 * @param gravity Particle gravity
+	 * @param ticks   Number of ticks elapsed
+	 * @return Displacement relative to the position at tick 0
+	 */
+	public static double offset(final double v0, final int bob, final double gravity, final int ticks) {
+		if (ticks <= 0)
+			return 0;
+		final double rb = DRAG * BOB_SCALE;
+		final int nb = Math.min(Math.max(bob, 0), ticks);
+		final double u0 = v0 - gravity;
+		final double result = BOB_SCALE * sum(u0, rb, gravity, nb);
+		if (ticks == nb)
+			return result;
+		return result + sum(term(u0, rb, gravity, nb), DRAG, gravity, ticks - nb);
+	}
+
+	/**
+	 * Vertical motion of a drip after the specified number of ticks.
+	 *
+	 * @param v0      Vertical motion at tick 0
+	 * @param bob     Number of bob ticks remaining at tick 0
+	 * @param gravity Particle gravity
+	 * @param ticks   Number of ticks elapsed
+	 * @return Vertical motion at the specified tick
+	 */
+	public static double velocity(final double v0, final int bob, final double gravity, final int ticks) {
+		if (ticks <= 0)
+			return v0;
+		final double rb = DRAG * BOB_SCALE;
+		final int nb = Math.min(Math.max(bob, 0), ticks);
+		final double u = term(term(v0 - gravity, rb, gravity, nb), DRAG, gravity, ticks - nb);
+		return u + gravity;
+	}
+
+	/**
+	 * Determines the first tick at which a drip falling from y0 reaches or
+	 * passes the surface.
+	 *
+	 * @param y0       Position at tick 0
+	 * @param v0       Vertical motion at tick 0
+	 * @param bob      Number of bob ticks remaining at tick 0
+	 * @param gravity  Particle gravity
+	 * @param surface  Height of the surface the drip will land on
+	 * @param maxTicks Maximum number of ticks to consider
+	 * @return The impact tick, or -1 if the drip does not land within maxTicks
+	 */
+	public static int impactTick(final double y0, final double v0, final int bob, final double gravity,
+			final double surface, final int maxTicks) {
+		if (maxTicks < 1 || y0 + offset(v0, bob, gravity, maxTicks) > surface)
+			return -1;
+		// Displacement is monotonic so a binary search works
+		int lo = 1;
+		int hi = maxTicks;
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			if (y0 + offset(v0, bob, gravity, mid) <= surface)
+				hi = mid;
+			else
+				lo = mid + 1;
+		}
+		return lo;
+	}
+
+	/**
+	 * Determines if a drip can pass through the specified block.
+	 */
+	public static boolean isPassable(@Nonnull final IBlockAccess provider, @Nonnull final BlockPos pos,
+			@Nonnull final IBlockState state) {
+		return WorldUtils.isAirBlock(state)
+				|| (!state.getMaterial().isLiquid() && state.getCollisionBoundingBox(provider, pos) == null);
+	}
+
+	/**
+	 * Scans down the column from the specified position looking for the surface a
+	 * drip would land on. Liquids are landed on at the top of their block, and
+	 * solids at the top of their collision box.
+	 *
+	 * @param provider Block access used to query the world
+	 * @param x        X coordinate of the drip
+	 * @param y        Y coordinate of the drip
+	 * @param z        Z coordinate of the drip
+	 * @return The landing information, or null if the drip falls out of the world
+	 */
+	@Nullable
+	public static Landing findLanding(@Nonnull final IBlockAccess provider, final double x, final double y,
+			final double z) {
+		final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+		pos.setPos(x, y, z);
+		for (; pos.getY() > 0; pos.setY(pos.getY() - 1)) {
+			final IBlockState state = provider.getBlockState(pos);
+			if (isPassable(provider, pos, state))
+				continue;
+
+			final double surface;
+			if (state.getMaterial().isLiquid()) {
+				surface = pos.getY() + 1;
+			} else {
+				final AxisAlignedBB box = state.getCollisionBoundingBox(provider, pos);
+				surface = pos.getY() + box.maxY;
+			}
+
+			// Collision boxes can extend above their block, like fences, so the drip
+			// may already be at the surface.
+			return new Landing(pos.toImmutable(), state, Math.min(surface, y));
+		}
+		return null;
+	}
+
+	/**
+	 * Sound a drip makes when it lands.
+	 */
+	public enum ImpactSound {
+		STEAM_HISS, WATER_DROP, WATER_DRIP
+	}
+
+	/**
+	 * Particle effect for a drip landing. A ripple on water may also steam if the
+	 * drip is lava.
+	 */
+	public enum ImpactEffect {
+		STEAM, RIPPLE, NONE
+	}
+
+	/**
+	 * Determines the sound a drip of the specified material makes landing on the
+	 * surface.
+	 */
+	@Nonnull
+	public static ImpactSound getImpactSound(@Nonnull final Material drip, @Nonnull final IBlockState surface) {
+		// Lava into water/water into lava
+		final boolean hiss = drip == Material.LAVA ? surface.getMaterial() == Material.WATER
+				: ParticleSteamCloud.isHotBlock(surface);
+		if (hiss)
+			return ImpactSound.STEAM_HISS;
+		// Hitting solid surface
+		if (surface.getMaterial().isSolid())
+			return ImpactSound.WATER_DROP;
+		// Water into water; lava into lava
+		return drip == Material.WATER ? ImpactSound.WATER_DRIP : ImpactSound.WATER_DROP;
+	}
+
+	/**
+	 * Determines the particle effect for a drip landing on the surface.
+	 */
+	@Nonnull
+	public static ImpactEffect getImpactEffect(@Nonnull final IBlockState surface) {
+		if (surface.getBlock() == Blocks.LAVA)
+			return ImpactEffect.STEAM;
+		if (surface.getMaterial().isLiquid())
+			return ImpactEffect.RIPPLE;
+		return ParticleSteamCloud.isHotBlock(surface) ? ImpactEffect.STEAM : ImpactEffect.NONE;
+	}
+
+	/**
+	 * Describes where a drip will land.
+	 */
+	public static final class Landing {
+
+		public final BlockPos pos;
+		public final IBlockState state;
+		public final double surface;
+
+		public Landing(@Nonnull final BlockPos pos, @Nonnull final IBlockState state, final double surface) {
+			this.pos = pos;
+			this.state = state;
+			this.surface = surface;
+		}
+	}
+
+}
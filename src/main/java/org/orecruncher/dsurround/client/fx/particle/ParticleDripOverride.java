@@ -41,21 +41,40 @@ import net.minecraft.client.Minecraft;
 import net.minecraft.client.particle.IParticleFactory;
 import net.minecraft.client.particle.Particle;
 import net.minecraft.client.particle.ParticleDrip;
-import net.minecraft.init.Blocks;
-import net.minecraft.util.EnumFacing;
 import net.minecraft.util.EnumParticleTypes;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.World;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
+/*
+ * Drip particle that predicts where and when it will land rather than
+ * simulating collisions each tick. The landing surface and impact tick are
+ * solved when the particle first updates and the drop follows the closed form
+ * trajectory in DripModel. As the drop falls into a new block the column is
+ * checked; if something changed the prediction is solved again from the
+ * current position and motion.
+ */
 @SideOnly(Side.CLIENT)
 public class ParticleDripOverride extends ParticleDrip {
 
 	private boolean firstTime = true;
 	private final Material materialType;
-	private final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
-	private int bobTimer = 40;
+	private int bobTimer = DripModel.BOB_TICKS;
+
+	// Trajectory state. Position is computed from these at each tick.
+	private double startY;
+	private double startMotion;
+	private int startBob;
+	private int ticks;
+
+	// Landing prediction
+	private DripModel.Landing landing;
+	private int impactTick = -1;
+	private int cellY;
+	private final BlockPos.MutableBlockPos cellPos = new BlockPos.MutableBlockPos();
+	private boolean playSound;
 
 	protected ParticleDripOverride(final World worldIn, final double xCoordIn, final double yCoordIn,
 			final double zCoordIn, final Material materialType) {
@@ -64,12 +83,6 @@ public class ParticleDripOverride extends ParticleDrip {
 		this.materialType = materialType;
 	}
 
-	private boolean doSteamHiss(@Nonnull final IBlockState state) {
-		if (this.materialType == Material.LAVA)
-			return state.getMaterial() == Material.WATER;
-		return ParticleSteamCloud.isHotBlock(state);
-	}
-
 	@Override
 	public void onUpdate() {
 
@@ -77,6 +90,12 @@ public class ParticleDripOverride extends ParticleDrip {
 		this.prevPosY = this.posY;
 		this.prevPosZ = this.posZ;
 
+		if (this.firstTime) {
+			firstTime();
+			if (!isAlive())
+				return;
+		}
+
 		if (this.materialType == Material.WATER) {
 			this.particleRed = 0.2F;
 			this.particleGreen = 0.3F;
@@ -87,61 +106,125 @@ public class ParticleDripOverride extends ParticleDrip {
 			this.particleBlue = 4.0F / (40 - this.bobTimer + 8);
 		}
 
-		this.motionY -= this.particleGravity;
-
 		if (this.bobTimer-- > 0) {
-			this.motionX *= 0.02D;
-			this.motionY *= 0.02D;
-			this.motionZ *= 0.02D;
 			setParticleTextureIndex(113);
 		} else {
 			setParticleTextureIndex(112);
 		}
 
-		move(this.motionX, this.motionY, this.motionZ);
-		this.motionX *= 0.9800000190734863D;
-		this.motionY *= 0.9800000190734863D;
-		this.motionZ *= 0.9800000190734863D;
+		this.ticks++;
+		this.posY = this.startY + DripModel.offset(this.startMotion, this.startBob, this.particleGravity, this.ticks);
 
 		if (this.particleMaxAge-- <= 0) {
 			setExpired();
 		}
 
-		// Did we hit the ground?
-		if (this.onGround) {
-			this.pos.setPos(this.posX, this.posY, this.posZ);
-			boolean doSteam;
-			IBlockState state = ClientChunkCache.instance().getBlockState(this.pos);
-			if (state.getBlock() == Blocks.LAVA) {
-				doSteam = true;
-			} else if (state.getMaterial().isLiquid()) {
-				doSteam = ParticleCollections.addWaterRipple(this.world, this.posX, this.pos.getY() + 1,
-						this.posZ) != null && this.materialType == Material.LAVA;
+		if (this.impactTick > 0 && this.ticks >= this.impactTick) {
+			// Make sure the surface is still what we expect
+			final IBlockState state = ClientChunkCache.instance().getBlockState(this.landing.pos);
+			if (state == this.landing.state) {
+				this.posY = this.landing.surface;
+				impact();
+				setExpired();
 			} else {
-				this.pos.move(EnumFacing.DOWN);
-				state = ClientChunkCache.instance().getBlockState(this.pos);
-				doSteam = ParticleSteamCloud.isHotBlock(state);
+				predict();
 			}
-
-			if (doSteam) {
-				ParticleHelper.addParticle(
-						new ParticleSteamCloud(this.world, this.posX, this.pos.getY() + 1, this.posZ, 0.01D));
-			} else if (this.materialType != Material.LAVA) {
-				this.world.spawnParticle(EnumParticleTypes.WATER_SPLASH, this.posX, this.posY, this.posZ, 0.0D, 0.0D,
-						0.0D);
+		} else {
+			final int y = MathHelper.floor(this.posY);
+			if (y != this.cellY) {
+				final int from = this.cellY;
+				this.cellY = y;
+				// Falling into a new block. A fast drop can cross more than one
+				// block in a tick so every block passed through since the last
+				// check is looked at. If any is no longer passable the prediction
+				// is stale.
+				if (this.landing != null) {
+					final IBlockAccessEx provider = ClientChunkCache.instance();
+					final int bottom = Math.max(y, this.landing.pos.getY() + 1);
+					for (int cy = from; cy >= bottom; cy--) {
+						this.cellPos.setPos(this.posX, cy, this.posZ);
+						if (!DripModel.isPassable(provider, this.cellPos, provider.getBlockState(this.cellPos))) {
+							predict();
+							break;
+						}
+					}
+				}
 			}
-
-			setExpired();
 		}
 
 		// Kill particles below 1. Drips on flat bedrock is a waste of ticks.
 		if (this.posY < 1)
 			setExpired();
+	}
 
-		if (isAlive() && this.firstTime) {
-			firstTime();
+	/*
+	 * Restarts the trajectory from the current position and motion and solves for
+	 * the landing.
+	 */
+	private void predict() {
+		final int bob = Math.max(this.bobTimer, 0);
+		final double motion = DripModel.velocity(this.startMotion, this.startBob, this.particleGravity, this.ticks);
+
+		this.startY = this.posY;
+		this.startMotion = motion;
+		this.startBob = bob;
+		this.ticks = 0;
+		this.cellY = MathHelper.floor(this.posY);
+
+		if (this.playSound)
+			SoundEffectHandler.INSTANCE.cancelSounds(this);
+
+		this.landing = DripModel.findLanding(ClientChunkCache.instance(), this.posX, this.posY, this.posZ);
+		if (this.landing != null) {
+			this.impactTick = DripModel.impactTick(this.startY, this.startMotion, this.startBob,
+					this.particleGravity, this.landing.surface, this.particleMaxAge + 1);
+		} else {
+			this.impactTick = -1;
+		}
+
+		if (this.playSound && this.impactTick > 0)
+			scheduleSound();
+	}
+
+	private void scheduleSound() {
+		final SoundEffect effect;
+		switch (DripModel.getImpactSound(this.materialType, this.landing.state)) {
+		case STEAM_HISS:
+			effect = Sounds.STEAM_HISS;
+			break;
+		case WATER_DRIP:
+			effect = Sounds.WATER_DRIP;
+			break;
+		default:
+			effect = Sounds.WATER_DROP;
+			break;
+		}
+
+		SoundEffectHandler.INSTANCE.playSoundAt(this.landing.pos.up(), effect, this.impactTick, this);
+	}
+
+	private void impact() {
+		final BlockPos pos = this.landing.pos;
+		final boolean doSteam;
+		switch (DripModel.getImpactEffect(this.landing.state)) {
+		case STEAM:
+			doSteam = true;
+			break;
+		case RIPPLE:
+			doSteam = ParticleCollections.addWaterRipple(this.world, this.posX, pos.getY() + 1, this.posZ) != null
+					&& this.materialType == Material.LAVA;
+			break;
+		default:
+			doSteam = false;
+			break;
 		}
 
+		if (doSteam) {
+			ParticleHelper.addParticle(new ParticleSteamCloud(this.world, this.posX, pos.getY() + 1, this.posZ, 0.01D));
+		} else if (this.materialType != Material.LAVA) {
+			this.world.spawnParticle(EnumParticleTypes.WATER_SPLASH, this.posX, this.posY, this.posZ, 0.0D, 0.0D,
+					0.0D);
+		}
 	}
 
 	protected void firstTime() {
@@ -151,47 +234,24 @@ public class ParticleDripOverride extends ParticleDrip {
 
 		// If the particle is not positioned in an air block kill it
 		// right away. No sense wasting time with it.
-		this.pos.setPos(this.posX, this.posY, this.posZ);
-		IBlockState state = provider.getBlockState(this.pos);
+		final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+		pos.setPos(this.posX, this.posY, this.posZ);
+		IBlockState state = provider.getBlockState(pos);
 		if (!WorldUtils.isAirBlock(state)) {
 			setExpired();
-		} else {
-			this.pos.setPos(this.posX, this.posY + 0.3D, this.posZ);
-			final int y = this.pos.getY();
-
-			state = provider.getBlockState(this.pos);
-			if (!WorldUtils.isAirBlock(state) && !WorldUtils.isLeaves(state)) {
-				// Find out where it is going to hit
-				do {
-					this.pos.move(EnumFacing.DOWN, 1);
-					state = provider.getBlockState(this.pos);
-				} while (this.pos.getY() > 0 && WorldUtils.isAirBlock(state));
-
-				if (this.pos.getY() < 1)
-					return;
-
-				final int delay = 40 + (y - this.pos.getY()) * 2;
-				this.pos.move(EnumFacing.UP, 1);
-
-				final SoundEffect effect;
-
-				// Lava into water/water into lava
-				if (doSteamHiss(state)) {
-					effect = Sounds.STEAM_HISS;
-					// Hitting solid surface
-				} else if (state.getMaterial().isSolid()) {
-					effect = Sounds.WATER_DROP;
-					// Water into water
-				} else if (this.materialType == Material.WATER) {
-					effect = Sounds.WATER_DRIP;
-					// Lava into lava
-				} else {
-					effect = Sounds.WATER_DROP;
-				}
-
-				SoundEffectHandler.INSTANCE.playSoundAt(this.pos, effect, delay);
-			}
+			return;
 		}
+
+		// Only drips coming off of a ceiling make a sound when they land
+		pos.setPos(this.posX, this.posY + 0.3D, this.posZ);
+		state = provider.getBlockState(pos);
+		this.playSound = !WorldUtils.isAirBlock(state) && !WorldUtils.isLeaves(state);
+
+		this.startMotion = this.motionY;
+		this.motionX = this.motionY = this.motionZ = 0;
+		this.startY = this.posY;
+		this.startBob = this.bobTimer;
+		predict();
 	}
 
 	public static class LavaFactory implements IParticleFactory {
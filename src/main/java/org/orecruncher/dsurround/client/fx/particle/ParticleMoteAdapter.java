@@ -31,6 +31,7 @@ import org.orecruncher.dsurround.client.fx.particle.mote.IParticleMote;
 import net.minecraft.client.particle.Particle;
 import net.minecraft.client.renderer.BufferBuilder;
 import net.minecraft.entity.Entity;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
@@ -62,6 +63,24 @@ public final class ParticleMoteAdapter implements IParticleMote {
 		this.particle.onUpdate();
 	}
 
+	// Vanilla keeps the position protected, but the bounding box tracks it
+	@Override
+	public double getX() {
+		final AxisAlignedBB bb = this.particle.getBoundingBox();
+		return (bb.minX + bb.maxX) * 0.5D;
+	}
+
+	@Override
+	public double getY() {
+		return this.particle.getBoundingBox().minY;
+	}
+
+	@Override
+	public double getZ() {
+		final AxisAlignedBB bb = this.particle.getBoundingBox();
+		return (bb.minZ + bb.maxZ) * 0.5D;
+	}
+
 	@Override
 	public void renderParticle(BufferBuilder buffer, Entity entityIn, float partialTicks, float rotX, float rotZ,
 			float rotYZ, float rotXY, float rotXZ) {
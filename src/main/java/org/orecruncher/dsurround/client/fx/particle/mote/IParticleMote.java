@@ -51,6 +51,15 @@ public interface IParticleMote {
 	 */
 	void onUpdate();
 
+	/**
+	 * Position of the mote in the world. Used to bin motes for culling.
+	 */
+	double getX();
+
+	double getY();
+
+	double getZ();
+
 	/**
 	 * Causes the mote to render itself.
 	 */
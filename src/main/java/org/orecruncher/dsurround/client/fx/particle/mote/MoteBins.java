@@ -0,0 +1,174 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.fx.particle.mote;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Groups motes by the chunk section they are in so that rendering can reject
+ * whole sections at a time. Sections that survive culling are ordered back to
+ * front so translucent motes blend the same way regardless of the order they
+ * were added. Plain math so it can be exercised without a GL context.
+ *
+ * @param <T> Type of mote being binned
+ */
+@SideOnly(Side.CLIENT)
+public final class MoteBins<T> {
+
+	// Motes can extend a bit past their position, and can move a little
+	// between rebuilds.
+	private static final double MARGIN = 1.0D;
+
+	private static final class Bin<T> {
+		public final int x;
+		public final int y;
+		public final int z;
+		public final List<T> motes = new ArrayList<>();
+		public double distanceSq;
+
+		public Bin(final int x, final int y, final int z) {
+			this.x = x;
+			this.y = y;
+			this.z = z;
+		}
+	}
+
+	private final Comparator<Bin<T>> backToFront = (a, b) -> Double.compare(b.distanceSq, a.distanceSq);
+	private final Long2ObjectOpenHashMap<Bin<T>> bins = new Long2ObjectOpenHashMap<>();
+	@SuppressWarnings("unchecked")
+	private Bin<T>[] visible = new Bin[16];
+	private int visibleCount;
+
+	private static long key(final int x, final int y, final int z) {
+		return ((long) x & 0x3FFFFFL) << 42 | ((long) y & 0xFFFFFL) << 22 | ((long) z & 0x3FFFFFL);
+	}
+
+	private static int section(final double coord) {
+		return ((int) Math.floor(coord)) >> 4;
+	}
+
+	public void add(@Nonnull final T mote, final double x, final double y, final double z) {
+		final int sx = section(x);
+		final int sy = section(y);
+		final int sz = section(z);
+		final long k = key(sx, sy, sz);
+		Bin<T> bin = this.bins.get(k);
+		if (bin == null)
+			this.bins.put(k, bin = new Bin<>(sx, sy, sz));
+		bin.motes.add(mote);
+	}
+
+	/**
+	 * Empties the bins so they can be filled again. Bins that were empty before
+	 * the call are released.
+	 */
+	public void reset() {
+		final ObjectIterator<Bin<T>> itr = this.bins.values().iterator();
+		while (itr.hasNext()) {
+			final Bin<T> bin = itr.next();
+			if (bin.motes.isEmpty())
+				itr.remove();
+			else
+				bin.motes.clear();
+		}
+		Arrays.fill(this.visible, 0, this.visibleCount, null);
+		this.visibleCount = 0;
+	}
+
+	public int getBinCount() {
+		return this.bins.size();
+	}
+
+	/**
+	 * Determines which bins can be seen from the camera, ordered from the
+	 * furthest to the nearest.
+	 *
+	 * @param frustum View frustum relative to the camera
+	 * @param camX    Camera position
+	 * @param camY    Camera position
+	 * @param camZ    Camera position
+	 * @param range   Bins that are entirely further away than this are skipped
+	 * @return Number of visible bins
+	 */
+	public int cull(@Nonnull final MoteFrustum frustum, final double camX, final double camY, final double camZ,
+			final double range) {
+		Arrays.fill(this.visible, 0, this.visibleCount, null);
+		this.visibleCount = 0;
+		final double rangeSq = range * range;
+
+		for (final Bin<T> bin : this.bins.values()) {
+			if (bin.motes.isEmpty())
+				continue;
+
+			final double minX = (bin.x << 4) - MARGIN - camX;
+			final double minY = (bin.y << 4) - MARGIN - camY;
+			final double minZ = (bin.z << 4) - MARGIN - camZ;
+			final double maxX = minX + 16 + MARGIN * 2;
+			final double maxY = minY + 16 + MARGIN * 2;
+			final double maxZ = minZ + 16 + MARGIN * 2;
+
+			// Distance from the camera to the nearest point of the box
+			final double dx = minX > 0 ? minX : (maxX < 0 ? maxX : 0);
+			final double dy = minY > 0 ? minY : (maxY < 0 ? maxY : 0);
+			final double dz = minZ > 0 ? minZ : (maxZ < 0 ? maxZ : 0);
+			if (dx * dx + dy * dy + dz * dz > rangeSq)
+				continue;
+
+			if (!frustum.isBoxVisible(minX, minY, minZ, maxX, maxY, maxZ))
+				continue;
+
+			final double cx = (minX + maxX) * 0.5D;
+			final double cy = (minY + maxY) * 0.5D;
+			final double cz = (minZ + maxZ) * 0.5D;
+			bin.distanceSq = cx * cx + cy * cy + cz * cz;
+
+			if (this.visibleCount == this.visible.length)
+				this.visible = Arrays.copyOf(this.visible, this.visibleCount * 2);
+			this.visible[this.visibleCount++] = bin;
+		}
+
+		Arrays.sort(this.visible, 0, this.visibleCount, this.backToFront);
+		return this.visibleCount;
+	}
+
+	/**
+	 * Motes in a bin found visible by the last call to cull().
+	 */
+	@Nonnull
+	public List<T> getVisible(final int index) {
+		return this.visible[index].motes;
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.fx.particle.mote;
+
+import javax.annotation.Nonnull;
+
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * View frustum as six planes extracted from a combined projection and
+ * modelview matrix. Coordinates are relative to the camera, the same space
+ * particles are rendered in. Plain math so it can be exercised without a GL
+ * context.
+ */
+@SideOnly(Side.CLIENT)
+public final class MoteFrustum {
+
+	// a, b, c, d for each plane with the normal pointing inward
+	private final float[] planes = new float[6 * 4];
+
+	/**
+	 * Extracts the planes from a 4x4 clipping matrix in column major order, as
+	 * OpenGL stores it.
+	 */
+	public void set(@Nonnull final float[] clip) {
+		setPlane(0, clip[3] - clip[0], clip[7] - clip[4], clip[11] - clip[8], clip[15] - clip[12]);
+		setPlane(1, clip[3] + clip[0], clip[7] + clip[4], clip[11] + clip[8], clip[15] + clip[12]);
+		setPlane(2, clip[3] + clip[1], clip[7] + clip[5], clip[11] + clip[9], clip[15] + clip[13]);
+		setPlane(3, clip[3] - clip[1], clip[7] - clip[5], clip[11] - clip[9], clip[15] - clip[13]);
+		setPlane(4, clip[3] - clip[2], clip[7] - clip[6], clip[11] - clip[10], clip[15] - clip[14]);
+		setPlane(5, clip[3] + clip[2], clip[7] + clip[6], clip[11] + clip[10], clip[15] + clip[14]);
+	}
+
+	private void setPlane(final int plane, final float a, final float b, final float c, final float d) {
+		final float len = (float) Math.sqrt(a * a + b * b + c * c);
+		final int idx = plane * 4;
+		if (len > 0F) {
+			this.planes[idx] = a / len;
+			this.planes[idx + 1] = b / len;
+			this.planes[idx + 2] = c / len;
+			this.planes[idx + 3] = d / len;
+		} else {
+			// Degenerate plane - accept everything
+			this.planes[idx] = this.planes[idx + 1] = this.planes[idx + 2] = 0F;
+			this.planes[idx + 3] = 1F;
+		}
+	}
+
+	/**
+	 * Indicates if any part of the box could be within the frustum. Tests the
+	 * corner furthest along each plane normal, so boxes near an edge may be
+	 * accepted when they are just outside.
+	 */
+	public boolean isBoxVisible(final double minX, final double minY, final double minZ, final double maxX,
+			final double maxY, final double maxZ) {
+		for (int i = 0; i < this.planes.length; i += 4) {
+			final float a = this.planes[i];
+			final float b = this.planes[i + 1];
+			final float c = this.planes[i + 2];
+			final double x = a >= 0 ? maxX : minX;
+			final double y = b >= 0 ? maxY : minY;
+			final double z = c >= 0 ? maxZ : minZ;
+			if (a * x + b * y + c * z + this.planes[i + 3] < 0)
+				return false;
+		}
+		return true;
+	}
+
+}
@@ -91,6 +91,21 @@ public abstract class MoteParticle implements IParticleMote {
 		this.isAlive = false;
 	}
 
+	@Override
+	public double getX() {
+		return this.posX;
+	}
+
+	@Override
+	public double getY() {
+		return this.posY;
+	}
+
+	@Override
+	public double getZ() {
+		return this.posZ;
+	}
+
 	@Override
 	public void onUpdate() {
 		if (isAlive())
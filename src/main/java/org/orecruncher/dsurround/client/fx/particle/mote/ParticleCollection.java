@@ -24,29 +24,39 @@
 
 package org.orecruncher.dsurround.client.fx.particle.mote;
 
+import java.util.List;
 import java.util.function.Predicate;
 
 import javax.annotation.Nonnull;
 
 import org.lwjgl.opengl.GL11;
+import org.orecruncher.dsurround.ModInfo;
 import org.orecruncher.dsurround.client.fx.particle.ParticleBase;
 import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
 import org.orecruncher.dsurround.lib.compat.ModEnvironment;
 import org.orecruncher.lib.collections.ObjectArray;
 import org.orecruncher.lib.gfx.OpenGlState;
 
+import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.BufferBuilder;
 import net.minecraft.client.renderer.GlStateManager;
 import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.culling.ClippingHelperImpl;
+import net.minecraft.client.renderer.entity.RenderManager;
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
 import net.minecraft.client.renderer.vertex.VertexFormat;
 import net.minecraft.entity.Entity;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.world.World;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 @SideOnly(Side.CLIENT)
+@EventBusSubscriber(value = Side.CLIENT, modid = ModInfo.MOD_ID)
 public class ParticleCollection extends ParticleBase {
 
 	/**
@@ -60,8 +70,16 @@ public class ParticleCollection extends ParticleBase {
 	protected static final int MAX_PARTICLES = 4000;
 	protected static final int ALLOCATION_SIZE = 128;
 	protected static final int TICK_GRACE = 2;
+	// Motes further than this from the camera are not rendered
+	protected static final double RENDER_RANGE = 64.0D;
+
+	// Shared by all collections. Fetching the clipping helper re-reads the GL
+	// matrices, so it is done by the first collection rendered each frame.
+	protected static final MoteFrustum FRUSTUM = new MoteFrustum();
+	private static boolean frustumStale = true;
 
 	protected final ObjectArray<IParticleMote> myParticles = new ObjectArray<>(ALLOCATION_SIZE);
+	protected final MoteBins<IParticleMote> bins = new MoteBins<>();
 	protected final ResourceLocation texture;
 
 	protected int lastTickUpdate;
@@ -82,6 +100,7 @@ public class ParticleCollection extends ParticleBase {
 	public void addParticle(@Nonnull final IParticleMote mote) {
 		if (canFit()) {
 			this.myParticles.add(mote);
+			this.bins.add(mote, mote.getX(), mote.getY(), mote.getZ());
 		}
 	}
 
@@ -108,6 +127,13 @@ public class ParticleCollection extends ParticleBase {
 		// Update state and remove the dead ones
 		this.myParticles.removeIf(UPDATE_REMOVE);
 
+		// Motes can move during their update so the bins are rebuilt
+		this.bins.reset();
+		for (int i = 0; i < this.myParticles.size(); i++) {
+			final IParticleMote mote = this.myParticles.get(i);
+			this.bins.add(mote, mote.getX(), mote.getY(), mote.getZ());
+		}
+
 		if (shouldDie()) {
 			setExpired();
 		}
@@ -125,17 +151,39 @@ public class ParticleCollection extends ParticleBase {
 		if (this.myParticles.size() == 0)
 			return;
 
+		// Particles render relative to the camera with the camera rotation
+		// applied, so the current clipping matrix gives the frustum in that
+		// same space.
+		if (frustumStale) {
+			FRUSTUM.set(ClippingHelperImpl.getInstance().clippingMatrix);
+			frustumStale = false;
+		}
+		final RenderManager rm = Minecraft.getMinecraft().getRenderManager();
+		final int visible = this.bins.cull(FRUSTUM, rm.viewerPosX, rm.viewerPosY, rm.viewerPosZ,
+				RENDER_RANGE);
+		if (visible == 0)
+			return;
+
 		bindTexture(this.texture);
 		preRender();
 
 		buffer.begin(GL11.GL_QUADS, getVertexFormat());
-		for (int i = 0; i < this.myParticles.size(); i++)
-			this.myParticles.get(i).renderParticle(buffer, entityIn, partialTicks, rotX, rotZ, rotYZ, rotXY, rotXZ);
+		for (int b = 0; b < visible; b++) {
+			final List<IParticleMote> motes = this.bins.getVisible(b);
+			for (int i = 0; i < motes.size(); i++)
+				motes.get(i).renderParticle(buffer, entityIn, partialTicks, rotX, rotZ, rotYZ, rotXY, rotXZ);
+		}
 		Tessellator.getInstance().draw();
 
 		postRender();
 	}
 
+	@SubscribeEvent
+	public static void onRenderTick(@Nonnull final TickEvent.RenderTickEvent event) {
+		if (event.phase == Phase.START)
+			frustumStale = true;
+	}
+
 	protected boolean enableLighting() {
 		return ModEnvironment.Albedo.isLoaded();
 	}
@@ -28,8 +28,8 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import org.orecruncher.dsurround.client.sound.ConfigSoundInstance;
-import org.orecruncher.dsurround.client.sound.MusicFader;
 import org.orecruncher.dsurround.client.sound.SoundEngine;
+import org.orecruncher.dsurround.client.sound.SoundMixer;
 
 import net.minecraft.client.Minecraft;
 import net.minecraftforge.fml.client.config.GuiButtonExt;
@@ -69,12 +69,12 @@ public class PlaySoundButton extends GuiButtonExt {
 
 	private void doPlay(@Nonnull final ConfigSoundInstance sound) {
 		this.playingSound = sound;
-		MusicFader.playConfigSound(sound);
+		SoundMixer.playConfigSound(sound);
 	}
 
 	public void playSound(@Nullable final Minecraft mc, final float volume) {
 		if (this.playingSound != null) {
-			MusicFader.stopConfigSound(this.playingSound);
+			SoundMixer.stopConfigSound(this.playingSound);
 			this.playingSound = null;
 		} else {
 			doPlay(new ConfigSoundInstance(this.soundResource, volume));
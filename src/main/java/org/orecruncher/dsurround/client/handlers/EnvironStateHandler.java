@@ -81,6 +81,7 @@ public class EnvironStateHandler extends EffectHandlerBase {
 		public ItemStack footArmorStack = ItemStack.EMPTY;
 		
 		public boolean inside;
+		public float ceilingCoverage;
 		public boolean inVillage;
 		public boolean isUnderground;
 		public boolean isInSpace;
@@ -215,6 +216,10 @@ public class EnvironStateHandler extends EffectHandlerBase {
 			return data.inside;
 		}
 
+		public static float getCeilingCoverage() {
+			return data.ceilingCoverage;
+		}
+
 		public static boolean isPlayerUnderground() {
 			return data.isUnderground;
 		}
@@ -301,6 +306,7 @@ public class EnvironStateHandler extends EffectHandlerBase {
 		data.dimensionName = world.provider.getDimensionType().getName();
 		data.playerPosition = new BlockPos(player.posX, player.getEntityBoundingBox().minY, player.posZ);
 		data.inside = this.ceiling.isReallyInside();
+		data.ceilingCoverage = this.ceiling.getCoverage();
 
 		data.truePlayerBiome = biomes.getPlayerBiome(player, true);
 
@@ -25,6 +25,7 @@ package org.orecruncher.dsurround.client.handlers;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import javax.annotation.Nonnull;
 
@@ -50,6 +51,7 @@ import org.orecruncher.dsurround.client.sound.ISoundInstance;
 import org.orecruncher.dsurround.event.DiagnosticEvent;
 import org.orecruncher.dsurround.lib.OutOfBandTimerEMA;
 import org.orecruncher.dsurround.registry.RegistryDataEvent;
+import org.orecruncher.dsurround.registry.config.ConfigDiff;
 import org.orecruncher.dsurround.registry.effect.EffectRegistry;
 import org.orecruncher.lib.gfx.ParticleHelper;
 import org.orecruncher.lib.math.TimerEMA;
@@ -187,6 +189,24 @@ public class FxHandler extends EffectHandlerBase {
 			clearHandlers();
 	}
 
+	/**
+	 * Only wipe out the handlers of entities whose effect configuration changed.
+	 */
+	@SubscribeEvent
+	public void registryChanged(@Nonnull final RegistryDataEvent.Changed event) {
+		if (event.reg instanceof EffectRegistry) {
+			final EffectRegistry reg = (EffectRegistry) event.reg;
+			final Set<String> keys = event.getKeys(ConfigDiff.ENTITIES);
+			//@formatter:off
+			EnvironState.getWorld().getLoadedEntityList().stream()
+				.filter(e -> reg.isAffected(e, keys))
+				.map(CapabilityEntityFXData::getCapability)
+				.filter(Objects::nonNull)
+				.forEach(IEntityFX::clear);
+			//@formatter:on
+		}
+	}
+
 	@Override
 	public void onConnect() {
 		this.eventLibrary.register(new CraftingSoundEffect());
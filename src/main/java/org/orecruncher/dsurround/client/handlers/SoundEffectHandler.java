@@ -25,15 +25,16 @@
 package org.orecruncher.dsurround.client.handlers;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.orecruncher.dsurround.ModBase;
 import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
 import org.orecruncher.dsurround.client.sound.*;
 import org.orecruncher.dsurround.event.DiagnosticEvent;
+import org.orecruncher.dsurround.lib.TimingWheel;
 import org.orecruncher.dsurround.registry.RegistryDataEvent;
 import org.orecruncher.dsurround.registry.sound.SoundRegistry;
 import org.orecruncher.lib.ReflectedField.IntegerField;
-import org.orecruncher.lib.collections.ObjectArray;
 
 import it.unimi.dsi.fastutil.objects.Object2FloatOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
@@ -62,28 +63,8 @@ public class SoundEffectHandler extends EffectHandlerBase {
 	
 	public static final SoundEffectHandler INSTANCE = new SoundEffectHandler();
 
-	private final static class PendingSound {
-
-		private final int timeMark;
-		private final ISoundInstance sound;
-
-		public PendingSound(@Nonnull final ISoundInstance sound, final int delay) {
-			this.timeMark = EnvironState.getTickCounter() + delay;
-			this.sound = sound;
-		}
-
-		public int getTickAge() {
-			return EnvironState.getTickCounter() - this.timeMark;
-		}
-
-		@Nonnull
-		public ISoundInstance getSound() {
-			return this.sound;
-		}
-	}
-
 	private final Object2ObjectOpenHashMap<SoundEffect, Emitter> emitters = new Object2ObjectOpenHashMap<>();
-	private final ObjectArray<PendingSound> pending = new ObjectArray<>();
+	private final TimingWheel<ISoundInstance> pending = new TimingWheel<>(0);
 
 	private SoundEffectHandler() {
 		super("Sound Effects");
@@ -92,13 +73,9 @@ public class SoundEffectHandler extends EffectHandlerBase {
 	@Override
 	public void process(@Nonnull final EntityPlayer player) {
 		this.emitters.values().forEach(Emitter::update);
+		Emitter.processVirtualVoices();
 
-		//@formatter:off
-		this.pending.stream()
-			.filter(s -> s.getTickAge() >= 0)
-			.forEach(s -> INSTANCE.playSound(s.getSound()));
-		this.pending.removeIf(s -> s.getTickAge() >= 0);
-		//@formatter:on
+		this.pending.advance(EnvironState.getTickCounter(), this::playSound);
 
 		doMoodProcessing();
 	}
@@ -116,7 +93,8 @@ public class SoundEffectHandler extends EffectHandlerBase {
 	public void clearSounds() {
 		this.emitters.values().forEach(Emitter::stop);
 		this.emitters.clear();
-		this.pending.clear();
+		Emitter.clearVirtualVoices();
+		this.pending.reset(EnvironState.getTickCounter());
 		SoundEngine.instance().stopAllSounds();
 	}
 
@@ -165,16 +143,42 @@ public class SoundEffectHandler extends EffectHandlerBase {
 	}
 
 	public boolean playSoundAt(@Nonnull final BlockPos pos, @Nonnull final SoundEffect sound, final int tickDelay) {
+		return playSoundAt(pos, sound, tickDelay, null);
+	}
+
+	/**
+	 * Plays the sound at the specified location. If a delay is specified the
+	 * sound is queued and played when the delay expires. Delayed sounds that have
+	 * an owner can be cancelled via cancelSounds().
+	 *
+	 * @param pos       Location of the sound
+	 * @param sound     The sound to play
+	 * @param tickDelay Number of ticks to delay before playing
+	 * @param owner     Optional owner of a delayed sound
+	 * @return true if the sound was played immediately; false otherwise
+	 */
+	public boolean playSoundAt(@Nonnull final BlockPos pos, @Nonnull final SoundEffect sound, final int tickDelay,
+			@Nullable final Object owner) {
 
 		final SoundInstance s = sound.createSoundAt(pos);
 		if (tickDelay == 0)
 			return playSound(s);
 
 		s.setState(SoundState.DELAYED);
-		this.pending.add(new PendingSound(s, tickDelay));
+		this.pending.schedule(EnvironState.getTickCounter() + tickDelay, owner, s);
 		return false;
 	}
 
+	/**
+	 * Cancels any delayed sounds that were queued on behalf of the owner, such as
+	 * an entity that is no longer being tracked.
+	 *
+	 * @param owner Owner of the delayed sounds
+	 */
+	public void cancelSounds(@Nonnull final Object owner) {
+		this.pending.cancel(owner);
+	}
+
 	@SubscribeEvent
 	public void registryReloadEvent(@Nonnull final RegistryDataEvent.Reload event) {
 		if (event.reg instanceof SoundRegistry) {
@@ -235,8 +239,8 @@ public class SoundEffectHandler extends EffectHandlerBase {
 			event.output.add(String.format("Ambiance Timer: %d", ambienceTicks.get(EnvironState.getWorld())));
 		}
 		this.emitters.values().forEach(emitter -> event.output.add("EMITTER: " + emitter.toString()));
-		this.pending.forEach(effect -> event.output
-				.add((effect.getTickAge() < 0 ? "DELAYED: " : "PENDING: ") + effect.getSound().toString()));
+		this.pending.forEach(sound -> event.output.add("DELAYED: " + sound.toString()));
+		event.output.add("VIRTUAL: " + Emitter.getVirtualVoiceCount());
 	}
 
 }
@@ -29,7 +29,6 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 
 import org.orecruncher.dsurround.ModOptions;
-import org.orecruncher.dsurround.capabilities.CapabilitySeasonInfo;
 import org.orecruncher.dsurround.client.effects.EntityEffect;
 import org.orecruncher.dsurround.client.effects.IEntityEffectFactory;
 import org.orecruncher.dsurround.client.effects.IEntityEffectFactoryFilter;
@@ -44,9 +43,6 @@ import net.minecraft.block.material.Material;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.client.particle.Particle;
 import net.minecraft.entity.Entity;
-import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.util.math.BlockPos;
-import net.minecraft.world.World;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
@@ -103,17 +99,11 @@ public class BreathEffect extends EntityEffect {
 	}
 
 	protected boolean isBreathVisible(@Nonnull final Entity entity) {
-		final EntityPlayer player = getState().thePlayer();
-		if (entity == player) {
-			return !player.isSpectator();
-		}
-		return !entity.isInvisibleToPlayer(player) && player.canEntityBeSeen(entity);
+		return getState().getPerception().canBeSeen();
 	}
 
 	protected IBlockState getHeadBlock(final Entity entity) {
-		final double d0 = entity.posY + entity.getEyeHeight();
-		final BlockPos blockpos = new BlockPos(entity.posX, d0, entity.posZ);
-		return entity.getEntityWorld().getBlockState(blockpos);
+		return getState().getPerception().getHeadBlock();
 	}
 
 	protected boolean showWaterBubbles(@Nonnull final IBlockState headBlock) {
@@ -121,12 +111,7 @@ public class BreathEffect extends EntityEffect {
 	}
 
 	protected boolean showFrostBreath(final Entity entity, @Nonnull final IBlockState headBlock) {
-		if (headBlock.getMaterial() == Material.AIR) {
-			final World world = entity.getEntityWorld();
-			final BlockPos entityPos = entity.getPosition();
-			return CapabilitySeasonInfo.getCapability(world).showFrostBreath(entityPos);
-		}
-		return false;
+		return headBlock.getMaterial() == Material.AIR && getState().getPerception().showFrostBreath();
 	}
 
 	public static final IEntityEffectFactoryFilter DEFAULT_FILTER = (@Nonnull final Entity e,
@@ -30,8 +30,11 @@ import javax.annotation.Nonnull;
 
 import org.orecruncher.dsurround.ModBase;
 import org.orecruncher.dsurround.client.fx.BlockEffect;
+import org.orecruncher.dsurround.client.fx.JetEffect;
+import org.orecruncher.dsurround.event.BlockUpdateEvent;
 import org.orecruncher.dsurround.lib.scanner.CuboidScanner;
 import org.orecruncher.dsurround.lib.scanner.ScanLocus;
+import org.orecruncher.dsurround.registry.blockstate.BlockStateData;
 import org.orecruncher.dsurround.registry.blockstate.BlockStateUtil;
 import org.orecruncher.lib.chunk.IBlockAccessEx;
 
@@ -56,15 +59,35 @@ public class AlwaysOnBlockEffectScanner extends CuboidScanner {
 		setLogger(ModBase.log());
 	}
 
+	@Override
+	protected void resetFullScan() {
+		JetEffect.clearColumns();
+		super.resetFullScan();
+	}
+
+	@Override
+	protected void blockChanged(@Nonnull final BlockUpdateEvent event) {
+		if (event.oldState != event.newState)
+			JetEffect.invalidateColumn(event.pos);
+	}
+
+	/**
+	 * Gets the effect profile for a block state.
+	 */
+	@Nonnull
+	protected BlockStateData getStateData(@Nonnull final IBlockState state) {
+		return BlockStateUtil.getStateData(state);
+	}
+
 	@Override
 	protected boolean interestingBlock(final IBlockState state) {
-		return BlockStateUtil.getStateData(state).hasAlwaysOnEffects();
+		return getStateData(state).hasAlwaysOnEffects();
 	}
 
 	@Override
 	public void blockScan(@Nonnull final IBlockState state, @Nonnull final BlockPos pos, @Nonnull final Random rand) {
 		final IBlockAccessEx provider = this.locus.getWorld();
-		final BlockEffect[] effects = BlockStateUtil.getStateData(state).getAlwaysOnEffects();
+		final BlockEffect[] effects = getStateData(state).getAlwaysOnEffects();
 		for (final BlockEffect be : effects) {
 			if (be.canTrigger(provider, state, pos, rand))
 				be.doEffect(provider, state, pos, rand);
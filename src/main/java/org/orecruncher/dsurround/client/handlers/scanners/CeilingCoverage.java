@@ -73,19 +73,20 @@ public final class CeilingCoverage implements ITickable {
 	}
 
 	private boolean reallyInside = false;
+	private float coverage = 0.0F;
 
 	@Override
 	public void update() {
 		if (EnvironState.getTickCounter() % SURVEY_INTERVAL == 0) {
-			float ceilingCoverageRatio;
 			if (EnvironState.getDimensionId() == -1 || EnvironState.getDimensionInfo().alwaysOutside()) {
 				this.reallyInside = false;
+				this.coverage = 0.0F;
 			} else {
 				final BlockPos pos = EnvironState.getPlayerPosition();
 				float score = 0.0F;
 				for (Cell cell : cells) score += cell.score(pos);
-				ceilingCoverageRatio = 1.0F - (score / TOTAL_POINTS);
-				this.reallyInside = ceilingCoverageRatio > INSIDE_THRESHOLD;
+				this.coverage = 1.0F - (score / TOTAL_POINTS);
+				this.reallyInside = this.coverage > INSIDE_THRESHOLD;
 			}
 		}
 	}
@@ -94,6 +95,14 @@ public final class CeilingCoverage implements ITickable {
 		return this.reallyInside;
 	}
 
+	/**
+	 * Fraction of the survey area that is covered overhead, 0 being wide open and
+	 * 1 being fully enclosed.
+	 */
+	public float getCoverage() {
+		return this.coverage;
+	}
+
 	private static final class Cell implements Comparable<Cell> {
 
 		private final Vec3i offset;
@@ -31,6 +31,7 @@ import javax.annotation.Nonnull;
 import org.orecruncher.dsurround.ModBase;
 import org.orecruncher.dsurround.client.fx.BlockEffect;
 import org.orecruncher.dsurround.client.sound.SoundEffect;
+import org.orecruncher.dsurround.lib.TriggerSampler;
 import org.orecruncher.dsurround.lib.scanner.RandomScanner;
 import org.orecruncher.dsurround.lib.scanner.ScanLocus;
 import org.orecruncher.dsurround.registry.blockstate.BlockStateData;
@@ -60,30 +61,45 @@ public class RandomBlockEffectScanner extends RandomScanner {
 	public static final int NEAR_RANGE = 16;
 	public static final int FAR_RANGE = 32;
 
+	// Most blocks visited do not trigger anything. Rather than rolling the dice
+	// for each effect and sound on each block the sampler tracks how many more
+	// trials of each chance class have to pass before one fires.
+	private final TriggerSampler sampler = new TriggerSampler(this.random);
+
 	public RandomBlockEffectScanner(@Nonnull final ScanLocus locus, final int range) {
 		super(locus, "RandomBlockScanner: " + range, range, ITERATION_COUNT);
 		setLogger(ModBase.log());
 	}
 
+	/**
+	 * Gets the sound and effect profile for a block state.
+	 */
+	@Nonnull
+	protected BlockStateData getStateData(@Nonnull final IBlockState state) {
+		return BlockStateUtil.getStateData(state);
+	}
+
 	@Override
 	protected boolean interestingBlock(@Nonnull final IBlockState state) {
-		return BlockStateUtil.getStateData(state).hasSoundsOrEffects();
+		return getStateData(state).hasSoundsOrEffects();
 	}
 
 	@Override
 	public void blockScan(@Nonnull final IBlockState state, @Nonnull final BlockPos pos, @Nonnull final Random rand) {
 		final IBlockAccessEx provider = this.locus.getWorld();
-		final BlockStateData profile = BlockStateUtil.getStateData(state);
+		final BlockStateData profile = getStateData(state);
 		final BlockEffect[] effects = profile.getEffects();
 		if (effects != BlockStateData.NO_EFFECTS)
 			for (final BlockEffect be : effects) {
-				if (be.canTrigger(provider, state, pos, rand))
+				if (this.sampler.fires(be.getChance()) && be.canTriggerAt(provider, state, pos))
 					be.doEffect(provider, state, pos, rand);
 			}
 
-		final SoundEffect sound = profile.getSoundToPlay(rand);
-		if (sound != null)
-			sound.doEffect(provider, state, pos, rand);
+		if (profile.getSounds() != BlockStateData.NO_SOUNDS && this.sampler.fires(profile.getChance())) {
+			final SoundEffect sound = profile.selectSound(rand);
+			if (sound != null)
+				sound.doEffect(provider, state, pos, rand);
+		}
 	}
 
 }
@@ -32,6 +32,7 @@ import org.orecruncher.dsurround.capabilities.CapabilitySpeechData;
 import org.orecruncher.dsurround.capabilities.speech.ISpeechData;
 import org.orecruncher.dsurround.capabilities.speech.RenderContext;
 import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
+import org.orecruncher.dsurround.event.BlockUpdateEvent;
 import org.orecruncher.lib.Color;
 import org.orecruncher.lib.WorldUtils;
 import org.orecruncher.lib.collections.ObjectArray;
@@ -51,6 +52,8 @@ import net.minecraft.util.text.TextFormatting;
 import net.minecraftforge.client.event.RenderWorldLastEvent;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
 import net.minecraftforge.fml.relauncher.Side;
 
 @EventBusSubscriber(value = Side.CLIENT, modid = ModInfo.MOD_ID)
@@ -62,6 +65,12 @@ public class SpeechDataRenderer {
 	private static final float F_COLOR_ALPHA = 0.99F;
 	private static final Color F_COLOR_DEPTH = Color.getColor(TextFormatting.GRAY);
 
+	// 16 block range
+	private static final int RANGE = 16 * 16;
+	private static final int VISIBILITY_BUDGET = 8;
+	private static final double VISIBILITY_MOVE_THRESHOLD = 0.5D;
+	private static final int VISIBILITY_MAX_AGE = 10;
+
 	private static RenderManager getRenderManager() {
 		return Minecraft.getMinecraft().getRenderManager();
 	}
@@ -149,25 +158,61 @@ public class SpeechDataRenderer {
 		OpenGlState.pop(glState);
 	}
 
-	private static boolean canBeSeen(@Nonnull EntityPlayer player, @Nonnull Entity subject) {
-		if (subject.isInvisibleToPlayer(player))
-			return false;
-		return player.canEntityBeSeen(subject);
+	// Line of sight results are computed during the client tick and spread out
+	// across ticks. Rendering only consults the cache.
+	private static final VisibilityCache<Entity> visibility = new VisibilityCache<>(
+			SpeechDataRenderer::canBeSeen, VISIBILITY_BUDGET, VISIBILITY_MOVE_THRESHOLD, VISIBILITY_MAX_AGE);
+
+	private static boolean canBeSeen(@Nonnull final Entity subject) {
+		final EntityPlayer player = EnvironState.getPlayer();
+		return player != null && player.canEntityBeSeen(subject);
+	}
+
+	private static boolean hasMessages(@Nonnull final ISpeechData data) {
+		final RenderContext ctx = data.getRenderContext();
+		return ctx != null && ctx.numberOfMessages > 0;
+	}
+
+	@SubscribeEvent
+	public static void onClientTick(@Nonnull final TickEvent.ClientTickEvent event) {
+		if (event.phase != Phase.END)
+			return;
+
+		final EntityPlayer player = EnvironState.getPlayer();
+		if (player == null) {
+			visibility.clear();
+			return;
+		}
+
+		visibility.begin(EnvironState.getTickCounter(), player.posX, player.posY + player.getEyeHeight(),
+				player.posZ);
+		final ObjectArray<Entity> entities = WorldUtils.gatherEntitiesInView(player, RANGE, 1F);
+		for (final Entity e : entities) {
+			final ISpeechData data = CapabilitySpeechData.getCapability(e);
+			if (data != null && hasMessages(data))
+				visibility.offer(e.getEntityId(), e, e.posX, e.posY, e.posZ);
+		}
+		visibility.end();
+	}
+
+	@SubscribeEvent
+	public static void onBlockUpdate(@Nonnull final BlockUpdateEvent event) {
+		if (event.world.isRemote)
+			visibility.invalidate(event.pos.getX(), event.pos.getY(), event.pos.getZ());
 	}
 
 	@SubscribeEvent
 	public static void onRenderWorldLast(@Nonnull final RenderWorldLastEvent event) {
 		final EntityPlayer player = EnvironState.getPlayer();
 		if (player != null) {
-			// 16 block range
-			final int range = 16 * 16;
-			final ObjectArray<Entity> entities = WorldUtils.gatherEntitiesInView(player, range,
+			final ObjectArray<Entity> entities = WorldUtils.gatherEntitiesInView(player, RANGE,
 					event.getPartialTicks());
 			for (final Entity e : entities) {
+				if (!visibility.isVisible(e.getEntityId()) || e.isInvisibleToPlayer(player))
+					continue;
 				final ISpeechData data = CapabilitySpeechData.getCapability(e);
-				if (data != null && canBeSeen(player, e)) {
+				if (data != null)
 					doRender(e, data, event.getPartialTicks());
-				}
 			}
 		}
 	}
@@ -0,0 +1,255 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.renderer;
+
+import java.util.ArrayDeque;
+
+import javax.annotation.Nonnull;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+
+/**
+ * Caches line of sight results between the camera and a set of subjects. The
+ * raycasts are spread across ticks: each tick at most budget subjects are
+ * evaluated in FIFO order. A cached result is invalidated when either the
+ * camera or the subject moves further than the configured threshold from where
+ * it was when the result was computed, when a block along the line of sight
+ * changes, or when the result gets too old.
+ *
+ * Subjects are identified by an integer ID and their positions are supplied by
+ * the caller so the scheduling logic has no dependency on the game.
+ *
+ * @param <T> Type of subject being tracked
+ */
+public final class VisibilityCache<T> {
+
+	@FunctionalInterface
+	public interface IRaycaster<T> {
+		boolean canSee(@Nonnull final T subject);
+	}
+
+	// Radius of the sphere around a block's center that contains the block
+	private static final double BLOCK_RADIUS_SQ = 0.75D;
+
+	private static final class Entry<T> {
+		T subject;
+		double x;
+		double y;
+		double z;
+		double evalX;
+		double evalY;
+		double evalZ;
+		double camX;
+		double camY;
+		double camZ;
+		int evalTick;
+		int seenTick;
+		boolean evaluated;
+		boolean dirty;
+		boolean visible;
+		boolean queued;
+	}
+
+	private final IRaycaster<T> raycaster;
+	private final int budget;
+	private final double moveThresholdSq;
+	private final int maxAge;
+
+	private final Int2ObjectOpenHashMap<Entry<T>> entries = new Int2ObjectOpenHashMap<>();
+	private final ArrayDeque<Entry<T>> queue = new ArrayDeque<>();
+
+	private int tick;
+	private double camX;
+	private double camY;
+	private double camZ;
+
+	/**
+	 * @param raycaster     Performs the actual line of sight check
+	 * @param budget        Maximum number of raycasts performed per tick
+	 * @param moveThreshold Distance the camera or a subject can move before a
+	 *                      result is invalidated
+	 * @param maxAge        Number of ticks a result is considered valid even if
+	 *                      nothing moved
+	 */
+	public VisibilityCache(@Nonnull final IRaycaster<T> raycaster, final int budget, final double moveThreshold,
+			final int maxAge) {
+		this.raycaster = raycaster;
+		this.budget = budget;
+		this.moveThresholdSq = moveThreshold * moveThreshold;
+		this.maxAge = maxAge;
+	}
+
+	/**
+	 * Starts a new tick with the current camera position.
+	 */
+	public void begin(final int tick, final double x, final double y, final double z) {
+		this.tick = tick;
+		this.camX = x;
+		this.camY = y;
+		this.camZ = z;
+	}
+
+	/**
+	 * Registers a subject of interest for the current tick along with its current
+	 * position. Subjects that are not offered during a tick are dropped at the end
+	 * of the tick.
+	 */
+	public void offer(final int id, @Nonnull final T subject, final double x, final double y, final double z) {
+		Entry<T> e = this.entries.get(id);
+		if (e == null) {
+			e = new Entry<>();
+			this.entries.put(id, e);
+		}
+		e.subject = subject;
+		e.x = x;
+		e.y = y;
+		e.z = z;
+		e.seenTick = this.tick;
+		if (!e.queued && isStale(e)) {
+			e.queued = true;
+			this.queue.add(e);
+		}
+	}
+
+	/**
+	 * Drops subjects that were not offered this tick and performs up to budget
+	 * raycasts for the stale entries.
+	 *
+	 * @return The number of raycasts performed
+	 */
+	public int end() {
+		final ObjectIterator<Int2ObjectMap.Entry<Entry<T>>> itr = this.entries.int2ObjectEntrySet().fastIterator();
+		while (itr.hasNext()) {
+			final Entry<T> e = itr.next().getValue();
+			if (e.seenTick != this.tick) {
+				itr.remove();
+				e.subject = null;
+			}
+		}
+
+		int performed = 0;
+		while (performed < this.budget && !this.queue.isEmpty()) {
+			final Entry<T> e = this.queue.poll();
+			e.queued = false;
+			// Dropped from the cache while waiting
+			if (e.subject == null)
+				continue;
+			e.visible = this.raycaster.canSee(e.subject);
+			e.evaluated = true;
+			e.dirty = false;
+			e.evalTick = this.tick;
+			e.evalX = e.x;
+			e.evalY = e.y;
+			e.evalZ = e.z;
+			e.camX = this.camX;
+			e.camY = this.camY;
+			e.camZ = this.camZ;
+			performed++;
+		}
+		return performed;
+	}
+
+	/**
+	 * A block changed. Results whose line of sight passes near the block are
+	 * evaluated again the next time their subject is offered; until then the
+	 * old result stands.
+	 *
+	 * @param x X coordinate of the block
+	 * @param y Y coordinate of the block
+	 * @param z Z coordinate of the block
+	 * @return The number of results invalidated
+	 */
+	public int invalidate(final int x, final int y, final int z) {
+		final double cX = x + 0.5D;
+		final double cY = y + 0.5D;
+		final double cZ = z + 0.5D;
+		int count = 0;
+		for (final Entry<T> e : this.entries.values()) {
+			if (!e.evaluated || e.dirty)
+				continue;
+			if (segmentDistSq(e.camX, e.camY, e.camZ, e.evalX, e.evalY, e.evalZ, cX, cY, cZ) <= BLOCK_RADIUS_SQ) {
+				e.dirty = true;
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private boolean isStale(@Nonnull final Entry<T> e) {
+		if (!e.evaluated || e.dirty)
+			return true;
+		if (this.tick - e.evalTick >= this.maxAge)
+			return true;
+		if (distSq(e.camX, e.camY, e.camZ, this.camX, this.camY, this.camZ) > this.moveThresholdSq)
+			return true;
+		return distSq(e.evalX, e.evalY, e.evalZ, e.x, e.y, e.z) > this.moveThresholdSq;
+	}
+
+	private static double distSq(final double x1, final double y1, final double z1, final double x2,
+			final double y2, final double z2) {
+		final double dX = x1 - x2;
+		final double dY = y1 - y2;
+		final double dZ = z1 - z2;
+		return dX * dX + dY * dY + dZ * dZ;
+	}
+
+	// Squared distance from the point to the segment between the two ends
+	private static double segmentDistSq(final double x1, final double y1, final double z1, final double x2,
+			final double y2, final double z2, final double px, final double py, final double pz) {
+		final double dX = x2 - x1;
+		final double dY = y2 - y1;
+		final double dZ = z2 - z1;
+		final double lenSq = dX * dX + dY * dY + dZ * dZ;
+		double t = 0D;
+		if (lenSq > 0D)
+			t = Math.max(0D, Math.min(1D, ((px - x1) * dX + (py - y1) * dY + (pz - z1) * dZ) / lenSq));
+		return distSq(x1 + dX * t, y1 + dY * t, z1 + dZ * t, px, py, pz);
+	}
+
+	/**
+	 * Returns the cached visibility of the subject. Subjects that have not been
+	 * evaluated yet are considered not visible.
+	 */
+	public boolean isVisible(final int id) {
+		final Entry<T> e = this.entries.get(id);
+		return e != null && e.evaluated && e.visible;
+	}
+
+	public int size() {
+		return this.entries.size();
+	}
+
+	public int pending() {
+		return this.queue.size();
+	}
+
+	public void clear() {
+		this.entries.values().forEach(e -> e.subject = null);
+		this.entries.clear();
+		this.queue.clear();
+	}
+}
@@ -26,6 +26,9 @@ package org.orecruncher.dsurround.client.renderer.weather;
 
 import java.util.Random;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
 import org.orecruncher.dsurround.ModOptions;
 import org.orecruncher.dsurround.capabilities.CapabilityDimensionInfo;
 import org.orecruncher.dsurround.capabilities.CapabilitySeasonInfo;
@@ -34,7 +37,10 @@ import org.orecruncher.dsurround.capabilities.season.ISeasonInfo;
 import org.orecruncher.dsurround.capabilities.season.PrecipitationType;
 import org.orecruncher.dsurround.client.fx.ParticleCollections;
 import org.orecruncher.dsurround.client.handlers.SoundEffectHandler;
+import org.orecruncher.dsurround.client.sound.RainBed;
+import org.orecruncher.dsurround.client.sound.RainBedEmitter;
 import org.orecruncher.dsurround.client.sound.SoundBuilder;
+import org.orecruncher.dsurround.client.sound.SoundEffect;
 import org.orecruncher.dsurround.client.sound.SoundInstance;
 import org.orecruncher.dsurround.client.weather.Weather;
 import org.orecruncher.dsurround.client.weather.compat.RandomThings;
@@ -44,6 +50,7 @@ import org.orecruncher.lib.gfx.ParticleHelper;
 import org.orecruncher.lib.random.XorShiftRandom;
 
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import net.minecraft.block.Block;
 import net.minecraft.block.material.Material;
 import net.minecraft.block.state.IBlockState;
@@ -75,8 +82,18 @@ public class StormSplashRenderer {
 		splashRenderers.put(1, new NullSplashRenderer());
 	}
 
+	// Renderer that last ran so its rain loops can be stopped when the player
+	// changes dimension
+	private static StormSplashRenderer current;
+
 	public static void renderStormSplashes(final int dimensionId, final EntityRenderer renderer) {
-		splashRenderers.get(dimensionId).addRainParticles(renderer);
+		final StormSplashRenderer splash = splashRenderers.get(dimensionId);
+		if (splash != current) {
+			if (current != null)
+				current.stopRainBed();
+			current = splash;
+		}
+		splash.addRainParticles(renderer);
 	}
 
 	protected final Random RANDOM = new XorShiftRandom();
@@ -85,6 +102,18 @@ public class StormSplashRenderer {
 
 	protected int rainSoundCounter = 0;
 
+	// Below this the loop for a rain bed layer is released
+	protected static final float MIN_BED_GAIN = 0.01F;
+	// How far a crossfade between bed sounds moves each tick
+	protected static final float BED_FADE_STEP = 0.05F;
+	private static final Reference2ObjectOpenHashMap<SoundEvent, SoundEffect> bedEffects = new Reference2ObjectOpenHashMap<>();
+
+	protected final RainBed rainBed = new RainBed();
+	protected final RainBedEmitter[] bedEmitters = new RainBedEmitter[RainBed.LAYERS];
+	protected final RainBedEmitter[] fadingEmitters = new RainBedEmitter[RainBed.LAYERS];
+	protected SoundEvent bedSound;
+	protected float bedFade = 1F;
+
 	protected float calculateRainSoundVolume(final World world) {
 		final float currentVolume = Weather.getCurrentVolume();
 		final float bounds = currentVolume * 0.25F;
@@ -126,6 +155,136 @@ public class StormSplashRenderer {
 		return season.getPrecipitationHeight(pos);
 	}
 
+	/**
+	 * How loud and how bright a surface sounds when rain lands on it.
+	 */
+	protected float getSurfaceWeight(@Nonnull final IBlockState state) {
+		final Material material = state.getMaterial();
+		if (material.isLiquid())
+			return 0.8F;
+		if (material == Material.LEAVES || material == Material.PLANTS || material == Material.VINE)
+			return 1.1F;
+		if (material == Material.SAND || material == Material.GROUND || material == Material.GRASS
+				|| material == Material.SNOW || material == Material.CRAFTED_SNOW)
+			return 0.9F;
+		return 1.0F;
+	}
+
+	protected float getSurfaceBrightness(@Nonnull final IBlockState state) {
+		final Material material = state.getMaterial();
+		if (material.isLiquid())
+			return 0.2F;
+		if (material == Material.GLASS || material == Material.IRON || material == Material.ICE
+				|| material == Material.PACKED_ICE)
+			return 1.0F;
+		if (material == Material.SAND || material == Material.GROUND || material == Material.GRASS
+				|| material == Material.SNOW || material == Material.CRAFTED_SNOW || material == Material.CLOTH)
+			return 0.3F;
+		return 0.5F;
+	}
+
+	@Nonnull
+	private static SoundEffect getBedEffect(@Nonnull final SoundEvent sound) {
+		SoundEffect effect = bedEffects.get(sound);
+		if (effect == null) {
+			effect = new SoundEffect.Builder(sound.getRegistryName(), SoundCategory.WEATHER).build();
+			bedEffects.put(sound, effect);
+		}
+		return effect;
+	}
+
+	/**
+	 * Pushes the rain bed layers out to their loops. Layers that have gone quiet
+	 * release their channel. When the bed sound changes the old loops fade out
+	 * while the new ones fade in.
+	 */
+	protected void updateRainBed(@Nonnull final Entity player, @Nullable final SoundEvent sound,
+			final float volume) {
+		this.rainBed.update(volume);
+
+		if (sound != this.bedSound) {
+			if (this.bedSound != null)
+				crossfadeRainBed();
+			this.bedSound = sound;
+		}
+
+		if (this.bedFade < 1F)
+			this.bedFade = Math.min(1F, this.bedFade + BED_FADE_STEP);
+
+		for (int i = 0; i < RainBed.LAYERS; i++) {
+			final float gain = this.rainBed.getGain(i);
+			final float pitch = this.rainBed.getPitch(i);
+			final double x = player.posX + this.rainBed.getOffsetX(i);
+			final double y = player.posY + (i == RainBed.ROOF ? player.getEyeHeight() + 1.5D : 1.0D);
+			final double z = player.posZ + this.rainBed.getOffsetZ(i);
+
+			final RainBedEmitter fading = this.fadingEmitters[i];
+			if (fading != null) {
+				final float fadeGain = gain * (1F - this.bedFade);
+				if (fadeGain < MIN_BED_GAIN) {
+					fading.stop();
+					this.fadingEmitters[i] = null;
+				} else {
+					fading.setTarget(x, y, z, fadeGain, pitch);
+					fading.update();
+				}
+			}
+
+			final float bedGain = gain * this.bedFade;
+			RainBedEmitter emitter = this.bedEmitters[i];
+			if (sound == null || bedGain < MIN_BED_GAIN) {
+				if (emitter != null) {
+					emitter.stop();
+					this.bedEmitters[i] = null;
+				}
+				continue;
+			}
+
+			if (emitter == null)
+				this.bedEmitters[i] = emitter = new RainBedEmitter(getBedEffect(sound));
+			emitter.setTarget(x, y, z, bedGain, pitch);
+			emitter.update();
+		}
+	}
+
+	/**
+	 * Hands the current loops over to be faded out. The bed itself keeps its
+	 * state since the same columns are being sampled, only the sound differs.
+	 */
+	protected void crossfadeRainBed() {
+		for (int i = 0; i < RainBed.LAYERS; i++) {
+			if (this.fadingEmitters[i] != null)
+				this.fadingEmitters[i].stop();
+			this.fadingEmitters[i] = this.bedEmitters[i];
+			this.bedEmitters[i] = null;
+		}
+		this.bedFade = 0F;
+	}
+
+	protected void stopRainBed() {
+		for (int i = 0; i < RainBed.LAYERS; i++) {
+			if (this.bedEmitters[i] != null) {
+				this.bedEmitters[i].stop();
+				this.bedEmitters[i] = null;
+			}
+			if (this.fadingEmitters[i] != null) {
+				this.fadingEmitters[i].stop();
+				this.fadingEmitters[i] = null;
+			}
+		}
+		this.rainBed.reset();
+		this.bedSound = null;
+		this.bedFade = 1F;
+	}
+
+	/**
+	 * Lets the rain bed fade out when nothing is being sampled.
+	 */
+	protected void quietRainBed(@Nonnull final Entity player) {
+		this.rainBed.begin();
+		updateRainBed(player, this.bedSound, 0F);
+	}
+
 	protected void playSplashSound(final ISeasonInfo season, final World world, final Entity player, double x, double y,
 			double z) {
 
@@ -151,24 +310,32 @@ public class StormSplashRenderer {
 
 	public void addRainParticles(final EntityRenderer theThis) {
 		final Minecraft mc = Minecraft.getMinecraft();
-		if (mc.gameSettings.particleSetting == 2)
+		if (mc.gameSettings.particleSetting == 2) {
+			stopRainBed();
 			return;
+		}
 
 		final Entity entity = mc.getRenderViewEntity();
-		if (entity == null)
+		if (entity == null) {
+			stopRainBed();
 			return;
+		}
 
 		final World world = mc.world;
 		IDimensionInfo info = CapabilityDimensionInfo.getCapability(world);
-		if (info != null && !info.hasWeather())
+		if (info != null && !info.hasWeather()) {
+			quietRainBed(entity);
 			return;
+		}
 
 		float rainStrengthFactor = Weather.getIntensityLevel();
 		if (!mc.gameSettings.fancyGraphics)
 			rainStrengthFactor /= 2.0F;
 
-		if (rainStrengthFactor <= 0.0F)
+		if (rainStrengthFactor <= 0.0F) {
+			quietRainBed(entity);
 			return;
+		}
 
 		this.RANDOM.setSeed(RenderWeather.getRendererUpdateCount() * 312987231L);
 		final int playerX = MathHelper.floor(entity.posX);
@@ -187,6 +354,17 @@ public class StormSplashRenderer {
 			particleCount >>= 1;
 
 		final ISeasonInfo season = CapabilitySeasonInfo.getCapability(world);
+		final SoundEvent stormSound = getBlockSoundFX(Blocks.AIR, PrecipitationType.RAIN);
+		final SoundEvent dustSound = getBlockSoundFX(Blocks.AIR, PrecipitationType.DUST);
+		int rainColumns = 0;
+		int dustColumns = 0;
+
+		// Rain landing above the player's head only sounds like it is on a roof
+		// when the player is actually under cover.
+		this.pos.setPos(entity.posX, 0, entity.posZ);
+		final boolean covered = season.getPrecipitationHeight(this.pos).getY() > playerY;
+
+		this.rainBed.begin();
 
 		for (int j1 = 0; j1 < particleCount; ++j1) {
 			final int locX = playerX + this.RANDOM.nextInt(RANGE) - this.RANDOM.nextInt(RANGE);
@@ -211,14 +389,33 @@ public class StormSplashRenderer {
 
 				spawnBlockParticle(state, hasDust, world, posX, posY, posZ);
 
-				if (this.RANDOM.nextInt(++particlesSpawned) == 0) {
+				// Regular rain and dust feed the rain bed. Anything else, like
+				// lava popping, is rare enough to still be a one off sound.
+				final SoundEvent sound = getBlockSoundFX(state.getBlock(), pt);
+				if (sound == null) {
+					this.rainBed.addDry(posX - entity.posX, posZ - entity.posZ);
+				} else if (sound == stormSound || sound == dustSound) {
+					if (hasDust)
+						dustColumns++;
+					else
+						rainColumns++;
+					this.rainBed.addColumn(posX - entity.posX, posZ - entity.posZ,
+							covered && posY > entity.posY + 1.0D,
+							getSurfaceWeight(state), getSurfaceBrightness(state));
+				} else if (this.RANDOM.nextInt(++particlesSpawned) == 0) {
 					spawnX = posX;
 					spawnY = posY;
 					spawnZ = posZ;
 				}
+			} else {
+				this.rainBed.addDry(locX + 0.5D - entity.posX, locZ + 0.5D - entity.posZ);
 			}
 		}
 
+		final SoundEvent bed = dustColumns > rainColumns ? dustSound
+				: (rainColumns > 0 ? stormSound : this.bedSound);
+		updateRainBed(entity, bed, calculateRainSoundVolume(world));
+
 		if (particlesSpawned > 0 && this.RANDOM.nextInt(PARTICLE_SOUND_CHANCE) < this.rainSoundCounter++) {
 			this.rainSoundCounter = 0;
 			playSplashSound(season, world, entity, spawnX, spawnY, spawnZ);
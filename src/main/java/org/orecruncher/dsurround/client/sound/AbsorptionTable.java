@@ -0,0 +1,100 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.sound;
+
+import java.util.Arrays;
+
+import org.orecruncher.lib.math.MathStuff;
+
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Coefficient table used by the OcclusionTracer. Each entry describes what
+ * happens to sound passing through one block of a material: the fraction of the
+ * energy it absorbs, and how much of the high end it takes away (the low-pass
+ * amount). Entries are identified by the int handed back when they are added;
+ * id 0 is always open air. Has no dependencies on the game so it can be
+ * exercised without a world.
+ */
+@SideOnly(Side.CLIENT)
+public final class AbsorptionTable {
+
+	public static final int OPEN = 0;
+	// Partial blocks (slabs, doors, fences, etc.) count as this much of a block
+	public static final float PARTIAL = 0.5F;
+
+	private float[] transmission = new float[16];
+	private float[] lowPass = new float[16];
+	private int size;
+
+	public AbsorptionTable() {
+		add(0F, 0F);
+	}
+
+	/**
+	 * Adds an entry to the table.
+	 *
+	 * @param absorption Fraction of the energy absorbed per block, 0 to 1
+	 * @param lowPass    Low-pass amount contributed per block, 0 to 1
+	 * @return Id of the new entry
+	 */
+	public int add(final float absorption, final float lowPass) {
+		if (this.size == this.transmission.length) {
+			this.transmission = Arrays.copyOf(this.transmission, this.size * 2);
+			this.lowPass = Arrays.copyOf(this.lowPass, this.size * 2);
+		}
+		this.transmission[this.size] = 1F - MathStuff.clamp(absorption, 0F, 1F);
+		this.lowPass[this.size] = MathStuff.clamp(lowPass, 0F, 1F);
+		return this.size++;
+	}
+
+	/**
+	 * Adds an entry for a partial block of a material. It absorbs and filters
+	 * half as much as a full block would.
+	 *
+	 * @param absorption Fraction of the energy absorbed by a full block, 0 to 1
+	 * @param lowPass    Low-pass amount of a full block, 0 to 1
+	 * @return Id of the new entry
+	 */
+	public int addPartial(final float absorption, final float lowPass) {
+		return add(absorption * PARTIAL, lowPass * PARTIAL);
+	}
+
+	/**
+	 * Fraction of the energy that makes it through one block of the entry.
+	 */
+	public float getTransmission(final int id) {
+		return this.transmission[id];
+	}
+
+	public float getLowPass(final int id) {
+		return this.lowPass[id];
+	}
+
+	public int size() {
+		return this.size;
+	}
+}
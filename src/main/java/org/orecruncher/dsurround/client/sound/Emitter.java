@@ -23,11 +23,8 @@
 
 package org.orecruncher.dsurround.client.sound;
 
-import java.util.Random;
-
 import javax.annotation.Nonnull;
 
-import net.minecraft.util.SoundEvent;
 import org.apache.commons.lang3.StringUtils;
 import org.orecruncher.dsurround.ModBase;
 import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
@@ -35,8 +32,10 @@ import org.orecruncher.dsurround.client.handlers.SoundEffectHandler;
 import org.orecruncher.dsurround.registry.RegistryManager;
 import org.orecruncher.dsurround.registry.sound.SoundMetadata;
 import org.orecruncher.lib.gui.RecordTitleEmitter;
-import org.orecruncher.lib.random.XorShiftRandom;
 
+import net.minecraft.client.audio.ISound.AttenuationType;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.SoundEvent;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
@@ -45,13 +44,19 @@ import net.minecraftforge.fml.relauncher.SideOnly;
  * or on repeat. They ensure that the sound is always queue
  * in the sound system even if the underlying sound system
  * cancels the sound.
+ *
+ * If the sound system does not have a channel for an emitter
+ * it becomes a virtual voice.  It is tracked in software and
+ * promoted back to a real channel, highest priority first,
+ * when space frees up.
  */
 @SideOnly(Side.CLIENT)
 public abstract class Emitter {
 
 	protected static final int ERROR_DELAY = 10;
-	protected static final int ERROR_DELAY_RANDOM = 6;
-	protected static final Random RANDOM = XorShiftRandom.current();
+	protected static final int VIRTUAL_STALE_TICKS = 40;
+	protected static final VirtualVoiceTable<Emitter> VOICES = new VirtualVoiceTable<>(VIRTUAL_STALE_TICKS,
+			ERROR_DELAY);
 	protected static final RecordTitleEmitter.ITimeKeeper timer = EnvironState::getTickCounter;
 
 	protected final RecordTitleEmitter titleEmitter;
@@ -59,8 +64,6 @@ public abstract class Emitter {
 	protected SoundInstance activeSound;
 	protected boolean done = false;
 
-	protected int errorDelayTicks;
-
 	public Emitter(@Nonnull final SoundEffect sound) {
 		this.effect = sound;
 
@@ -95,7 +98,6 @@ public abstract class Emitter {
 		// Allocate a new sound to send down if needed
 		if (this.activeSound == null) {
 			this.activeSound = createSound();
-			this.activeSound.setQueue(true);
 		} else if (this.activeSound.getState().isActive()) {
 			if (!this.activeSound.canSoundBeHeard()
 					|| (isFading() && this.activeSound.getState() == SoundState.DELAYED)) {
@@ -109,18 +111,77 @@ public abstract class Emitter {
 			// handler on the sound did not have a chance to get there
 			// first.
 			this.done = true;
+			VOICES.remove(this);
 			return;
 		}
 
+		// If virtual, wait to be promoted. Otherwise try to get a channel and
+		// go virtual if one isn't available. Playback of the virtual voice starts
+		// now.
+		final int tick = EnvironState.getTickCounter();
+		final float priority = getPriority();
+		if (!VOICES.touch(this, tick, priority) && !play()) {
+			VOICES.virtualize(this, tick, tick, priority);
+		}
+	}
+
+	protected boolean play() {
 		try {
-			if (this.errorDelayTicks > 0) {
-				this.errorDelayTicks--;
-			} else if (!SoundEffectHandler.INSTANCE.playSound(this.activeSound)) {
-				this.errorDelayTicks = ERROR_DELAY + RANDOM.nextInt(ERROR_DELAY_RANDOM);
-			}
+			if (SoundEffectHandler.INSTANCE.playSound(this.activeSound))
+				return true;
 		} catch (final Throwable t) {
 			ModBase.log().error("Unable to play sound", t);
 		}
+		return false;
+	}
+
+	/**
+	 * Priority of the emitter when competing for a channel. Based on the
+	 * effective volume of the sound as heard by the player.
+	 */
+	protected float getPriority() {
+		if (this.activeSound == null || !this.activeSound.canSoundBeHeard())
+			return 0F;
+		float result = SoundEngine.getClampedVolume(this.activeSound);
+		final EntityPlayer player = EnvironState.getPlayer();
+		if (player != null && this.activeSound.getAttenuationType() == AttenuationType.LINEAR) {
+			final double dist = Math.sqrt(player.getDistanceSq(this.activeSound.getXPosF(),
+					this.activeSound.getYPosF(), this.activeSound.getZPosF()));
+			result = attenuate(result, this.activeSound.getVolume(), dist);
+		}
+		return result;
+	}
+
+	/**
+	 * Applies linear distance attenuation the way the sound engine does. The
+	 * range of a sound is 16 blocks per unit of volume, but never less than 16.
+	 *
+	 * @param gain     Gain before attenuation
+	 * @param volume   Volume of the sound, which determines its range
+	 * @param distance Distance from the listener
+	 * @return The attenuated gain
+	 */
+	public static float attenuate(final float gain, final float volume, final double distance) {
+		final double range = Math.max(volume, 1F) * 16D;
+		return gain * (float) Math.max(0D, 1D - distance / range);
+	}
+
+	/**
+	 * Promotes virtual emitters to real channels as space is available in the
+	 * sound engine. Should be called once a tick after the emitters have been
+	 * updated.
+	 */
+	public static void processVirtualVoices() {
+		VOICES.promote(SoundEngine.instance().getAvailableChannels(), EnvironState.getTickCounter(),
+				Emitter::play);
+	}
+
+	public static int getVirtualVoiceCount() {
+		return VOICES.size();
+	}
+
+	public static void clearVirtualVoices() {
+		VOICES.clear();
 	}
 
 	public void setVolumeThrottle(final float throttle) {
@@ -161,6 +222,7 @@ public abstract class Emitter {
 	}
 
 	public void stop() {
+		VOICES.remove(this);
 		if (this.activeSound != null) {
 			this.activeSound.setRepeat(false);
 			SoundEngine.instance().stopSound(this.activeSound);
@@ -169,6 +231,9 @@ public abstract class Emitter {
 
 	@Override
 	public String toString() {
+		final int pos = VOICES.getPosition(this, EnvironState.getTickCounter());
+		if (pos >= 0)
+			return "VIRTUAL@" + pos + " " + this.activeSound.toString();
 		return this.activeSound.toString();
 	}
 
@@ -0,0 +1,232 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.sound;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2FloatOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * A tree of mixing buses. Each bus has a gain, and the effective gain of a bus
+ * is its own gain, scaled by any ducking rules that target it, multiplied by
+ * the effective gain of its parent. Ducking rules are keyed by a trigger name;
+ * when the trigger is active the rule ramps toward full ducking at the attack
+ * rate, and back out at the release rate. When the rules are replaced, as
+ * happens on a config reload, a new rule picks up the duck level of the old
+ * rules with the same trigger so a fade in progress carries on instead of the
+ * buses snapping back to full gain.
+ *
+ * Effective gains are computed once per update() so reading the gain of a bus
+ * is an array lookup.
+ */
+@SideOnly(Side.CLIENT)
+public final class MixerGraph {
+
+	private static final class Rule {
+		final String trigger;
+		final int[] targets;
+		final float gain;
+		final float attack;
+		final float release;
+		float level;
+
+		Rule(@Nonnull final String trigger, @Nonnull final int[] targets, final float gain, final float attack,
+				final float release) {
+			this.trigger = trigger;
+			this.targets = targets;
+			this.gain = gain;
+			this.attack = attack;
+			this.release = release;
+		}
+	}
+
+	private final Object2IntOpenHashMap<String> ids = new Object2IntOpenHashMap<>();
+	private final ObjectArrayList<String> names = new ObjectArrayList<>();
+	private final ObjectArrayList<Rule> rules = new ObjectArrayList<>();
+	private final Object2FloatOpenHashMap<String> carried = new Object2FloatOpenHashMap<>();
+	private int size;
+	private int[] parent = new int[8];
+	private float[] gain = new float[8];
+	private float[] duck = new float[8];
+	private float[] effective = new float[8];
+	private boolean[] changed = new boolean[8];
+
+	public MixerGraph() {
+		this.ids.defaultReturnValue(-1);
+	}
+
+	/**
+	 * Adds a bus to the graph. A parent has to be added before its children.
+	 *
+	 * @param name   Name of the bus
+	 * @param parent Name of the parent bus, or null if it is a root
+	 * @return The id of the new bus
+	 */
+	public int addBus(@Nonnull final String name, @Nullable final String parent) {
+		if (this.ids.containsKey(name))
+			throw new IllegalArgumentException("Bus already exists: " + name);
+		final int p = parent == null ? -1 : getBus(parent);
+		if (parent != null && p < 0)
+			throw new IllegalArgumentException("Unknown parent bus: " + parent);
+
+		if (this.size == this.parent.length) {
+			final int len = this.size * 2;
+			this.parent = Arrays.copyOf(this.parent, len);
+			this.gain = Arrays.copyOf(this.gain, len);
+			this.duck = Arrays.copyOf(this.duck, len);
+			this.effective = Arrays.copyOf(this.effective, len);
+			this.changed = Arrays.copyOf(this.changed, len);
+		}
+
+		final int id = this.size++;
+		this.ids.put(name, id);
+		this.names.add(name);
+		this.parent[id] = p;
+		this.gain[id] = 1F;
+		this.effective[id] = p < 0 ? 1F : this.effective[p];
+		return id;
+	}
+
+	/**
+	 * @return The id of the named bus, or -1 if it does not exist
+	 */
+	public int getBus(@Nonnull final String name) {
+		return this.ids.getInt(name);
+	}
+
+	@Nonnull
+	public String getName(final int bus) {
+		return this.names.get(bus);
+	}
+
+	public void setGain(final int bus, final float gain) {
+		this.gain[bus] = gain;
+	}
+
+	/**
+	 * Adds a ducking rule.
+	 *
+	 * @param trigger Name of the trigger that activates the rule
+	 * @param targets Names of the buses to duck. Unknown names are ignored.
+	 * @param gain    Gain applied to the targets when fully ducked
+	 * @param attack  Amount per update the rule moves toward full ducking
+	 * @param release Amount per update the rule moves away from full ducking
+	 * @return true if all the targets were found, false otherwise
+	 */
+	public boolean addRule(@Nonnull final String trigger, @Nonnull final Iterable<String> targets, final float gain,
+			final float attack, final float release) {
+		boolean result = true;
+		final IntArrayList found = new IntArrayList();
+		for (final String t : targets) {
+			final int id = getBus(t);
+			if (id >= 0)
+				found.add(id);
+			else
+				result = false;
+		}
+		final Rule rule = new Rule(trigger, found.toIntArray(), gain, Math.max(attack, 0F), Math.max(release, 0F));
+		rule.level = this.carried.getFloat(trigger);
+		this.rules.add(rule);
+		return result;
+	}
+
+	/**
+	 * Removes all the ducking rules. The duck level of each trigger is remembered
+	 * until the next update so rules added in the meantime continue from it.
+	 */
+	public void clearRules() {
+		this.carried.clear();
+		for (final Rule r : this.rules)
+			if (r.level > this.carried.getFloat(r.trigger))
+				this.carried.put(r.trigger, r.level);
+		this.rules.clear();
+	}
+
+	public int ruleCount() {
+		return this.rules.size();
+	}
+
+	/**
+	 * Advances the ducking rules and recomputes the effective gain of each bus.
+	 *
+	 * @param active Determines if the named trigger is active
+	 * @return true if the effective gain of any bus changed
+	 */
+	public boolean update(@Nonnull final Predicate<String> active) {
+		this.carried.clear();
+		Arrays.fill(this.duck, 0, this.size, 1F);
+
+		for (final Rule r : this.rules) {
+			if (active.test(r.trigger))
+				r.level = Math.min(1F, r.level + r.attack);
+			else
+				r.level = Math.max(0F, r.level - r.release);
+			if (r.level > 0) {
+				final float factor = 1F - r.level * (1F - r.gain);
+				for (final int t : r.targets)
+					this.duck[t] *= factor;
+			}
+		}
+
+		// Parents are always added before their children so a single pass works
+		boolean result = false;
+		for (int i = 0; i < this.size; i++) {
+			final int p = this.parent[i];
+			final float g = this.gain[i] * this.duck[i] * (p < 0 ? 1F : this.effective[p]);
+			this.changed[i] = Float.compare(g, this.effective[i]) != 0;
+			this.effective[i] = g;
+			result |= this.changed[i];
+		}
+		return result;
+	}
+
+	/**
+	 * @return The effective gain of the bus as of the last update
+	 */
+	public float getGain(final int bus) {
+		return this.effective[bus];
+	}
+
+	/**
+	 * @return true if the effective gain of the bus changed during the last update
+	 */
+	public boolean isChanged(final int bus) {
+		return this.changed[bus];
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.sound;
+
+import javax.annotation.Nonnull;
+
+import net.minecraft.util.SoundCategory;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * The bus layout SoundMixer routes sounds through. There is a bus for each
+ * sound category, a group bus for the Dynamic Surroundings categories
+ * (footsteps and biome ambience), a bus for battle music, and one for sounds
+ * played from the configuration GUI. It is kept apart from SoundMixer, which
+ * needs a running client, so the replay harness can build the same graph.
+ *
+ * The Dynamic Surroundings categories are added to SoundCategory by a mixin.
+ * If it has not run their buses are still created by name so the layout has
+ * the same shape either way.
+ */
+@SideOnly(Side.CLIENT)
+public final class MixerLayout {
+
+	public static final String MASTER = "master";
+	public static final String DS_EFFECTS = "ds_effects";
+	public static final String DS_FOOTSTEPS = "ds_footsteps";
+	public static final String DS_BIOME = "ds_biome";
+	public static final String BATTLE_MUSIC = "battle_music";
+	public static final String PREVIEW = "preview";
+
+	private MixerLayout() {
+
+	}
+
+	/**
+	 * Creates a mixer graph with the buses laid out.
+	 */
+	@Nonnull
+	public static MixerGraph build() {
+		final MixerGraph graph = new MixerGraph();
+		graph.addBus(MASTER, null);
+		graph.addBus(DS_EFFECTS, MASTER);
+		for (final SoundCategory sc : SoundCategory.values())
+			if (sc != SoundCategory.MASTER)
+				graph.addBus(sc.getName(), getParent(sc.getName()));
+		if (graph.getBus(DS_FOOTSTEPS) < 0)
+			graph.addBus(DS_FOOTSTEPS, DS_EFFECTS);
+		if (graph.getBus(DS_BIOME) < 0)
+			graph.addBus(DS_BIOME, DS_EFFECTS);
+		graph.addBus(BATTLE_MUSIC, MASTER);
+		graph.addBus(PREVIEW, MASTER);
+		return graph;
+	}
+
+	/**
+	 * Name of the bus sounds of the category are routed to.
+	 */
+	@Nonnull
+	public static String getBus(@Nonnull final SoundCategory category) {
+		return category == SoundCategory.MASTER ? MASTER : category.getName();
+	}
+
+	@Nonnull
+	private static String getParent(@Nonnull final String bus) {
+		return DS_FOOTSTEPS.equals(bus) || DS_BIOME.equals(bus) ? DS_EFFECTS : MASTER;
+	}
+
+}
@@ -0,0 +1,204 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.sound;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Holds occlusion results for the sounds that are playing. A sound is
+ * evaluated when it is first seen, and after that it is re-evaluated every so
+ * many ticks. Re-evaluation is spread across ticks: no more than the budget is
+ * spent on a tick, and entries are visited round robin so every sound gets its
+ * turn. The values handed out ease toward the last evaluation so a change in
+ * occlusion does not step the volume. Entries that are not asked for are
+ * dropped. Nothing in here touches the world so it can be exercised on its own.
+ *
+ * @param <K> Type of the key being tracked
+ */
+@SideOnly(Side.CLIENT)
+public final class OcclusionCache<K> {
+
+	@FunctionalInterface
+	public interface IEvaluator<K> {
+		/**
+		 * Evaluates occlusion for the key and sets the entry target.
+		 */
+		void evaluate(@Nonnull final K key, @Nonnull final Entry<K> entry);
+	}
+
+	public static final class Entry<K> {
+		final K key;
+		int evaluated;
+		int lastSeen;
+		float gain = 1F;
+		float lowPass = 0F;
+		float targetGain = 1F;
+		float targetLowPass = 0F;
+
+		Entry(@Nonnull final K key) {
+			this.key = key;
+		}
+
+		public void setTarget(final float gain, final float lowPass) {
+			this.targetGain = gain;
+			this.targetLowPass = lowPass;
+		}
+
+		public float getGain() {
+			return this.gain;
+		}
+
+		public float getLowPass() {
+			return this.lowPass;
+		}
+
+		void snap() {
+			this.gain = this.targetGain;
+			this.lowPass = this.targetLowPass;
+		}
+
+		void ease(final float rate) {
+			this.gain += (this.targetGain - this.gain) * rate;
+			this.lowPass += (this.targetLowPass - this.lowPass) * rate;
+		}
+	}
+
+	private final Reference2ObjectOpenHashMap<K, Entry<K>> entries = new Reference2ObjectOpenHashMap<>();
+	private final ObjectArrayList<Entry<K>> order = new ObjectArrayList<>();
+	private final int interval;
+	private final int budget;
+	private final int staleTicks;
+	private final float rate;
+	private int cursor;
+	private int evaluations;
+
+	/**
+	 * @param interval   Ticks between evaluations of an entry
+	 * @param budget     Maximum number of re-evaluations per tick
+	 * @param staleTicks Ticks an entry can go without being asked for before it
+	 *                   is dropped
+	 * @param rate       Fraction of the distance to the target covered each tick
+	 */
+	public OcclusionCache(final int interval, final int budget, final int staleTicks, final float rate) {
+		this.interval = interval;
+		this.budget = budget;
+		this.staleTicks = staleTicks;
+		this.rate = rate;
+	}
+
+	/**
+	 * Gets the entry for the key, evaluating it right away if it is not being
+	 * tracked yet.
+	 *
+	 * @param key       Key of the entry
+	 * @param tick      Current tick
+	 * @param evaluator Evaluates a new entry
+	 * @return Entry for the key
+	 */
+	@Nonnull
+	public Entry<K> get(@Nonnull final K key, final int tick, @Nonnull final IEvaluator<K> evaluator) {
+		Entry<K> entry = this.entries.get(key);
+		if (entry == null) {
+			entry = new Entry<>(key);
+			evaluator.evaluate(key, entry);
+			entry.snap();
+			entry.evaluated = tick;
+			this.entries.put(key, entry);
+			this.order.add(entry);
+		}
+		entry.lastSeen = tick;
+		return entry;
+	}
+
+	/**
+	 * Gets the entry for the key if it is being tracked.
+	 */
+	@Nullable
+	public Entry<K> peek(@Nonnull final K key) {
+		return this.entries.get(key);
+	}
+
+	/**
+	 * Drops stale entries, re-evaluates entries that are due within the budget,
+	 * and eases all entries toward their targets. Should be called once a tick.
+	 *
+	 * @param tick      Current tick
+	 * @param evaluator Evaluates an entry that is due
+	 */
+	public void update(final int tick, @Nonnull final IEvaluator<K> evaluator) {
+		for (int i = this.order.size() - 1; i >= 0; i--) {
+			final Entry<K> entry = this.order.get(i);
+			if (tick - entry.lastSeen > this.staleTicks)
+				remove(i);
+			else
+				entry.ease(this.rate);
+		}
+
+		this.evaluations = 0;
+		final int count = this.order.size();
+		for (int visited = 0; visited < count && this.evaluations < this.budget; visited++) {
+			if (this.cursor >= count)
+				this.cursor = 0;
+			final Entry<K> entry = this.order.get(this.cursor++);
+			if (tick - entry.evaluated >= this.interval) {
+				evaluator.evaluate(entry.key, entry);
+				entry.evaluated = tick;
+				this.evaluations++;
+			}
+		}
+	}
+
+	private void remove(final int idx) {
+		final Entry<K> entry = this.order.get(idx);
+		this.entries.remove(entry.key);
+		final int last = this.order.size() - 1;
+		this.order.set(idx, this.order.get(last));
+		this.order.remove(last);
+	}
+
+	/**
+	 * Number of re-evaluations performed by the last update.
+	 */
+	public int getEvaluations() {
+		return this.evaluations;
+	}
+
+	public int size() {
+		return this.order.size();
+	}
+
+	public void clear() {
+		this.entries.clear();
+		this.order.clear();
+		this.cursor = 0;
+		this.evaluations = 0;
+	}
+}
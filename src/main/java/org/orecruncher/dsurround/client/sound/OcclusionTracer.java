@@ -0,0 +1,174 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.sound;
+
+import javax.annotation.Nonnull;
+
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Marches a ray from the listener to a sound source through a voxel grid and
+ * accumulates how much of the sound makes it through. Every block the ray
+ * passes through, other than the blocks holding the listener and the source,
+ * multiplies the gain by the transmission of its AbsorptionTable entry and
+ * folds its low-pass amount into the total.
+ *
+ * Voxels are visited in the order of the Amanatides/Woo traversal with ties
+ * broken X, then Y, then Z so the same ray through the same grid always gives
+ * the same answer. The grid is an interface so the tracer can be run against a
+ * synthetic grid without a world.
+ */
+@SideOnly(Side.CLIENT)
+public final class OcclusionTracer {
+
+	// Once this little gets through there is no point in continuing
+	private static final float MIN_GAIN = 0.001F;
+
+	@FunctionalInterface
+	public interface IGrid {
+		/**
+		 * Gets the AbsorptionTable id of the block at the position.
+		 */
+		int getMaterial(final int x, final int y, final int z);
+	}
+
+	private final AbsorptionTable table;
+	private final int maxSteps;
+
+	private float gain = 1F;
+	private float lowPass = 0F;
+	private int steps;
+
+	/**
+	 * @param table    Coefficients for the material ids returned by the grid
+	 * @param maxSteps Maximum number of voxels to visit on a single ray
+	 */
+	public OcclusionTracer(@Nonnull final AbsorptionTable table, final int maxSteps) {
+		this.table = table;
+		this.maxSteps = maxSteps;
+	}
+
+	/**
+	 * Traces a ray between the two points. Results are available from getGain()
+	 * and getLowPass() until the next trace.
+	 */
+	public void trace(@Nonnull final IGrid grid, final double x0, final double y0, final double z0,
+			final double x1, final double y1, final double z1) {
+		this.gain = 1F;
+		this.lowPass = 0F;
+		this.steps = 0;
+
+		int x = floor(x0);
+		int y = floor(y0);
+		int z = floor(z0);
+		final int endX = floor(x1);
+		final int endY = floor(y1);
+		final int endZ = floor(z1);
+
+		final double dx = x1 - x0;
+		final double dy = y1 - y0;
+		final double dz = z1 - z0;
+		final int stepX = dx > 0 ? 1 : -1;
+		final int stepY = dy > 0 ? 1 : -1;
+		final int stepZ = dz > 0 ? 1 : -1;
+		final double deltaX = dx == 0 ? Double.POSITIVE_INFINITY : Math.abs(1D / dx);
+		final double deltaY = dy == 0 ? Double.POSITIVE_INFINITY : Math.abs(1D / dy);
+		final double deltaZ = dz == 0 ? Double.POSITIVE_INFINITY : Math.abs(1D / dz);
+		double maxX = dx == 0 ? Double.POSITIVE_INFINITY : boundary(x0, x, stepX) * deltaX;
+		double maxY = dy == 0 ? Double.POSITIVE_INFINITY : boundary(y0, y, stepY) * deltaY;
+		double maxZ = dz == 0 ? Double.POSITIVE_INFINITY : boundary(z0, z, stepZ) * deltaZ;
+
+		float transmitted = 1F;
+		float passed = 1F;
+
+		while (this.steps < this.maxSteps) {
+			if (maxX <= maxY && maxX <= maxZ) {
+				if (maxX > 1D)
+					break;
+				x += stepX;
+				maxX += deltaX;
+			} else if (maxY <= maxZ) {
+				if (maxY > 1D)
+					break;
+				y += stepY;
+				maxY += deltaY;
+			} else {
+				if (maxZ > 1D)
+					break;
+				z += stepZ;
+				maxZ += deltaZ;
+			}
+
+			if (x == endX && y == endY && z == endZ)
+				break;
+
+			this.steps++;
+			final int id = grid.getMaterial(x, y, z);
+			if (id != AbsorptionTable.OPEN) {
+				transmitted *= this.table.getTransmission(id);
+				passed *= 1F - this.table.getLowPass(id);
+				if (transmitted < MIN_GAIN) {
+					transmitted = 0F;
+					break;
+				}
+			}
+		}
+
+		this.gain = transmitted;
+		this.lowPass = 1F - passed;
+	}
+
+	/**
+	 * Fraction of the sound energy that reached the listener on the last trace.
+	 */
+	public float getGain() {
+		return this.gain;
+	}
+
+	/**
+	 * Low-pass amount of the last trace, 0 being none and 1 being fully muffled.
+	 */
+	public float getLowPass() {
+		return this.lowPass;
+	}
+
+	/**
+	 * Number of voxels visited on the last trace.
+	 */
+	public int getSteps() {
+		return this.steps;
+	}
+
+	private static int floor(final double v) {
+		final int i = (int) v;
+		return v < i ? i - 1 : i;
+	}
+
+	// Distance along the axis to the first voxel boundary in the step direction
+	private static double boundary(final double v, final int cell, final int step) {
+		return step > 0 ? cell + 1 - v : v - cell;
+	}
+}
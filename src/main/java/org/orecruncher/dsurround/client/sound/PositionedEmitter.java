@@ -39,7 +39,6 @@ public class PositionedEmitter extends Emitter {
 
 		this.position = pos.toImmutable();
 		this.activeSound = createSound();
-		this.activeSound.canQueue = true;
 	}
 
 	@Override
@@ -0,0 +1,239 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.sound;
+
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Sums the rain falling around the listener into a handful of layers: one for
+ * each quadrant around the listener and one for rain drumming on the shelter
+ * directly overhead. Each tick the precipitation columns that were probed are
+ * fed in, and the layers come out as a gain, a pitch and an offset from the
+ * listener for the loop that represents them. Columns are weighted by how
+ * close they are so nearby rain dominates.
+ *
+ * The sound engine has no filters, so muffling from being enclosed is
+ * approximated by dropping the pitch, as the per splash sounds used to do
+ * when the player was under cover.
+ *
+ * Values move toward their targets a little each update so the loops do not
+ * jitter with the random sampling. Nothing in here touches the sound engine so
+ * the mixing can be exercised on its own.
+ */
+@SideOnly(Side.CLIENT)
+public final class RainBed {
+
+	public static final int NORTH_EAST = 0;
+	public static final int NORTH_WEST = 1;
+	public static final int SOUTH_WEST = 2;
+	public static final int SOUTH_EAST = 3;
+	public static final int ROOF = 4;
+	public static final int LAYERS = 5;
+
+	// Columns within this range of the listener can count as the roof
+	private static final float ROOF_RADIUS = 4F;
+	// Distance at which the weight of a column falls to half
+	private static final float FALLOFF_RADIUS = 6F;
+	// Furthest a quadrant loop is placed from the listener
+	private static final float MAX_OFFSET = 6F;
+	// Sheltered columns away from the listener are heard through the shelter
+	private static final float SHELTERED_WEIGHT = 0.5F;
+	private static final float SMOOTHING = 0.15F;
+	private static final float ROOF_PITCH = 0.5F;
+
+	// Accumulated for the current tick
+	private final float[] exposure = new float[LAYERS];
+	private final float[] potential = new float[LAYERS];
+	private final float[] brightness = new float[LAYERS];
+	private final float[] sumX = new float[LAYERS];
+	private final float[] sumZ = new float[LAYERS];
+
+	// Smoothed output
+	private final float[] gain = new float[LAYERS];
+	private final float[] pitch = new float[LAYERS];
+	private final float[] offsetX = new float[LAYERS];
+	private final float[] offsetZ = new float[LAYERS];
+	private float enclosure;
+
+	public RainBed() {
+		for (int i = 0; i < LAYERS; i++)
+			this.pitch[i] = 1F;
+		this.pitch[ROOF] = ROOF_PITCH;
+	}
+
+	/**
+	 * Starts accumulating a new set of columns.
+	 */
+	public void begin() {
+		for (int i = 0; i < LAYERS; i++) {
+			this.exposure[i] = 0F;
+			this.potential[i] = 0F;
+			this.brightness[i] = 0F;
+			this.sumX[i] = 0F;
+			this.sumZ[i] = 0F;
+		}
+	}
+
+	static int quadrant(final double dx, final double dz) {
+		// North is -Z in Minecraft
+		if (dz < 0)
+			return dx >= 0 ? NORTH_EAST : NORTH_WEST;
+		return dx >= 0 ? SOUTH_EAST : SOUTH_WEST;
+	}
+
+	/**
+	 * Records a probed column that had no rain reaching the ground. It still
+	 * counts toward how much rain the layer could have had.
+	 */
+	public void addDry(final double dx, final double dz) {
+		final float d2 = (float) (dx * dx + dz * dz);
+		final float w = falloff(d2);
+		this.potential[quadrant(dx, dz)] += w;
+		if (d2 <= ROOF_RADIUS * ROOF_RADIUS)
+			this.potential[ROOF] += w;
+	}
+
+	/**
+	 * Records a probed column that has rain landing on it.
+	 *
+	 * @param dx        X offset of the column from the listener
+	 * @param dz        Z offset of the column from the listener
+	 * @param sheltered The rain lands above the listener's head
+	 * @param weight    How loud the surface is when rained on
+	 * @param bright    How bright the surface sounds, 0 dull to 1 sharp
+	 */
+	public void addColumn(final double dx, final double dz, final boolean sheltered, final float weight,
+			final float bright) {
+		final float d2 = (float) (dx * dx + dz * dz);
+		final float w = falloff(d2);
+		final int q = quadrant(dx, dz);
+		this.potential[q] += w;
+
+		int layer = q;
+		float amount = w * weight;
+		if (d2 <= ROOF_RADIUS * ROOF_RADIUS) {
+			this.potential[ROOF] += w;
+			if (sheltered)
+				layer = ROOF;
+		} else if (sheltered) {
+			amount *= SHELTERED_WEIGHT;
+		}
+
+		this.exposure[layer] += amount;
+		this.brightness[layer] += amount * bright;
+		this.sumX[layer] += amount * (float) dx;
+		this.sumZ[layer] += amount * (float) dz;
+	}
+
+	private static float falloff(final float d2) {
+		return 1F / (1F + d2 / (FALLOFF_RADIUS * FALLOFF_RADIUS));
+	}
+
+	/**
+	 * Computes the layers from the columns added since begin() and moves the
+	 * output toward them.
+	 *
+	 * @param intensity Overall rain volume, 0 to 1
+	 */
+	public void update(final float intensity) {
+		this.enclosure = approach(this.enclosure, coverage(ROOF));
+		final float open = 1F - this.enclosure * 0.5F;
+
+		for (int i = 0; i < LAYERS; i++) {
+			final float e = this.exposure[i];
+			final float bright = e > 0F ? this.brightness[i] / e : 0.5F;
+
+			float targetGain;
+			float targetPitch;
+			if (i == ROOF) {
+				targetGain = intensity * coverage(ROOF);
+				targetPitch = ROOF_PITCH * (0.9F + 0.2F * bright);
+			} else {
+				targetGain = intensity * coverage(i) * open;
+				targetPitch = (0.9F + 0.2F * bright) * (1F - 0.25F * this.enclosure);
+			}
+
+			this.gain[i] = approach(this.gain[i], targetGain);
+			this.pitch[i] = approach(this.pitch[i], targetPitch);
+
+			if (e > 0F && i != ROOF) {
+				this.offsetX[i] = approach(this.offsetX[i], clamp(this.sumX[i] / e));
+				this.offsetZ[i] = approach(this.offsetZ[i], clamp(this.sumZ[i] / e));
+			}
+		}
+	}
+
+	private float coverage(final int layer) {
+		final float p = this.potential[layer];
+		return p > 0F ? Math.min(1F, this.exposure[layer] / p) : 0F;
+	}
+
+	private static float approach(final float current, final float target) {
+		return current + (target - current) * SMOOTHING;
+	}
+
+	private static float clamp(final float offset) {
+		return Math.max(-MAX_OFFSET, Math.min(MAX_OFFSET, offset));
+	}
+
+	public float getGain(final int layer) {
+		return this.gain[layer];
+	}
+
+	public float getPitch(final int layer) {
+		return this.pitch[layer];
+	}
+
+	public float getOffsetX(final int layer) {
+		return this.offsetX[layer];
+	}
+
+	public float getOffsetZ(final int layer) {
+		return this.offsetZ[layer];
+	}
+
+	/**
+	 * How much of the area directly around the listener is covered, 0 open to 1
+	 * fully under cover.
+	 */
+	public float getEnclosure() {
+		return this.enclosure;
+	}
+
+	/**
+	 * Drops the output to silence immediately.
+	 */
+	public void reset() {
+		begin();
+		for (int i = 0; i < LAYERS; i++) {
+			this.gain[i] = 0F;
+			this.offsetX[i] = 0F;
+			this.offsetZ[i] = 0F;
+		}
+		this.enclosure = 0F;
+	}
+
+}
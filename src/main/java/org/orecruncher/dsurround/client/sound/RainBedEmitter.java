@@ -0,0 +1,88 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.sound;
+
+import javax.annotation.Nonnull;
+
+import net.minecraft.client.audio.ITickableSound;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Looping emitter for one layer of a RainBed. The position, volume and pitch
+ * are pushed in every tick and the sound engine picks them up because the
+ * underlying sound is tickable.
+ */
+@SideOnly(Side.CLIENT)
+public class RainBedEmitter extends Emitter {
+
+	private float x;
+	private float y;
+	private float z;
+	private float volume;
+	private float pitch;
+
+	public RainBedEmitter(@Nonnull final SoundEffect sound) {
+		super(sound);
+	}
+
+	public void setTarget(final double x, final double y, final double z, final float volume, final float pitch) {
+		this.x = (float) x;
+		this.y = (float) y;
+		this.z = (float) z;
+		this.volume = volume;
+		this.pitch = pitch;
+		if (this.activeSound instanceof LoopSound)
+			((LoopSound) this.activeSound).set(this.x, this.y, this.z, this.volume, this.pitch);
+	}
+
+	@Override
+	protected SoundInstance createSound() {
+		final LoopSound sound = new LoopSound(this.effect);
+		sound.set(this.x, this.y, this.z, this.volume, this.pitch);
+		return sound;
+	}
+
+	private static final class LoopSound extends SoundInstance implements ITickableSound {
+
+		LoopSound(@Nonnull final SoundEffect effect) {
+			super(effect.getSound(), effect.getCategory());
+			this.repeat = true;
+			this.repeatDelay = 0;
+		}
+
+		void set(final float x, final float y, final float z, final float volume, final float pitch) {
+			setPosition(x, y, z);
+			this.volume = volume;
+			this.pitch = pitch;
+		}
+
+		@Override
+		public void update() {
+			// Values are pushed by the emitter
+		}
+	}
+
+}
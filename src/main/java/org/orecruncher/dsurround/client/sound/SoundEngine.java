@@ -28,6 +28,7 @@ import java.nio.IntBuffer;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -146,6 +147,16 @@ public final class SoundEngine {
 		return getPlayingSounds().size();
 	}
 
+	/**
+	 * Number of sounds that can be submitted to the sound system before it is
+	 * considered full.
+	 *
+	 * @return Number of available channels
+	 */
+	public int getAvailableChannels() {
+		return Math.max(0, maxSounds - SOUND_QUEUE_SLACK - currentSoundCount());
+	}
+
 	private boolean canFitSound() {
 		return currentSoundCount() < (maxSounds - SOUND_QUEUE_SLACK);
 	}
@@ -174,6 +185,15 @@ public final class SoundEngine {
 		return ((ISoundManagerMixin)getSoundManager()).getDelayedSounds();
 	}
 
+	/**
+	 * Invokes the action for each sound currently playing in the sound system.
+	 *
+	 * @param action Action to perform
+	 */
+	public void forEachPlayingSound(@Nonnull final Consumer<ISound> action) {
+		getPlayingSounds().values().forEach(action);
+	}
+
 	/**
 	 * Determines if the sound is currently playing within the sound system
 	 *
@@ -418,11 +438,6 @@ public final class SoundEngine {
 		return settings != null ? settings.getSoundLevel(category) : 1.0F;
 	}
 
-	private static boolean fadeMusic(@Nonnull final ISound sound) {
-		return (sound.getCategory() == SoundCategory.MUSIC && !(sound instanceof ConfigSoundInstance
-				|| (sound instanceof TrackingSoundInstance && ModOptions.sound.enableBattleMusic)));
-	}
-
 	// SOUND may not be initialized if Forge did not initialized Minecraft fully.
 	// That can happen if the environment does not meet it's dependency
 	// requirements.
@@ -430,8 +445,8 @@ public final class SoundEngine {
 		if (sound == null)
 			return 1F;
 		try {
-			final float fade = fadeMusic(sound) ? MusicFader.getMusicScaling() : 1.0F;
-			return RegistryManager.SOUND.getVolumeScale(sound) * fade;
+			return RegistryManager.SOUND.getVolumeScale(sound) * SoundMixer.getGain(sound)
+					* SoundOcclusion.getGain(sound);
 		} catch (final Throwable ignore) {
 		}
 		return 1F;
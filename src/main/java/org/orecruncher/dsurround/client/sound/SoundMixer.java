@@ -0,0 +1,246 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.sound;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.orecruncher.dsurround.ModBase;
+import org.orecruncher.dsurround.ModInfo;
+import org.orecruncher.dsurround.ModOptions;
+import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
+import org.orecruncher.dsurround.registry.RegistryDataEvent;
+import org.orecruncher.dsurround.registry.RegistryManager;
+import org.orecruncher.dsurround.registry.config.DuckingConfig;
+import org.orecruncher.dsurround.registry.sound.SoundRegistry;
+
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.audio.ISound;
+import net.minecraft.client.audio.SoundManager;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.SoundCategory;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
+import net.minecraftforge.fml.relauncher.Side;
+
+/**
+ * Routes sounds through the mixing buses laid out by MixerLayout. Ducking
+ * rules come from the "ducking" section of the config packs. A rule names a trigger and the buses it ducks:
+ *
+ * <pre>
+ * battle        - the player is in battle
+ * preview       - a sound is being played from the config GUI
+ * bus:&lt;name&gt;    - a sound routed to the bus is playing
+ * sound:&lt;name&gt;  - a sound with the resource name is playing
+ * </pre>
+ *
+ * Bus gains are updated once a tick. If a gain changes the SoundManager is
+ * told to reevaluate the volume of the affected categories.
+ */
+@EventBusSubscriber(value = Side.CLIENT, modid = ModInfo.MOD_ID)
+public final class SoundMixer {
+
+	private static final float MIN_VOLUME_SCALE = 0.001F;
+
+	private static final String TRIGGER_BATTLE = "battle";
+	private static final String TRIGGER_PREVIEW = "preview";
+	private static final String TRIGGER_BUS = "bus:";
+	private static final String TRIGGER_SOUND = "sound:";
+
+	private static final MixerGraph graph = MixerLayout.build();
+	private static final SoundCategory[] categories = SoundCategory.values();
+	private static final int[] categoryBus = new int[categories.length];
+	private static final int masterBus;
+	private static final int battleMusicBus;
+	private static final int previewBus;
+
+	// Sidechain state gathered each tick for the bus and sound triggers
+	private static final boolean[] busActive;
+	private static final ObjectOpenHashSet<ResourceLocation> watchedSounds = new ObjectOpenHashSet<>();
+	private static final ObjectOpenHashSet<ResourceLocation> activeSounds = new ObjectOpenHashSet<>();
+	private static boolean watchBuses;
+
+	private static ConfigSoundInstance playingConfigSound;
+
+	static {
+		masterBus = graph.getBus(MixerLayout.MASTER);
+		for (final SoundCategory sc : categories)
+			categoryBus[sc.ordinal()] = graph.getBus(MixerLayout.getBus(sc));
+		battleMusicBus = graph.getBus(MixerLayout.BATTLE_MUSIC);
+		previewBus = graph.getBus(MixerLayout.PREVIEW);
+		busActive = new boolean[graph.size()];
+	}
+
+	private SoundMixer() {
+
+	}
+
+	/**
+	 * Determines the bus a sound is routed to.
+	 */
+	private static int getBus(@Nonnull final ISound sound) {
+		if (sound instanceof ConfigSoundInstance)
+			return previewBus;
+		final SoundCategory category = sound.getCategory();
+		if (category == null)
+			return masterBus;
+		if (category == SoundCategory.MUSIC && sound instanceof TrackingSoundInstance
+				&& ModOptions.sound.enableBattleMusic)
+			return battleMusicBus;
+		return categoryBus[category.ordinal()];
+	}
+
+	/**
+	 * Gets the gain of the bus the sound is routed to, as of the last tick.
+	 *
+	 * @param sound The sound being played
+	 * @return Gain to apply to the volume of the sound
+	 */
+	public static float getGain(@Nonnull final ISound sound) {
+		return graph.getGain(getBus(sound));
+	}
+
+	private static boolean isActive(@Nonnull final String trigger) {
+		if (TRIGGER_BATTLE.equals(trigger))
+			return EnvironState.getBattleScanner().inBattle();
+		if (TRIGGER_PREVIEW.equals(trigger))
+			return playingConfigSound != null;
+		if (trigger.startsWith(TRIGGER_BUS)) {
+			final int bus = graph.getBus(trigger.substring(TRIGGER_BUS.length()));
+			return bus >= 0 && busActive[bus];
+		}
+		if (trigger.startsWith(TRIGGER_SOUND))
+			return activeSounds.contains(new ResourceLocation(trigger.substring(TRIGGER_SOUND.length())));
+		return false;
+	}
+
+	@SubscribeEvent
+	public static void registryReload(@Nonnull final RegistryDataEvent.Reload event) {
+		if (!(event.reg instanceof SoundRegistry))
+			return;
+
+		graph.clearRules();
+		watchedSounds.clear();
+		watchBuses = false;
+
+		for (final DuckingConfig rule : RegistryManager.SOUND.getDuckingRules()) {
+			if (rule.trigger == null) {
+				ModBase.log().warn("Ducking rule is missing a trigger");
+				continue;
+			}
+			if (rule.trigger.startsWith(TRIGGER_SOUND))
+				watchedSounds.add(new ResourceLocation(rule.trigger.substring(TRIGGER_SOUND.length())));
+			else if (rule.trigger.startsWith(TRIGGER_BUS))
+				watchBuses = true;
+			final float gain = Math.max(rule.gain, MIN_VOLUME_SCALE);
+			if (!graph.addRule(rule.trigger, rule.duck, gain, rule.attack, rule.release))
+				ModBase.log().warn("Ducking rule for trigger '%s' references unknown buses %s", rule.trigger,
+						rule.duck);
+		}
+	}
+
+	@SubscribeEvent
+	public static void onTick(@Nonnull final TickEvent.ClientTickEvent event) {
+
+		if (event.phase == Phase.END)
+			return;
+
+		if (playingConfigSound != null) {
+			if (playingConfigSound.isDonePlaying())
+				stopConfigSound(playingConfigSound);
+		}
+
+		gatherSidechains();
+
+		if (!graph.update(SoundMixer::isActive))
+			return;
+
+		// Have to tickle the sound engine because the scaling changed. Setting the
+		// category volume to its current value causes the SoundManager to reevaluate
+		// the volume of the sounds in that category. Since the volume routine is
+		// hooked the bus gains get applied there.
+		final boolean all = graph.isChanged(battleMusicBus) || graph.isChanged(previewBus);
+		final SoundManager manager = SoundEngine.instance().getSoundManager();
+		for (final SoundCategory sc : categories) {
+			if (sc != SoundCategory.MASTER && (all || graph.isChanged(categoryBus[sc.ordinal()]))) {
+				final float mcScale = Minecraft.getMinecraft().gameSettings.getSoundLevel(sc);
+				manager.setVolume(sc, mcScale);
+			}
+		}
+	}
+
+	private static void gatherSidechains() {
+		if (!watchBuses && watchedSounds.isEmpty())
+			return;
+
+		for (int i = 0; i < busActive.length; i++)
+			busActive[i] = false;
+		activeSounds.clear();
+
+		SoundEngine.instance().forEachPlayingSound(sound -> {
+			if (sound == null)
+				return;
+			if (watchBuses)
+				busActive[getBus(sound)] = true;
+			final ResourceLocation res = sound.getSoundLocation();
+			if (watchedSounds.contains(res))
+				activeSounds.add(res);
+		});
+	}
+
+	/**
+	 * Used by the configuration system to short circuit the playing music in order
+	 * to play a sound sample. The system will automagically put things back the way
+	 * they were before the interruption.
+	 *
+	 * @param sound The sound to play
+	 */
+	public static void playConfigSound(@Nullable final ConfigSoundInstance sound) {
+		if (sound != null) {
+			SoundEngine.instance().stopAllSounds();
+			playingConfigSound = sound;
+			SoundEngine.instance().playSound(sound);
+		}
+	}
+
+	/**
+	 * Used by the configuration system to stop playing a configure sound. Sounds
+	 * that were ducked prior will fade back in.
+	 *
+	 * @param sound The sound to stop
+	 */
+	public static void stopConfigSound(@Nonnull final ConfigSoundInstance sound) {
+		if (playingConfigSound != null) {
+			if (playingConfigSound != sound)
+				ModBase.log().warn("Inconsistent sound in SoundMixer");
+			SoundEngine.instance().stopSound(playingConfigSound);
+			playingConfigSound = null;
+		}
+	}
+
+}
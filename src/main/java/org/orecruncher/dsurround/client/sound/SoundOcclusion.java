@@ -0,0 +1,235 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.sound;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.dsurround.ModInfo;
+import org.orecruncher.dsurround.ModOptions;
+import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
+import org.orecruncher.dsurround.event.DiagnosticEvent;
+import org.orecruncher.dsurround.lib.compat.ModEnvironment;
+import org.orecruncher.lib.chunk.ClientChunkCache;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.audio.ISound;
+import net.minecraft.client.audio.ISound.AttenuationType;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.SoundCategory;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextFormatting;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
+import net.minecraftforge.fml.relauncher.Side;
+
+/**
+ * Estimates how much of a sound makes it to the player based on the blocks in
+ * between. Positional sounds are traced from the player's head to the sound
+ * through the ClientChunkCache and the result is cached per sound, with the
+ * sounds that are playing re-evaluated a few per tick. Non-positional weather
+ * sounds have no position to trace to so they use the ceiling coverage around
+ * the player instead.
+ *
+ * The sound library does not give access to a filter on a source, so the
+ * low-pass amount is folded into the gain that is applied to the volume. The
+ * whole thing stands down if Sound Physics is installed since it does its own
+ * occlusion.
+ */
+@EventBusSubscriber(value = Side.CLIENT, modid = ModInfo.MOD_ID)
+public final class SoundOcclusion {
+
+	private static final int REEVALUATE_TICKS = 10;
+	private static final int TICK_BUDGET = 8;
+	private static final int STALE_TICKS = 40;
+	private static final float EASE_RATE = 0.35F;
+	private static final int MAX_STEPS = 48;
+
+	// Floor on the gain so a sound behind a thick wall is faint rather than gone
+	private static final float MIN_GAIN = 0.08F;
+	// How much a fully muffled sound loses in volume
+	private static final float LOW_PASS_GAIN = 0.3F;
+	// How much a non-positional weather sound loses when fully enclosed
+	private static final float ENCLOSED_WEATHER_GAIN = 0.6F;
+
+	private static final AbsorptionTable table = new AbsorptionTable();
+	private static final Reference2IntOpenHashMap<Material> fullBlock = new Reference2IntOpenHashMap<>();
+	private static final Reference2IntOpenHashMap<Material> partialBlock = new Reference2IntOpenHashMap<>();
+	private static final Reference2IntOpenHashMap<IBlockState> states = new Reference2IntOpenHashMap<>();
+	private static final int SOLID;
+	private static final int SOLID_PARTIAL;
+
+	private static final OcclusionTracer tracer = new OcclusionTracer(table, MAX_STEPS);
+	private static final OcclusionCache<ISound> cache = new OcclusionCache<>(REEVALUATE_TICKS, TICK_BUDGET,
+			STALE_TICKS, EASE_RATE);
+	private static final BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+	private static final OcclusionTracer.IGrid grid = SoundOcclusion::getMaterial;
+	private static final OcclusionCache.IEvaluator<ISound> evaluator = SoundOcclusion::evaluate;
+
+	private static double listenerX;
+	private static double listenerY;
+	private static double listenerZ;
+	private static boolean haveListener;
+
+	static {
+		fullBlock.defaultReturnValue(-1);
+		partialBlock.defaultReturnValue(-1);
+		states.defaultReturnValue(-1);
+
+		// Absorption and low-pass per block. Partial blocks (slabs, doors, fences,
+		// etc.) let through quite a bit more.
+		material(0.55F, 0.45F, Material.ROCK, Material.IRON, Material.ANVIL, Material.PISTON, Material.DRAGON_EGG);
+		material(0.50F, 0.45F, Material.GROUND, Material.GRASS, Material.SAND, Material.CLAY);
+		material(0.40F, 0.35F, Material.WOOD, Material.GOURD, Material.CACTUS, Material.CAKE, Material.TNT);
+		material(0.50F, 0.60F, Material.CLOTH, Material.CARPET, Material.SPONGE, Material.SNOW,
+				Material.CRAFTED_SNOW);
+		material(0.25F, 0.20F, Material.GLASS, Material.ICE, Material.PACKED_ICE, Material.REDSTONE_LIGHT,
+				Material.BARRIER);
+		material(0.30F, 0.50F, Material.WATER, Material.LAVA);
+		material(0.08F, 0.05F, Material.LEAVES, Material.VINE, Material.PLANTS, Material.WEB, Material.CORAL);
+
+		// Anything else that blocks movement
+		SOLID = table.add(0.45F, 0.40F);
+		SOLID_PARTIAL = table.addPartial(0.45F, 0.40F);
+	}
+
+	private SoundOcclusion() {
+
+	}
+
+	private static void material(final float absorption, final float lowPass, @Nonnull final Material... materials) {
+		final int full = table.add(absorption, lowPass);
+		final int partial = table.addPartial(absorption, lowPass);
+		for (final Material m : materials) {
+			fullBlock.put(m, full);
+			partialBlock.put(m, partial);
+		}
+	}
+
+	private static int getMaterial(@Nonnull final IBlockState state) {
+		int id = states.getInt(state);
+		if (id < 0) {
+			final Material material = state.getMaterial();
+			final boolean full = state.isFullCube();
+			if (material == Material.AIR || material == Material.CIRCUITS || material == Material.FIRE
+					|| material == Material.PORTAL || material == Material.STRUCTURE_VOID) {
+				id = AbsorptionTable.OPEN;
+			} else {
+				id = (full ? fullBlock : partialBlock).getInt(material);
+				if (id < 0)
+					id = material.blocksMovement() ? (full ? SOLID : SOLID_PARTIAL) : AbsorptionTable.OPEN;
+			}
+			states.put(state, id);
+		}
+		return id;
+	}
+
+	private static int getMaterial(final int x, final int y, final int z) {
+		return getMaterial(ClientChunkCache.instance().getBlockState(mutable.setPos(x, y, z)));
+	}
+
+	private static void evaluate(@Nonnull final ISound sound, @Nonnull final OcclusionCache.Entry<ISound> entry) {
+		if (!haveListener) {
+			entry.setTarget(1F, 0F);
+			return;
+		}
+		tracer.trace(grid, listenerX, listenerY, listenerZ, sound.getXPosF(), sound.getYPosF(), sound.getZPosF());
+		entry.setTarget(tracer.getGain(), tracer.getLowPass());
+	}
+
+	private static float toGain(final float gain, final float lowPass) {
+		return Math.max(MIN_GAIN, gain * (1F - LOW_PASS_GAIN * lowPass));
+	}
+
+	private static boolean isEnabled() {
+		return ModOptions.sound.enableOcclusion && !ModEnvironment.SoundPhysics.isLoaded();
+	}
+
+	/**
+	 * Gets the occlusion gain to apply to the volume of the sound.
+	 *
+	 * @param sound The sound being played
+	 * @return Gain to apply to the volume of the sound
+	 */
+	public static float getGain(@Nonnull final ISound sound) {
+		if (!isEnabled() || !haveListener)
+			return 1F;
+
+		if (sound.getAttenuationType() == AttenuationType.NONE) {
+			if (sound.getCategory() != SoundCategory.WEATHER)
+				return 1F;
+			final float coverage = EnvironState.getCeilingCoverage();
+			return toGain(1F - ENCLOSED_WEATHER_GAIN * coverage, coverage);
+		}
+
+		// The cache belongs to the client thread. Some mods play sounds from
+		// elsewhere; those get whatever is known already.
+		if (!Minecraft.getMinecraft().isCallingFromMinecraftThread()) {
+			final OcclusionCache.Entry<ISound> entry = cache.peek(sound);
+			return entry != null ? toGain(entry.getGain(), entry.getLowPass()) : 1F;
+		}
+
+		final OcclusionCache.Entry<ISound> entry = cache.get(sound, EnvironState.getTickCounter(), evaluator);
+		return toGain(entry.getGain(), entry.getLowPass());
+	}
+
+	@SubscribeEvent
+	public static void onTick(@Nonnull final TickEvent.ClientTickEvent event) {
+		if (event.phase == Phase.END)
+			return;
+
+		final EntityPlayer player = isEnabled() ? EnvironState.getPlayer() : null;
+		if (player == null) {
+			haveListener = false;
+			cache.clear();
+			return;
+		}
+
+		listenerX = player.posX;
+		listenerY = player.posY + player.getEyeHeight();
+		listenerZ = player.posZ;
+		haveListener = true;
+		cache.update(EnvironState.getTickCounter(), evaluator);
+	}
+
+	@SubscribeEvent
+	public static void onWorldUnload(@Nonnull final WorldEvent.Unload event) {
+		if (event.getWorld().isRemote)
+			cache.clear();
+	}
+
+	@SubscribeEvent(priority = EventPriority.LOW)
+	public static void diagnostics(@Nonnull final DiagnosticEvent.Gather event) {
+		if (isEnabled())
+			event.output.add(TextFormatting.AQUA + "Occlusion  : " + cache.size() + " (" + cache.getEvaluations()
+					+ " traced)");
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.sound;
+
+import java.util.function.Predicate;
+
+import javax.annotation.Nonnull;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Bookkeeping for voices that could not get a real channel in the sound
+ * engine. A virtual voice keeps its playback position, priority, and the tick
+ * it was last seen so it can be promoted back to a real channel when one frees
+ * up. Voices are promoted highest priority first. Nothing in here touches the
+ * sound engine so the logic can be exercised on its own.
+ *
+ * @param <V> Type of voice being tracked
+ */
+@SideOnly(Side.CLIENT)
+public final class VirtualVoiceTable<V> {
+
+	private static final class Entry<V> {
+		final V voice;
+		int startTick;
+		int lastSeen;
+		int holdUntil;
+		float priority;
+
+		Entry(@Nonnull final V voice) {
+			this.voice = voice;
+		}
+	}
+
+	private final Reference2ObjectOpenHashMap<V, Entry<V>> voices = new Reference2ObjectOpenHashMap<>();
+	private final ObjectArrayList<Entry<V>> scratch = new ObjectArrayList<>();
+	private final int staleTicks;
+	private final int retryDelay;
+
+	/**
+	 * @param staleTicks Number of ticks a voice can go unseen before it is dropped
+	 * @param retryDelay Number of ticks to hold a voice after a failed promotion
+	 */
+	public VirtualVoiceTable(final int staleTicks, final int retryDelay) {
+		this.staleTicks = staleTicks;
+		this.retryDelay = retryDelay;
+	}
+
+	/**
+	 * Makes the voice virtual. If the voice is already virtual its priority is
+	 * updated.
+	 *
+	 * @param voice     The voice that lost, or could not get, a channel
+	 * @param startTick Tick the voice started playing
+	 * @param tick      Current tick
+	 * @param priority  Priority of the voice. Voices with a priority of 0 or less
+	 *                  are not promoted.
+	 */
+	public void virtualize(@Nonnull final V voice, final int startTick, final int tick, final float priority) {
+		Entry<V> e = this.voices.get(voice);
+		if (e == null) {
+			this.voices.put(voice, e = new Entry<>(voice));
+			e.startTick = startTick;
+			e.holdUntil = tick;
+		}
+		e.lastSeen = tick;
+		e.priority = priority;
+	}
+
+	/**
+	 * Refreshes the priority of a virtual voice and marks it as seen.
+	 *
+	 * @return true if the voice is virtual, false otherwise
+	 */
+	public boolean touch(@Nonnull final V voice, final int tick, final float priority) {
+		final Entry<V> e = this.voices.get(voice);
+		if (e == null)
+			return false;
+		e.lastSeen = tick;
+		e.priority = priority;
+		return true;
+	}
+
+	public boolean isVirtual(@Nonnull final V voice) {
+		return this.voices.containsKey(voice);
+	}
+
+	public boolean remove(@Nonnull final V voice) {
+		return this.voices.remove(voice) != null;
+	}
+
+	/**
+	 * Gets the playback position of a virtual voice, in ticks.
+	 *
+	 * @return The playback position, or -1 if the voice is not virtual
+	 */
+	public int getPosition(@Nonnull final V voice, final int tick) {
+		final Entry<V> e = this.voices.get(voice);
+		return e == null ? -1 : tick - e.startTick;
+	}
+
+	/**
+	 * Promotes virtual voices to real channels in priority order. Voices that have
+	 * not been seen recently are dropped.
+	 *
+	 * @param slots Number of free channels
+	 * @param tick  Current tick
+	 * @param play  Attempts to play the voice. Returns true if it got a channel.
+	 * @return The number of voices promoted
+	 */
+	public int promote(final int slots, final int tick, @Nonnull final Predicate<V> play) {
+		if (this.voices.isEmpty())
+			return 0;
+
+		this.voices.values().removeIf(e -> tick - e.lastSeen > this.staleTicks);
+
+		if (slots <= 0)
+			return 0;
+
+		this.scratch.clear();
+		for (final Entry<V> e : this.voices.values())
+			if (e.priority > 0 && e.holdUntil <= tick)
+				this.scratch.add(e);
+		this.scratch.sort((e1, e2) -> Float.compare(e2.priority, e1.priority));
+
+		int promoted = 0;
+		for (int i = 0; i < this.scratch.size() && promoted < slots; i++) {
+			final Entry<V> e = this.scratch.get(i);
+			if (play.test(e.voice)) {
+				this.voices.remove(e.voice);
+				promoted++;
+			} else {
+				e.holdUntil = tick + this.retryDelay;
+			}
+		}
+		this.scratch.clear();
+		return promoted;
+	}
+
+	public int size() {
+		return this.voices.size();
+	}
+
+	public void clear() {
+		this.voices.clear();
+		this.scratch.clear();
+	}
+
+}
@@ -33,6 +33,7 @@ import org.orecruncher.dsurround.client.sound.Sounds;
 import org.orecruncher.dsurround.client.weather.tracker.ServerDrivenTracker;
 import org.orecruncher.dsurround.client.weather.tracker.SimulationTracker;
 import org.orecruncher.dsurround.client.weather.tracker.Tracker;
+import org.orecruncher.dsurround.event.StormUpdateEvent;
 import org.orecruncher.dsurround.event.WeatherUpdateEvent;
 import org.orecruncher.dsurround.registry.RegistryManager;
 import org.orecruncher.lib.math.MathStuff;
@@ -217,6 +218,19 @@ public class Weather {
 			((ServerDrivenTracker) tracker).update(event);
 	}
 
+	@SubscribeEvent
+	public static void onStormUpdateEvent(@Nonnull final StormUpdateEvent event) {
+		final World world = getWorld();
+		if (world == null || world.provider == null)
+			return;
+
+		if (world.provider.getDimension() != event.dimId)
+			return;
+
+		if (tracker instanceof ServerDrivenTracker)
+			((ServerDrivenTracker) tracker).update(event);
+	}
+
 	public static void register(final boolean serverAvailable) {
 		if (serverAvailable)
 			tracker = new ServerDrivenTracker();
@@ -25,9 +25,14 @@ package org.orecruncher.dsurround.client.weather.tracker;
 
 import javax.annotation.Nonnull;
 
+import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
+import org.orecruncher.dsurround.event.StormUpdateEvent;
 import org.orecruncher.dsurround.event.WeatherUpdateEvent;
+import org.orecruncher.dsurround.lib.StormField;
 
+import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.util.SoundEvent;
+import net.minecraft.world.World;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
@@ -38,9 +43,18 @@ public class ServerDrivenTracker extends SimulationTracker {
 	protected float thunderStrength = 0.0F;
 	protected int nextThunderChange = 0;
 
+	// Storm cells near the player when the server is running them. They are
+	// dropped if the server stops sending them.
+	private static final int STORM_STALE_TICKS = 100;
+	private static final float BACKGROUND_INTENSITY = 0.1F;
+	protected StormField storms;
+	protected int stormAge;
+	protected float dimensionIntensity = 0.0F;
+	protected float dimensionMaxIntensity = 0.0F;
+
 	@Override
 	protected String type() {
-		return "SERVER";
+		return this.storms != null ? "SERVER, " + this.storms.size() + " cells" : "SERVER";
 	}
 
 	@Override
@@ -76,17 +90,52 @@ public class ServerDrivenTracker extends SimulationTracker {
 	}
 
 	public void update(@Nonnull final WeatherUpdateEvent event) {
-		this.maxIntensityLevel = event.maxRainIntensity;
+		this.dimensionMaxIntensity = event.maxRainIntensity;
 		this.nextRainChange = event.nextRainChange;
 		this.thunderStrength = event.thunderStrength;
 		this.nextThunderChange = event.nextThunderChange;
 		this.nextThunderEvent = event.nextThunderEvent;
-		setCurrentIntensity(event.rainIntensity);
+		this.dimensionIntensity = event.rainIntensity;
+		resolveIntensity();
+	}
+
+	public void update(@Nonnull final StormUpdateEvent event) {
+		this.storms = event.cells;
+		this.stormAge = 0;
+		resolveIntensity();
 	}
 
 	@Override
 	public void update() {
-		// Don't want to do the simulation
+		// Don't want to do the simulation, but the storm cells need to keep
+		// moving between updates.
+		if (this.storms != null) {
+			if (++this.stormAge > STORM_STALE_TICKS)
+				this.storms = null;
+			else
+				this.storms.drift(1);
+		}
+		resolveIntensity();
+	}
+
+	/*
+	 * With storm cells the intensity is what the cells give at the player,
+	 * faded in and out with the rain in the world. Otherwise it is the intensity
+	 * and maximum the server has for the whole dimension; the maximum is put back
+	 * since the cells replace it while they are in use.
+	 */
+	private void resolveIntensity() {
+		final EntityPlayer player = EnvironState.getPlayer();
+		final World world = getWorld();
+		if (this.storms == null || player == null || world == null) {
+			this.maxIntensityLevel = this.dimensionMaxIntensity;
+			setCurrentIntensity(this.dimensionIntensity);
+			return;
+		}
+
+		final float local = Math.max(BACKGROUND_INTENSITY, this.storms.getIntensity(player.posX, player.posZ));
+		this.maxIntensityLevel = local;
+		setCurrentIntensity(local * world.getRainStrength(1.0F));
 	}
 
 }
@@ -25,12 +25,19 @@
 package org.orecruncher.dsurround.commands;
 
 import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.SortedMap;
 
 import org.orecruncher.dsurround.ModOptions;
 import org.orecruncher.dsurround.capabilities.CapabilityDimensionInfo;
 import org.orecruncher.dsurround.capabilities.dimension.IDimensionInfoEx;
+import org.orecruncher.dsurround.network.Network;
+import org.orecruncher.dsurround.network.PacketDumpRequest;
 import org.orecruncher.dsurround.registry.RegistryManager;
+import org.orecruncher.dsurround.registry.dump.RegistryDumper;
+import org.orecruncher.dsurround.registry.dump.RegistrySnapshot;
 import org.orecruncher.lib.Localization;
 
 import com.google.common.collect.ImmutableList;
@@ -42,8 +49,10 @@ import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.text.TextComponentString;
 import net.minecraft.util.text.TextFormatting;
 import net.minecraft.world.World;
+import net.minecraftforge.common.DimensionManager;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public final class CommandDS extends CommandBase {
 
@@ -58,6 +67,8 @@ public final class CommandDS extends CommandBase {
 	private static final String COMMAND_OPTION_SETSTRENGTH = "setstr";
 	private static final String COMMAND_OPTION_SETTIME = "settime";
 	private static final String COMMAND_OPTION_CONFIG = "config";
+	private static final String COMMAND_OPTION_DUMP = "dump";
+	private static final String COMMAND_OPTION_ALL = "all";
 
 	private static final List<String> ALIAS = ImmutableList.<String>builder()
 			.add(ModOptions.commands.ds.commandAliasDS.split(" ")).build();
@@ -68,6 +79,7 @@ public final class CommandDS extends CommandBase {
 			.add(TextFormatting.YELLOW + "/" + COMMAND + " reset")
 			.add(TextFormatting.YELLOW + "/" + COMMAND + " reload")
 			.add(TextFormatting.YELLOW + "/" + COMMAND + " config")
+			.add(TextFormatting.YELLOW + "/" + COMMAND + " dump [all|blocks|footsteps|biomes|entities|dimensions]")
 			.add(TextFormatting.YELLOW + "/" + COMMAND + " status <rain|thunder|aurora>")
 			.add(TextFormatting.YELLOW + "/" + COMMAND + " settime <rain|thunder> 0-1000")
 			.add(TextFormatting.YELLOW + "/" + COMMAND + " setstr rain 0-100")
@@ -100,6 +112,42 @@ public final class CommandDS extends CommandBase {
 		return data.configString();
 	}
 
+	/**
+	 * Builds the dimension section of the dump on the server and sends it to the
+	 * player's client along with a request for the rest, since those registries
+	 * only exist client side. The client writes the whole dump so it ends up in
+	 * one directory even when the server is remote.
+	 */
+	public static String dump(@Nonnull final EntityPlayerMP player, @Nonnull final List<String> sections) {
+		final String name = RegistryDumper.newDumpName();
+		SortedMap<String, String> dimensions = null;
+		if (sections.contains(RegistrySnapshot.DIMENSIONS)) {
+			final RegistrySnapshot snapshot = new RegistrySnapshot();
+			RegistryDumper.dimensions(snapshot, Arrays.asList(DimensionManager.getWorlds()));
+			dimensions = snapshot.getSection(RegistrySnapshot.DIMENSIONS);
+		}
+
+		final List<String> client = new ArrayList<>(sections);
+		client.remove(RegistrySnapshot.DIMENSIONS);
+		Network.sendToPlayer(player, new PacketDumpRequest(name, client, dimensions));
+
+		return Localization.format("dsurround.msg.DumpRequested", name);
+	}
+
+	@Nullable
+	private static List<String> getDumpSections(@Nonnull final String[] parms) {
+		if (parms.length < 2 || COMMAND_OPTION_ALL.compareToIgnoreCase(parms[1]) == 0)
+			return RegistrySnapshot.SECTIONS;
+		final List<String> result = new ArrayList<>();
+		for (int i = 1; i < parms.length; i++) {
+			final String section = parms[i].toLowerCase();
+			if (!RegistrySnapshot.SECTIONS.contains(section))
+				return null;
+			result.add(section);
+		}
+		return result;
+	}
+
 	@Override
 	public int getRequiredPermissionLevel() {
 		return 2;
@@ -145,6 +193,12 @@ public final class CommandDS extends CommandBase {
 			} else if (COMMAND_OPTION_CONFIG.compareToIgnoreCase(parms[0]) == 0) {
 				if (data != null)
 					feedback = new TextComponentString(config(data));
+			} else if (COMMAND_OPTION_DUMP.compareToIgnoreCase(parms[0]) == 0) {
+				final List<String> sections = getDumpSections(parms);
+				if (sections == null)
+					showHelp = true;
+				else
+					feedback = new TextComponentString(dump(player, sections));
 			} else if (COMMAND_OPTION_STATUS.compareToIgnoreCase(parms[0]) == 0) {
 				if (parms.length < 2) {
 					showHelp = true;
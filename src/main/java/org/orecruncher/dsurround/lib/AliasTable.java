@@ -0,0 +1,137 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib;
+
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Weighted random selection using Vose's alias method. Construction is O(n)
+ * and each selection is O(1) with two random draws and no allocation. Items
+ * with a weight of zero or less are never selected.
+ *
+ * @param <T> Type of the item being selected
+ */
+public final class AliasTable<T> {
+
+	private final Object[] items;
+	private final double[] probability;
+	private final int[] alias;
+
+	public AliasTable(@Nonnull final T[] items, @Nonnull final int[] weights) {
+		if (items.length != weights.length)
+			throw new IllegalArgumentException("Number of items and weights do not match");
+
+		// Drop anything that cannot be selected
+		int count = 0;
+		long total = 0;
+		for (final int w : weights) {
+			if (w > 0) {
+				count++;
+				total += w;
+			}
+		}
+
+		this.items = new Object[count];
+		this.probability = new double[count];
+		this.alias = new int[count];
+
+		if (count == 0)
+			return;
+
+		final double[] scaled = new double[count];
+		int idx = 0;
+		for (int i = 0; i < items.length; i++) {
+			if (weights[i] > 0) {
+				this.items[idx] = items[i];
+				scaled[idx] = (double) weights[i] * count / total;
+				idx++;
+			}
+		}
+
+		final int[] small = new int[count];
+		final int[] large = new int[count];
+		int s = 0;
+		int l = 0;
+		for (int i = 0; i < count; i++) {
+			if (scaled[i] < 1.0D)
+				small[s++] = i;
+			else
+				large[l++] = i;
+		}
+
+		while (s > 0 && l > 0) {
+			final int less = small[--s];
+			final int more = large[--l];
+			this.probability[less] = scaled[less];
+			this.alias[less] = more;
+			scaled[more] = (scaled[more] + scaled[less]) - 1.0D;
+			if (scaled[more] < 1.0D)
+				small[s++] = more;
+			else
+				large[l++] = more;
+		}
+
+		// Whatever is left over is numerically 1
+		while (l > 0) {
+			final int i = large[--l];
+			this.probability[i] = 1.0D;
+			this.alias[i] = i;
+		}
+		while (s > 0) {
+			final int i = small[--s];
+			this.probability[i] = 1.0D;
+			this.alias[i] = i;
+		}
+	}
+
+	/**
+	 * Number of items that can be selected.
+	 */
+	public int size() {
+		return this.items.length;
+	}
+
+	public boolean isEmpty() {
+		return this.items.length == 0;
+	}
+
+	/**
+	 * Selects an item from the table.
+	 *
+	 * @param random Source of randomness
+	 * @return The selected item, or null if the table is empty
+	 */
+	@SuppressWarnings("unchecked")
+	@Nullable
+	public T next(@Nonnull final Random random) {
+		if (this.items.length == 0)
+			return null;
+		final int i = random.nextInt(this.items.length);
+		return (T) this.items[random.nextDouble() < this.probability[i] ? i : this.alias[i]];
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib;
+
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+
+/**
+ * Maps classes to values where a class without a value of its own inherits the
+ * value of its nearest configured superclass. The hierarchy is walked from the
+ * class itself upward so the most specific configured ancestor wins regardless
+ * of the order values were added. Results are cached so each class is resolved
+ * only once; any change to the configured values tosses the cache.
+ *
+ * Not thread safe.
+ *
+ * @param <V> Type of the value associated with a class
+ */
+public final class ClassResolver<V> {
+
+	private final V defaultValue;
+	// Values as configured, keyed by the class they were configured for
+	private final Map<Class<?>, V> configured = new Reference2ObjectOpenHashMap<>();
+	// Lazily resolved values for every class seen so far
+	private final Map<Class<?>, V> resolved = new Reference2ObjectOpenHashMap<>();
+
+	public ClassResolver(@Nonnull final V defaultValue) {
+		this.defaultValue = defaultValue;
+	}
+
+	public void put(@Nonnull final Class<?> clazz, @Nonnull final V value) {
+		this.configured.put(clazz, value);
+		this.resolved.clear();
+	}
+
+	public void remove(@Nonnull final Class<?> clazz) {
+		if (this.configured.remove(clazz) != null)
+			this.resolved.clear();
+	}
+
+	public void clear() {
+		this.configured.clear();
+		this.resolved.clear();
+	}
+
+	/**
+	 * Tosses the resolved cache without touching the configured values.
+	 */
+	public void invalidate() {
+		this.resolved.clear();
+	}
+
+	@Nonnull
+	public V resolve(@Nonnull final Class<?> clazz) {
+		V value = this.resolved.get(clazz);
+		if (value == null) {
+			value = this.defaultValue;
+			for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+				final V v = this.configured.get(c);
+				if (v != null) {
+					value = v;
+					break;
+				}
+			}
+			this.resolved.put(clazz, value);
+		}
+		return value;
+	}
+
+	public int size() {
+		return this.configured.size();
+	}
+}
@@ -0,0 +1,421 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.lib.random.XorShiftRandom;
+
+/**
+ * Storm cells drifting across a dimension. Each cell has a position, a
+ * velocity, a radius, a current intensity level and a thunder chance; the rain
+ * at a point is the combination of the cells that cover it. The server runs the
+ * simulation: it is seeded, and it is advanced in fixed steps of STEP_TICKS no
+ * matter how the ticks arrive, so the same seed and the same inputs give the
+ * same weather. Clients keep a replica filled from the cells near them and
+ * drift it along between updates.
+ *
+ * Cells only exist around anchor points (the players). New cells are placed on
+ * a coarse grid of GRID_SIZE squares near an anchor, and cells that wander too
+ * far from every anchor are dropped, so the cost depends on where the players
+ * are and not on the size of the world.
+ *
+ * Not thread safe.
+ */
+public final class StormField {
+
+	public static final int STEP_TICKS = 20;
+	public static final int GRID_SIZE = 256;
+	public static final int MAX_CELLS = 64;
+
+	// Spawning and retention, in grid squares and blocks
+	private static final int SPAWN_SQUARES = 3;
+	private static final double DESPAWN_RANGE = 2048D;
+	private static final float SPAWN_CHANCE = 0.08F;
+
+	// Cell shape and lifetime
+	private static final float MIN_RADIUS = 128F;
+	private static final float MAX_RADIUS = 384F;
+	private static final int MIN_LIFE = 300 * 20;
+	static final int MAX_LIFE = 1200 * 20;
+	private static final float RAMP_UP = 0.2F;
+	private static final float RAMP_DOWN = 0.3F;
+	// How much faster cells age out once the dimension stops raining
+	static final int DISSIPATE_RATE = 6;
+
+	// Prevailing wind, in blocks per tick
+	static final float MIN_WIND = 0.05F;
+	static final float MAX_WIND = 0.3F;
+	private static final float WIND_WANDER = 0.05F;
+	static final float CELL_JITTER = 0.05F;
+	private static final float STEERING = 0.05F;
+
+	@FunctionalInterface
+	public interface ICellConsumer {
+		void accept(final double x, final double z, final float vx, final float vz, final float radius,
+				final float level, final float thunder);
+	}
+
+	private final Random random;
+	private double[] x = new double[8];
+	private double[] z = new double[8];
+	private float[] vx = new float[8];
+	private float[] vz = new float[8];
+	private float[] radius = new float[8];
+	private float[] peak = new float[8];
+	private float[] level = new float[8];
+	private float[] thunder = new float[8];
+	private int[] age = new int[8];
+	private int[] life = new int[8];
+	private int count;
+
+	private float minStrength = 0F;
+	private float maxStrength = 1F;
+	private float windAngle;
+	private float windSpeed;
+	private int pending;
+	private long steps;
+
+	/**
+	 * Creates a field for running the simulation.
+	 *
+	 * @param seed Seed for the simulation
+	 */
+	public StormField(final long seed) {
+		this.random = new XorShiftRandom(seed);
+		this.windAngle = this.random.nextFloat() * (float) (Math.PI * 2D);
+		this.windSpeed = MIN_WIND + this.random.nextFloat() * (MAX_WIND - MIN_WIND);
+	}
+
+	/**
+	 * Creates an empty field to be used as a replica.
+	 */
+	public StormField() {
+		this(0L);
+	}
+
+	/**
+	 * Sets the range of the peak intensity of new cells.
+	 */
+	public void setStrengthRange(final float min, final float max) {
+		this.minStrength = Math.max(0F, Math.min(min, max));
+		this.maxStrength = Math.min(1F, Math.max(min, max));
+	}
+
+	/**
+	 * Advances the simulation by the number of ticks. Whole steps are run as the
+	 * ticks accumulate; leftover ticks carry over to the next call.
+	 *
+	 * @param ticks   Number of ticks that have passed
+	 * @param active  Whether it is raining in the dimension. New cells only form
+	 *                while active, and existing cells die off quickly when not.
+	 * @param anchors Anchor positions as x/z pairs
+	 * @param anchorCount Number of anchors in the array
+	 * @return Number of steps that were run
+	 */
+	public int advance(final int ticks, final boolean active, @Nonnull final double[] anchors,
+			final int anchorCount) {
+		this.pending += ticks;
+		int run = 0;
+		while (this.pending >= STEP_TICKS) {
+			this.pending -= STEP_TICKS;
+			step(active, anchors, anchorCount);
+			run++;
+		}
+		return run;
+	}
+
+	private void step(final boolean active, @Nonnull final double[] anchors, final int anchorCount) {
+		this.steps++;
+
+		// Prevailing wind wanders a little each step
+		this.windAngle += (this.random.nextFloat() - 0.5F) * WIND_WANDER;
+		this.windSpeed += (this.random.nextFloat() - 0.5F) * WIND_WANDER * 0.1F;
+		this.windSpeed = Math.max(MIN_WIND, Math.min(MAX_WIND, this.windSpeed));
+		final float windX = (float) Math.cos(this.windAngle) * this.windSpeed;
+		final float windZ = (float) Math.sin(this.windAngle) * this.windSpeed;
+
+		final int ageStep = active ? STEP_TICKS : STEP_TICKS * DISSIPATE_RATE;
+		for (int i = this.count - 1; i >= 0; i--) {
+			this.age[i] += ageStep;
+			if (this.age[i] >= this.life[i] || !nearAnchor(this.x[i], this.z[i], anchors, anchorCount)) {
+				remove(i);
+				continue;
+			}
+			this.vx[i] += (windX - this.vx[i]) * STEERING;
+			this.vz[i] += (windZ - this.vz[i]) * STEERING;
+			this.x[i] += this.vx[i] * STEP_TICKS;
+			this.z[i] += this.vz[i] * STEP_TICKS;
+			this.level[i] = this.peak[i] * envelope((float) this.age[i] / this.life[i]);
+		}
+
+		if (!active)
+			return;
+
+		// One attempt per anchor at a random square near it
+		for (int a = 0; a < anchorCount && this.count < MAX_CELLS; a++) {
+			final int gx = floor(anchors[a * 2] / GRID_SIZE) + this.random.nextInt(SPAWN_SQUARES * 2 + 1)
+					- SPAWN_SQUARES;
+			final int gz = floor(anchors[a * 2 + 1] / GRID_SIZE) + this.random.nextInt(SPAWN_SQUARES * 2 + 1)
+					- SPAWN_SQUARES;
+			if (this.random.nextFloat() >= SPAWN_CHANCE)
+				continue;
+			final double cx = (gx + 0.5D) * GRID_SIZE;
+			final double cz = (gz + 0.5D) * GRID_SIZE;
+			if (isOccupied(cx, cz))
+				continue;
+			spawn(cx, cz, windX, windZ);
+		}
+	}
+
+	private void spawn(final double cx, final double cz, final float windX, final float windZ) {
+		final float delta = this.maxStrength - this.minStrength;
+		final float strength = this.minStrength + (this.random.nextFloat() + this.random.nextFloat()) * 0.5F * delta;
+		final float r = MIN_RADIUS + this.random.nextFloat() * (MAX_RADIUS - MIN_RADIUS);
+		final int l = MIN_LIFE + this.random.nextInt(MAX_LIFE - MIN_LIFE);
+		final float t = Math.max(0F, Math.min(1F, (strength - 0.5F) * 2F)) * (0.5F + 0.5F * this.random.nextFloat());
+		final float jx = (this.random.nextFloat() - 0.5F) * 2F * CELL_JITTER;
+		final float jz = (this.random.nextFloat() - 0.5F) * 2F * CELL_JITTER;
+		final int i = add(cx, cz, windX + jx, windZ + jz, r, 0F, t);
+		this.peak[i] = strength;
+		this.life[i] = l;
+	}
+
+	/**
+	 * Moves the cells along their velocity without aging them. Used by replicas
+	 * between updates.
+	 */
+	public void drift(final int ticks) {
+		for (int i = 0; i < this.count; i++) {
+			this.x[i] += this.vx[i] * ticks;
+			this.z[i] += this.vz[i] * ticks;
+		}
+	}
+
+	/**
+	 * Adds a cell with a fixed level. Used to fill a replica.
+	 *
+	 * @return Index of the new cell
+	 */
+	public int add(final double x, final double z, final float vx, final float vz, final float radius,
+			final float level, final float thunder) {
+		if (this.count == this.x.length) {
+			final int len = this.count * 2;
+			this.x = Arrays.copyOf(this.x, len);
+			this.z = Arrays.copyOf(this.z, len);
+			this.vx = Arrays.copyOf(this.vx, len);
+			this.vz = Arrays.copyOf(this.vz, len);
+			this.radius = Arrays.copyOf(this.radius, len);
+			this.peak = Arrays.copyOf(this.peak, len);
+			this.level = Arrays.copyOf(this.level, len);
+			this.thunder = Arrays.copyOf(this.thunder, len);
+			this.age = Arrays.copyOf(this.age, len);
+			this.life = Arrays.copyOf(this.life, len);
+		}
+		final int i = this.count++;
+		this.x[i] = x;
+		this.z[i] = z;
+		this.vx[i] = vx;
+		this.vz[i] = vz;
+		this.radius[i] = radius;
+		this.peak[i] = level;
+		this.level[i] = level;
+		this.thunder[i] = thunder;
+		this.age[i] = 0;
+		this.life[i] = Integer.MAX_VALUE;
+		return i;
+	}
+
+	private void remove(final int i) {
+		final int last = --this.count;
+		if (i != last) {
+			this.x[i] = this.x[last];
+			this.z[i] = this.z[last];
+			this.vx[i] = this.vx[last];
+			this.vz[i] = this.vz[last];
+			this.radius[i] = this.radius[last];
+			this.peak[i] = this.peak[last];
+			this.level[i] = this.level[last];
+			this.thunder[i] = this.thunder[last];
+			this.age[i] = this.age[last];
+			this.life[i] = this.life[last];
+		}
+	}
+
+	public void clear() {
+		this.count = 0;
+	}
+
+	/**
+	 * Rain intensity at the point, 0 to 1. Cells that overlap build on each
+	 * other rather than add.
+	 */
+	public float getIntensity(final double px, final double pz) {
+		float clear = 1F;
+		for (int i = 0; i < this.count; i++) {
+			final float f = falloff(i, px, pz);
+			if (f > 0F)
+				clear *= 1F - this.level[i] * f;
+		}
+		return 1F - clear;
+	}
+
+	/**
+	 * Chance of thunder at the point, 0 to 1. Taken from the strongest cell
+	 * covering the point.
+	 */
+	public float getThunder(final double px, final double pz) {
+		float result = 0F;
+		for (int i = 0; i < this.count; i++) {
+			final float f = falloff(i, px, pz);
+			if (f > 0F)
+				result = Math.max(result, this.thunder[i] * f);
+		}
+		return result;
+	}
+
+	/**
+	 * Picks a cell for a thunder event, weighted by the thunder chance of each
+	 * cell. Only cells at or above the level are considered.
+	 *
+	 * @param rand     Source of randomness
+	 * @param minLevel Minimum level of a cell that can produce thunder
+	 * @return Index of the cell, or -1 if no cell can produce thunder
+	 */
+	public int pickThunderCell(@Nonnull final Random rand, final float minLevel) {
+		float total = 0F;
+		for (int i = 0; i < this.count; i++)
+			if (this.level[i] >= minLevel)
+				total += this.thunder[i];
+		if (total <= 0F)
+			return -1;
+		float target = rand.nextFloat() * total;
+		int last = -1;
+		for (int i = 0; i < this.count; i++) {
+			if (this.level[i] >= minLevel && this.thunder[i] > 0F) {
+				last = i;
+				if ((target -= this.thunder[i]) < 0F)
+					return i;
+			}
+		}
+		return last;
+	}
+
+	/**
+	 * Hands each cell that reaches within range of the point to the consumer.
+	 */
+	public void forEachNear(final double px, final double pz, final double range,
+			@Nonnull final ICellConsumer consumer) {
+		for (int i = 0; i < this.count; i++) {
+			final double dx = this.x[i] - px;
+			final double dz = this.z[i] - pz;
+			final double reach = range + this.radius[i];
+			if (dx * dx + dz * dz <= reach * reach)
+				consumer.accept(this.x[i], this.z[i], this.vx[i], this.vz[i], this.radius[i], this.level[i],
+						this.thunder[i]);
+		}
+	}
+
+	public int size() {
+		return this.count;
+	}
+
+	public double getX(final int i) {
+		return this.x[i];
+	}
+
+	public double getZ(final int i) {
+		return this.z[i];
+	}
+
+	public float getRadius(final int i) {
+		return this.radius[i];
+	}
+
+	public float getLevel(final int i) {
+		return this.level[i];
+	}
+
+	public float getThunderChance(final int i) {
+		return this.thunder[i];
+	}
+
+	/**
+	 * Number of steps the simulation has run.
+	 */
+	public long getSteps() {
+		return this.steps;
+	}
+
+	// Smooth bump that is 1 at the center and 0 at the edge of the cell
+	private float falloff(final int i, final double px, final double pz) {
+		final double dx = px - this.x[i];
+		final double dz = pz - this.z[i];
+		final double r = this.radius[i];
+		final double d = (dx * dx + dz * dz) / (r * r);
+		if (d >= 1D)
+			return 0F;
+		final float f = (float) (1D - d);
+		return f * f;
+	}
+
+	// Ramp up, hold, ramp down over the life of a cell
+	private static float envelope(final float t) {
+		if (t < RAMP_UP)
+			return t / RAMP_UP;
+		if (t > 1F - RAMP_DOWN)
+			return Math.max(0F, (1F - t) / RAMP_DOWN);
+		return 1F;
+	}
+
+	private boolean isOccupied(final double cx, final double cz) {
+		for (int i = 0; i < this.count; i++) {
+			final double dx = this.x[i] - cx;
+			final double dz = this.z[i] - cz;
+			if (dx * dx + dz * dz < (double) GRID_SIZE * GRID_SIZE)
+				return true;
+		}
+		return false;
+	}
+
+	private static boolean nearAnchor(final double cx, final double cz, @Nonnull final double[] anchors,
+			final int anchorCount) {
+		for (int a = 0; a < anchorCount; a++) {
+			final double dx = anchors[a * 2] - cx;
+			final double dz = anchors[a * 2 + 1] - cz;
+			if (dx * dx + dz * dz <= DESPAWN_RANGE * DESPAWN_RANGE)
+				return true;
+		}
+		return false;
+	}
+
+	private static int floor(final double v) {
+		final int i = (int) v;
+		return v < i ? i - 1 : i;
+	}
+}
@@ -0,0 +1,320 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib;
+
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+
+/**
+ * Hierarchical timing wheel keyed on an integer tick counter. Scheduling,
+ * firing and cancellation are O(1) per item; items are cascaded from the
+ * coarser wheels into the finer ones as time advances. The tick counter is
+ * allowed to wrap since only differences between ticks are used.
+ *
+ * Items can optionally be associated with an owner so that everything
+ * scheduled on behalf of that owner can be cancelled in one go.
+ *
+ * Not thread safe.
+ *
+ * @param <T> Type of the item being scheduled
+ */
+public final class TimingWheel<T> {
+
+	private static final int BITS = 6;
+	private static final int SLOTS = 1 << BITS;
+	private static final int MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+	private static final int HORIZON = 1 << (BITS * LEVELS);
+
+	private static final class Node<T> {
+		T item;
+		Object owner;
+		int deadline;
+		int level;
+		int slot;
+		Node<T> prev;
+		Node<T> next;
+		Node<T> ownerPrev;
+		Node<T> ownerNext;
+	}
+
+	@SuppressWarnings("unchecked")
+	private final Node<T>[][] wheels = new Node[LEVELS][SLOTS];
+	private final Reference2ObjectOpenHashMap<Object, Node<T>> owners = new Reference2ObjectOpenHashMap<>();
+
+	// Recycled nodes so steady state scheduling does not allocate
+	private Node<T> free;
+
+	// The next tick that will be processed
+	private int current;
+	private int size;
+
+	public TimingWheel(final int startTick) {
+		this.current = startTick;
+	}
+
+	/**
+	 * Number of items waiting to fire.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * The next tick that will be processed by advance().
+	 */
+	public int getCurrentTick() {
+		return this.current;
+	}
+
+	/**
+	 * Schedules an item to fire at the specified tick. Items scheduled for a tick
+	 * that has already been processed fire on the next call to advance().
+	 *
+	 * @param deadline Tick at which the item should fire
+	 * @param owner    Optional owner used for bulk cancellation
+	 * @param item     The item to schedule
+	 */
+	public void schedule(final int deadline, @Nullable final Object owner, @Nonnull final T item) {
+		Node<T> node = this.free;
+		if (node != null)
+			this.free = node.next;
+		else
+			node = new Node<>();
+
+		node.item = item;
+		node.owner = owner;
+		node.deadline = deadline;
+		node.prev = null;
+		node.next = null;
+		place(node);
+
+		if (owner != null) {
+			final Node<T> head = this.owners.get(owner);
+			node.ownerPrev = null;
+			node.ownerNext = head;
+			if (head != null)
+				head.ownerPrev = node;
+			this.owners.put(owner, node);
+		}
+
+		this.size++;
+	}
+
+	/**
+	 * Cancels all items that have been scheduled for the owner.
+	 *
+	 * @param owner Owner of the items
+	 * @return The number of items that were cancelled
+	 */
+	public int cancel(@Nonnull final Object owner) {
+		Node<T> node = this.owners.remove(owner);
+		int count = 0;
+		while (node != null) {
+			final Node<T> next = node.ownerNext;
+			unlink(node);
+			node.ownerNext = null;
+			node.ownerPrev = null;
+			release(node);
+			count++;
+			node = next;
+		}
+		this.size -= count;
+		return count;
+	}
+
+	/**
+	 * Processes all ticks up to and including the target tick, handing each item
+	 * that comes due to the consumer. Items scheduled by the consumer that are due
+	 * within the processed range fire during the same call.
+	 *
+	 * @param target The tick to advance to
+	 * @param fire   Receives the items that are due
+	 * @return The number of items that fired
+	 */
+	public int advance(final int target, @Nonnull final Consumer<T> fire) {
+		int fired = 0;
+		while (target - this.current >= 0) {
+			if (this.size == 0) {
+				// Nothing pending so skip ahead
+				this.current = target + 1;
+				break;
+			}
+
+			final int t = this.current;
+			final int index = t & MASK;
+			if (index == 0) {
+				for (int level = 1; level < LEVELS; level++) {
+					final int idx = (t >>> (BITS * level)) & MASK;
+					cascade(level, idx);
+					if (idx != 0)
+						break;
+				}
+			}
+
+			final Node<T>[] wheel = this.wheels[0];
+			Node<T> node;
+			while ((node = wheel[index]) != null) {
+				unlink(node);
+				unlinkOwner(node);
+				final T item = node.item;
+				release(node);
+				this.size--;
+				fired++;
+				fire.accept(item);
+			}
+
+			this.current++;
+		}
+		return fired;
+	}
+
+	/**
+	 * Hands each pending item to the consumer without removing it.
+	 */
+	public void forEach(@Nonnull final Consumer<T> action) {
+		for (final Node<T>[] wheel : this.wheels)
+			for (Node<T> head : wheel)
+				for (Node<T> node = head; node != null; node = node.next)
+					action.accept(node.item);
+	}
+
+	/**
+	 * Removes all pending items.
+	 */
+	public void clear() {
+		for (final Node<T>[] wheel : this.wheels) {
+			for (int i = 0; i < SLOTS; i++) {
+				Node<T> node = wheel[i];
+				wheel[i] = null;
+				while (node != null) {
+					final Node<T> next = node.next;
+					node.ownerNext = null;
+					node.ownerPrev = null;
+					release(node);
+					node = next;
+				}
+			}
+		}
+		this.owners.clear();
+		this.size = 0;
+	}
+
+	/**
+	 * Removes all pending items and restarts the wheel at the specified tick.
+	 * Needed when the tick counter driving the wheel is reset.
+	 *
+	 * @param startTick The next tick to be processed
+	 */
+	public void reset(final int startTick) {
+		clear();
+		this.current = startTick;
+	}
+
+	private void place(@Nonnull final Node<T> node) {
+		int delta = node.deadline - this.current;
+		if (delta < 0)
+			delta = 0;
+
+		final int level;
+		final int slot;
+		if (delta < SLOTS) {
+			level = 0;
+			slot = (this.current + delta) & MASK;
+		} else if (delta < (1 << (BITS * 2))) {
+			level = 1;
+			slot = (node.deadline >>> BITS) & MASK;
+		} else if (delta < (1 << (BITS * 3))) {
+			level = 2;
+			slot = (node.deadline >>> (BITS * 2)) & MASK;
+		} else {
+			// Anything past the horizon gets parked at the furthest slot and is
+			// re-placed when it cascades.
+			final int expires = delta < HORIZON ? node.deadline : this.current + HORIZON - 1;
+			level = 3;
+			slot = (expires >>> (BITS * 3)) & MASK;
+		}
+
+		final Node<T>[] wheel = this.wheels[level];
+		final Node<T> head = wheel[slot];
+		node.level = level;
+		node.slot = slot;
+		node.prev = null;
+		node.next = head;
+		if (head != null)
+			head.prev = node;
+		wheel[slot] = node;
+	}
+
+	private void cascade(final int level, final int idx) {
+		final Node<T>[] wheel = this.wheels[level];
+		Node<T> node = wheel[idx];
+		wheel[idx] = null;
+		while (node != null) {
+			final Node<T> next = node.next;
+			place(node);
+			node = next;
+		}
+	}
+
+	private void unlink(@Nonnull final Node<T> node) {
+		if (node.prev != null)
+			node.prev.next = node.next;
+		else
+			this.wheels[node.level][node.slot] = node.next;
+		if (node.next != null)
+			node.next.prev = node.prev;
+		node.prev = null;
+		node.next = null;
+	}
+
+	private void unlinkOwner(@Nonnull final Node<T> node) {
+		if (node.owner == null)
+			return;
+		if (node.ownerPrev != null) {
+			node.ownerPrev.ownerNext = node.ownerNext;
+		} else if (node.ownerNext != null) {
+			this.owners.put(node.owner, node.ownerNext);
+		} else {
+			this.owners.remove(node.owner);
+		}
+		if (node.ownerNext != null)
+			node.ownerNext.ownerPrev = node.ownerPrev;
+		node.ownerPrev = null;
+		node.ownerNext = null;
+	}
+
+	private void release(@Nonnull final Node<T> node) {
+		node.item = null;
+		node.owner = null;
+		node.prev = null;
+		node.next = this.free;
+		this.free = node;
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+
+/**
+ * Replaces repeated "random.nextInt(chance) == 0" rolls with skip counts drawn
+ * from the geometric distribution. For each chance class the sampler keeps the
+ * number of trials remaining until the next success, so a trial that does not
+ * fire costs a decrement rather than a random draw. The sequence of outcomes for
+ * a chance class is statistically identical to rolling each trial
+ * independently: each trial fires with probability 1/chance.
+ *
+ * Not thread safe.
+ */
+public final class TriggerSampler {
+
+	// Chance values below this are tracked in an array; the rest in a map
+	private static final int DIRECT_LIMIT = 4096;
+	private static final int UNSET = -1;
+
+	private final Random random;
+	private int[] direct = new int[0];
+	private final Int2IntOpenHashMap overflow = new Int2IntOpenHashMap();
+
+	public TriggerSampler(@Nonnull final Random random) {
+		this.random = random;
+		this.overflow.defaultReturnValue(UNSET);
+	}
+
+	/**
+	 * Performs a trial for the chance class.
+	 *
+	 * @param chance One in chance probability of firing. A value of 1 or less
+	 *               always fires.
+	 * @return true if the trial fires; false otherwise
+	 */
+	public boolean fires(final int chance) {
+		if (chance <= 1)
+			return true;
+
+		int remaining;
+		if (chance < DIRECT_LIMIT) {
+			if (chance >= this.direct.length) {
+				final int old = this.direct.length;
+				this.direct = Arrays.copyOf(this.direct, Math.min(DIRECT_LIMIT, Math.max(chance + 1, old * 2)));
+				Arrays.fill(this.direct, old, this.direct.length, UNSET);
+			}
+			remaining = this.direct[chance];
+			if (remaining == UNSET)
+				remaining = skip(chance);
+			if (remaining == 0) {
+				this.direct[chance] = skip(chance);
+				return true;
+			}
+			this.direct[chance] = remaining - 1;
+			return false;
+		}
+
+		remaining = this.overflow.get(chance);
+		if (remaining == UNSET)
+			remaining = skip(chance);
+		if (remaining == 0) {
+			this.overflow.put(chance, skip(chance));
+			return true;
+		}
+		this.overflow.put(chance, remaining - 1);
+		return false;
+	}
+
+	/**
+	 * Discards all pending skip counts.
+	 */
+	public void reset() {
+		Arrays.fill(this.direct, UNSET);
+		this.overflow.clear();
+	}
+
+	/**
+	 * Draws the number of failed trials before the next success for a
+	 * probability of 1/chance.
+	 */
+	private int skip(final int chance) {
+		final double u = 1.0D - this.random.nextDouble(); // (0, 1]
+		final double s = Math.floor(Math.log(u) / Math.log1p(-1.0D / chance));
+		return s >= Integer.MAX_VALUE ? Integer.MAX_VALUE - 1 : (int) s;
+	}
+}
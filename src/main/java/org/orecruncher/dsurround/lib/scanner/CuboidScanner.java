@@ -203,9 +203,18 @@ public abstract class CuboidScanner extends Scanner {
 		return this.locus.getWorld().isAvailable(event.pos);
 	}
 
+	/**
+	 * Invoked for every block update before it is checked for interest. Override
+	 * to maintain state derived from blocks the scanner does not care about.
+	 */
+	protected void blockChanged(@Nonnull final BlockUpdateEvent event) {
+
+	}
+
 	@SubscribeEvent()
 	public void onBlockUpdate(@Nonnull final BlockUpdateEvent event) {
 		try {
+			blockChanged(event);
 			if (isInteresting(event)) {
 				blockScan(event.newState, event.pos, this.random);
 			}
@@ -37,7 +37,7 @@ import net.minecraft.util.math.BlockPos;
  */
 public abstract class RandomScanner extends Scanner {
 
-	private final LCGRandom lcg = new LCGRandom();
+	private LCGRandom lcg = new LCGRandom();
 
 	private int playerX;
 	private int playerY;
@@ -52,6 +52,12 @@ public abstract class RandomScanner extends Scanner {
 		super(locus, name, range, blocksPerTick);
 	}
 
+	@Override
+	public void setSeed(final long seed) {
+		super.setSeed(seed);
+		this.lcg = new LCGRandom(seed);
+	}
+
 	private int randomRange(final int range) {
 		return this.lcg.nextInt(range) - this.lcg.nextInt(range);
 	}
@@ -99,6 +99,14 @@ public abstract class Scanner implements ITickable, Callable<Void> {
 		this.log = log;
 	}
 
+	/**
+	 * Reseeds the random sources used by the scanner so that a run can be
+	 * repeated exactly.
+	 */
+	public void setSeed(final long seed) {
+		this.random.setSeed(seed);
+	}
+
 	/**
 	 * The volume of the scan area
 	 */
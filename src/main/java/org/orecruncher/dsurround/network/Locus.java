@@ -52,6 +52,11 @@ public class Locus extends TargetPoint {
 		this.entityId = entity.getEntityId();
 	}
 
+	public Locus(final int dimension, final double x, final double y, final double z, final double range) {
+		super(dimension, x, y, z, range);
+		this.entityId = -1;
+	}
+
 	public Locus(@Nonnull final ByteBuf buf) {
 		super(buf.readInt(), buf.readFloat(), buf.readFloat(), buf.readFloat(), buf.readFloat());
 		this.entityId = buf.readInt();
@@ -24,13 +24,13 @@
 
 package org.orecruncher.dsurround.network;
 
-import java.util.Collection;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
 
@@ -38,13 +38,15 @@ import org.apache.commons.lang3.StringUtils;
 import org.orecruncher.dsurround.ModBase;
 import org.orecruncher.dsurround.ModInfo;
 import org.orecruncher.lib.ReflectedField.ObjectField;
-import org.orecruncher.lib.collections.EmptyList;
 import org.orecruncher.lib.task.Scheduler;
 
-import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.management.PlayerList;
 import net.minecraft.world.WorldServer;
 import net.minecraftforge.common.DimensionManager;
 import net.minecraftforge.common.MinecraftForge;
@@ -52,8 +54,12 @@ import net.minecraftforge.common.util.FakePlayer;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
 import net.minecraftforge.fml.common.eventhandler.Event;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerChangedDimensionEvent;
 import net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerLoggedOutEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
 import net.minecraftforge.fml.common.network.FMLNetworkEvent.ServerConnectionFromClientEvent;
 import net.minecraftforge.fml.common.network.FMLNetworkEvent.ServerDisconnectionFromClientEvent;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
@@ -71,9 +77,18 @@ public final class Network {
 	// cause Mayhem.
 	private static final ObjectField<NetworkDispatcher, EntityPlayerMP> player = new ObjectField<>(
 			NetworkDispatcher.class, "player", null);
-	private static final ObjectOpenHashSet<UUID> blockList = new ObjectOpenHashSet<>();
+	private static final Set<UUID> blockList = ConcurrentHashMap.newKeySet();
 	private static final SimpleNetworkWrapper NETWORK = NetworkRegistry.INSTANCE.newSimpleChannel(ModInfo.MOD_ID);
 
+	// Outbound packets are buffered per player and flushed once at the end of
+	// the server tick. Broadcasts requested from threads other than the server
+	// thread (like chat) are deferred until the flush so the player lists are
+	// only ever touched by the server thread.
+	private static final OutboundQueue<UUID, IMessage> outbound = new OutboundQueue<>();
+	private static final Queue<Runnable> deferred = new ConcurrentLinkedQueue<>();
+	private static final Int2ObjectOpenHashMap<RecipientIndex<EntityPlayerMP>> recipients = new Int2ObjectOpenHashMap<>();
+	private static final IntOpenHashSet indexed = new IntOpenHashSet();
+
 	public static void initialize() {
 
 		int discriminator = 0;
@@ -90,6 +105,10 @@ public final class Network {
 				Side.CLIENT);
 		NETWORK.registerMessage(PacketServerData.PacketHandler.class, PacketServerData.class, ++discriminator,
 				Side.CLIENT);
+		NETWORK.registerMessage(PacketDumpRequest.PacketHandler.class, PacketDumpRequest.class, ++discriminator,
+				Side.CLIENT);
+		NETWORK.registerMessage(PacketStormCells.PacketHandler.class, PacketStormCells.class, ++discriminator,
+				Side.CLIENT);
 	}
 
 	@SubscribeEvent
@@ -101,16 +120,12 @@ public final class Network {
 				final String version = dispatcher.getModList().get(ModInfo.MOD_ID);
 				if (StringUtils.isEmpty(version)) {
 					// Block the player from receiving network packets
-					synchronized (blockList) {
-						blockList.add(p.getPersistentID());
-					}
+					blockList.add(p.getPersistentID());
 					ModBase.log().info("Player [%s] connected without having %s installed", p.getDisplayNameString(),
 							ModInfo.MOD_NAME);
 				} else {
 					// Make sure the UUID is not in the list in case there was something lingering
-					synchronized (blockList) {
-						blockList.remove(p.getPersistentID());
-					}
+					blockList.remove(p.getPersistentID());
 					ModBase.log().info("Player [%s] connected with %s %s", p.getDisplayNameString(), ModInfo.MOD_NAME,
 							version);
 				}
@@ -128,9 +143,8 @@ public final class Network {
 		if (dispatcher != null) {
 			try {
 				final EntityPlayerMP p = player.get(dispatcher);
-				synchronized (blockList) {
-					blockList.remove(p.getPersistentID());
-				}
+				blockList.remove(p.getPersistentID());
+				outbound.remove(p.getUniqueID());
 			} catch (@Nonnull final Throwable t) {
 				t.printStackTrace();
 			}
@@ -141,14 +155,27 @@ public final class Network {
 	@SubscribeEvent
 	public static void clientDisconnect(@Nonnull final PlayerLoggedOutEvent event) {
 		try {
-			synchronized (blockList) {
-				blockList.remove(event.player.getPersistentID());
-			}
+			blockList.remove(event.player.getPersistentID());
+			outbound.remove(event.player.getUniqueID());
+			if (event.player instanceof EntityPlayerMP)
+				for (final RecipientIndex<EntityPlayerMP> index : recipients.values())
+					index.remove((EntityPlayerMP) event.player);
 		} catch (@Nonnull final Throwable t) {
 			t.printStackTrace();
 		}
 	}
 
+	// A player leaving a dimension is dropped from that dimension's snapshot
+	// right away rather than when it is next rebuilt.
+	@SubscribeEvent
+	public static void playerChangedDimension(@Nonnull final PlayerChangedDimensionEvent event) {
+		if (event.player instanceof EntityPlayerMP) {
+			final RecipientIndex<EntityPlayerMP> index = recipients.get(event.fromDim);
+			if (index != null)
+				index.remove((EntityPlayerMP) event.player);
+		}
+	}
+
 	// Package level helper method to fire client side events based on incoming
 	// packets
 	@SideOnly(Side.CLIENT)
@@ -160,82 +187,141 @@ public final class Network {
 		Scheduler.schedule(side, () -> MinecraftForge.EVENT_BUS.post(event));
 	}
 
-	private static void sendToList(@Nonnull final List<EntityPlayerMP> players, @Nonnull final IMessage msg) {
-		synchronized (NETWORK) {
-			players.forEach(p -> NETWORK.sendTo(msg, p));
+	private static boolean isServerThread() {
+		final MinecraftServer server = FMLCommonHandler.instance().getMinecraftServerInstance();
+		return server != null && server.isCallingFromMinecraftThread();
+	}
+
+	private static boolean canReceive(@Nonnull final EntityPlayer player) {
+		return player instanceof EntityPlayerMP && !(player instanceof FakePlayer)
+				&& !blockList.contains(player.getPersistentID());
+	}
+
+	/*
+	 * Obtains the recipient snapshot for the dimension, building it on first use
+	 * during the tick.
+	 */
+	@Nonnull
+	private static RecipientIndex<EntityPlayerMP> getRecipients(@Nonnull final WorldServer world) {
+		final int dim = world.provider.getDimension();
+		RecipientIndex<EntityPlayerMP> index = recipients.get(dim);
+		if (index == null)
+			recipients.put(dim, index = new RecipientIndex<>());
+		if (indexed.add(dim)) {
+			index.reset();
+			final List<EntityPlayer> players = world.playerEntities;
+			for (int i = 0; i < players.size(); i++) {
+				final EntityPlayer p = players.get(i);
+				if (canReceive(p))
+					index.add((EntityPlayerMP) p, p.posX, p.posY, p.posZ);
+			}
 		}
+		return index;
 	}
 
-	private static <T extends EntityPlayer> List<EntityPlayerMP> generateStream(@Nonnull final Collection<T> c,
-			Predicate<T> pred) {
-		//@formatter:off
-		Stream<T> strm = c.stream()
-			.filter(p -> !(p instanceof FakePlayer))
-			.filter(p -> !blockList.contains(p.getPersistentID()));
+	/**
+	 * Sends all buffered packets to their players. Runs after the other end of
+	 * tick handlers so anything they queue goes out the same tick.
+	 *
+	 * @param event Event that was triggered
+	 */
+	@SubscribeEvent(priority = EventPriority.LOWEST)
+	public static void tickEvent(@Nonnull final TickEvent.ServerTickEvent event) {
+		if (event.phase != Phase.END)
+			return;
 
-		if (pred != null)
-			strm = strm.filter(pred);
+		Runnable r;
+		while ((r = deferred.poll()) != null)
+			r.run();
 
-		try {
-			synchronized (blockList) {
-				return strm.map(p -> (EntityPlayerMP) p).collect(Collectors.toList());
+		// Players are looked up by UUID since the entity is replaced when
+		// respawning or leaving the End.
+		final PlayerList players = FMLCommonHandler.instance().getMinecraftServerInstance().getPlayerList();
+		outbound.flush(id -> {
+			final EntityPlayerMP p = players.getPlayerByUUID(id);
+			return p == null || p.hasDisconnected() ? null : p;
+		}, (p, msg) -> {
+			try {
+				NETWORK.sendTo(msg, p);
+			} catch (@Nonnull final Throwable t) {
+				t.printStackTrace();
 			}
-		} catch (@Nonnull final Throwable t) {
-			t.printStackTrace();
-			return EmptyList.empty();
-		}
-		//@formatter:on
+		});
+
+		indexed.clear();
+	}
+
+	/**
+	 * Discards any buffered packets and recipient snapshots. Called when the
+	 * server stops.
+	 */
+	public static void clear() {
+		deferred.clear();
+		outbound.clear();
+		recipients.clear();
+		indexed.clear();
 	}
 
 	// Basic server -> client packet routines
 	public static void sendToPlayer(@Nonnull final EntityPlayerMP player, @Nonnull final IMessage msg) {
-		try {
-			synchronized (blockList) {
-				if (blockList.contains(player.getPersistentID()))
-					return;
-			}
-			synchronized (NETWORK) {
-				NETWORK.sendTo(msg, player);
-			}
-		} catch (@Nonnull final Throwable t) {
-			t.printStackTrace();
-		}
+		if (!blockList.contains(player.getPersistentID()))
+			outbound.enqueue(player.getUniqueID(), msg);
 	}
 
 	public static void sendToEntityViewers(@Nonnull final Entity entity, @Nonnull final IMessage msg) {
+		if (!isServerThread()) {
+			deferred.add(() -> sendToEntityViewers(entity, msg));
+			return;
+		}
 		final Set<? extends EntityPlayer> players = ((WorldServer) entity.getEntityWorld()).getEntityTracker()
 				.getTrackingPlayers(entity);
-		final List<EntityPlayerMP> list = generateStream(players, null);
-		sendToList(list, msg);
+		for (final EntityPlayer p : players)
+			if (canReceive(p))
+				outbound.enqueue(p.getUniqueID(), msg);
 	}
 
 	public static void sendToDimension(final int dimensionId, @Nonnull final IMessage msg) {
-		final WorldServer world = DimensionManager.getWorld(dimensionId);
-		if (world != null) {
-			final List<EntityPlayerMP> players = generateStream(DimensionManager.getWorld(dimensionId).playerEntities,
-					null);
-			sendToList(players, msg);
+		if (!isServerThread()) {
+			deferred.add(() -> sendToDimension(dimensionId, msg));
+			return;
 		}
+		final WorldServer world = DimensionManager.getWorld(dimensionId);
+		if (world != null)
+			getRecipients(world).forEach(p -> outbound.enqueue(p.getUniqueID(), msg));
 	}
 
 	public static void sendToAll(@Nonnull final IMessage msg) {
-		final List<EntityPlayerMP> players = generateStream(
-				FMLCommonHandler.instance().getMinecraftServerInstance().getPlayerList().getPlayers(), null);
-		sendToList(players, msg);
+		if (!isServerThread()) {
+			deferred.add(() -> sendToAll(msg));
+			return;
+		}
+		final List<EntityPlayerMP> players = FMLCommonHandler.instance().getMinecraftServerInstance().getPlayerList()
+				.getPlayers();
+		for (int i = 0; i < players.size(); i++) {
+			final EntityPlayerMP p = players.get(i);
+			if (canReceive(p))
+				outbound.enqueue(p.getUniqueID(), msg);
+		}
 	}
 
-	public static void sendToAllAround(@Nonnull final Locus point, @Nonnull final IMessage msg) {
+	/**
+	 * Hands each player in range of the point that can receive packets to the
+	 * action. Must be called from the server thread.
+	 */
+	public static void forEachAround(@Nonnull final Locus point, @Nonnull final Consumer<EntityPlayerMP> action) {
 		final WorldServer world = DimensionManager.getWorld(point.dimension);
-		if (world != null) {
-			final double rSq = point.range * point.range;
-			//@formatter:off
-			final List<EntityPlayerMP> players =
-				generateStream(
-					DimensionManager.getWorld(point.dimension).playerEntities,
-					p -> p.getDistanceSq(point.x, point.y, point.z) <= rSq
-				);
-			//@formatter:on
-			sendToList(players, msg);
+		if (world != null)
+			getRecipients(world).forEachInRange(point.x, point.y, point.z, point.range, action);
+	}
+
+	public static void sendToAllAround(@Nonnull final Locus point, @Nonnull final IMessage msg) {
+		if (!isServerThread()) {
+			deferred.add(() -> sendToAllAround(point, msg));
+			return;
 		}
+		final WorldServer world = DimensionManager.getWorld(point.dimension);
+		if (world != null)
+			getRecipients(world).forEachInRange(point.x, point.y, point.z, point.range,
+					p -> outbound.enqueue(p.getUniqueID(), msg));
 	}
 }
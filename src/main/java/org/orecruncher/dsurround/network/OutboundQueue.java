@@ -0,0 +1,121 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.network;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Per-recipient outbound message buffers. Producers can enqueue from any
+ * thread without locking; the buffers are drained once per tick by the owning
+ * thread. Has no dependency on the server so it can be exercised standalone.
+ *
+ * Recipients should be keyed by something that outlives the player entity,
+ * like the player UUID. The entity is replaced on respawn and when leaving the
+ * End, and a buffer keyed by the old entity would never be released.
+ *
+ * @param <P> Type of the recipient key
+ * @param <M> Type of the message
+ */
+public final class OutboundQueue<P, M> {
+
+	private final Map<P, Queue<M>> buffers = new ConcurrentHashMap<>();
+
+	/**
+	 * Queues a message for the recipient. Messages for the same recipient are
+	 * delivered in the order they were queued.
+	 *
+	 * @param recipient Recipient of the message
+	 * @param msg       The message to send
+	 */
+	public void enqueue(@Nonnull final P recipient, @Nonnull final M msg) {
+		this.buffers.computeIfAbsent(recipient, k -> new ConcurrentLinkedQueue<>()).add(msg);
+	}
+
+	/**
+	 * Drains all buffers, handing each message to the sink. Each recipient key
+	 * is resolved once per flush. Buffers for recipients are retained so steady
+	 * state sending does not allocate. Buffers of recipients that no longer
+	 * resolve are discarded.
+	 *
+	 * @param resolve Maps a recipient key to the target of its messages, or null
+	 *                if the recipient can no longer receive messages
+	 * @param sink    Receives each target/message pair
+	 * @return The number of messages that were handed to the sink
+	 */
+	public <T> int flush(@Nonnull final Function<P, T> resolve, @Nonnull final BiConsumer<T, M> sink) {
+		int count = 0;
+		final Iterator<Map.Entry<P, Queue<M>>> itr = this.buffers.entrySet().iterator();
+		while (itr.hasNext()) {
+			final Map.Entry<P, Queue<M>> e = itr.next();
+			final T target = resolve.apply(e.getKey());
+			if (target == null) {
+				itr.remove();
+				continue;
+			}
+			final Queue<M> queue = e.getValue();
+			M msg;
+			while ((msg = queue.poll()) != null) {
+				sink.accept(target, msg);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Number of recipients that have a buffer.
+	 */
+	public int recipients() {
+		return this.buffers.size();
+	}
+
+	/**
+	 * Number of messages waiting to be sent to the recipient.
+	 */
+	public int pending(@Nonnull final P recipient) {
+		final Queue<M> queue = this.buffers.get(recipient);
+		return queue == null ? 0 : queue.size();
+	}
+
+	/**
+	 * Discards the buffer for the recipient, including any messages that have
+	 * not been sent.
+	 */
+	public void remove(@Nonnull final P recipient) {
+		this.buffers.remove(recipient);
+	}
+
+	public void clear() {
+		this.buffers.clear();
+	}
+}
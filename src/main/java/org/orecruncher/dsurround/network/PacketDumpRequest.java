@@ -0,0 +1,118 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.network;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.orecruncher.dsurround.ModBase;
+import org.orecruncher.dsurround.registry.dump.ClientDumper;
+import org.orecruncher.lib.Localization;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.client.Minecraft;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+/**
+ * Asks the client to dump its registries. The client side registries only
+ * exist on the client so the server cannot produce those sections itself. The
+ * server built dimension section rides along so the client can write the whole
+ * dump into one directory.
+ */
+public class PacketDumpRequest implements IMessage {
+
+	private String name;
+	private List<String> sections;
+	private SortedMap<String, String> dimensions;
+
+	public PacketDumpRequest() {
+		// Needed for client side creation
+	}
+
+	public PacketDumpRequest(@Nonnull final String name, @Nonnull final List<String> sections,
+			@Nullable final SortedMap<String, String> dimensions) {
+		this.name = name;
+		this.sections = sections;
+		this.dimensions = dimensions;
+	}
+
+	@Override
+	public void fromBytes(@Nonnull final ByteBuf buf) {
+		this.name = ByteBufUtils.readUTF8String(buf);
+		int len = buf.readInt();
+		this.sections = new ArrayList<>(len);
+		while (len-- != 0)
+			this.sections.add(ByteBufUtils.readUTF8String(buf));
+		if (buf.readBoolean()) {
+			this.dimensions = new TreeMap<>();
+			len = buf.readInt();
+			while (len-- != 0)
+				this.dimensions.put(ByteBufUtils.readUTF8String(buf), ByteBufUtils.readUTF8String(buf));
+		}
+	}
+
+	@Override
+	public void toBytes(@Nonnull final ByteBuf buf) {
+		ByteBufUtils.writeUTF8String(buf, this.name);
+		buf.writeInt(this.sections.size());
+		for (final String s : this.sections)
+			ByteBufUtils.writeUTF8String(buf, s);
+		buf.writeBoolean(this.dimensions != null);
+		if (this.dimensions != null) {
+			buf.writeInt(this.dimensions.size());
+			for (final Entry<String, String> e : this.dimensions.entrySet()) {
+				ByteBufUtils.writeUTF8String(buf, e.getKey());
+				ByteBufUtils.writeUTF8String(buf, e.getValue());
+			}
+		}
+	}
+
+	public static class PacketHandler implements IMessageHandler<PacketDumpRequest, IMessage> {
+		@Override
+		@Nullable
+		public IMessage onMessage(@Nonnull final PacketDumpRequest message, @Nullable final MessageContext ctx) {
+			if (ctx != null) {
+				ModBase.proxy().getThreadListener(ctx).addScheduledTask(() -> {
+					final File dir = ClientDumper.write(message.name, message.sections, message.dimensions);
+					if (dir != null && Minecraft.getMinecraft().player != null)
+						Minecraft.getMinecraft().player.sendMessage(new TextComponentString(
+								Localization.format("dsurround.msg.DumpWritten", dir.getAbsolutePath())));
+				});
+			}
+			return null;
+		}
+	}
+
+}
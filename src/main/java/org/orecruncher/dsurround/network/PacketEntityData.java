@@ -24,6 +24,9 @@
 
 package org.orecruncher.dsurround.network;
 
+import java.util.Collections;
+import java.util.List;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -37,38 +40,55 @@ import org.orecruncher.lib.WorldUtils;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.entity.Entity;
 import net.minecraft.world.World;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 
 public class PacketEntityData implements IMessage {
 
-	private int entityId;
-	private boolean isAttacking;
-	private boolean isFleeing;
+	private static final int ATTACKING = 1;
+	private static final int FLEEING = 2;
+
+	private int[] entityIds;
+	private byte[] states;
 
 	public PacketEntityData() {
 		// Needed for client side creation
 	}
 
 	public PacketEntityData(@Nonnull final IEntityData data) {
-		this.entityId = data.getEntityId();
-		this.isAttacking = data.isAttacking();
-		this.isFleeing = data.isFleeing();
+		this(Collections.singletonList(data));
+	}
+
+	public PacketEntityData(@Nonnull final List<? extends IEntityData> batch) {
+		this.entityIds = new int[batch.size()];
+		this.states = new byte[batch.size()];
+		for (int i = 0; i < batch.size(); i++) {
+			final IEntityData data = batch.get(i);
+			this.entityIds[i] = data.getEntityId();
+			this.states[i] = (byte) ((data.isAttacking() ? ATTACKING : 0) | (data.isFleeing() ? FLEEING : 0));
+		}
 	}
 
 	@Override
 	public void fromBytes(@Nonnull final ByteBuf buf) {
-		this.entityId = buf.readInt();
-		this.isAttacking = buf.readBoolean();
-		this.isFleeing = buf.readBoolean();
+		final int count = ByteBufUtils.readVarInt(buf, 5);
+		this.entityIds = new int[count];
+		this.states = new byte[count];
+		for (int i = 0; i < count; i++) {
+			this.entityIds[i] = buf.readInt();
+			this.states[i] = buf.readByte();
+		}
 	}
 
 	@Override
 	public void toBytes(@Nonnull final ByteBuf buf) {
-		buf.writeInt(this.entityId);
-		buf.writeBoolean(this.isAttacking);
-		buf.writeBoolean(this.isFleeing);
+		ByteBufUtils.writeVarInt(buf, this.entityIds.length, 5);
+		for (int i = 0; i < this.entityIds.length; i++) {
+			buf.writeInt(this.entityIds[i]);
+			buf.writeByte(this.states[i]);
+		}
 	}
 
 	public static class PacketHandler implements IMessageHandler<PacketEntityData, IMessage> {
@@ -79,13 +99,15 @@ public class PacketEntityData implements IMessage {
 				ModBase.proxy().getThreadListener(ctx).addScheduledTask(() -> {
 					final World world = EnvironState.getWorld();
 					if (world != null) {
-						final Entity entity = WorldUtils.locateEntity(world, message.entityId);
-						if (entity != null) {
-							final IEntityDataSettable data = (IEntityDataSettable) CapabilityEntityData
-									.getCapability(entity);
-							if (data != null) {
-								data.setAttacking(message.isAttacking);
-								data.setFleeing(message.isFleeing);
+						for (int i = 0; i < message.entityIds.length; i++) {
+							final Entity entity = WorldUtils.locateEntity(world, message.entityIds[i]);
+							if (entity != null) {
+								final IEntityDataSettable data = (IEntityDataSettable) CapabilityEntityData
+										.getCapability(entity);
+								if (data != null) {
+									data.setAttacking((message.states[i] & ATTACKING) != 0);
+									data.setFleeing((message.states[i] & FLEEING) != 0);
+								}
 							}
 						}
 					}
@@ -26,6 +26,7 @@ package org.orecruncher.dsurround.network;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -33,11 +34,13 @@ import javax.annotation.Nullable;
 import org.orecruncher.dsurround.ModBase;
 import org.orecruncher.dsurround.client.handlers.DiagnosticHandler;
 import org.orecruncher.dsurround.client.handlers.EffectManager;
+import org.orecruncher.dsurround.server.services.WorkScheduler;
 
 import io.netty.buffer.ByteBuf;
 import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
 import net.minecraft.util.text.TextFormatting;
 import net.minecraftforge.common.DimensionManager;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -49,18 +52,20 @@ public class PacketServerData implements IMessage {
 	private int free;
 	private int total;
 	private int max;
+	private List<WorkScheduler.Stats> services;
 
 	public PacketServerData() {
 		// Needed for client side creation
 	}
 
 	public PacketServerData(@Nonnull final Int2DoubleOpenHashMap tps, final double meanTickTime, final int memFree,
-			int memTotal, int memMax) {
+			int memTotal, int memMax, @Nonnull final List<WorkScheduler.Stats> services) {
 		this.meanTickTime = meanTickTime;
 		this.tMap = tps;
 		this.free = memFree;
 		this.total = memTotal;
 		this.max = memMax;
+		this.services = services;
 	}
 
 	@Override
@@ -74,6 +79,12 @@ public class PacketServerData implements IMessage {
 		this.free = buf.readInt();
 		this.total = buf.readInt();
 		this.max = buf.readInt();
+		len = buf.readInt();
+		this.services = new ArrayList<>(len);
+		while (len-- != 0) {
+			this.services.add(new WorkScheduler.Stats(ByteBufUtils.readUTF8String(buf), buf.readInt(), buf.readInt(),
+					buf.readInt(), buf.readFloat(), buf.readInt(), buf.readFloat()));
+		}
 	}
 
 	@Override
@@ -87,6 +98,16 @@ public class PacketServerData implements IMessage {
 		buf.writeInt(this.free);
 		buf.writeInt(this.total);
 		buf.writeInt(this.max);
+		buf.writeInt(this.services.size());
+		for (final WorkScheduler.Stats stats : this.services) {
+			ByteBufUtils.writeUTF8String(buf, stats.name);
+			buf.writeInt(stats.units);
+			buf.writeInt(stats.pending);
+			buf.writeInt(stats.starved);
+			buf.writeFloat(stats.meanLatency);
+			buf.writeInt(stats.maxLatency);
+			buf.writeFloat(stats.meanMicros);
+		}
 	}
 
 	@Nonnull
@@ -119,6 +140,14 @@ public class PacketServerData implements IMessage {
 								getTpsFormatPrefix(tps1), entry.getDoubleValue(), tps1));
 					});
 					Collections.sort(data.subList(4, data.size()));
+					for (final WorkScheduler.Stats stats : message.services) {
+						if (stats.units == 0 && stats.pending == 0)
+							continue;
+						data.add(String.format("%s:%s %d units %5.1fus, lat %.1f/%d, pend %d, starved %d",
+								stats.name, stats.starved > 0 ? TextFormatting.YELLOW : TextFormatting.GREEN,
+								stats.units, stats.meanMicros, stats.meanLatency, stats.maxLatency, stats.pending,
+								stats.starved));
+					}
 					final DiagnosticHandler handler = EffectManager.instance().lookupService(DiagnosticHandler.class);
 					handler.setServerTPSReport(data);
 				});
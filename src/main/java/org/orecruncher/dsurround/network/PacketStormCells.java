@@ -0,0 +1,102 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.network;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.orecruncher.dsurround.event.StormUpdateEvent;
+import org.orecruncher.dsurround.lib.StormField;
+
+import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+/**
+ * The storm cells near a player. Sent once per climate step.
+ */
+public final class PacketStormCells implements IMessage {
+
+	private static final int FIELDS = 7;
+
+	private int dimension;
+	private FloatArrayList cells = new FloatArrayList();
+
+	public PacketStormCells() {
+		// Needed for client side creation
+	}
+
+	public PacketStormCells(final int dimension) {
+		this.dimension = dimension;
+	}
+
+	public void add(final double x, final double z, final float vx, final float vz, final float radius,
+			final float level, final float thunder) {
+		this.cells.add((float) x);
+		this.cells.add((float) z);
+		this.cells.add(vx);
+		this.cells.add(vz);
+		this.cells.add(radius);
+		this.cells.add(level);
+		this.cells.add(thunder);
+	}
+
+	@Override
+	public void fromBytes(@Nonnull final ByteBuf buf) {
+		this.dimension = buf.readInt();
+		final int count = buf.readUnsignedByte() * FIELDS;
+		this.cells = new FloatArrayList(count);
+		for (int i = 0; i < count; i++)
+			this.cells.add(buf.readFloat());
+	}
+
+	@Override
+	public void toBytes(@Nonnull final ByteBuf buf) {
+		final int count = Math.min(this.cells.size() / FIELDS, StormField.MAX_CELLS);
+		buf.writeInt(this.dimension);
+		buf.writeByte(count);
+		for (int i = 0; i < count * FIELDS; i++)
+			buf.writeFloat(this.cells.getFloat(i));
+	}
+
+	public static class PacketHandler implements IMessageHandler<PacketStormCells, IMessage> {
+		@Override
+		@Nullable
+		public IMessage onMessage(@Nonnull final PacketStormCells message, @Nullable final MessageContext ctx) {
+			if (ctx != null) {
+				final StormField field = new StormField();
+				final FloatArrayList c = message.cells;
+				for (int i = 0; i + FIELDS <= c.size(); i += FIELDS)
+					field.add(c.getFloat(i), c.getFloat(i + 1), c.getFloat(i + 2), c.getFloat(i + 3),
+							c.getFloat(i + 4), c.getFloat(i + 5), c.getFloat(i + 6));
+				Network.postEvent(new StormUpdateEvent(message.dimension, field));
+			}
+			return null;
+		}
+	}
+
+}
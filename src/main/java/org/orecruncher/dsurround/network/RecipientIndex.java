@@ -0,0 +1,111 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.network;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Snapshot of the eligible recipients in a dimension along with their
+ * positions. Built once per tick so range based sends do not have to filter
+ * the player list every time. Plain data so it can be exercised without a
+ * running server.
+ *
+ * @param <P> Type of the recipient
+ */
+public final class RecipientIndex<P> {
+
+	private Object[] recipients = new Object[8];
+	private double[] coords = new double[8 * 3];
+	private int count;
+
+	/**
+	 * Discards the current snapshot so a new one can be built.
+	 */
+	public void reset() {
+		Arrays.fill(this.recipients, 0, this.count, null);
+		this.count = 0;
+	}
+
+	public void add(@Nonnull final P recipient, final double x, final double y, final double z) {
+		if (this.count == this.recipients.length) {
+			this.recipients = Arrays.copyOf(this.recipients, this.count * 2);
+			this.coords = Arrays.copyOf(this.coords, this.count * 2 * 3);
+		}
+		final int idx = this.count * 3;
+		this.recipients[this.count++] = recipient;
+		this.coords[idx] = x;
+		this.coords[idx + 1] = y;
+		this.coords[idx + 2] = z;
+	}
+
+	/**
+	 * Removes the recipient from the snapshot, if present, so it does not hold
+	 * on to it until the next rebuild.
+	 *
+	 * @return true if the recipient was removed
+	 */
+	public boolean remove(@Nonnull final P recipient) {
+		for (int i = 0; i < this.count; i++) {
+			if (this.recipients[i] == recipient) {
+				final int tail = --this.count - i;
+				System.arraycopy(this.recipients, i + 1, this.recipients, i, tail);
+				System.arraycopy(this.coords, (i + 1) * 3, this.coords, i * 3, tail * 3);
+				this.recipients[this.count] = null;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public int size() {
+		return this.count;
+	}
+
+	@SuppressWarnings("unchecked")
+	public void forEach(@Nonnull final Consumer<P> action) {
+		for (int i = 0; i < this.count; i++)
+			action.accept((P) this.recipients[i]);
+	}
+
+	/**
+	 * Hands each recipient that is within range of the point to the action.
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEachInRange(final double x, final double y, final double z, final double range,
+			@Nonnull final Consumer<P> action) {
+		final double rSq = range * range;
+		for (int i = 0; i < this.count; i++) {
+			final int idx = i * 3;
+			final double dX = this.coords[idx] - x;
+			final double dY = this.coords[idx + 1] - y;
+			final double dZ = this.coords[idx + 2] - z;
+			if (dX * dX + dY * dY + dZ * dZ <= rSq)
+				action.accept((P) this.recipients[i]);
+		}
+	}
+}
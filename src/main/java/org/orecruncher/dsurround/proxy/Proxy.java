@@ -30,6 +30,7 @@ import org.orecruncher.dsurround.ModBase;
 import org.orecruncher.dsurround.ModInfo;
 import org.orecruncher.dsurround.capabilities.CapabilityDimensionInfo;
 import org.orecruncher.dsurround.capabilities.CapabilityEntityData;
+import org.orecruncher.dsurround.capabilities.entitydata.EntityDataTracker;
 import org.orecruncher.dsurround.commands.CommandDS;
 import org.orecruncher.dsurround.lib.compat.ModEnvironment;
 import org.orecruncher.dsurround.network.Network;
@@ -105,6 +106,8 @@ public class Proxy implements IProxy {
 
 	public void serverStopped(@Nonnull final FMLServerStoppedEvent event) {
 		ServiceManager.deinitialize();
+		EntityDataTracker.clear();
+		Network.clear();
 	}
 
 	public IThreadListener getThreadListener(@Nonnull final MessageContext context) {
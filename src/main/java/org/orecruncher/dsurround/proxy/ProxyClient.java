@@ -36,6 +36,7 @@ import org.orecruncher.dsurround.ModOptions;
 import org.orecruncher.dsurround.capabilities.CapabilityEntityFXData;
 import org.orecruncher.dsurround.capabilities.CapabilitySeasonInfo;
 import org.orecruncher.dsurround.capabilities.CapabilitySpeechData;
+import org.orecruncher.dsurround.client.footsteps.facade.FacadeHelper;
 import org.orecruncher.dsurround.client.fx.ParticleCollections;
 import org.orecruncher.dsurround.client.fx.particle.ParticleDripOverride;
 import org.orecruncher.dsurround.client.gui.HumDinger;
@@ -98,6 +99,7 @@ public class ProxyClient extends Proxy implements IProxy, ISelectiveResourceRelo
 		register(Weather.class);
 		register(WorldEventDetector.class);
 		register(ParticleCollections.class);
+		register(FacadeHelper.class);
 	}
 
 	@Override
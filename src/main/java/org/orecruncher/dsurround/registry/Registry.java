@@ -24,22 +24,30 @@
 
 package org.orecruncher.dsurround.registry;
 
+import java.util.Collection;
+
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.orecruncher.dsurround.ModBase;
 import org.orecruncher.dsurround.registry.config.ConfigData;
+import org.orecruncher.dsurround.registry.config.ConfigDiff;
 import org.orecruncher.dsurround.registry.config.ModConfiguration;
 
+import com.google.common.collect.ImmutableList;
+
 import net.minecraftforge.common.MinecraftForge;
 
 public abstract class Registry {
 
 	private final String name;
 
+	/**
+	 * Creating a registry has no side effects. The RegistryManager adds the
+	 * registries it manages to its list and to the event bus.
+	 */
 	public Registry(@Nonnull final String name) {
 		this.name = name;
-		RegistryManager.REGISTRIES.add(this);
-		MinecraftForge.EVENT_BUS.register(this);
 	}
 
 	@Nonnull
@@ -84,6 +92,41 @@ public abstract class Registry {
 		// Override to provide completion routine.
 	}
 
+	/**
+	 * The configuration sections, by their Json name, that feed this registry. A
+	 * reload that leaves all of them alone leaves the registry alone. By default
+	 * any change is of interest.
+	 */
+	@Nonnull
+	protected Collection<String> getSections() {
+		return ConfigDiff.SECTIONS;
+	}
+
+	/**
+	 * Registries this one pulls data from while initializing. If any of them is
+	 * rebuilt this registry is rebuilt as well.
+	 */
+	@Nonnull
+	protected Collection<Registry> getDependencies() {
+		return ImmutableList.of();
+	}
+
+	/**
+	 * Stages an in place update for the changes described by the diff. Nothing
+	 * visible may change until the returned task is run; the RegistryManager runs
+	 * the tasks of all registries back to back once everything is staged. Return
+	 * null if the change cannot be handled in place, in which case the registry is
+	 * rebuilt.
+	 *
+	 * @param data The new configuration data
+	 * @param diff What changed compared to the prior configuration
+	 * @return Task that applies the staged changes, or null
+	 */
+	@Nullable
+	protected Runnable prepare(@Nonnull final ConfigData data, @Nonnull final ConfigDiff diff) {
+		return null;
+	}
+
 	/**
 	 * Called by the RegistryManager when the registry is to initialize its state
 	 * from config data. It is of no interest to derived classes.
@@ -97,6 +140,14 @@ public abstract class Registry {
 		MinecraftForge.EVENT_BUS.post(new RegistryDataEvent.Reload(this));
 	}
 
+	/**
+	 * Called by the RegistryManager once a staged update has been applied.
+	 */
+	final void changed(@Nonnull final ConfigDiff diff) {
+		ModBase.log().info("Updated registry [%s]", getName());
+		MinecraftForge.EVENT_BUS.post(new RegistryDataEvent.Changed(this, diff));
+	}
+
 	/**
 	 * Called to initialize the registry in the case something wierd during
 	 * execution.
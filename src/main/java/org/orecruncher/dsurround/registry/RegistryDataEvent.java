@@ -24,8 +24,12 @@
 
 package org.orecruncher.dsurround.registry;
 
+import java.util.Set;
+
 import javax.annotation.Nonnull;
 
+import org.orecruncher.dsurround.registry.config.ConfigDiff;
+
 import net.minecraft.client.resources.IResourceManager;
 import net.minecraftforge.fml.common.eventhandler.Event;
 import net.minecraftforge.fml.relauncher.Side;
@@ -62,4 +66,29 @@ public class RegistryDataEvent extends Event {
 
 	}
 
+	/**
+	 * Event fired when a registry has applied a configuration change in place
+	 * rather than rebuilding. Only the entries named by the diff were touched;
+	 * anything else a dependent holds on to is still good.
+	 */
+	public static class Changed extends RegistryDataEvent {
+
+		public final Registry reg;
+		public final ConfigDiff diff;
+
+		public Changed(@Nonnull final Registry reg, @Nonnull final ConfigDiff diff) {
+			this.reg = reg;
+			this.diff = diff;
+		}
+
+		/**
+		 * Keys within the given configuration section that were added, removed or
+		 * changed.
+		 */
+		@Nonnull
+		public Set<String> getKeys(@Nonnull final String section) {
+			return this.diff.getChangedKeys(section);
+		}
+	}
+
 }
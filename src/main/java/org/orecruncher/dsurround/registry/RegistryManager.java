@@ -24,6 +24,10 @@
 
 package org.orecruncher.dsurround.registry;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
 import javax.annotation.Nonnull;
 
 import org.orecruncher.dsurround.ModBase;
@@ -32,6 +36,7 @@ import org.orecruncher.dsurround.registry.acoustics.AcousticRegistry;
 import org.orecruncher.dsurround.registry.biome.BiomeRegistry;
 import org.orecruncher.dsurround.registry.blockstate.BlockStateRegistry;
 import org.orecruncher.dsurround.registry.config.ConfigData;
+import org.orecruncher.dsurround.registry.config.ConfigDiff;
 import org.orecruncher.dsurround.registry.dimension.DimensionRegistry;
 import org.orecruncher.dsurround.registry.effect.EffectRegistry;
 import org.orecruncher.dsurround.registry.footstep.FootstepsRegistry;
@@ -41,6 +46,8 @@ import org.orecruncher.lib.Singleton;
 import org.orecruncher.lib.collections.ObjectArray;
 import org.orecruncher.lib.task.Scheduler;
 
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.fml.client.event.ConfigChangedEvent.OnConfigChangedEvent;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
@@ -82,6 +89,10 @@ public final class RegistryManager {
 
 	final static ObjectArray<Registry> REGISTRIES = new ObjectArray<>(8);
 
+	// Fingerprint of the configuration data the registries were last built
+	// from. A reload compares against it to figure out what needs to be done.
+	private static ConfigDiff.Fingerprint fingerprint;
+
 	/**
 	 * Generally speaking the reload of the registry is handled by the client thread
 	 * if running as a client. If on a dedicated server, though, it will be handled
@@ -100,34 +111,48 @@ public final class RegistryManager {
 
 		if (!ModBase.proxy().isRunningAsServer()) {
 			// Sound is first because other registries depend on it
-			SOUND = new SoundRegistry();
-			ACOUSTICS = new AcousticRegistry();
-			BIOME = new BiomeRegistry();
-			BLOCK = new BlockStateRegistry();
-			FOOTSTEPS = new FootstepsRegistry();
-			ITEMS = new ItemRegistry();
-			EFFECTS = new EffectRegistry();
+			SOUND = register(new SoundRegistry());
+			ACOUSTICS = register(new AcousticRegistry());
+			BIOME = register(new BiomeRegistry());
+			BLOCK = register(new BlockStateRegistry());
+			FOOTSTEPS = register(new FootstepsRegistry());
+			ITEMS = register(new ItemRegistry());
+			EFFECTS = register(new EffectRegistry());
 		}
 
-		DIMENSION = new DimensionRegistry();
+		DIMENSION = register(new DimensionRegistry());
 
 		load();
 	}
 
+	/*
+	 * Puts the registry under management. Registries are initialized and reloaded
+	 * in the order they are registered.
+	 */
+	@Nonnull
+	private static <T extends Registry> T register(@Nonnull final T registry) {
+		REGISTRIES.add(registry);
+		MinecraftForge.EVENT_BUS.register(registry);
+		return registry;
+	}
+
 	/**
-	 * Called by the command routines to reload the configuration
+	 * Called by the command routines to reload the configuration. Only the
+	 * registries, and where supported the entries, affected by the change are
+	 * touched.
 	 */
 	public static void doReload() {
 		if (ModBase.proxy().isRunningAsServer()) {
-			load();
+			reload();
 		} else {
-			Scheduler.schedule(Side.CLIENT, RegistryManager::load);
+			Scheduler.schedule(Side.CLIENT, RegistryManager::reload);
 		}
 	}
 
 	/**
 	 * The mod configuration file may have changed. If it did then we need to reload
-	 * the registries.
+	 * the registries. Options can change how the configuration data resolves so
+	 * this is always a full rebuild.
 	 *
 	 * @param event Event to handle
 	 */
@@ -139,8 +164,63 @@ public final class RegistryManager {
 	}
 
 	private static void load() {
+		load(false);
+	}
+
+	private static void reload() {
+		load(true);
+	}
+
+	/**
+	 * Loads the configuration data and brings the registries in line with it. A
+	 * registry is rebuilt if the sections it is fed from changed, or if a registry
+	 * it depends on was rebuilt. If the registry can apply the change in place it
+	 * stages the update instead, and the staged updates are all applied together
+	 * once everything else is done. This happens within a single scheduled task
+	 * so the game never sees a half updated registry.
+	 *
+	 * @param incremental Compare against the prior configuration data rather than
+	 *                    rebuilding everything
+	 */
+	private static void load(final boolean incremental) {
 		DATA.clear();
-		REGISTRIES.forEach(r -> r.initialize(DATA.get()));
-		REGISTRIES.forEach(Registry::complete);
+		final ConfigData data = DATA.get();
+		final ConfigDiff.Fingerprint current = ConfigDiff.fingerprint(data);
+		final ConfigDiff diff = ConfigDiff.compare(incremental ? fingerprint : null, current);
+		fingerprint = current;
+
+		final Set<Registry> rebuilt = new ReferenceOpenHashSet<>();
+		final List<Registry> updated = new ArrayList<>();
+		final List<Runnable> tasks = new ArrayList<>();
+
+		for (int i = 0; i < REGISTRIES.size(); i++) {
+			final Registry r = REGISTRIES.get(i);
+			Runnable task = null;
+			if (!diff.isFull() && r.getDependencies().stream().noneMatch(rebuilt::contains)) {
+				if (!diff.hasChanged(r.getSections()))
+					continue;
+				task = r.prepare(data, diff);
+			}
+			if (task == null) {
+				r.initialize(data);
+				rebuilt.add(r);
+			} else {
+				updated.add(r);
+				tasks.add(task);
+			}
+		}
+
+		tasks.forEach(Runnable::run);
+		updated.forEach(r -> r.changed(diff));
+
+		for (int i = 0; i < REGISTRIES.size(); i++) {
+			final Registry r = REGISTRIES.get(i);
+			if (rebuilt.contains(r))
+				r.complete();
+		}
+
+		if (!diff.isFull())
+			ModBase.log().info("Registry reload: %d rebuilt, %d updated, %d unchanged %s", rebuilt.size(),
+					updated.size(), REGISTRIES.size() - rebuilt.size() - updated.size(), diff.toString());
 	}
 }
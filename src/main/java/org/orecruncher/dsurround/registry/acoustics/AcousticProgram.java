@@ -0,0 +1,249 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.registry.acoustics;
+
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.orecruncher.dsurround.lib.AliasTable;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.util.SoundEvent;
+import net.minecraft.util.math.Vec3d;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * An acoustic array flattened into a linear list of instructions, one entry
+ * point per EventType. Event transitions are resolved when the program is
+ * compiled, weighted choices become alias table jumps, and the volume/pitch
+ * ranges of each sound are precomputed. Executing a program consumes the RNG
+ * in exactly the same order as calling playSound() on the source acoustics, so
+ * the two forms produce the same sounds for the same seed.
+ *
+ * Acoustics the compiler does not understand (RainSplashAcoustic, for example)
+ * are kept as a call back into the acoustic with the resolved event.
+ */
+@SideOnly(Side.CLIENT)
+public final class AcousticProgram {
+
+	private static final byte OP_END = 0;
+	private static final byte OP_PLAY = 1;
+	private static final byte OP_CHOOSE = 2;
+	private static final byte OP_JUMP = 3;
+	private static final byte OP_CALL = 4;
+
+	private final int[] entry;
+	private final byte[] ops;
+	private final int[] target;
+	private final SoundEvent[] sound;
+	private final IOptions[] output;
+	private final float[] volMin;
+	private final float[] volDelta;
+	private final float[] pitchMin;
+	private final float[] pitchDelta;
+	private final AliasTable<?>[] choice;
+	private final IAcoustic[] call;
+	private final EventType[] callEvent;
+
+	private AcousticProgram(@Nonnull final Compiler c) {
+		final int len = c.ops.size();
+		this.entry = c.entry;
+		this.ops = new byte[len];
+		this.target = new int[len];
+		this.sound = new SoundEvent[len];
+		this.output = new IOptions[len];
+		this.volMin = new float[len];
+		this.volDelta = new float[len];
+		this.pitchMin = new float[len];
+		this.pitchDelta = new float[len];
+		this.choice = new AliasTable<?>[len];
+		this.call = new IAcoustic[len];
+		this.callEvent = new EventType[len];
+
+		for (int pc = 0; pc < len; pc++) {
+			final Op op = c.ops.get(pc);
+			this.ops[pc] = op.code;
+			this.target[pc] = op.target;
+			this.choice[pc] = op.choice;
+			this.call[pc] = op.call;
+			this.callEvent[pc] = op.event;
+			if (op.code == OP_PLAY) {
+				final SimpleAcoustic a = op.play;
+				this.sound[pc] = a.sound;
+				this.output[pc] = a.outputOptions;
+				this.volMin[pc] = a.volMin;
+				this.volDelta[pc] = a.volMax - a.volMin;
+				this.pitchMin[pc] = a.pitchMin;
+				this.pitchDelta[pc] = a.pitchMax - a.pitchMin;
+			}
+		}
+	}
+
+	public void execute(@Nonnull final ISoundPlayer player, @Nonnull final Vec3d location,
+			@Nonnull final EventType event, @Nullable final IOptions inputOptions) {
+		final Random rng = player.getRNG();
+		int pc = this.entry[event.ordinal()];
+		for (;;) {
+			switch (this.ops[pc]) {
+				case OP_PLAY: {
+					// Same draw order and float math as SimpleAcoustic. A positive delta
+					// is the same test as min < max.
+					final float vMin = this.volMin[pc];
+					final float vDelta = this.volDelta[pc];
+					final float pMin = this.pitchMin[pc];
+					final float pDelta = this.pitchDelta[pc];
+					float volume = vDelta > 0 ? vMin + rng.nextFloat() * vDelta : vMin;
+					float pitch = pDelta > 0 ? pMin + rng.nextFloat() * pDelta : pMin;
+					if (inputOptions != null) {
+						if (inputOptions.getGlidingVolume() > 0)
+							volume = vMin + vDelta * inputOptions.getGlidingVolume();
+						if (inputOptions.getGlidingPitch() > 0)
+							pitch = pMin + pDelta * inputOptions.getGlidingPitch();
+						volume *= inputOptions.getVolumeScale();
+						pitch *= inputOptions.getPitchScale();
+					}
+					player.playSound(location, this.sound[pc], volume, pitch, this.output[pc]);
+					pc++;
+					break;
+				}
+				case OP_CHOOSE: {
+					final Integer branch = (Integer) this.choice[pc].next(rng);
+					pc = branch != null ? branch : this.target[pc];
+					break;
+				}
+				case OP_JUMP:
+					pc = this.target[pc];
+					break;
+				case OP_CALL:
+					this.call[pc].playSound(player, location, this.callEvent[pc], inputOptions);
+					pc++;
+					break;
+				default:
+					return;
+			}
+		}
+	}
+
+	@Nonnull
+	public static AcousticProgram compile(@Nonnull final IAcoustic acoustic) {
+		return compile(new IAcoustic[] { acoustic });
+	}
+
+	@Nonnull
+	public static AcousticProgram compile(@Nonnull final IAcoustic[] acoustics) {
+		final Compiler c = new Compiler();
+		for (final EventType event : EventType.values()) {
+			c.entry[event.ordinal()] = c.ops.size();
+			for (final IAcoustic a : acoustics)
+				c.emit(a, event);
+			c.ops.add(new Op(OP_END));
+		}
+		return new AcousticProgram(c);
+	}
+
+	private static final class Op {
+		final byte code;
+		int target;
+		SimpleAcoustic play;
+		AliasTable<Integer> choice;
+		IAcoustic call;
+		EventType event;
+
+		Op(final byte code) {
+			this.code = code;
+		}
+	}
+
+	private static final class Compiler {
+
+		final int[] entry = new int[EventType.values().length];
+		final ObjectArrayList<Op> ops = new ObjectArrayList<>();
+
+		void emit(@Nullable final IAcoustic acoustic, @Nonnull final EventType event) {
+			if (acoustic == null || acoustic instanceof NullAcoustic)
+				return;
+
+			if (acoustic instanceof EventSelectorAcoustics) {
+				final EventSelectorAcoustics selector = (EventSelectorAcoustics) acoustic;
+				for (EventType e = event; e != null; e = e.getTransitionDestination()) {
+					final IAcoustic a = selector.getAcoustic(e);
+					if (a != null) {
+						emit(a, e);
+						break;
+					}
+				}
+			} else if (acoustic instanceof SimultaneousAcoustic) {
+				for (final IAcoustic a : ((SimultaneousAcoustic) acoustic).acoustics)
+					emit(a, event);
+			} else if (acoustic instanceof ProbabilityWeightsAcoustic) {
+				emitChoice((ProbabilityWeightsAcoustic) acoustic, event);
+			} else if (acoustic instanceof SimpleAcoustic) {
+				// DelayedAcoustic only differs by its output options
+				final SimpleAcoustic a = (SimpleAcoustic) acoustic;
+				if (a.sound != null) {
+					final Op op = new Op(OP_PLAY);
+					op.play = a;
+					this.ops.add(op);
+				}
+			} else {
+				final Op op = new Op(OP_CALL);
+				op.call = acoustic;
+				op.event = event;
+				this.ops.add(op);
+			}
+		}
+
+		private void emitChoice(@Nonnull final ProbabilityWeightsAcoustic acoustic, @Nonnull final EventType event) {
+			final Op choose = new Op(OP_CHOOSE);
+			this.ops.add(choose);
+
+			// Each branch runs its code then jumps past the remaining branches. The
+			// table is built from the same weights as the interpreted acoustic so
+			// both pick the same branch for the same draws.
+			final IAcoustic[] acoustics = acoustic.acoustics;
+			final int[] weights = acoustic.weights;
+			final Integer[] branches = new Integer[acoustics.length];
+			final ObjectArrayList<Op> exits = new ObjectArrayList<>();
+			for (int i = 0; i < acoustics.length; i++) {
+				branches[i] = this.ops.size();
+				if (weights[i] > 0) {
+					emit(acoustics[i], event);
+					final Op exit = new Op(OP_JUMP);
+					exits.add(exit);
+					this.ops.add(exit);
+				}
+			}
+
+			final int end = this.ops.size();
+			choose.target = end;
+			choose.choice = new AliasTable<>(branches, weights);
+			for (final Op exit : exits)
+				exit.target = end;
+		}
+	}
+}
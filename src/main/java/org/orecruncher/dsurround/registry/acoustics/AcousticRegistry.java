@@ -26,6 +26,7 @@ package org.orecruncher.dsurround.registry.acoustics;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -40,10 +41,12 @@ import org.orecruncher.dsurround.ModInfo;
 import org.orecruncher.dsurround.client.footsteps.DelayedAcoustic;
 import org.orecruncher.dsurround.registry.Registry;
 import org.orecruncher.dsurround.registry.RegistryManager;
+import org.orecruncher.dsurround.registry.config.ConfigDiff;
 import org.orecruncher.dsurround.registry.config.ModConfiguration;
 import org.orecruncher.lib.MCHelper;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -124,6 +127,13 @@ public class AcousticRegistry extends Registry {
 	 */
 	private final Map<String, IAcoustic[]> compiled = new Object2ObjectAVLTreeMap<>(String.CASE_INSENSITIVE_ORDER);
 
+	/*
+	 * Flattened programs for the acoustics defined by the registry. An acoustic
+	 * array plays by running the program of each element in turn. Keyed by
+	 * identity since the acoustic instances live as long as the registry does.
+	 */
+	private final Map<IAcoustic, AcousticProgram> programs = new Reference2ObjectOpenHashMap<>();
+
 	// Special sentinels for equating
 	public static final IAcoustic[] EMPTY = {};
 	public static final IAcoustic[] NOT_EMITTER = { new NullAcoustic("NOT_EMITTER") };
@@ -137,6 +147,18 @@ public class AcousticRegistry extends Registry {
 		super("Acoustic Registry");
 	}
 
+	@Override
+	@Nonnull
+	protected Collection<String> getSections() {
+		return ImmutableList.of(ConfigDiff.ACOUSTICS, ConfigDiff.PRIMITIVE_ACOUSTICS);
+	}
+
+	@Override
+	@Nonnull
+	protected Collection<Registry> getDependencies() {
+		return ImmutableList.of(RegistryManager.SOUND);
+	}
+
 	@Override
 	protected void preInit() {
 		this.hits = 0;
@@ -144,6 +166,7 @@ public class AcousticRegistry extends Registry {
 		this.material = 0;
 		this.acoustics.clear();
 		this.compiled.clear();
+		this.programs.clear();
 		this.compiled.put("EMPTY", EMPTY);
 		this.compiled.put("NOT_EMITTER", NOT_EMITTER);
 		this.compiled.put("MESSY_GROUND", MESSY_GROUND);
@@ -174,6 +197,13 @@ public class AcousticRegistry extends Registry {
 
 	@Override
 	protected void complete() {
+		for (final IAcoustic a : this.acoustics.values())
+			getProgram(a);
+		for (final IAcoustic[] list : this.compiled.values())
+			for (final IAcoustic a : list)
+				getProgram(a);
+
+		ModBase.log().info("[%s] %d acoustic programs compiled", getName(), this.programs.size());
 		ModBase.log().info("[%s] %d cache hits during initialization", getName(), this.hits);
 		ModBase.log().info("[%s] %d primitives by material generated", getName(), this.material);
 		ModBase.log().info("[%s] %d primitives by sound generated", getName(), this.primitives);
@@ -277,6 +307,22 @@ public class AcousticRegistry extends Registry {
 		return result;
 	}
 
+	/**
+	 * Obtains the flattened program for an acoustic. Programs for the acoustics
+	 * the registry knows about are compiled when the registry completes. Ones
+	 * created later by other registries are compiled on first use.
+	 *
+	 * @param acoustic Acoustic obtained from one of the registries
+	 * @return Program that plays the acoustic
+	 */
+	@Nonnull
+	public AcousticProgram getProgram(@Nonnull final IAcoustic acoustic) {
+		AcousticProgram result = this.programs.get(acoustic);
+		if (result == null)
+			this.programs.put(acoustic, result = AcousticProgram.compile(acoustic));
+		return result;
+	}
+
 	@Nonnull
 	private IAcoustic generateAcoustic(@Nonnull final String name) {
 		IAcoustic a = this.acoustics.get(name);
@@ -60,6 +60,11 @@ public class EventSelectorAcoustics implements IAcoustic {
 			playSound(player, location, event.getTransitionDestination(), inputOptions);
 	}
 
+	@Nullable
+	IAcoustic getAcoustic(@Nonnull final EventType type) {
+		return this.pairs.get(type);
+	}
+
 	public void setAcousticPair(@Nonnull final EventType type, @Nonnull final IAcoustic acoustic) {
 		this.pairs.put(type, acoustic);
 	}
@@ -29,6 +29,8 @@ import java.util.List;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import org.orecruncher.dsurround.lib.AliasTable;
+
 import net.minecraft.util.math.Vec3d;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
@@ -38,19 +40,12 @@ public class ProbabilityWeightsAcoustic implements IAcoustic {
 
 	protected final IAcoustic[] acoustics;
 	protected final int[] weights;
-	protected final int totalWeight;
+	protected final AliasTable<IAcoustic> table;
 
 	public ProbabilityWeightsAcoustic(@Nonnull final List<IAcoustic> acoustics, @Nonnull final List<Integer> weights) {
 		this.acoustics = acoustics.toArray(new IAcoustic[0]);
-		this.weights = new int[weights.size()];
-
-		int tWeight = 0;
-		for (int i = 0; i < weights.size(); i++) {
-			this.weights[i] = weights.get(i);
-			tWeight += this.weights[i];
-		}
-
-		this.totalWeight = tWeight;
+		this.weights = weights.stream().mapToInt(Integer::intValue).toArray();
+		this.table = new AliasTable<>(this.acoustics, this.weights);
 	}
 
 	@Override
@@ -62,15 +57,10 @@ public class ProbabilityWeightsAcoustic implements IAcoustic {
 	@Override
 	public void playSound(@Nonnull final ISoundPlayer player, @Nonnull final Vec3d location,
 			@Nullable final EventType event, @Nullable final IOptions inputOptions) {
-		if (this.totalWeight <= 0)
-			return;
-
-		int targetWeight = player.getRNG().nextInt(this.totalWeight);
-
-		int i;
-		for (i = this.weights.length; (targetWeight -= this.weights[i - 1]) >= 0; i--)
-			;
-
-		this.acoustics[i - 1].playSound(player, location, event, inputOptions);
+		// AcousticProgram selects from a table built the same way so that
+		// both forms draw the same branch for a given seed.
+		final IAcoustic acoustic = this.table.next(player.getRNG());
+		if (acoustic != null)
+			acoustic.playSound(player, location, event, inputOptions);
 	}
 }
@@ -43,7 +43,6 @@ import org.orecruncher.dsurround.registry.config.SoundConfig;
 import org.orecruncher.dsurround.registry.config.SoundType;
 import org.orecruncher.lib.Color;
 import org.orecruncher.lib.MyUtils;
-import org.orecruncher.lib.WeightTable;
 import org.orecruncher.lib.collections.ObjectArray;
 
 import com.google.common.collect.Lists;
@@ -82,6 +81,11 @@ public final class BiomeInfo implements Comparable<BiomeInfo> {
 	protected SoundEffect[] spotSounds = NO_SOUNDS;
 	protected int spotSoundChance = DEFAULT_SPOT_CHANCE;
 
+	// Compiled forms of the sound lists. Built once the registry has finished
+	// loading.
+	private BiomeSoundTable ambientTable = BiomeSoundTable.EMPTY;
+	private BiomeSoundTable spotTable = BiomeSoundTable.EMPTY;
+
 	protected final List<String> comments = Lists.newArrayList();
 
 	protected final boolean isRiver;
@@ -163,6 +167,20 @@ public final class BiomeInfo implements Comparable<BiomeInfo> {
 		return this.biome.getName();
 	}
 
+	@Nonnull
+	public SoundEffect[] getSounds() {
+		return this.sounds;
+	}
+
+	@Nonnull
+	public SoundEffect[] getSpotSounds() {
+		return this.spotSounds;
+	}
+
+	public int getSpotSoundChance() {
+		return this.spotSoundChance;
+	}
+
 	public boolean hasWeatherEffect() {
 		return getHasPrecipitation() || getHasDust();
 	}
@@ -278,20 +296,27 @@ public final class BiomeInfo implements Comparable<BiomeInfo> {
 
 	@Nonnull
 	public Collection<SoundEffect> findSoundMatches(@Nonnull final Collection<SoundEffect> results) {
-		for (final SoundEffect sound : this.sounds) {
-			if (sound.matches())
-				results.add(sound);
-		}
+		for (final SoundEffect sound : this.ambientTable.getMatches())
+			results.add(sound);
 		return results;
 	}
 
 	@Nullable
 	public SoundEffect getSpotSound(@Nonnull final Random random) {
-		return this.spotSounds != NO_SOUNDS && random.nextInt(this.spotSoundChance) == 0
-				? new WeightTable<>(this.spotSounds).next()
+		return !this.spotTable.isEmpty() && random.nextInt(this.spotSoundChance) == 0
+				? this.spotTable.select(random)
 				: null;
 	}
 
+	/**
+	 * Compiles the configured sound lists into their condition grouped form.
+	 * Called by the registry once all configuration has been applied.
+	 */
+	void compileSounds() {
+		this.ambientTable = new BiomeSoundTable(this.sounds);
+		this.spotTable = new BiomeSoundTable(this.spotSounds);
+	}
+
 	void resetSounds() {
 		this.sounds = NO_SOUNDS;
 		this.spotSounds = NO_SOUNDS;
@@ -25,6 +25,7 @@
 package org.orecruncher.dsurround.registry.biome;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -37,10 +38,14 @@ import org.orecruncher.dsurround.ModOptions;
 import org.orecruncher.dsurround.capabilities.dimension.IDimensionInfo;
 import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
 import org.orecruncher.dsurround.registry.Registry;
+import org.orecruncher.dsurround.registry.RegistryManager;
 import org.orecruncher.dsurround.registry.config.BiomeConfig;
+import org.orecruncher.dsurround.registry.config.ConfigDiff;
 import org.orecruncher.dsurround.registry.config.ModConfiguration;
 import org.orecruncher.lib.math.MathStuff;
 
+import com.google.common.collect.ImmutableList;
+
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import net.minecraft.block.material.Material;
@@ -93,6 +98,18 @@ public final class BiomeRegistry extends Registry {
 		super("Biome Registry");
 	}
 
+	@Override
+	@Nonnull
+	protected Collection<String> getSections() {
+		return ImmutableList.of(ConfigDiff.BIOMES, ConfigDiff.BIOME_ALIAS);
+	}
+
+	@Override
+	@Nonnull
+	protected Collection<Registry> getDependencies() {
+		return ImmutableList.of(RegistryManager.SOUND);
+	}
+
 	@Override
 	protected void preInit() {
 		this.biomeAliases.clear();
@@ -161,6 +178,11 @@ public final class BiomeRegistry extends Registry {
 		}
 	}
 
+	@Override
+	protected void postInit() {
+		getCombinedStream().forEach(BiomeInfo::compileSounds);
+	}
+
 	@Override
 	protected void complete() {
 		if (ModOptions.logging.enableDebugLogging) {
@@ -230,6 +252,14 @@ public final class BiomeRegistry extends Registry {
 		this.biomeAliases.put(alias, biome);
 	}
 
+	/**
+	 * The info for every registered biome, including the fake ones.
+	 */
+	@Nonnull
+	public List<BiomeInfo> getBiomeInfo() {
+		return getCombinedStream();
+	}
+
 	private List<BiomeInfo> getCombinedStream() {
 		final ArrayList<BiomeInfo> infos = new ArrayList<>();
 
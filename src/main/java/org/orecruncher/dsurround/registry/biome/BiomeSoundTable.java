@@ -0,0 +1,186 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.registry.biome;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.StringUtils;
+import org.orecruncher.dsurround.client.sound.SoundEffect;
+import org.orecruncher.dsurround.expression.ExpressionEngine;
+import org.orecruncher.dsurround.lib.AliasTable;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Precompiled form of a biome sound list. Sounds are grouped by their
+ * condition string when the registry loads so that each distinct condition is
+ * evaluated once per query. The set of matching groups forms a bit mask which
+ * is used as the key into caches of matched sound lists and alias tables, so
+ * once a combination has been seen a query does not allocate.
+ */
+@SideOnly(Side.CLIENT)
+final class BiomeSoundTable {
+
+	private static final int MAX_GROUPS = Long.SIZE;
+
+	static final BiomeSoundTable EMPTY = new BiomeSoundTable(BiomeInfo.NO_SOUNDS);
+
+	private final SoundEffect[] sounds;
+	private final int[] soundGroup;
+	private final String[] conditions;
+	private final boolean overflow;
+
+	private final Long2ObjectOpenHashMap<SoundEffect[]> matchCache = new Long2ObjectOpenHashMap<>();
+	private final Long2ObjectOpenHashMap<AliasTable<SoundEffect>> tableCache = new Long2ObjectOpenHashMap<>();
+
+	BiomeSoundTable(@Nonnull final SoundEffect[] sounds) {
+		this.sounds = sounds;
+		this.soundGroup = new int[sounds.length];
+
+		final Object2IntOpenHashMap<String> groups = new Object2IntOpenHashMap<>();
+		groups.defaultReturnValue(-1);
+		final List<String> conds = new ArrayList<>();
+		for (int i = 0; i < sounds.length; i++) {
+			final String c = sounds[i].getConditions();
+			int g = groups.getInt(c);
+			if (g < 0) {
+				g = conds.size();
+				groups.put(c, g);
+				conds.add(c);
+			}
+			this.soundGroup[i] = g;
+		}
+
+		this.conditions = conds.toArray(new String[0]);
+		this.overflow = this.conditions.length > MAX_GROUPS;
+	}
+
+	boolean isEmpty() {
+		return this.sounds.length == 0;
+	}
+
+	int getGroupCount() {
+		return this.conditions.length;
+	}
+
+	/**
+	 * Evaluates each condition group and returns the mask of groups that match.
+	 */
+	long evaluate() {
+		long mask = 0;
+		for (int i = 0; i < this.conditions.length && i < MAX_GROUPS; i++) {
+			final String c = this.conditions[i];
+			if (StringUtils.isEmpty(c) || ExpressionEngine.instance().check(c))
+				mask |= 1L << i;
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns the sounds that belong to the groups in the mask, in the order they
+	 * were configured.
+	 */
+	@Nonnull
+	SoundEffect[] getMatches(final long mask) {
+		if (mask == 0)
+			return BiomeInfo.NO_SOUNDS;
+		SoundEffect[] result = this.matchCache.get(mask);
+		if (result == null) {
+			result = collect(mask);
+			this.matchCache.put(mask, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Selects a sound from the groups in the mask based on configured weight.
+	 */
+	@Nullable
+	SoundEffect select(final long mask, @Nonnull final Random random) {
+		if (mask == 0)
+			return null;
+		AliasTable<SoundEffect> table = this.tableCache.get(mask);
+		if (table == null) {
+			final SoundEffect[] matches = getMatches(mask);
+			final int[] weights = new int[matches.length];
+			for (int i = 0; i < matches.length; i++)
+				weights[i] = matches[i].getWeight();
+			table = new AliasTable<>(matches, weights);
+			this.tableCache.put(mask, table);
+		}
+		return table.next(random);
+	}
+
+	@Nonnull
+	SoundEffect[] getMatches() {
+		if (this.overflow)
+			return collect();
+		return getMatches(evaluate());
+	}
+
+	@Nullable
+	SoundEffect select(@Nonnull final Random random) {
+		if (this.overflow) {
+			final SoundEffect[] matches = collect();
+			final int[] weights = new int[matches.length];
+			for (int i = 0; i < matches.length; i++)
+				weights[i] = matches[i].getWeight();
+			return new AliasTable<>(matches, weights).next(random);
+		}
+		return select(evaluate(), random);
+	}
+
+	@Nonnull
+	private SoundEffect[] collect(final long mask) {
+		int count = 0;
+		for (int i = 0; i < this.sounds.length; i++)
+			if ((mask & (1L << this.soundGroup[i])) != 0)
+				count++;
+		final SoundEffect[] result = new SoundEffect[count];
+		int idx = 0;
+		for (int i = 0; i < this.sounds.length; i++)
+			if ((mask & (1L << this.soundGroup[i])) != 0)
+				result[idx++] = this.sounds[i];
+		return result;
+	}
+
+	// Too many condition groups to key on a mask so evaluate each sound
+	@Nonnull
+	private SoundEffect[] collect() {
+		final List<SoundEffect> result = new ArrayList<>();
+		for (final SoundEffect s : this.sounds)
+			if (s.matches())
+				result.add(s);
+		return result.toArray(BiomeInfo.NO_SOUNDS);
+	}
+}
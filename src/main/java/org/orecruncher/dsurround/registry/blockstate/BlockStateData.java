@@ -94,6 +94,15 @@ public class BlockStateData {
 		return null;
 	}
 
+	/**
+	 * Selects one of the sounds based on weight without performing the chance
+	 * roll. Used by callers that determine whether a sound fires themselves.
+	 */
+	@Nullable
+	public SoundEffect selectSound(@Nonnull final Random random) {
+		return null;
+	}
+
 	public boolean hasSoundsOrEffects() {
 		return false;
 	}
@@ -112,8 +112,13 @@ public class BlockStateProfile extends BlockStateData {
 	@Override
 	@Nullable
 	public SoundEffect getSoundToPlay(@Nonnull final Random random) {
-		return this.sounds != NO_SOUNDS && random.nextInt(getChance()) == 0 ? new WeightTable<>(this.sounds).next()
-				: null;
+		return this.sounds != NO_SOUNDS && random.nextInt(getChance()) == 0 ? selectSound(random) : null;
+	}
+
+	@Override
+	@Nullable
+	public SoundEffect selectSound(@Nonnull final Random random) {
+		return this.sounds != NO_SOUNDS ? new WeightTable<>(this.sounds).next() : null;
 	}
 
 	@Override
@@ -26,6 +26,7 @@ package org.orecruncher.dsurround.registry.blockstate;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -40,12 +41,19 @@ import org.orecruncher.dsurround.client.sound.SoundEffect;
 import org.orecruncher.dsurround.registry.Registry;
 import org.orecruncher.dsurround.registry.RegistryManager;
 import org.orecruncher.dsurround.registry.config.BlockConfig;
+import org.orecruncher.dsurround.registry.config.ConfigData;
+import org.orecruncher.dsurround.registry.config.ConfigDiff;
 import org.orecruncher.dsurround.registry.config.EffectConfig;
 import org.orecruncher.dsurround.registry.config.ModConfiguration;
 import org.orecruncher.dsurround.registry.config.SoundConfig;
 import org.orecruncher.dsurround.registry.sound.SoundRegistry;
 
+import com.google.common.collect.ImmutableList;
+
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
 import net.minecraft.util.ResourceLocation;
@@ -65,8 +73,28 @@ public final class BlockStateRegistry extends Registry {
 	}
 
 	@Override
-	protected void preInit() {
+	@Nonnull
+	protected Collection<String> getSections() {
+		return ImmutableList.of(ConfigDiff.BLOCKS);
+	}
+
+	@Override
+	@Nonnull
+	protected Collection<Registry> getDependencies() {
+		return ImmutableList.of(RegistryManager.SOUND);
+	}
+
+	/*
+	 * Starts an empty set of profiles for init() to fill. The state data cached
+	 * on the blocks is left alone.
+	 */
+	void reset() {
 		this.registry = new Object2ObjectOpenHashMap<>();
+	}
+
+	@Override
+	protected void preInit() {
+		reset();
 
 		// Wipe out any cached data
 		getBlockStates().forEach(state -> BlockStateUtil.setStateData(state, null));
@@ -75,7 +103,48 @@ public final class BlockStateRegistry extends Registry {
 
 	@Override
 	protected void init(@Nonnull final ModConfiguration cfg) {
-		cfg.blocks.forEach(this::register);
+		for (final BlockConfig entry : cfg.blocks)
+			register(this.registry, entry, null);
+	}
+
+	/**
+	 * Only the blocks named by changed entries are reworked. Their profiles are
+	 * built again from every entry that names them, in configuration order, and
+	 * their states are resolved against those profiles the same way a full
+	 * rebuild would. The returned task just assigns the results.
+	 */
+	@Override
+	@Nullable
+	protected Runnable prepare(@Nonnull final ConfigData data, @Nonnull final ConfigDiff diff) {
+		final Map<IBlockState, BlockStateData> staged = stage(data, diff);
+		ModBase.log().info("[%s] %d block states staged", getName(), staged.size());
+		return () -> staged.forEach(BlockStateUtil::setStateData);
+	}
+
+	/*
+	 * Resolves the states of the blocks named by changed entries without
+	 * touching the state data cached on the blocks.
+	 */
+	@Nonnull
+	Map<IBlockState, BlockStateData> stage(@Nonnull final Iterable<ModConfiguration> data,
+			@Nonnull final ConfigDiff diff) {
+		final Set<Block> blocks = new ReferenceOpenHashSet<>();
+		for (final String key : diff.getChangedKeys(ConfigDiff.BLOCKS)) {
+			final BlockStateMatcher matcher = BlockStateMatcher.create(key);
+			if (matcher != null)
+				blocks.add(matcher.getBlock());
+		}
+
+		final Map<BlockStateMatcher, BlockStateProfile> profiles = new Object2ObjectOpenHashMap<>();
+		for (final ModConfiguration cfg : data)
+			for (final BlockConfig entry : cfg.blocks)
+				register(profiles, entry, blocks);
+
+		final Map<IBlockState, BlockStateData> staged = new Reference2ObjectOpenHashMap<>();
+		for (final Block block : blocks)
+			for (final IBlockState state : block.getBlockState().getValidStates())
+				staged.put(state, resolve(profiles, state));
+		return staged;
 	}
 
 	@Override
@@ -104,33 +173,54 @@ public final class BlockStateRegistry extends Registry {
 		if (profile == null) {
 			if (this.registry == null) {
 				ModBase.log().warn("Unknown blockstate encountered '%s'", state.toString());
+				profile = BlockStateData.DEFAULT;
 			} else {
-				profile = this.registry.get(BlockStateMatcher.create(state));
-				if (profile == null)
-					profile = this.registry.get(BlockStateMatcher.asGeneric(state));
+				profile = resolve(this.registry, state);
 			}
-			if (profile == null)
-				profile = BlockStateData.DEFAULT;
 			BlockStateUtil.setStateData(state, profile);
 		}
 		return profile;
 	}
 
+	/*
+	 * Resolves the state against the profiles built by init() the way a full
+	 * rebuild does, without caching the result.
+	 */
+	@Nonnull
+	BlockStateData resolve(@Nonnull final IBlockState state) {
+		return resolve(this.registry, state);
+	}
+
+	@Nonnull
+	private static BlockStateData resolve(@Nonnull final Map<BlockStateMatcher, BlockStateProfile> profiles,
+			@Nonnull final IBlockState state) {
+		BlockStateData profile = profiles.get(BlockStateMatcher.create(state));
+		if (profile == null)
+			profile = profiles.get(BlockStateMatcher.asGeneric(state));
+		return profile != null ? profile : BlockStateData.DEFAULT;
+	}
+
 	@Nullable
-	private BlockStateProfile getOrCreateProfile(@Nonnull final BlockStateMatcher info) {
+	private static BlockStateProfile getOrCreateProfile(
+			@Nonnull final Map<BlockStateMatcher, BlockStateProfile> profiles, @Nonnull final BlockStateMatcher info) {
 		if (info.getBlock() == Blocks.AIR)
 			return null;
 
-		BlockStateProfile profile = this.registry.get(info);
+		BlockStateProfile profile = profiles.get(info);
 		if (profile == null) {
 			profile = new BlockStateProfile();
-			this.registry.put(info, profile);
+			profiles.put(info, profile);
 		}
 
 		return profile;
 	}
 
-	private void register(@Nonnull final BlockConfig entry) {
+	/*
+	 * Applies a config entry to the profiles. If a filter is given only the
+	 * blocks in it are processed.
+	 */
+	private void register(@Nonnull final Map<BlockStateMatcher, BlockStateProfile> profiles,
+			@Nonnull final BlockConfig entry, @Nullable final Set<Block> filter) {
 		if (entry.blocks.isEmpty())
 			return;
 
@@ -143,7 +233,10 @@ public final class BlockStateRegistry extends Registry {
 				continue;
 			}
 
-			final BlockStateProfile blockData = getOrCreateProfile(blockInfo);
+			if (filter != null && !filter.contains(blockInfo.getBlock()))
+				continue;
+
+			final BlockStateProfile blockData = getOrCreateProfile(profiles, blockInfo);
 			if (blockData == null) {
 				ModBase.log().warn("Unknown block [%s] in block config file", blockName);
 				continue;
@@ -0,0 +1,287 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.registry.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+
+/**
+ * Describes what changed between two loads of the configuration data. Each
+ * load is reduced to a Fingerprint: a digest per configuration section and,
+ * for the block and entity sections, a digest per key. Comparing two
+ * fingerprints gives the sections that changed and, where tracked, the keys
+ * within them.
+ *
+ * Block keys are the block name without any property list, so every entry
+ * that names a block, in any of its states, lands under the same key in the
+ * order it was configured. Entity keys are the names as configured.
+ *
+ * Nothing in here depends on the game so it can be exercised outside of it.
+ */
+public final class ConfigDiff {
+
+	// Section names as they appear in the Json. See ModConfiguration.
+	public static final String SOUNDS = "soundMetadata";
+	public static final String BIOMES = "biomes";
+	public static final String BIOME_ALIAS = "biomeAlias";
+	public static final String BLOCKS = "blocks";
+	public static final String DIMENSIONS = "dimensions";
+	public static final String FOOTSTEPS = "footsteps";
+	public static final String FOOTPRINTS = "footprints";
+	public static final String FORGE_MAPPINGS = "forgeMappings";
+	public static final String ITEMS = "items";
+	public static final String VARIATORS = "variators";
+	public static final String ENTITIES = "entities";
+	public static final String ACOUSTICS = "acoustics";
+	public static final String PRIMITIVE_ACOUSTICS = "primitiveAcoustics";
+	public static final String DUCKING = "ducking";
+
+	public static final Set<String> SECTIONS = ImmutableSet.of(SOUNDS, BIOMES, BIOME_ALIAS, BLOCKS, DIMENSIONS,
+			FOOTSTEPS, FOOTPRINTS, FORGE_MAPPINGS, ITEMS, VARIATORS, ENTITIES, ACOUSTICS, PRIMITIVE_ACOUSTICS, DUCKING);
+
+	private static final String DEFAULT_DOMAIN = "minecraft:";
+
+	private final boolean full;
+	private final Set<String> sections;
+	private final Map<String, Set<String>> keys;
+
+	private ConfigDiff(final boolean full, @Nonnull final Set<String> sections,
+			@Nonnull final Map<String, Set<String>> keys) {
+		this.full = full;
+		this.sections = sections;
+		this.keys = keys;
+	}
+
+	/**
+	 * Indicates there was nothing to compare against, so everything is to be
+	 * treated as changed.
+	 */
+	public boolean isFull() {
+		return this.full;
+	}
+
+	public boolean isEmpty() {
+		return !this.full && this.sections.isEmpty();
+	}
+
+	@Nonnull
+	public Set<String> getChangedSections() {
+		return this.full ? SECTIONS : this.sections;
+	}
+
+	public boolean hasChanged(@Nonnull final String section) {
+		return this.full || this.sections.contains(section);
+	}
+
+	public boolean hasChanged(@Nonnull final Collection<String> sections) {
+		for (final String s : sections)
+			if (hasChanged(s))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Keys within a section that were added, removed or changed. Only the block
+	 * and entity sections are tracked by key; for the others, and for a full
+	 * diff, the set is empty.
+	 */
+	@Nonnull
+	public Set<String> getChangedKeys(@Nonnull final String section) {
+		final Set<String> result = this.keys.get(section);
+		return result == null ? Collections.emptySet() : result;
+	}
+
+	@Override
+	@Nonnull
+	public String toString() {
+		if (this.full)
+			return "<FULL>";
+		final StringBuilder builder = new StringBuilder();
+		builder.append(this.sections);
+		for (final Entry<String, Set<String>> e : this.keys.entrySet())
+			builder.append("; ").append(e.getKey()).append('=').append(e.getValue().size());
+		return builder.toString();
+	}
+
+	/**
+	 * Compares two fingerprints. If there is no prior fingerprint the diff is
+	 * full.
+	 */
+	@Nonnull
+	public static ConfigDiff compare(@Nullable final Fingerprint before, @Nonnull final Fingerprint after) {
+		if (before == null)
+			return new ConfigDiff(true, Collections.emptySet(), Collections.emptyMap());
+
+		final Set<String> sections = new ObjectOpenHashSet<>();
+		for (final String s : SECTIONS)
+			if (!before.sections.get(s).equals(after.sections.get(s)))
+				sections.add(s);
+
+		final Map<String, Set<String>> keys = new Object2ObjectOpenHashMap<>();
+		for (final String s : Fingerprint.KEYED) {
+			if (!sections.contains(s))
+				continue;
+			final Map<String, String> a = before.keyed.get(s);
+			final Map<String, String> b = after.keyed.get(s);
+			final Set<String> changed = new ObjectOpenHashSet<>();
+			for (final Entry<String, String> e : a.entrySet())
+				if (!e.getValue().equals(b.get(e.getKey())))
+					changed.add(e.getKey());
+			for (final String k : b.keySet())
+				if (!a.containsKey(k))
+					changed.add(k);
+			keys.put(s, changed);
+		}
+
+		return new ConfigDiff(false, sections, keys);
+	}
+
+	/**
+	 * Takes the fingerprint of a set of configurations. The configurations are
+	 * processed in order, same as the registries would.
+	 */
+	@Nonnull
+	public static Fingerprint fingerprint(@Nonnull final Iterable<ModConfiguration> data) {
+		return new Fingerprint(data);
+	}
+
+	/**
+	 * Key a block entry is tracked under: the block name without any property
+	 * list. A name without a domain belongs to Minecraft.
+	 */
+	@Nonnull
+	public static String blockKey(@Nonnull final String blockName) {
+		String name = blockName.trim();
+		final int idx = name.indexOf('[');
+		if (idx >= 0)
+			name = name.substring(0, idx).trim();
+		if (name.indexOf(':') < 0)
+			name = DEFAULT_DOMAIN + name;
+		return name;
+	}
+
+	public static final class Fingerprint {
+
+		private static final Set<String> KEYED = ImmutableSet.of(BLOCKS, ENTITIES);
+
+		private final Map<String, String> sections = new Object2ObjectOpenHashMap<>();
+		private final Map<String, Map<String, String>> keyed = new Object2ObjectOpenHashMap<>();
+
+		private Fingerprint(@Nonnull final Iterable<ModConfiguration> data) {
+			final Gson gson = new Gson();
+			final Map<String, MessageDigest> digests = new Object2ObjectOpenHashMap<>();
+			final Map<String, MessageDigest> blocks = new Object2ObjectOpenHashMap<>();
+			final Map<String, MessageDigest> entities = new Object2ObjectOpenHashMap<>();
+			for (final String s : SECTIONS)
+				digests.put(s, newDigest());
+
+			for (final ModConfiguration cfg : data) {
+				update(digests.get(SOUNDS), gson.toJson(cfg.sounds));
+				update(digests.get(BIOMES), gson.toJson(cfg.biomes));
+				update(digests.get(BIOME_ALIAS), gson.toJson(cfg.biomeAlias));
+				update(digests.get(BLOCKS), gson.toJson(cfg.blocks));
+				update(digests.get(DIMENSIONS), gson.toJson(cfg.dimensions));
+				update(digests.get(FOOTSTEPS), gson.toJson(cfg.footsteps));
+				update(digests.get(FOOTPRINTS), gson.toJson(cfg.footprints));
+				update(digests.get(FORGE_MAPPINGS), gson.toJson(cfg.forgeMappings));
+				update(digests.get(ITEMS), gson.toJson(cfg.items));
+				update(digests.get(VARIATORS), gson.toJson(cfg.variators));
+				update(digests.get(ENTITIES), gson.toJson(cfg.entities));
+				update(digests.get(ACOUSTICS), gson.toJson(cfg.acoustics));
+				update(digests.get(PRIMITIVE_ACOUSTICS), gson.toJson(cfg.primitiveAcoustics));
+				update(digests.get(DUCKING), gson.toJson(cfg.ducking));
+
+				// An entry can name several blocks. Each of those blocks sees the
+				// entry minus the name list, so adding a block to an entry does
+				// not disturb the others.
+				for (final BlockConfig entry : cfg.blocks) {
+					final JsonObject obj = gson.toJsonTree(entry).getAsJsonObject();
+					obj.remove(BLOCKS);
+					final String body = obj.toString();
+					for (final String name : entry.blocks) {
+						final MessageDigest md = blocks.computeIfAbsent(blockKey(name), k -> newDigest());
+						update(md, name);
+						update(md, body);
+					}
+				}
+
+				for (final Entry<String, EntityConfig> e : cfg.entities.entrySet())
+					update(entities.computeIfAbsent(e.getKey(), k -> newDigest()), gson.toJson(e.getValue()));
+			}
+
+			digests.forEach((k, v) -> this.sections.put(k, toHex(v)));
+			this.keyed.put(BLOCKS, finish(blocks));
+			this.keyed.put(ENTITIES, finish(entities));
+		}
+
+		@Nonnull
+		private static Map<String, String> finish(@Nonnull final Map<String, MessageDigest> digests) {
+			final Map<String, String> result = new Object2ObjectOpenHashMap<>(digests.size());
+			digests.forEach((k, v) -> result.put(k, toHex(v)));
+			return result;
+		}
+
+		@Nonnull
+		private static MessageDigest newDigest() {
+			try {
+				return MessageDigest.getInstance("SHA-1");
+			} catch (@Nonnull final NoSuchAlgorithmException ex) {
+				// Every JRE is required to have it
+				throw new IllegalStateException(ex);
+			}
+		}
+
+		private static void update(@Nonnull final MessageDigest md, @Nonnull final String text) {
+			md.update(text.getBytes(StandardCharsets.UTF_8));
+			// Separator so that adjacent strings cannot run together
+			md.update((byte) 0);
+		}
+
+		@Nonnull
+		private static String toHex(@Nonnull final MessageDigest md) {
+			final byte[] bits = md.digest();
+			final StringBuilder builder = new StringBuilder(bits.length * 2);
+			for (final byte b : bits)
+				builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			return builder.toString();
+		}
+	}
+}
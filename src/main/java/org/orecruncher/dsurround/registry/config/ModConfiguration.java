@@ -78,6 +78,9 @@ public final class ModConfiguration {
 	@SerializedName("primitiveAcoustics")
 	public Map<String, String> primitiveAcoustics = ImmutableMap.of();
 
+	@SerializedName("ducking")
+	public List<DuckingConfig> ducking = ImmutableList.of();
+
 	public static class ForgeEntry {
 		@SerializedName("acousticProfile")
 		public String acousticProfile = null;
@@ -24,6 +24,7 @@
 package org.orecruncher.dsurround.registry.dimension;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,9 +34,12 @@ import javax.annotation.Nullable;
 import org.orecruncher.dsurround.ModBase;
 import org.orecruncher.dsurround.ModOptions;
 import org.orecruncher.dsurround.registry.Registry;
+import org.orecruncher.dsurround.registry.config.ConfigDiff;
 import org.orecruncher.dsurround.registry.config.DimensionConfig;
 import org.orecruncher.dsurround.registry.config.ModConfiguration;
 
+import com.google.common.collect.ImmutableList;
+
 import net.minecraft.world.World;
 
 public final class DimensionRegistry extends Registry {
@@ -44,6 +48,12 @@ public final class DimensionRegistry extends Registry {
 		super("Dimension Registry");
 	}
 
+	@Override
+	@Nonnull
+	protected Collection<String> getSections() {
+		return ImmutableList.of(ConfigDiff.DIMENSIONS);
+	}
+
 	@Override
 	protected void preInit() {
 		this.cache.clear();
@@ -0,0 +1,206 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.registry.dump;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.orecruncher.dsurround.ModBase;
+import org.orecruncher.dsurround.client.fx.BlockEffect;
+import org.orecruncher.dsurround.client.sound.SoundEffect;
+import org.orecruncher.dsurround.registry.RegistryManager;
+import org.orecruncher.dsurround.registry.biome.BiomeInfo;
+import org.orecruncher.dsurround.registry.blockstate.BlockStateData;
+import org.orecruncher.dsurround.registry.blockstate.BlockStateUtil;
+import org.orecruncher.dsurround.registry.effect.EntityEffectInfo;
+import org.orecruncher.dsurround.registry.footstep.BlockMap;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.EntityList;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.common.registry.ForgeRegistries;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Builds snapshots of the client side registries as they are currently
+ * resolved. Each section can be built on its own.
+ */
+@SideOnly(Side.CLIENT)
+public final class ClientDumper {
+
+	private ClientDumper() {
+
+	}
+
+	/**
+	 * Builds the requested client sections. Sections that are not handled on the
+	 * client are ignored.
+	 */
+	@Nonnull
+	public static RegistrySnapshot create(@Nonnull final Collection<String> sections) {
+		final RegistrySnapshot snapshot = new RegistrySnapshot();
+		if (sections.contains(RegistrySnapshot.BLOCKS))
+			blocks(snapshot);
+		if (sections.contains(RegistrySnapshot.FOOTSTEPS))
+			footsteps(snapshot);
+		if (sections.contains(RegistrySnapshot.BIOMES))
+			biomes(snapshot);
+		if (sections.contains(RegistrySnapshot.ENTITIES))
+			entities(snapshot);
+		return snapshot;
+	}
+
+	/**
+	 * Builds the requested client sections and writes them, along with the
+	 * dimension section sent by the server, to the dump directory with the given
+	 * name.
+	 *
+	 * @param dimensions Dimension records built by the server, or null if the
+	 *                   section was not requested
+	 * @return The directory written to, or null if nothing was written
+	 */
+	@Nullable
+	public static File write(@Nonnull final String name, @Nonnull final Collection<String> sections,
+			@Nullable final Map<String, String> dimensions) {
+		final RegistrySnapshot snapshot = create(sections);
+		if (dimensions != null) {
+			snapshot.addSection(RegistrySnapshot.DIMENSIONS);
+			dimensions.forEach((k, v) -> snapshot.put(RegistrySnapshot.DIMENSIONS, k, v));
+		}
+		if (snapshot.isEmpty())
+			return null;
+		final File dir = RegistryDumper.getDumpDirectory(name);
+		try {
+			snapshot.write(dir.toPath());
+			ModBase.log().info("Registry dump written to %s", dir.getAbsolutePath());
+			return dir;
+		} catch (final IOException ex) {
+			ModBase.log().error("Unable to write registry dump", ex);
+		}
+		return null;
+	}
+
+	private static List<IBlockState> getBlockStates() {
+		final List<IBlockState> states = new ArrayList<>();
+		for (final Block block : ForgeRegistries.BLOCKS)
+			states.addAll(block.getBlockState().getValidStates());
+		return states;
+	}
+
+	private static String effects(@Nonnull final BlockEffect[] effects) {
+		return Arrays.stream(effects).map(e -> e.getEffectType().getName()).sorted()
+				.collect(Collectors.joining(",", "[", "]"));
+	}
+
+	private static String sounds(@Nonnull final SoundEffect[] sounds) {
+		return Arrays.stream(sounds).map(SoundEffect::toString).sorted().collect(Collectors.joining(", ", "[", "]"));
+	}
+
+	/**
+	 * Describes the block state data the way it appears in the blocks section.
+	 * Effects and sounds are sorted so the order they were configured in does
+	 * not matter.
+	 */
+	@Nonnull
+	public static String describe(@Nonnull final BlockStateData data) {
+		final StringBuilder builder = new StringBuilder();
+		builder.append("chance=").append(data.getChance());
+		builder.append("; effects=").append(effects(data.getEffects()));
+		builder.append("; alwaysOn=").append(effects(data.getAlwaysOnEffects()));
+		builder.append("; sounds=").append(sounds(data.getSounds()));
+		return builder.toString();
+	}
+
+	public static void blocks(@Nonnull final RegistrySnapshot snapshot) {
+		snapshot.addSection(RegistrySnapshot.BLOCKS);
+		for (final IBlockState state : getBlockStates()) {
+			final BlockStateData data = BlockStateUtil.getStateData(state);
+			if (data != BlockStateData.DEFAULT)
+				snapshot.put(RegistrySnapshot.BLOCKS, state.toString(), describe(data));
+		}
+	}
+
+	public static void footsteps(@Nonnull final RegistrySnapshot snapshot) {
+		snapshot.addSection(RegistrySnapshot.FOOTSTEPS);
+		final BlockMap bm = RegistryManager.FOOTSTEPS.getBlockMap();
+		final List<String> data = new ArrayList<>();
+		for (final IBlockState state : getBlockStates()) {
+			data.clear();
+			bm.collectData(state, data);
+			final boolean footprint = RegistryManager.FOOTSTEPS.hasFootprint(state);
+			if (data.isEmpty() && !footprint)
+				continue;
+			data.sort(null);
+			String value = String.join(" | ", data);
+			if (footprint)
+				value = value.isEmpty() ? "FOOTPRINT" : value + " | FOOTPRINT";
+			snapshot.put(RegistrySnapshot.FOOTSTEPS, state.toString(), value);
+		}
+	}
+
+	public static void biomes(@Nonnull final RegistrySnapshot snapshot) {
+		snapshot.addSection(RegistrySnapshot.BIOMES);
+		for (final BiomeInfo info : RegistryManager.BIOME.getBiomeInfo()) {
+			final ResourceLocation rl = info.getKey();
+			final String key = rl == null ? "fake:" + info.getBiomeName() : rl.toString();
+			final StringBuilder builder = new StringBuilder();
+			builder.append("name=").append(info.getBiomeName());
+			if (!info.isFake())
+				builder.append("; traits=").append(info.getBiomeTraits());
+			builder.append("; precipitation=").append(info.getHasPrecipitation());
+			builder.append("; dust=").append(info.getHasDust());
+			builder.append("; aurora=").append(info.getHasAurora());
+			builder.append("; fog=").append(info.getHasFog());
+			if (info.getHasFog())
+				builder.append(" ").append(info.getFogColor()).append(" ").append(info.getFogDensity());
+			builder.append("; sounds=").append(sounds(info.getSounds()));
+			builder.append("; spotChance=").append(info.getSpotSoundChance());
+			builder.append("; spotSounds=").append(sounds(info.getSpotSounds()));
+			snapshot.put(RegistrySnapshot.BIOMES, key, builder.toString());
+		}
+	}
+
+	public static void entities(@Nonnull final RegistrySnapshot snapshot) {
+		snapshot.addSection(RegistrySnapshot.ENTITIES);
+		for (final ResourceLocation r : EntityList.getEntityNameList()) {
+			final Class<?> clazz = EntityList.getClass(r);
+			if (clazz != null) {
+				final EntityEffectInfo info = RegistryManager.EFFECTS.getEffects(clazz);
+				snapshot.put(RegistrySnapshot.ENTITIES, r.toString(), clazz.getName() + "; " + info.toString());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.registry.dump;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeSet;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Compares two registry dumps and lists the records that were added, removed
+ * or changed. Runs outside of the game:
+ *
+ * <pre>
+ * java -cp &lt;mod jar&gt; org.orecruncher.dsurround.registry.dump.DumpDiff &lt;old&gt; &lt;new&gt;
+ * </pre>
+ *
+ * Either argument can be a dump directory or a single section file. The exit
+ * code is 0 if the dumps match and 1 if they differ.
+ */
+public final class DumpDiff {
+
+	private DumpDiff() {
+
+	}
+
+	/**
+	 * Writes the differences between two snapshots.
+	 *
+	 * @return The number of records that differ
+	 */
+	public static int diff(@Nonnull final RegistrySnapshot before, @Nonnull final RegistrySnapshot after,
+			@Nonnull final PrintStream out) {
+		final Set<String> sections = new TreeSet<>(before.getSections());
+		sections.addAll(after.getSections());
+
+		int total = 0;
+		for (final String section : sections) {
+			final SortedMap<String, String> a = before.getSection(section);
+			final SortedMap<String, String> b = after.getSection(section);
+			if (!before.getSections().contains(section) || !after.getSections().contains(section)) {
+				// Every record of a section missing from one side differs
+				final boolean old = before.getSections().contains(section);
+				final int count = old ? a.size() : b.size();
+				out.printf("[%s] only in %s dump, %d records%n%n", section, old ? "old" : "new", count);
+				total += count;
+				continue;
+			}
+
+			int added = 0;
+			int removed = 0;
+			int changed = 0;
+			final Set<String> keys = new TreeSet<>(a.keySet());
+			keys.addAll(b.keySet());
+			for (final String key : keys) {
+				final String v1 = a.get(key);
+				final String v2 = b.get(key);
+				if (v1 == null) {
+					if (added + removed + changed == 0)
+						out.printf("[%s]%n", section);
+					out.printf("+ %s%n    %s%n", key, v2);
+					added++;
+				} else if (v2 == null) {
+					if (added + removed + changed == 0)
+						out.printf("[%s]%n", section);
+					out.printf("- %s%n    %s%n", key, v1);
+					removed++;
+				} else if (!v1.equals(v2)) {
+					if (added + removed + changed == 0)
+						out.printf("[%s]%n", section);
+					out.printf("~ %s%n  - %s%n  + %s%n", key, v1, v2);
+					changed++;
+				}
+			}
+			if (added + removed + changed > 0)
+				out.printf("[%s] %d added, %d removed, %d changed%n%n", section, added, removed, changed);
+			total += added + removed + changed;
+		}
+
+		return total;
+	}
+
+	public static void main(@Nonnull final String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: DumpDiff <old dump> <new dump>");
+			System.exit(2);
+		}
+
+		final RegistrySnapshot before = RegistrySnapshot.read(Paths.get(args[0]));
+		final RegistrySnapshot after = RegistrySnapshot.read(Paths.get(args[1]));
+		final int count = diff(before, after, System.out);
+		if (count == 0)
+			System.out.println("No differences");
+		else
+			System.out.printf("%d records differ%n", count);
+		System.exit(count == 0 ? 0 : 1);
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.registry.dump;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.dsurround.ModBase;
+import org.orecruncher.dsurround.capabilities.CapabilityDimensionInfo;
+import org.orecruncher.dsurround.capabilities.dimension.IDimensionInfo;
+import org.orecruncher.dsurround.registry.RegistryManager;
+import org.orecruncher.dsurround.registry.config.DimensionConfig;
+
+import net.minecraft.world.World;
+
+/**
+ * Common support for registry dumps. The dimension section is built here
+ * because it is the only one the server can produce on its own; the rest come
+ * from ClientDumper. The server sends its section to the client, which writes
+ * the whole dump.
+ */
+public final class RegistryDumper {
+
+	private RegistryDumper() {
+
+	}
+
+	/**
+	 * Name for a new dump based on the current time, to the millisecond.
+	 */
+	@Nonnull
+	public static String newDumpName() {
+		return new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+	}
+
+	/**
+	 * Directory to write the named dump to. If a dump by that name already exists
+	 * a numeric suffix is added so it is not overwritten.
+	 */
+	@Nonnull
+	public static File getDumpDirectory(@Nonnull final String name) {
+		final File root = new File(ModBase.dataDirectory(), "dumps");
+		File dir = new File(root, name);
+		for (int i = 1; dir.exists(); i++)
+			dir = new File(root, name + "-" + i);
+		return dir;
+	}
+
+	public static void dimensions(@Nonnull final RegistrySnapshot snapshot,
+			@Nonnull final Iterable<? extends World> worlds) {
+		snapshot.addSection(RegistrySnapshot.DIMENSIONS);
+		for (final World world : worlds) {
+			final String key = String.format("%d/%s", world.provider.getDimension(),
+					world.provider.getDimensionType().getName());
+			final StringBuilder builder = new StringBuilder();
+			final IDimensionInfo info = CapabilityDimensionInfo.getCapability(world);
+			if (info != null) {
+				builder.append("seaLevel=").append(info.getSeaLevel());
+				builder.append("; skyHeight=").append(info.getSkyHeight());
+				builder.append("; cloudHeight=").append(info.getCloudHeight());
+				builder.append("; spaceHeight=").append(info.getSpaceHeight());
+				builder.append("; haze=").append(info.hasHaze());
+				builder.append("; aurora=").append(info.hasAuroras());
+				builder.append("; weather=").append(info.hasWeather());
+				builder.append("; fog=").append(info.hasFog());
+				builder.append("; biomeSounds=").append(info.playBiomeSounds());
+				builder.append("; alwaysOutside=").append(info.alwaysOutside());
+			} else {
+				builder.append("<NO INFO>");
+			}
+			final DimensionConfig config = RegistryManager.DIMENSION.getData(world);
+			builder.append("; config=").append(config != null ? config.toString().trim() : "<NONE>");
+			snapshot.put(RegistrySnapshot.DIMENSIONS, key, builder.toString());
+		}
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.registry.dump;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A snapshot of how the registries resolved. A snapshot is made up of named
+ * sections, each a sorted map of key to value. On disk each section is a text
+ * file with one "key&lt;TAB&gt;value" record per line, sorted by key, so the
+ * files are stable across runs and can be compared with DumpDiff or any
+ * ordinary diff tool.
+ *
+ * Nothing in here depends on the game so snapshots can be built, written and
+ * read outside of it.
+ */
+public final class RegistrySnapshot {
+
+	public static final String BLOCKS = "blocks";
+	public static final String FOOTSTEPS = "footsteps";
+	public static final String BIOMES = "biomes";
+	public static final String ENTITIES = "entities";
+	public static final String DIMENSIONS = "dimensions";
+
+	public static final List<String> SECTIONS = Collections
+			.unmodifiableList(Arrays.asList(BLOCKS, FOOTSTEPS, BIOMES, ENTITIES, DIMENSIONS));
+
+	private static final String EXTENSION = ".txt";
+
+	private final Map<String, SortedMap<String, String>> sections = new TreeMap<>();
+
+	/**
+	 * Adds a record to a section. If the key is already present the values are
+	 * combined. Tabs and line breaks are flattened so a record is always one
+	 * line.
+	 */
+	public void put(@Nonnull final String section, @Nonnull final String key, @Nonnull final String value) {
+		final SortedMap<String, String> map = this.sections.computeIfAbsent(section, k -> new TreeMap<>());
+		map.merge(clean(key), clean(value), (v1, v2) -> v1 + " | " + v2);
+	}
+
+	/**
+	 * Makes sure the section exists even if nothing gets put into it.
+	 */
+	public void addSection(@Nonnull final String section) {
+		this.sections.computeIfAbsent(section, k -> new TreeMap<>());
+	}
+
+	@Nonnull
+	public Set<String> getSections() {
+		return Collections.unmodifiableSet(this.sections.keySet());
+	}
+
+	@Nonnull
+	public SortedMap<String, String> getSection(@Nonnull final String section) {
+		final SortedMap<String, String> map = this.sections.get(section);
+		return map == null ? Collections.emptySortedMap() : Collections.unmodifiableSortedMap(map);
+	}
+
+	public boolean isEmpty() {
+		return this.sections.isEmpty();
+	}
+
+	/**
+	 * Writes each section to its own file in the directory, creating the
+	 * directory if needed.
+	 */
+	public void write(@Nonnull final Path dir) throws IOException {
+		Files.createDirectories(dir);
+		for (final Map.Entry<String, SortedMap<String, String>> e : this.sections.entrySet()) {
+			try (final BufferedWriter writer = Files.newBufferedWriter(dir.resolve(e.getKey() + EXTENSION),
+					StandardCharsets.UTF_8)) {
+				writer.write("# " + e.getKey() + " " + e.getValue().size());
+				writer.newLine();
+				for (final Map.Entry<String, String> r : e.getValue().entrySet()) {
+					writer.write(r.getKey());
+					writer.write('\t');
+					writer.write(r.getValue());
+					writer.newLine();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads a snapshot. The path can be a directory written by write(), or a
+	 * single section file.
+	 */
+	@Nonnull
+	public static RegistrySnapshot read(@Nonnull final Path path) throws IOException {
+		final RegistrySnapshot result = new RegistrySnapshot();
+		if (Files.isDirectory(path)) {
+			try (final DirectoryStream<Path> stream = Files.newDirectoryStream(path, "*" + EXTENSION)) {
+				for (final Path p : stream)
+					result.readSection(p);
+			}
+		} else {
+			result.readSection(path);
+		}
+		return result;
+	}
+
+	private void readSection(@Nonnull final Path file) throws IOException {
+		final String name = file.getFileName().toString();
+		final String section = name.endsWith(EXTENSION) ? name.substring(0, name.length() - EXTENSION.length())
+				: name;
+		addSection(section);
+		try (final BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+				final int idx = line.indexOf('\t');
+				if (idx < 0)
+					put(section, line, "");
+				else
+					put(section, line.substring(0, idx), line.substring(idx + 1));
+			}
+		}
+	}
+
+	@Nonnull
+	private static String clean(@Nullable final String text) {
+		if (text == null)
+			return "<NULL>";
+		return text.replace('\t', ' ').replace("\r", "").replace("\n", " | ");
+	}
+
+}
@@ -23,22 +23,31 @@
  */
 package org.orecruncher.dsurround.registry.effect;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.orecruncher.dsurround.ModBase;
 import org.orecruncher.dsurround.ModInfo;
 import org.orecruncher.dsurround.ModOptions;
+import org.orecruncher.dsurround.lib.ClassResolver;
 import org.orecruncher.dsurround.registry.Registry;
+import org.orecruncher.dsurround.registry.config.ConfigData;
+import org.orecruncher.dsurround.registry.config.ConfigDiff;
 import org.orecruncher.dsurround.registry.config.EntityConfig;
 import org.orecruncher.dsurround.registry.config.ModConfiguration;
 import org.orecruncher.dsurround.registry.effect.theme.GloamwoodTheme;
 import org.orecruncher.dsurround.registry.effect.theme.ThemeInfo;
 
+import com.google.common.collect.ImmutableList;
+
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityList;
 import net.minecraft.entity.player.EntityPlayer;
@@ -52,8 +61,10 @@ public class EffectRegistry extends Registry {
 	public static final EntityEffectInfo DEFAULT = new EntityEffectInfo();
 	public static final ResourceLocation DEFAULT_THEME = new ResourceLocation(ModInfo.MOD_ID, "default");
 	private static final ThemeInfo DEFAULT_THEME_INFO = new ThemeInfo();
+	private static final String PLAYER = "minecraft:player";
 
-	protected final Map<Class<? extends Entity>, EntityEffectInfo> effects = new Reference2ObjectOpenHashMap<>();
+	// Effects as configured, keyed by the class named in the config
+	protected final ClassResolver<EntityEffectInfo> effects = new ClassResolver<>(DEFAULT);
 	protected EntityEffectInfo playerEffects = DEFAULT;
 
 	protected final Map<ResourceLocation, ThemeInfo> themes = new Object2ObjectOpenHashMap<>();
@@ -63,6 +74,12 @@ public class EffectRegistry extends Registry {
 		super("Effects Registry");
 	}
 
+	@Override
+	@Nonnull
+	protected Collection<String> getSections() {
+		return ImmutableList.of(ConfigDiff.ENTITIES);
+	}
+
 	@Override
 	protected void preInit() {
 		this.playerEffects = DEFAULT;
@@ -80,7 +97,7 @@ public class EffectRegistry extends Registry {
 			final String entityName = e.getKey();
 			final EntityConfig entityEffects = e.getValue();
 
-			if ("minecraft:player".equals(entityName)) {
+			if (PLAYER.equals(entityName)) {
 				this.playerEffects = new EntityEffectInfo(entityEffects);
 				continue;
 			}
@@ -94,30 +111,59 @@ public class EffectRegistry extends Registry {
 		}
 	}
 
+	/**
+	 * Only the classes named by changed entries are reworked. Each gets the last
+	 * entry configured for it, same as a full rebuild; the resolver tosses its
+	 * cache since subclasses may inherit from them.
+	 */
 	@Override
-	protected void postInit() {
-		// Need to process all the entities registered with Forge to see if they
-		// are in our list. If they aren't the list is scanned looking for
-		// hereditary matches.
-		for (final ResourceLocation r : EntityList.getEntityNameList()) {
-			final Class<? extends Entity> clazz = EntityList.getClass(r);
-			if (clazz != null) {
-				if (!this.effects.containsKey(clazz)) {
-					// Not found. Scan our list looking for those that can be assigned
-					for (Entry<Class<? extends Entity>, EntityEffectInfo> e : this.effects.entrySet()) {
-						if (e.getKey().isAssignableFrom(clazz)) {
-							this.effects.put(clazz, e.getValue());
-							break;
-						}
-					}
-				}
+	@Nullable
+	protected Runnable prepare(@Nonnull final ConfigData data, @Nonnull final ConfigDiff diff) {
+		final Set<String> keys = diff.getChangedKeys(ConfigDiff.ENTITIES);
+		final Set<Class<? extends Entity>> classes = new ReferenceOpenHashSet<>();
+		boolean player = false;
+		for (final String key : keys) {
+			if (PLAYER.equals(key)) {
+				player = true;
 			} else {
-				// This is possible for entity lightening bolt. May show up for other
-				// mods as well.
-				ModBase.log().debug("Forge reported entity %s but not found in it's own registry!", r.toString());
+				final Class<? extends Entity> clazz = EntityList.getClassFromName(key);
+				if (clazz != null)
+					classes.add(clazz);
 			}
 		}
 
+		final Map<Class<? extends Entity>, EntityEffectInfo> staged = new Reference2ObjectOpenHashMap<>();
+		EntityEffectInfo playerInfo = DEFAULT;
+		for (final ModConfiguration cfg : data) {
+			for (final Entry<String, EntityConfig> e : cfg.entities.entrySet()) {
+				if (PLAYER.equals(e.getKey())) {
+					playerInfo = new EntityEffectInfo(e.getValue());
+				} else {
+					final Class<? extends Entity> clazz = EntityList.getClassFromName(e.getKey());
+					if (classes.contains(clazz))
+						staged.put(clazz, new EntityEffectInfo(e.getValue()));
+				}
+			}
+		}
+
+		final EntityEffectInfo newPlayer = player ? playerInfo : this.playerEffects;
+		return () -> {
+			for (final Class<? extends Entity> clazz : classes) {
+				final EntityEffectInfo info = staged.get(clazz);
+				if (info != null)
+					this.effects.put(clazz, info);
+				else
+					this.effects.remove(clazz);
+			}
+			this.playerEffects = newPlayer;
+		};
+	}
+
+	@Override
+	protected void postInit() {
+		// Entity classes are resolved on demand. Toss anything that may have been
+		// resolved against a prior configuration.
+		this.effects.invalidate();
 	}
 
 	@Override
@@ -130,7 +176,7 @@ public class EffectRegistry extends Registry {
 			for (final ResourceLocation r : EntityList.getEntityNameList()) {
 				final Class<?> clazz = EntityList.getClass(r);
 				if (clazz != null) {
-					final EntityEffectInfo info = this.effects.getOrDefault(clazz, DEFAULT);
+					final EntityEffectInfo info = resolve(clazz);
 					ModBase.log().info("%s = %s", r.toString(), info.toString());
 				}
 			}
@@ -141,7 +187,37 @@ public class EffectRegistry extends Registry {
 	public EntityEffectInfo getEffects(@Nonnull final Entity entity) {
 		if (entity instanceof EntityPlayer)
 			return this.playerEffects;
-		return this.effects.getOrDefault(entity.getClass(), DEFAULT);
+		return resolve(entity.getClass());
+	}
+
+	@Nonnull
+	public EntityEffectInfo getEffects(@Nonnull final Class<?> clazz) {
+		return resolve(clazz);
+	}
+
+	/*
+	 * Resolves the effects for an entity class. The most specific configured
+	 * ancestor wins, and classes that show up after postInit() are resolved on
+	 * first use.
+	 */
+	@Nonnull
+	protected EntityEffectInfo resolve(@Nonnull final Class<?> clazz) {
+		return this.effects.resolve(clazz);
+	}
+
+	/**
+	 * Determines if a change to the given entity config entries could change the
+	 * effects of the entity.
+	 */
+	public boolean isAffected(@Nonnull final Entity entity, @Nonnull final Set<String> keys) {
+		if (entity instanceof EntityPlayer)
+			return keys.contains(PLAYER);
+		for (final String key : keys) {
+			final Class<? extends Entity> clazz = EntityList.getClassFromName(key);
+			if (clazz != null && clazz.isInstance(entity))
+				return true;
+		}
+		return false;
 	}
 
 	@Nonnull
@@ -176,6 +176,15 @@ public class BlockMap {
 		this.metaMap = new BlockAcousticMap(bs -> RegistryManager.FOOTSTEPS.resolve(bs));
 	}
 
+	/**
+	 * For maps that supply their acoustics by overriding the lookups rather than
+	 * from registered entries. Nothing can be registered with such a map.
+	 */
+	protected BlockMap() {
+		this.acousticsManager = null;
+		this.metaMap = new BlockAcousticMap();
+	}
+
 	public boolean hasAcoustics(@Nonnull final IBlockState state) {
 		return this.metaMap.getBlockAcoustics(state) != AcousticRegistry.EMPTY;
 	}
@@ -25,6 +25,7 @@
 package org.orecruncher.dsurround.registry.footstep;
 
 import java.util.*;
+import java.util.Collection;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -40,12 +41,15 @@ import org.orecruncher.dsurround.registry.acoustics.AcousticRegistry;
 import org.orecruncher.dsurround.registry.acoustics.IAcoustic;
 import org.orecruncher.dsurround.registry.acoustics.RainSplashAcoustic;
 import org.orecruncher.dsurround.registry.blockstate.BlockStateMatcher;
+import org.orecruncher.dsurround.registry.config.ConfigDiff;
 import org.orecruncher.dsurround.registry.config.ModConfiguration;
 import org.orecruncher.dsurround.registry.config.ModConfiguration.ForgeEntry;
 import org.orecruncher.dsurround.registry.effect.EntityEffectInfo;
 import org.orecruncher.lib.ItemStackUtil;
 import org.orecruncher.lib.MCHelper;
 
+import com.google.common.collect.ImmutableList;
+
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.minecraft.block.Block;
@@ -113,6 +117,18 @@ public final class FootstepsRegistry extends Registry {
 		super("Footsteps Registry");
 	}
 
+	@Override
+	@Nonnull
+	protected Collection<String> getSections() {
+		return ImmutableList.of(ConfigDiff.FOOTSTEPS, ConfigDiff.FOOTPRINTS, ConfigDiff.FORGE_MAPPINGS, ConfigDiff.VARIATORS);
+	}
+
+	@Override
+	@Nonnull
+	protected Collection<Registry> getDependencies() {
+		return ImmutableList.of(RegistryManager.ACOUSTICS);
+	}
+
 	@Override
 	protected void preInit() {
 
@@ -23,6 +23,8 @@
 
 package org.orecruncher.dsurround.registry.sound;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -40,13 +42,18 @@ import org.orecruncher.dsurround.client.sound.SoundConfigProcessor;
 import org.orecruncher.dsurround.client.sound.SoundEngine;
 import org.orecruncher.dsurround.client.sound.Sounds;
 import org.orecruncher.dsurround.registry.Registry;
+import org.orecruncher.dsurround.registry.config.ConfigDiff;
+import org.orecruncher.dsurround.registry.config.DuckingConfig;
 import org.orecruncher.dsurround.registry.config.ModConfiguration;
 import org.orecruncher.lib.compat.PositionedSoundUtil;
 import org.orecruncher.lib.math.MathStuff;
 
+import com.google.common.collect.ImmutableList;
+
 import it.unimi.dsi.fastutil.objects.Object2FloatOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import net.minecraft.client.audio.ISound;
 import net.minecraft.client.audio.PositionedSound;
@@ -77,12 +84,19 @@ public final class SoundRegistry extends Registry {
 	private final Map<ResourceLocation, SoundMetadata> soundMetadata = new Object2ObjectOpenHashMap<>();
 	private final Map<ResourceLocation, SoundEvent> myRegistry = new Object2ObjectOpenHashMap<>();
 	private final Object2ObjectOpenHashMap<ResourceLocation, SoundEvent> replacements = new Object2ObjectOpenHashMap<>();
+	private final List<DuckingConfig> ducking = new ObjectArrayList<>();
 
 	public SoundRegistry() {
 		super("Sound Registry");
 		this.volumeControl.defaultReturnValue(DEFAULT_SOUNDFACTOR);
 	}
 
+	@Override
+	@Nonnull
+	protected Collection<String> getSections() {
+		return ImmutableList.of(ConfigDiff.SOUNDS, ConfigDiff.DUCKING);
+	}
+
 	@Override
 	protected void preInit() {
 		this.soundCull.clear();
@@ -91,6 +105,7 @@ public final class SoundRegistry extends Registry {
 		this.soundMetadata.clear();
 		this.myRegistry.clear();
 		this.replacements.clear();
+		this.ducking.clear();
 
 		bakeSoundRegistry();
 
@@ -137,6 +152,7 @@ public final class SoundRegistry extends Registry {
 				)
 		);
 		//@formatter:on
+		this.ducking.addAll(cfg.ducking);
 	}
 
 	@Override
@@ -169,6 +185,11 @@ public final class SoundRegistry extends Registry {
 		return evt;
 	}
 
+	@Nonnull
+	public List<DuckingConfig> getDuckingRules() {
+		return this.ducking;
+	}
+
 	public boolean isSoundBlocked(@Nonnull final ResourceLocation sound) {
 		return this.blockedSounds.contains(sound);
 	}
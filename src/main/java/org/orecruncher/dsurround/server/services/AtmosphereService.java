@@ -34,12 +34,11 @@ import org.orecruncher.dsurround.lib.compat.ModEnvironment;
 
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.common.DimensionManager;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.EventPriority;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
-import net.minecraftforge.fml.common.gameevent.TickEvent;
-import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
-import net.minecraftforge.fml.relauncher.Side;
 
 public final class AtmosphereService extends Service {
 
@@ -47,10 +46,17 @@ public final class AtmosphereService extends Service {
 		super("AtmosphereService");
 	}
 
-	@SubscribeEvent(priority = EventPriority.HIGH)
-	public void tickEvent(@Nonnull final TickEvent.WorldTickEvent event) {
-		if (event.side == Side.SERVER && event.phase == Phase.END)
-			getGenerator(event.world).update();
+	@Override
+	public void collectWork(@Nonnull final WorkScheduler.IWorkSink sink) {
+		for (final WorldServer world : DimensionManager.getWorlds())
+			sink.add(world, () -> update(world));
+	}
+
+	private void update(@Nonnull final WorldServer world) {
+		// The world could have unloaded while the unit was waiting
+		final WeatherGenerator generator = this.generators.get(world.provider.getDimension());
+		if (generator != null && generator.world == world)
+			generator.update();
 	}
 
 	@SubscribeEvent(priority = EventPriority.LOWEST)
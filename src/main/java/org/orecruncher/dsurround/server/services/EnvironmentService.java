@@ -31,15 +31,12 @@ import javax.annotation.Nonnull;
 import org.orecruncher.dsurround.network.Network;
 import org.orecruncher.dsurround.network.PacketEnvironment;
 
-import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.village.Village;
 import net.minecraft.village.VillageCollection;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
-import net.minecraftforge.fml.common.gameevent.TickEvent;
-import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
-import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.common.FMLCommonHandler;
 
 public final class EnvironmentService extends Service {
 
@@ -47,26 +44,35 @@ public final class EnvironmentService extends Service {
 		super("EnvironmentService");
 	}
 
-	@SubscribeEvent
-	public void tickEvent(@Nonnull final TickEvent.PlayerTickEvent event) {
-		if (event.phase == Phase.END && event.side == Side.SERVER) {
-			final EntityPlayer player = event.player;
-			final VillageCollection villageCollection = player.getEntityWorld().getVillageCollection();
-			boolean inVillage = false;
+	@Override
+	public void collectWork(@Nonnull final WorkScheduler.IWorkSink sink) {
+		final MinecraftServer server = FMLCommonHandler.instance().getMinecraftServerInstance();
+		if (server == null)
+			return;
+		for (final EntityPlayerMP player : server.getPlayerList().getPlayers())
+			sink.add(player, () -> update(player));
+	}
+
+	private void update(@Nonnull final EntityPlayerMP player) {
+		// The unit may have been carried over from an earlier tick
+		if (player.hasDisconnected())
+			return;
 
-			final List<Village> villages = villageCollection.getVillageList();
-			if (villages.size() > 0) {
-				final BlockPos pos = player.getPosition();
-				for (final Village v : villages)
-					if (v.isBlockPosWithinSqVillageRadius(pos)) {
-						inVillage = true;
-						break;
-					}
-			}
+		final VillageCollection villageCollection = player.getEntityWorld().getVillageCollection();
+		boolean inVillage = false;
 
-			final PacketEnvironment packet = new PacketEnvironment(inVillage);
-			Network.sendToPlayer((EntityPlayerMP) player, packet);
+		final List<Village> villages = villageCollection.getVillageList();
+		if (villages.size() > 0) {
+			final BlockPos pos = player.getPosition();
+			for (final Village v : villages)
+				if (v.isBlockPosWithinSqVillageRadius(pos)) {
+					inVillage = true;
+					break;
+				}
 		}
+
+		final PacketEnvironment packet = new PacketEnvironment(inVillage);
+		Network.sendToPlayer(player, packet);
 	}
 
 }
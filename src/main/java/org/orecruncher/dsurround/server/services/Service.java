@@ -53,4 +53,13 @@ public abstract class Service {
 	public void fini() {
 
 	}
+
+	/*
+	 * Called by the service manager each server tick to gather the units of work
+	 * the service wants to perform. Units run under the server tick budget and
+	 * may be carried over to a later tick if the budget runs out.
+	 */
+	public void collectWork(@Nonnull final WorkScheduler.IWorkSink sink) {
+
+	}
 }
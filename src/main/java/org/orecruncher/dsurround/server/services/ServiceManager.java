@@ -50,6 +50,8 @@ public final class ServiceManager extends Service {
 	private static final ServiceManager INSTANCE = new ServiceManager();
 
 	private final List<Service> services = new ArrayList<>();
+	private final List<WorkScheduler.IWorkSink> sinks = new ArrayList<>();
+	private final WorkScheduler scheduler = new WorkScheduler(System::nanoTime);
 
 	private ServiceManager() {
 		super("ServiceManager");
@@ -61,12 +63,15 @@ public final class ServiceManager extends Service {
 
 	private void clearServices() {
 		this.services.clear();
+		this.sinks.clear();
+		this.scheduler.clear();
 	}
 
 	private void init0() {
 		for (final Service s : this.services) {
 			s.init();
 			MinecraftForge.EVENT_BUS.register(s);
+			this.sinks.add(this.scheduler.addQueue(s.getServiceName()));
 		}
 	}
 
@@ -107,20 +112,29 @@ public final class ServiceManager extends Service {
 	}
 
 	/**
-	 * Collect tick performance data for the loaded dimensions and broadcast to
-	 * attached players.
+	 * Runs the work the services have queued up under the tick budget. Once a
+	 * second tick performance data for the loaded dimensions and the scheduling
+	 * stats for the services are broadcast to attached players.
 	 *
 	 * @param event Event that was triggered
 	 */
 	@SubscribeEvent
 	public void tickEvent(@Nonnull final TickEvent.ServerTickEvent event) {
-		if (!ModOptions.logging.reportServerStats || event.phase != Phase.END)
+		if (event.phase != Phase.END)
 			return;
 
+		for (int i = 0; i < this.services.size(); i++)
+			this.services.get(i).collectWork(this.sinks.get(i));
+		this.scheduler.run(ModOptions.general.serverTickBudget * 1000L);
+
 		// Spam once a second
 		if ((++this.tpsCount % 20) != 0)
 			return;
 
+		final List<WorkScheduler.Stats> stats = this.scheduler.snapshot();
+		if (!ModOptions.logging.reportServerStats)
+			return;
+
 		final MinecraftServer server = FMLCommonHandler.instance().getMinecraftServerInstance();
 
 		final Int2DoubleOpenHashMap map = new Int2DoubleOpenHashMap();
@@ -133,7 +147,7 @@ public final class ServiceManager extends Service {
 		final int max = (int) (Runtime.getRuntime().maxMemory() / 1024L / 1024L);
 		final int free = (int) (Runtime.getRuntime().freeMemory() / 1024L / 1024L);
 
-		final PacketServerData packet = new PacketServerData(map, meanTickTime, free, total, max);
+		final PacketServerData packet = new PacketServerData(map, meanTickTime, free, total, max, stats);
 		Network.sendToAll(packet);
 	}
 }
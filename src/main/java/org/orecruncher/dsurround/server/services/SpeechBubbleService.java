@@ -24,6 +24,10 @@
 
 package org.orecruncher.dsurround.server.services;
 
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
 import javax.annotation.Nonnull;
 
 import org.orecruncher.dsurround.ModOptions;
@@ -31,7 +35,9 @@ import org.orecruncher.dsurround.network.Locus;
 import org.orecruncher.dsurround.network.Network;
 import org.orecruncher.dsurround.network.PacketSpeechBubble;
 
+import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraftforge.event.ServerChatEvent;
+import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.eventhandler.EventPriority;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
@@ -41,12 +47,55 @@ public final class SpeechBubbleService extends Service {
 		super("SpeechBubbleService");
 	}
 
+	// Chat is picked up as it happens, which can be on a network thread, and
+	// relayed from the server tick under the budget. Senders are keyed by UUID
+	// so that respawning does not refill their bucket.
+	private final SpeechRelay<UUID, EntityPlayerMP> relay = new SpeechRelay<>(
+			() -> System.nanoTime() / 1000000L);
+
+	private final SpeechRelay.IOutput<UUID, EntityPlayerMP> output = new SpeechRelay.IOutput<UUID, EntityPlayerMP>() {
+		@Override
+		public void resolve(@Nonnull final UUID sender, @Nonnull final Consumer<EntityPlayerMP> sink) {
+			final EntityPlayerMP player = getPlayer(sender);
+			if (player != null)
+				Network.forEachAround(new Locus(player, ModOptions.speechbubbles.speechBubbleRange), sink);
+		}
+
+		@Override
+		public void send(@Nonnull final UUID sender, @Nonnull final String text,
+				@Nonnull final List<EntityPlayerMP> recipients) {
+			final EntityPlayerMP player = getPlayer(sender);
+			if (player != null) {
+				final PacketSpeechBubble packet = new PacketSpeechBubble(player, text);
+				for (int i = 0; i < recipients.size(); i++)
+					Network.sendToPlayer(recipients.get(i), packet);
+			}
+		}
+	};
+
+	private static EntityPlayerMP getPlayer(@Nonnull final UUID id) {
+		return FMLCommonHandler.instance().getMinecraftServerInstance().getPlayerList().getPlayerByUUID(id);
+	}
+
 	// Received when the server is processing a regular chat
 	// message - not a command, etc.
 	@SubscribeEvent(priority = EventPriority.LOWEST)
 	public void onChatMessageEvent(@Nonnull final ServerChatEvent event) {
-		final Locus point = new Locus(event.getPlayer(), ModOptions.speechbubbles.speechBubbleRange);
-		final PacketSpeechBubble packet = new PacketSpeechBubble(event.getPlayer(), event.getMessage());
-		Network.sendToAllAround(point, packet);
+		this.relay.submit(event.getPlayer().getPersistentID(), event.getMessage());
+	}
+
+	@Override
+	public void collectWork(@Nonnull final WorkScheduler.IWorkSink sink) {
+		if (this.relay.hasWork())
+			sink.add(this.relay, () -> this.relay.tick(
+					new SpeechRelay.Limits(ModOptions.speechbubbles.speechBubbleRate,
+							ModOptions.speechbubbles.speechBubbleBurst, ModOptions.speechbubbles.speechBubbleWindow,
+							ModOptions.speechbubbles.speechBubbleRecipientCap),
+					this.output));
+	}
+
+	@Override
+	public void fini() {
+		this.relay.clear();
 	}
 }
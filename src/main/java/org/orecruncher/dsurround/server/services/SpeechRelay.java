@@ -0,0 +1,237 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.server.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nonnull;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+/**
+ * Flood control for speech bubbles. Each sender has a token bucket that limits
+ * how fast their chat turns into bubbles, and chat that is accepted within a
+ * short window of the first message is coalesced into a single bubble.
+ * Recipients of a bubble are resolved once when it goes out, and no recipient
+ * is sent more than a set number of bubbles per tick.
+ *
+ * Messages can be submitted from any thread. Everything else happens on the
+ * thread calling tick(). The clock is supplied by the caller, in milliseconds,
+ * so the relay can be driven without a server.
+ *
+ * @param <S> Type identifying the sender
+ * @param <R> Type of the recipient
+ */
+public final class SpeechRelay<S, R> {
+
+	/**
+	 * Where the relay sends its output.
+	 */
+	public interface IOutput<S, R> {
+		/**
+		 * Hands each recipient in range of the sender to the sink. Not called if
+		 * the sender has nothing to send.
+		 */
+		void resolve(@Nonnull final S sender, @Nonnull final Consumer<R> sink);
+
+		/**
+		 * Sends the bubble text to the recipients. The list is only valid for the
+		 * duration of the call.
+		 */
+		void send(@Nonnull final S sender, @Nonnull final String text, @Nonnull final List<R> recipients);
+	}
+
+	/**
+	 * Settings for the relay, read at the start of each tick.
+	 */
+	public static final class Limits {
+		// Bubbles per second a sender earns
+		public final float rate;
+		// Bubbles a sender can send back to back
+		public final int burst;
+		// Milliseconds chat is collected before the bubble goes out
+		public final int window;
+		// Bubbles a recipient can be sent in a single tick
+		public final int recipientCap;
+
+		public Limits(final float rate, final int burst, final int window, final int recipientCap) {
+			this.rate = rate;
+			this.burst = Math.max(1, burst);
+			this.window = Math.max(0, window);
+			this.recipientCap = Math.max(1, recipientCap);
+		}
+	}
+
+	private static final class Submission<S> {
+		public final S sender;
+		public final String message;
+
+		public Submission(@Nonnull final S sender, @Nonnull final String message) {
+			this.sender = sender;
+			this.message = message;
+		}
+	}
+
+	private static final class Sender {
+		public float tokens;
+		public long lastRefill;
+		public long flushAt;
+		public final StringBuilder text = new StringBuilder();
+
+		public Sender(final int burst, final long now) {
+			this.tokens = burst;
+			this.lastRefill = now;
+		}
+	}
+
+	private final LongSupplier clock;
+	private final Queue<Submission<S>> incoming = new ConcurrentLinkedQueue<>();
+	private final Object2ObjectLinkedOpenHashMap<S, Sender> senders = new Object2ObjectLinkedOpenHashMap<>();
+	private final Reference2IntOpenHashMap<R> delivered = new Reference2IntOpenHashMap<>();
+	private final List<R> recipients = new ArrayList<>();
+
+	private int dropped;
+	private int capped;
+
+	public SpeechRelay(@Nonnull final LongSupplier clock) {
+		this.clock = clock;
+	}
+
+	/**
+	 * Queues chat from a sender. Safe to call from any thread.
+	 */
+	public void submit(@Nonnull final S sender, @Nonnull final String message) {
+		this.incoming.add(new Submission<>(sender, message));
+	}
+
+	/**
+	 * Indicates if there is chat waiting to be accepted or sent.
+	 */
+	public boolean hasWork() {
+		return !this.incoming.isEmpty() || !this.senders.isEmpty();
+	}
+
+	/**
+	 * Accepts queued chat against each sender's bucket and sends the bubbles
+	 * whose window has closed.
+	 */
+	public void tick(@Nonnull final Limits limits, @Nonnull final IOutput<S, R> output) {
+		final long now = this.clock.getAsLong();
+
+		Submission<S> sub;
+		while ((sub = this.incoming.poll()) != null) {
+			Sender s = this.senders.get(sub.sender);
+			if (s == null)
+				this.senders.put(sub.sender, s = new Sender(limits.burst, now));
+			refill(s, limits, now);
+			if (s.tokens < 1F) {
+				this.dropped++;
+				continue;
+			}
+			s.tokens -= 1F;
+			if (s.text.length() == 0)
+				s.flushAt = now + limits.window;
+			else
+				s.text.append('\n');
+			s.text.append(sub.message);
+		}
+
+		this.delivered.clear();
+		final ObjectIterator<Object2ObjectLinkedOpenHashMap.Entry<S, Sender>> itr = this.senders
+				.object2ObjectEntrySet().fastIterator();
+		while (itr.hasNext()) {
+			final Object2ObjectLinkedOpenHashMap.Entry<S, Sender> e = itr.next();
+			final Sender s = e.getValue();
+			if (s.text.length() > 0) {
+				if (now >= s.flushAt)
+					flush(e.getKey(), s, limits, output);
+			} else {
+				// Once a quiet sender's bucket is full again there is nothing
+				// to remember about them.
+				refill(s, limits, now);
+				if (s.tokens >= limits.burst)
+					itr.remove();
+			}
+		}
+	}
+
+	private void flush(@Nonnull final S sender, @Nonnull final Sender s, @Nonnull final Limits limits,
+			@Nonnull final IOutput<S, R> output) {
+		final String text = s.text.toString();
+		s.text.setLength(0);
+
+		this.recipients.clear();
+		output.resolve(sender, r -> {
+			final int count = this.delivered.getInt(r);
+			if (count < limits.recipientCap) {
+				this.delivered.put(r, count + 1);
+				this.recipients.add(r);
+			} else {
+				this.capped++;
+			}
+		});
+
+		if (!this.recipients.isEmpty())
+			output.send(sender, text, this.recipients);
+		this.recipients.clear();
+	}
+
+	private static void refill(@Nonnull final Sender s, @Nonnull final Limits limits, final long now) {
+		final long elapsed = now - s.lastRefill;
+		if (elapsed > 0) {
+			s.tokens = Math.min(limits.burst, s.tokens + elapsed * limits.rate / 1000F);
+			s.lastRefill = now;
+		}
+	}
+
+	/**
+	 * Number of messages dropped because the sender was out of tokens.
+	 */
+	public int getDropped() {
+		return this.dropped;
+	}
+
+	/**
+	 * Number of deliveries skipped because the recipient hit its cap.
+	 */
+	public int getCapped() {
+		return this.capped;
+	}
+
+	public void clear() {
+		this.incoming.clear();
+		this.senders.clear();
+		this.delivered.clear();
+		this.recipients.clear();
+	}
+
+}
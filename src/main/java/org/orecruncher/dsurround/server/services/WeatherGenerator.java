@@ -24,6 +24,7 @@
 
 package org.orecruncher.dsurround.server.services;
 
+import java.util.List;
 import java.util.Random;
 
 import javax.annotation.Nonnull;
@@ -32,26 +33,46 @@ import org.orecruncher.dsurround.ModBase;
 import org.orecruncher.dsurround.ModOptions;
 import org.orecruncher.dsurround.capabilities.CapabilityDimensionInfo;
 import org.orecruncher.dsurround.capabilities.dimension.IDimensionInfoEx;
+import org.orecruncher.dsurround.lib.StormField;
+import org.orecruncher.dsurround.network.Locus;
 import org.orecruncher.dsurround.network.Network;
+import org.orecruncher.dsurround.network.PacketStormCells;
 import org.orecruncher.dsurround.network.PacketThunder;
 import org.orecruncher.dsurround.network.PacketWeatherUpdate;
 import org.orecruncher.lib.PlayerUtils;
 import org.orecruncher.lib.random.XorShiftRandom;
 
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraft.world.storage.WorldInfo;
 
 public class WeatherGenerator {
 
+	// Range at which storm cells are sent to a player, and thunder is heard
+	// beyond the edge of the cell
+	protected static final double STORM_SEND_RANGE = 512D;
+	protected static final double THUNDER_RANGE = 256D;
+
 	protected final Random RANDOM = XorShiftRandom.current();
 	protected final World world;
 	protected final IDimensionInfoEx data;
 
+	// Updates can be deferred when the server is over its tick budget, so timers
+	// are advanced by the world time that passed since the last update.
+	protected int elapsed = 1;
+	private long lastUpdate = -1;
+
+	// Storm cells for the dimension. Only stepped when in use.
+	protected final StormField storms;
+	private double[] anchors = new double[16];
+	private boolean stormsStepped;
+
 	public WeatherGenerator(@Nonnull final World world) {
 		this.world = world;
 		this.data = (IDimensionInfoEx) CapabilityDimensionInfo.getCapability(world);
+		this.storms = new StormField(world.getSeed() * 31L + world.provider.getDimension());
 	}
 
 	@Nonnull
@@ -69,6 +90,14 @@ public class WeatherGenerator {
 		return this.RANDOM.nextInt(150) <= randee;
 	}
 
+	/**
+	 * Indicates whether rain and background thunder are driven by storm cells
+	 * rather than a single intensity for the whole dimension.
+	 */
+	protected boolean useStorms() {
+		return ModOptions.rain.enableStormCells;
+	}
+
 	protected WorldInfo worldInfo() {
 		return this.world.getWorldInfo();
 	}
@@ -119,22 +148,28 @@ public class WeatherGenerator {
 		// Gather the intensity for rain
 		final float intensity = this.data.getCurrentRainIntensity();
 
-		// If it is thundering and the intensity exceeds our threshold...
-		if (worldInfo().isThundering() && intensity >= ModOptions.rain.stormThunderThreshold) {
-			int time = this.data.getThunderTimer() - 1;
+		// If it is thundering and the intensity exceeds our threshold... Storm
+		// cells are checked against the threshold when one is picked.
+		if (worldInfo().isThundering() && (useStorms() || intensity >= ModOptions.rain.stormThunderThreshold)) {
+			final int last = this.data.getThunderTimer();
+			int time = last - this.elapsed;
 			if (time <= 0) {
-				// If it is 0 we just counted down to this. If it were
-				// the first time through it would be -1.
-				if (time == 0) {
-					// Get a random player in the dimension - they will be the
-					// locus of the event. Center it at build height above
-					// their head.
-					final EntityPlayer player = PlayerUtils.getRandomPlayer(this.world);
-					final float theY = this.data.getSkyHeight();
-					if (player != null) {
-						final PacketThunder packet = new PacketThunder(this.data.getId(), doFlash(intensity),
-								new BlockPos(player.posX, theY, player.posZ));
-						Network.sendToDimension(this.data.getId(), packet);
+				// If the timer was running we just counted down to this. If
+				// it were the first time through it would have been 0.
+				if (last > 0) {
+					if (useStorms()) {
+						stormThunder();
+					} else {
+						// Get a random player in the dimension - they will be the
+						// locus of the event. Center it at build height above
+						// their head.
+						final EntityPlayer player = PlayerUtils.getRandomPlayer(this.world);
+						final float theY = this.data.getSkyHeight();
+						if (player != null) {
+							final PacketThunder packet = new PacketThunder(this.data.getId(), doFlash(intensity),
+									new BlockPos(player.posX, theY, player.posZ));
+							Network.sendToDimension(this.data.getId(), packet);
+						}
 					}
 				}
 				// set new time
@@ -148,12 +183,51 @@ public class WeatherGenerator {
 		}
 	}
 
+	/*
+	 * Thunder comes from a storm cell, picked by its thunder chance, and is heard
+	 * by the players under and around it.
+	 */
+	private void stormThunder() {
+		final int cell = this.storms.pickThunderCell(this.RANDOM, ModOptions.rain.stormThunderThreshold);
+		if (cell < 0)
+			return;
+		final float radius = this.storms.getRadius(cell);
+		final double x = this.storms.getX(cell) + (this.RANDOM.nextFloat() - 0.5F) * radius;
+		final double z = this.storms.getZ(cell) + (this.RANDOM.nextFloat() - 0.5F) * radius;
+		final float theY = this.data.getSkyHeight();
+		final PacketThunder packet = new PacketThunder(this.data.getId(), doFlash(this.storms.getLevel(cell)),
+				new BlockPos(x, theY, z));
+		Network.sendToAllAround(new Locus(this.data.getId(), x, theY, z, radius + THUNDER_RANGE), packet);
+	}
+
+	protected void doStorms() {
+		this.stormsStepped = false;
+		if (!useStorms())
+			return;
+
+		final List<EntityPlayer> players = this.world.playerEntities;
+		if (this.anchors.length < players.size() * 2)
+			this.anchors = new double[players.size() * 2];
+		for (int i = 0; i < players.size(); i++) {
+			final EntityPlayer player = players.get(i);
+			this.anchors[i * 2] = player.posX;
+			this.anchors[i * 2 + 1] = player.posZ;
+		}
+
+		this.storms.setStrengthRange(this.data.getMinRainIntensity(), this.data.getMaxRainIntensity());
+		this.stormsStepped = this.storms.advance(this.elapsed, worldInfo().isRaining(), this.anchors,
+				players.size()) > 0;
+	}
+
 	protected void postProcess() {
 		// Hook for sub-classes to do processing after the main routines
 		// execute.
 	}
 
 	public final void update() {
+		final long now = this.world.getTotalWorldTime();
+		this.elapsed = this.lastUpdate < 0 ? 1 : (int) Math.max(1L, Math.min(now - this.lastUpdate, 1200L));
+		this.lastUpdate = now;
 		process();
 		sendUpdate();
 	}
@@ -161,6 +235,7 @@ public class WeatherGenerator {
 	protected void process() {
 		preProcess();
 		doRain();
+		doStorms();
 		doAmbientThunder();
 		postProcess();
 	}
@@ -172,6 +247,22 @@ public class WeatherGenerator {
 					this.data.getCurrentRainIntensity(), this.data.getRainIntensity(), worldInfo().getRainTime(),
 					this.world.getThunderStrength(1.0F), worldInfo().getThunderTime(), this.data.getThunderTimer());
 			Network.sendToDimension(this.data.getId(), packet);
+
+			// Each player gets the storm cells around them once a step
+			if (this.stormsStepped)
+				sendStorms();
+		}
+	}
+
+	private void sendStorms() {
+		final List<EntityPlayer> players = this.world.playerEntities;
+		for (int i = 0; i < players.size(); i++) {
+			final EntityPlayer player = players.get(i);
+			if (player instanceof EntityPlayerMP) {
+				final PacketStormCells packet = new PacketStormCells(this.data.getId());
+				this.storms.forEachNear(player.posX, player.posZ, STORM_SEND_RANGE, packet::add);
+				Network.sendToPlayer((EntityPlayerMP) player, packet);
+			}
 		}
 	}
 }
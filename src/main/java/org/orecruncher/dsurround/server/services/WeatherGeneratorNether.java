@@ -51,6 +51,11 @@ public class WeatherGeneratorNether extends WeatherGenerator {
 		return "NETHER";
 	}
 
+	@Override
+	protected boolean useStorms() {
+		return false;
+	}
+
 	// Need to manually turn the crank on the Nether since
 	// it has no sky
 	@Override
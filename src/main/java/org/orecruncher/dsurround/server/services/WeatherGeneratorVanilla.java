@@ -40,6 +40,11 @@ public class WeatherGeneratorVanilla extends WeatherGenerator {
 		return "VANILLA";
 	}
 
+	@Override
+	protected boolean useStorms() {
+		return false;
+	}
+
 	@Override
 	protected void doRain() {
 		// For vanilla just transcribe what vanilla is doing
@@ -0,0 +1,251 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.server.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nonnull;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
+
+/**
+ * Runs units of work submitted by the services under a per tick time budget.
+ * Units are keyed so a service that submits work for the same key every tick
+ * (a player, a world) only ever has one unit pending for it; resubmitting
+ * replaces the work but keeps its place in line. Queues are serviced one unit
+ * at a time in round-robin order, and the next tick picks up with the queue
+ * after the last one that ran, so leftover work is spread fairly when the
+ * budget is tight. At least one unit runs each tick so work always drains.
+ *
+ * The clock is supplied by the caller so the scheduling can be driven without
+ * a server.
+ */
+public final class WorkScheduler {
+
+	/**
+	 * Receives units of work from a service.
+	 */
+	public interface IWorkSink {
+		/**
+		 * Queues work to run. If work for the key is already pending it is
+		 * replaced.
+		 *
+		 * @param key  Identity of the unit, such as the player or world it is for
+		 * @param work The work to perform
+		 */
+		void add(@Nonnull final Object key, @Nonnull final Runnable work);
+	}
+
+	/**
+	 * Scheduling statistics for a queue since the last snapshot.
+	 */
+	public static final class Stats {
+		public final String name;
+		public final int units;
+		public final int pending;
+		public final int starved;
+		public final float meanLatency;
+		public final int maxLatency;
+		public final float meanMicros;
+
+		public Stats(@Nonnull final String name, final int units, final int pending, final int starved,
+				final float meanLatency, final int maxLatency, final float meanMicros) {
+			this.name = name;
+			this.units = units;
+			this.pending = pending;
+			this.starved = starved;
+			this.meanLatency = meanLatency;
+			this.maxLatency = maxLatency;
+			this.meanMicros = meanMicros;
+		}
+	}
+
+	private static final class Unit {
+		Runnable work;
+		final int queued;
+
+		Unit(@Nonnull final Runnable work, final int queued) {
+			this.work = work;
+			this.queued = queued;
+		}
+	}
+
+	private final class Queue implements IWorkSink {
+		final String name;
+		final Reference2ObjectLinkedOpenHashMap<Object, Unit> pending = new Reference2ObjectLinkedOpenHashMap<>();
+		boolean ran;
+
+		// Stats since the last snapshot
+		int units;
+		int starved;
+		long latency;
+		int maxLatency;
+		long nanos;
+
+		Queue(@Nonnull final String name) {
+			this.name = name;
+		}
+
+		@Override
+		public void add(@Nonnull final Object key, @Nonnull final Runnable work) {
+			final Unit unit = this.pending.get(key);
+			if (unit != null)
+				unit.work = work;
+			else
+				this.pending.put(key, new Unit(work, WorkScheduler.this.tick));
+		}
+
+		void runOne() {
+			final Unit unit = this.pending.removeFirst();
+			final long start = WorkScheduler.this.clock.getAsLong();
+			unit.work.run();
+			this.nanos += WorkScheduler.this.clock.getAsLong() - start;
+			final int wait = WorkScheduler.this.tick - unit.queued;
+			this.latency += wait;
+			if (wait > this.maxLatency)
+				this.maxLatency = wait;
+			this.units++;
+			this.ran = true;
+		}
+
+		@Nonnull
+		Stats snapshot() {
+			final Stats stats = new Stats(this.name, this.units, this.pending.size(), this.starved,
+					this.units == 0 ? 0F : (float) this.latency / this.units, this.maxLatency,
+					this.units == 0 ? 0F : this.nanos / 1000F / this.units);
+			this.units = 0;
+			this.starved = 0;
+			this.latency = 0;
+			this.maxLatency = 0;
+			this.nanos = 0;
+			return stats;
+		}
+	}
+
+	private final LongSupplier clock;
+	private final List<Queue> queues = new ArrayList<>();
+	private int next;
+	private int tick;
+
+	/**
+	 * @param clock Source of time in nanoseconds
+	 */
+	public WorkScheduler(@Nonnull final LongSupplier clock) {
+		this.clock = clock;
+	}
+
+	/**
+	 * Adds a queue. Queues are serviced in the order they are added.
+	 *
+	 * @param name Name used when reporting stats
+	 * @return The sink used to submit work to the queue
+	 */
+	@Nonnull
+	public IWorkSink addQueue(@Nonnull final String name) {
+		final Queue queue = new Queue(name);
+		this.queues.add(queue);
+		return queue;
+	}
+
+	/**
+	 * Removes all queues and pending work.
+	 */
+	public void clear() {
+		this.queues.clear();
+		this.next = 0;
+	}
+
+	/**
+	 * The current tick. Work added is stamped with this tick for latency
+	 * tracking.
+	 */
+	public int getTick() {
+		return this.tick;
+	}
+
+	public int getPending() {
+		int result = 0;
+		for (final Queue q : this.queues)
+			result += q.pending.size();
+		return result;
+	}
+
+	/**
+	 * Runs pending work until the budget is spent or there is nothing left, then
+	 * moves on to the next tick.
+	 *
+	 * @param budgetNanos Time budget for the tick in nanoseconds
+	 * @return The number of units that ran
+	 */
+	public int run(final long budgetNanos) {
+		final int count = this.queues.size();
+		int ran = 0;
+
+		if (count > 0) {
+			for (final Queue q : this.queues)
+				q.ran = false;
+
+			final long start = this.clock.getAsLong();
+			int idx = this.next % count;
+			int idle = 0;
+			// Walk the queues in a circle until a full lap finds nothing to do or the
+			// budget is gone.
+			while (idle < count) {
+				final Queue q = this.queues.get(idx);
+				idx = (idx + 1) % count;
+				if (q.pending.isEmpty()) {
+					idle++;
+					continue;
+				}
+				if (ran > 0 && this.clock.getAsLong() - start >= budgetNanos)
+					break;
+				q.runOne();
+				ran++;
+				idle = 0;
+				this.next = idx;
+			}
+
+			for (final Queue q : this.queues)
+				if (!q.ran && !q.pending.isEmpty())
+					q.starved++;
+		}
+
+		this.tick++;
+		return ran;
+	}
+
+	/**
+	 * Gathers the stats for each queue and starts a new collection window.
+	 */
+	@Nonnull
+	public List<Stats> snapshot() {
+		final List<Stats> result = new ArrayList<>(this.queues.size());
+		for (final Queue q : this.queues)
+			result.add(q.snapshot());
+		return result;
+	}
+
+}
@@ -0,0 +1,138 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.replay;
+
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.dsurround.client.fx.particle.DripModel;
+import org.orecruncher.dsurround.lib.TimingWheel;
+
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IBlockAccess;
+
+/**
+ * Spawns drips from cave ceilings around the player the same way the liquid
+ * display ticks do, and plays their impacts through the landing prediction and
+ * impact rules ParticleDripOverride uses. The particle itself cannot be run
+ * headless since it needs a World.
+ */
+public final class DripReplayTarget implements IReplayTarget {
+
+	private static final int ATTEMPTS = 16;
+	private static final int RANGE_XZ = 16;
+	private static final int RANGE_Y = 8;
+	// Particle gravity set by ParticleDrip
+	private static final double GRAVITY = 0.06D;
+
+	private static final class Drip {
+		final double x;
+		final double z;
+		final DripModel.Landing landing;
+
+		Drip(final double x, final double z, @Nonnull final DripModel.Landing landing) {
+			this.x = x;
+			this.z = z;
+			this.landing = landing;
+		}
+	}
+
+	private TimingWheel<Drip> pending;
+
+	@Override
+	@Nonnull
+	public String getName() {
+		return "drips";
+	}
+
+	@Override
+	public void start(@Nonnull final ReplayContext ctx) {
+		this.pending = new TimingWheel<>(ctx.getTick());
+	}
+
+	@Override
+	public void tick(@Nonnull final ReplayContext ctx) {
+		final IBlockAccess world = ctx.getWorld();
+
+		this.pending.advance(ctx.getTick(), drip -> impact(ctx, drip));
+
+		final BlockPos player = ctx.getPlayerPosition();
+		final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+		for (int i = 0; i < ATTEMPTS; i++) {
+			pos.setPos(player.getX() + ctx.getRandom().nextInt(RANGE_XZ * 2 + 1) - RANGE_XZ,
+					player.getY() + ctx.getRandom().nextInt(RANGE_Y * 2 + 1) - RANGE_Y,
+					player.getZ() + ctx.getRandom().nextInt(RANGE_XZ * 2 + 1) - RANGE_XZ);
+			final IBlockState ceiling = world.getBlockState(pos);
+			if (ceiling.getMaterial() != Material.ROCK)
+				continue;
+			pos.setY(pos.getY() - 1);
+			if (!DripModel.isPassable(world, pos, world.getBlockState(pos)))
+				continue;
+
+			final double x = pos.getX() + ctx.getRandom().nextDouble();
+			final double y = pos.getY() + 0.95D;
+			final double z = pos.getZ() + ctx.getRandom().nextDouble();
+			final int maxAge = (int) (64.0D / (ctx.getRandom().nextDouble() * 0.8D + 0.2D));
+			ctx.particle("drip", x, y, z);
+
+			final DripModel.Landing landing = DripModel.findLanding(world, x, y, z);
+			if (landing == null)
+				continue;
+			final int impact = DripModel.impactTick(y, 0, DripModel.BOB_TICKS, GRAVITY, landing.surface, maxAge + 1);
+			if (impact > 0)
+				this.pending.schedule(ctx.getTick() + impact, null, new Drip(x, z, landing));
+		}
+	}
+
+	private static void impact(@Nonnull final ReplayContext ctx, @Nonnull final Drip drip) {
+		// Ceiling drips are water
+		final IBlockState state = drip.landing.state;
+		final String sound = DripModel.getImpactSound(Material.WATER, state).name().toLowerCase(Locale.ROOT);
+		final BlockPos pos = drip.landing.pos.up();
+		ctx.sound(sound, pos.getX() + 0.5D, pos.getY() + 0.5D, pos.getZ() + 0.5D, 1.0F);
+
+		switch (DripModel.getImpactEffect(state)) {
+		case STEAM:
+			ctx.particle("steam", drip.x, drip.landing.surface, drip.z);
+			break;
+		case RIPPLE:
+			ctx.particle("ripple", drip.x, drip.landing.surface, drip.z);
+			ctx.particle("splash", drip.x, drip.landing.surface, drip.z);
+			break;
+		default:
+			ctx.particle("splash", drip.x, drip.landing.surface, drip.z);
+			break;
+		}
+	}
+
+	@Override
+	public void finish(@Nonnull final ReplayContext ctx) {
+		ctx.event("pending " + this.pending.size());
+		this.pending.clear();
+	}
+
+}
@@ -0,0 +1,291 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.replay;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.orecruncher.dsurround.client.footsteps.AcousticResolver;
+import org.orecruncher.dsurround.client.footsteps.FootStrikeLocation;
+import org.orecruncher.dsurround.client.footsteps.Generator;
+import org.orecruncher.dsurround.client.footsteps.SoundPlayer;
+import org.orecruncher.dsurround.registry.acoustics.AcousticRegistry;
+import org.orecruncher.dsurround.registry.acoustics.EventType;
+import org.orecruncher.dsurround.registry.acoustics.IAcoustic;
+import org.orecruncher.dsurround.registry.acoustics.IOptions;
+import org.orecruncher.dsurround.registry.acoustics.ISoundPlayer;
+import org.orecruncher.dsurround.registry.footstep.BlockMap;
+import org.orecruncher.dsurround.registry.footstep.Substrate;
+import org.orecruncher.dsurround.registry.footstep.Variator;
+import org.orecruncher.lib.chunk.IBlockAccessEx;
+import org.orecruncher.lib.collections.ObjectArray;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.init.Blocks;
+import net.minecraft.inventory.EntityEquipmentSlot;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.EnumHandSide;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+
+/**
+ * Runs the footstep Generator over the trace player. The generator is the
+ * production one, with its world, clock and output redirected through its
+ * hooks: blocks come from the synthetic world, time advances 50ms a tick, and
+ * acoustics are recorded rather than played.
+ *
+ * Some of what the generator normally consults needs the registries or a
+ * running client, so it is stood in for:
+ * <ul>
+ * <li>Each block gets a single acoustic named after the block. There are no
+ * carpet, fence or foliage substrates, and liquids do not emit.</li>
+ * <li>The trace has no on ground flag. The player is on the ground when it is
+ * not moving vertically, and builds up fall distance while it is.</li>
+ * <li>Accents, footprints and swimming are left out. The player is never in
+ * water.</li>
+ * </ul>
+ */
+public final class GeneratorReplayTarget implements IReplayTarget {
+
+	private static final long MILLIS_PER_TICK = 50L;
+
+	private ReplayPlayer player;
+	private ReplayGenerator generator;
+
+	@Override
+	@Nonnull
+	public String getName() {
+		return "footsteps";
+	}
+
+	@Override
+	public void start(@Nonnull final ReplayContext ctx) {
+		// Twice so the previous position is the first frame and not the origin
+		this.player = new ReplayPlayer();
+		this.player.update(ctx.getFrame());
+		this.player.update(ctx.getFrame());
+		this.generator = new ReplayGenerator(ctx);
+	}
+
+	@Override
+	public void tick(@Nonnull final ReplayContext ctx) {
+		this.player.update(ctx.getFrame());
+		this.generator.generateFootsteps(this.player);
+	}
+
+	@Override
+	public void finish(@Nonnull final ReplayContext ctx) {
+		ctx.event(String.format(Locale.ROOT, "pedometer %d", this.generator.getPedometer()));
+	}
+
+	/*
+	 * The production generator with its world, clock and sound output pointed at
+	 * the replay.
+	 */
+	private static final class ReplayGenerator extends Generator {
+
+		private final ReplayContext ctx;
+
+		ReplayGenerator(@Nonnull final ReplayContext ctx) {
+			super(new Variator(), new ReplayBlockMap(), new ReplaySoundPlayer(ctx));
+			this.ctx = ctx;
+		}
+
+		@Override
+		@Nonnull
+		protected IBlockAccessEx getWorld() {
+			return this.ctx.getWorld();
+		}
+
+		@Override
+		protected long currentTimeMillis() {
+			return this.ctx.getTick() * MILLIS_PER_TICK;
+		}
+
+		@Override
+		protected void updateStepDistance(@Nonnull final EntityLivingBase entity) {
+			// No vanilla step sounds to suppress
+		}
+
+		@Override
+		@Nonnull
+		protected AcousticResolver createResolver(@Nonnull final FootStrikeLocation loc) {
+			// Facades need the mods that provide them
+			return new AcousticResolver(getWorld(), this.blockMap, loc, this.VAR.DISTANCE_TO_CENTER) {
+				@Override
+				protected IBlockState getBlockStateFacade(@Nonnull final Vec3d pos) {
+					return getBlockState(pos);
+				}
+			};
+		}
+
+		@Override
+		protected boolean shouldProducePrint(@Nonnull final EntityLivingBase entity) {
+			return false;
+		}
+
+		@Override
+		protected void provideAccents(@Nonnull final EntityLivingBase entity, @Nullable final BlockPos pos,
+				@Nonnull final ObjectArray<IAcoustic> accents) {
+			// Armor and rain splash accents need the registries
+		}
+	}
+
+	/*
+	 * Records the acoustics the generator asks for instead of running their
+	 * programs.
+	 */
+	private static final class ReplaySoundPlayer extends SoundPlayer {
+
+		private final ReplayContext ctx;
+
+		ReplaySoundPlayer(@Nonnull final ReplayContext ctx) {
+			super(1.0F);
+			this.ctx = ctx;
+		}
+
+		@Override
+		public void playAcoustic(@Nonnull final Vec3d location, @Nullable final IAcoustic[] acoustics,
+				@Nonnull final EventType event, @Nullable final IOptions inputOptions) {
+			if (acoustics == null || acoustics.length == 0)
+				return;
+			final String names = Arrays.stream(acoustics).map(IAcoustic::getName).collect(Collectors.joining(","));
+			this.ctx.event(String.format(Locale.ROOT, "acoustic %s %s %.2f %.2f %.2f",
+					event.name().toLowerCase(Locale.ROOT), names, location.x, location.y, location.z));
+		}
+	}
+
+	/*
+	 * Gives each block an acoustic named after it.
+	 */
+	private static final class ReplayBlockMap extends BlockMap {
+
+		private final Reference2ObjectOpenHashMap<Block, IAcoustic[]> acoustics = new Reference2ObjectOpenHashMap<>();
+
+		@Override
+		public boolean hasAcoustics(@Nonnull final IBlockState state) {
+			return getBlockAcoustics(state) != AcousticRegistry.NOT_EMITTER;
+		}
+
+		@Override
+		@Nonnull
+		public IAcoustic[] getBlockAcoustics(@Nonnull final IBlockState state, @Nullable final Substrate substrate) {
+			if (substrate != null)
+				return AcousticRegistry.EMPTY;
+			if (state == Blocks.AIR.getDefaultState() || state.getMaterial().isLiquid())
+				return AcousticRegistry.NOT_EMITTER;
+			return this.acoustics.computeIfAbsent(state.getBlock(),
+					block -> new IAcoustic[] { new ReplayAcoustic(String.valueOf(block.getRegistryName())) });
+		}
+	}
+
+	private static final class ReplayAcoustic implements IAcoustic {
+
+		private final String name;
+
+		ReplayAcoustic(@Nonnull final String name) {
+			this.name = name;
+		}
+
+		@Override
+		@Nonnull
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public void playSound(@Nonnull final ISoundPlayer player, @Nonnull final Vec3d location,
+				@Nullable final EventType event, @Nullable final IOptions inputOptions) {
+			// Recorded by ReplaySoundPlayer
+		}
+	}
+
+	/*
+	 * The trace player. Has no world; everything the generator reads is set from
+	 * the trace frame.
+	 */
+	private static final class ReplayPlayer extends EntityLivingBase {
+
+		ReplayPlayer() {
+			super(null);
+		}
+
+		void update(@Nonnull final TraceFrame frame) {
+			this.prevPosX = this.posX;
+			this.prevPosY = this.posY;
+			this.prevPosZ = this.posZ;
+			setPosition(frame.x, frame.y, frame.z);
+			this.motionX = frame.motionX;
+			this.motionY = frame.motionY;
+			this.motionZ = frame.motionZ;
+			this.rotationYaw = frame.yaw;
+			this.rotationPitch = frame.pitch;
+
+			this.onGround = frame.motionY == 0;
+			this.isAirBorne = !this.onGround;
+			this.isJumping = frame.motionY > 0;
+			if (this.onGround)
+				this.fallDistance = 0;
+			else if (frame.motionY < 0)
+				this.fallDistance -= frame.motionY;
+		}
+
+		@Override
+		public boolean isOnLadder() {
+			return false;
+		}
+
+		@Override
+		@Nonnull
+		public Iterable<ItemStack> getArmorInventoryList() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		@Nonnull
+		public ItemStack getItemStackFromSlot(@Nonnull final EntityEquipmentSlot slot) {
+			return ItemStack.EMPTY;
+		}
+
+		@Override
+		public void setItemStackToSlot(@Nonnull final EntityEquipmentSlot slot, @Nonnull final ItemStack stack) {
+		}
+
+		@Override
+		@Nonnull
+		public EnumHandSide getPrimaryHand() {
+			return EnumHandSide.RIGHT;
+		}
+	}
+
+}
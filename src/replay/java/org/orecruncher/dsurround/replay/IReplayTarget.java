@@ -0,0 +1,60 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.replay;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A piece of client side logic the replay harness drives once per trace tick.
+ * Targets get their own context and random source so adding or reordering
+ * targets does not change what any other target records.
+ */
+public interface IReplayTarget {
+
+	/**
+	 * Name used to tag the target's events and timings in the report.
+	 */
+	@Nonnull
+	String getName();
+
+	/**
+	 * Called once before the first tick.
+	 */
+	default void start(@Nonnull final ReplayContext ctx) {
+
+	}
+
+	/**
+	 * Called once per tick with the trace frame in effect for that tick.
+	 */
+	void tick(@Nonnull final ReplayContext ctx);
+
+	/**
+	 * Called once after the last tick.
+	 */
+	default void finish(@Nonnull final ReplayContext ctx) {
+
+	}
+
+}
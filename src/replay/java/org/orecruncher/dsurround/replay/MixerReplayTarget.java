@@ -0,0 +1,107 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.replay;
+
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.dsurround.client.sound.MixerGraph;
+import org.orecruncher.dsurround.client.sound.MixerLayout;
+import org.orecruncher.dsurround.registry.config.DuckingConfig;
+
+/**
+ * Runs the ducking rules from the core config pack through the mixer graph.
+ * Thunder claps are rolled from the trace weather and feed the sound trigger;
+ * the gain of every bus is recorded whenever it moves.
+ *
+ * SoundMixer itself cannot be loaded headless, but the graph is built from the
+ * same MixerLayout it uses.
+ */
+public final class MixerReplayTarget implements IReplayTarget {
+
+	private static final String THUNDER = "dsurround:thunder";
+	private static final String TRIGGER_THUNDER = "sound:" + THUNDER;
+	private static final int THUNDER_CHANCE = 120;
+	private static final int THUNDER_TICKS = 60;
+	private static final float MIN_VOLUME_SCALE = 0.001F;
+
+	private final MixerGraph graph = MixerLayout.build();
+	private int[] recorded;
+	private int thunderUntil;
+
+	@Override
+	@Nonnull
+	public String getName() {
+		return "mixer";
+	}
+
+	@Override
+	public void start(@Nonnull final ReplayContext ctx) {
+		this.recorded = new int[this.graph.size()];
+		for (int i = 0; i < this.recorded.length; i++)
+			this.recorded[i] = quantize(this.graph.getGain(i));
+
+		for (final DuckingConfig rule : ctx.getCoreConfig().ducking) {
+			if (rule.trigger == null)
+				continue;
+			if (!this.graph.addRule(rule.trigger, rule.duck, Math.max(rule.gain, MIN_VOLUME_SCALE), rule.attack,
+					rule.release))
+				ctx.event("bad-rule " + rule.trigger);
+		}
+		ctx.event(String.format(Locale.ROOT, "rules %d buses %d", this.graph.ruleCount(), this.graph.size()));
+		this.thunderUntil = ctx.getTick();
+	}
+
+	@Override
+	public void tick(@Nonnull final ReplayContext ctx) {
+		final int tick = ctx.getTick();
+		final TraceFrame frame = ctx.getFrame();
+		if (frame.isThundering() && tick - this.thunderUntil >= 0
+				&& ctx.getRandom().nextInt(THUNDER_CHANCE) == 0) {
+			this.thunderUntil = tick + THUNDER_TICKS;
+			ctx.sound(THUNDER, frame.x + ctx.getRandom().nextInt(64) - 32, frame.y + 32,
+					frame.z + ctx.getRandom().nextInt(64) - 32, 1.0F);
+		}
+
+		final boolean thundering = tick - this.thunderUntil < 0;
+		if (!this.graph.update(trigger -> thundering && TRIGGER_THUNDER.equals(trigger)))
+			return;
+
+		for (int i = 0; i < this.recorded.length; i++) {
+			if (!this.graph.isChanged(i))
+				continue;
+			final int q = quantize(this.graph.getGain(i));
+			if (q != this.recorded[i]) {
+				this.recorded[i] = q;
+				ctx.event(String.format(Locale.ROOT, "gain %s %.3f", this.graph.getName(i), q / 1000F));
+			}
+		}
+	}
+
+	private static int quantize(final float gain) {
+		return Math.round(gain * 1000F);
+	}
+
+}
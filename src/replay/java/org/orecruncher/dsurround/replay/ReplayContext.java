@@ -0,0 +1,129 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.replay;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.dsurround.registry.config.ModConfiguration;
+import org.orecruncher.lib.chunk.IBlockAccessEx;
+
+import com.google.gson.Gson;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * State handed to a replay target each tick. Anything the target wants in the
+ * report goes through here so it is tagged with the tick and target name.
+ */
+public final class ReplayContext {
+
+	private static final String CONFIG = "/assets/dsurround/dsurround/data/mcp.json";
+
+	private final String target;
+	private final SyntheticWorld world;
+	private final Random random;
+	private final ReplayRecorder recorder;
+
+	private int tick;
+	private TraceFrame frame;
+
+	ReplayContext(@Nonnull final String target, @Nonnull final SyntheticWorld world, @Nonnull final Random random,
+			@Nonnull final ReplayRecorder recorder) {
+		this.target = target;
+		this.world = world;
+		this.random = random;
+		this.recorder = recorder;
+	}
+
+	void update(final int tick, @Nonnull final TraceFrame frame) {
+		this.tick = tick;
+		this.frame = frame;
+	}
+
+	@Nonnull
+	public IBlockAccessEx getWorld() {
+		return this.world;
+	}
+
+	@Nonnull
+	public Random getRandom() {
+		return this.random;
+	}
+
+	public int getTick() {
+		return this.tick;
+	}
+
+	@Nonnull
+	public TraceFrame getFrame() {
+		return this.frame;
+	}
+
+	@Nonnull
+	public BlockPos getPlayerPosition() {
+		return new BlockPos(this.frame.x, this.frame.y, this.frame.z);
+	}
+
+	/**
+	 * Loads the core config pack shipped with the mod. If it is not on the class
+	 * path the miss is recorded and an empty configuration is returned.
+	 */
+	@Nonnull
+	public ModConfiguration getCoreConfig() {
+		try (final InputStream stream = ReplayContext.class.getResourceAsStream(CONFIG)) {
+			if (stream == null) {
+				event("missing " + CONFIG);
+				return new ModConfiguration();
+			}
+			try (final Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+				return new Gson().fromJson(reader, ModConfiguration.class);
+			}
+		} catch (final IOException ex) {
+			throw new IllegalStateException("Unable to read " + CONFIG, ex);
+		}
+	}
+
+	public void sound(@Nonnull final String sound, final double x, final double y, final double z,
+			final float volume) {
+		this.recorder.record(this.tick, this.target,
+				String.format(Locale.ROOT, "sound %s %.2f %.2f %.2f v=%.3f", sound, x, y, z, volume));
+	}
+
+	public void particle(@Nonnull final String type, final double x, final double y, final double z) {
+		this.recorder.record(this.tick, this.target, String.format(Locale.ROOT, "particle %s %.2f %.2f %.2f", type, x, y, z));
+	}
+
+	public void event(@Nonnull final String text) {
+		this.recorder.record(this.tick, this.target, text);
+	}
+
+}
@@ -0,0 +1,146 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.replay;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.lib.random.XorShiftRandom;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.init.Bootstrap;
+
+/**
+ * Replays a recorded player trace against the synthetic world without a
+ * client. Each target is ticked once per trace tick, from the first frame to
+ * the last, and everything it does is written to a report that can be diffed
+ * against a report from another commit.
+ *
+ * <pre>
+ * ReplayHarness &lt;trace&gt; &lt;seed&gt; &lt;report&gt; [--no-timing]
+ * </pre>
+ *
+ * Normally run through the Gradle "replay" task.
+ */
+public final class ReplayHarness {
+
+	private final ReplayTrace trace;
+	private final long seed;
+	private final SyntheticWorld world;
+	private final ReplayRecorder recorder = new ReplayRecorder();
+	private final List<IReplayTarget> targets = new ObjectArrayList<>();
+	private final List<ReplayContext> contexts = new ObjectArrayList<>();
+
+	public ReplayHarness(@Nonnull final ReplayTrace trace, final long seed) {
+		this.trace = trace;
+		this.seed = seed;
+		this.world = new SyntheticWorld(seed);
+	}
+
+	@Nonnull
+	public ReplayHarness add(@Nonnull final IReplayTarget target) {
+		// Each target gets its own random stream so they do not perturb each other
+		final Random random = new XorShiftRandom();
+		random.setSeed(this.seed ^ target.getName().hashCode());
+		this.targets.add(target);
+		this.contexts.add(new ReplayContext(target.getName(), this.world, random, this.recorder));
+		return this;
+	}
+
+	@Nonnull
+	public ReplayRecorder run() {
+		final List<TraceFrame> frames = this.trace.getFrames();
+		if (frames.isEmpty())
+			return this.recorder;
+
+		final int first = this.trace.getFirstTick();
+		final int last = this.trace.getLastTick();
+
+		for (final ReplayContext ctx : this.contexts)
+			ctx.update(first, frames.get(0));
+		for (int i = 0; i < this.targets.size(); i++)
+			this.targets.get(i).start(this.contexts.get(i));
+
+		int next = 0;
+		TraceFrame frame = frames.get(0);
+		for (int tick = first; tick <= last; tick++) {
+			// Hold the last frame across any gap in the trace
+			while (next < frames.size() && frames.get(next).tick <= tick)
+				frame = frames.get(next++);
+
+			for (int i = 0; i < this.targets.size(); i++) {
+				final IReplayTarget target = this.targets.get(i);
+				final ReplayContext ctx = this.contexts.get(i);
+				ctx.update(tick, frame);
+				final long start = System.nanoTime();
+				target.tick(ctx);
+				this.recorder.time(target.getName(), System.nanoTime() - start);
+			}
+		}
+
+		for (int i = 0; i < this.targets.size(); i++)
+			this.targets.get(i).finish(this.contexts.get(i));
+
+		return this.recorder;
+	}
+
+	public static void main(@Nonnull final String[] args) throws IOException {
+		if (args.length < 3) {
+			System.err.println("Usage: ReplayHarness <trace> <seed> <report> [--no-timing]");
+			System.exit(1);
+		}
+
+		final Path tracePath = Paths.get(args[0]);
+		final long seed = Long.parseLong(args[1]);
+		final Path reportPath = Paths.get(args[2]);
+		final boolean timing = !(args.length > 3 && "--no-timing".equals(args[3]));
+
+		// Blocks, biomes and the rest of the vanilla registries
+		Bootstrap.register();
+
+		final ReplayTrace trace = ReplayTrace.load(tracePath);
+		final ReplayRecorder recorder = new ReplayHarness(trace, seed).add(new ScannerReplayTarget())
+				.add(new GeneratorReplayTarget()).add(new DripReplayTarget()).add(new VoiceReplayTarget())
+				.add(new MixerReplayTarget()).run();
+
+		if (reportPath.getParent() != null)
+			Files.createDirectories(reportPath.getParent());
+		try (final Writer writer = Files.newBufferedWriter(reportPath, StandardCharsets.UTF_8)) {
+			recorder.write(writer, trace, seed, timing);
+		}
+
+		System.out.println(String.format("Replayed %d ticks of %s; %d events written to %s",
+				trace.getLastTick() - trace.getFirstTick() + 1, trace.getName(), recorder.getEventCount(),
+				reportPath));
+	}
+
+}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.replay;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.dsurround.lib.scanner.ScanLocus;
+import org.orecruncher.lib.chunk.IBlockAccessEx;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Scan locus that follows the player position of the trace frame currently in
+ * effect, the way ClientPlayerLocus follows the live player.
+ */
+public final class ReplayLocus extends ScanLocus {
+
+	private final ReplayContext ctx;
+
+	public ReplayLocus(@Nonnull final ReplayContext ctx) {
+		this.ctx = ctx;
+	}
+
+	@Override
+	@Nonnull
+	public IBlockAccessEx getWorld() {
+		return this.ctx.getWorld();
+	}
+
+	@Override
+	public BlockPos getCenter() {
+		return this.ctx.getPlayerPosition();
+	}
+
+}
@@ -0,0 +1,128 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.replay;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.Nonnull;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * Collects what the replay targets did and writes it out as a report. The
+ * report has three sections:
+ *
+ * <pre>
+ * [summary]  event counts per target and kind
+ * [events]   every event in tick order
+ * [timing]   per target tick timings
+ * </pre>
+ *
+ * Everything but the timing section is a pure function of the trace and the
+ * seed, so two reports can be diffed directly. Timings are last so they can
+ * be cut off, or left out entirely, when only behavior is being compared.
+ */
+public final class ReplayRecorder {
+
+	private final List<String> events = new ObjectArrayList<>();
+	private final Map<String, Object2IntOpenHashMap<String>> counts = new TreeMap<>();
+	private final Map<String, LongArrayList> timings = new LinkedHashMap<>();
+
+	void record(final int tick, @Nonnull final String target, @Nonnull final String text) {
+		this.events.add(String.format(Locale.ROOT, "%7d %-8s %s", tick, target, text));
+		final int idx = text.indexOf(' ');
+		final String kind = idx < 0 ? text : text.substring(0, idx);
+		this.counts.computeIfAbsent(target, k -> new Object2IntOpenHashMap<>()).addTo(kind, 1);
+	}
+
+	void time(@Nonnull final String target, final long nanos) {
+		this.timings.computeIfAbsent(target, k -> new LongArrayList()).add(nanos);
+	}
+
+	public int getEventCount() {
+		return this.events.size();
+	}
+
+	public void write(@Nonnull final Writer out, @Nonnull final ReplayTrace trace, final long seed,
+			final boolean includeTiming) throws IOException {
+		final PrintWriter writer = new PrintWriter(out);
+		writer.println("# Dynamic Surroundings replay report");
+		writer.printf(Locale.ROOT, "trace: %s%n", trace.getName());
+		writer.printf(Locale.ROOT, "seed: %d%n", seed);
+		writer.printf(Locale.ROOT, "ticks: %d..%d%n", trace.getFirstTick(), trace.getLastTick());
+
+		writer.println();
+		writer.println("[summary]");
+		for (final Map.Entry<String, Object2IntOpenHashMap<String>> e : this.counts.entrySet()) {
+			final Map<String, Integer> sorted = new TreeMap<>();
+			for (final Object2IntMap.Entry<String> c : e.getValue().object2IntEntrySet())
+				sorted.put(c.getKey(), c.getIntValue());
+			for (final Map.Entry<String, Integer> c : sorted.entrySet())
+				writer.printf(Locale.ROOT, "%-8s %-10s %d%n", e.getKey(), c.getKey(), c.getValue());
+		}
+
+		writer.println();
+		writer.println("[events]");
+		for (final String event : this.events)
+			writer.println(event);
+
+		if (includeTiming) {
+			writer.println();
+			writer.println("[timing]");
+			writer.printf(Locale.ROOT, "%-8s %8s %10s %10s %10s %10s%n", "target", "ticks", "mean_us", "p50_us",
+					"p99_us", "max_us");
+			for (final Map.Entry<String, LongArrayList> e : this.timings.entrySet()) {
+				final long[] samples = e.getValue().toLongArray();
+				if (samples.length == 0)
+					continue;
+				Arrays.sort(samples);
+				long total = 0;
+				for (final long s : samples)
+					total += s;
+				writer.printf(Locale.ROOT, "%-8s %8d %10.2f %10.2f %10.2f %10.2f%n", e.getKey(), samples.length,
+						total / 1000D / samples.length, percentile(samples, 0.5D) / 1000D,
+						percentile(samples, 0.99D) / 1000D, samples[samples.length - 1] / 1000D);
+			}
+		}
+
+		writer.flush();
+	}
+
+	private static long percentile(@Nonnull final long[] sorted, final double p) {
+		final int idx = (int) Math.ceil(p * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(idx, sorted.length - 1))];
+	}
+
+}
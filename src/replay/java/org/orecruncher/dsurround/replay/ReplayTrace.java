@@ -0,0 +1,113 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.replay;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A recorded player trace. The trace is a plain text file with one tick per
+ * line:
+ *
+ * <pre>
+ * tick x y z yaw pitch motionX motionY motionZ rain thunder
+ * </pre>
+ *
+ * Blank lines and lines starting with '#' are ignored. Ticks must be strictly
+ * increasing but do not have to be contiguous; the harness holds the last
+ * frame across any gap.
+ */
+public final class ReplayTrace {
+
+	private static final int FIELDS = 11;
+
+	private final String name;
+	private final List<TraceFrame> frames;
+
+	public ReplayTrace(@Nonnull final String name, @Nonnull final List<TraceFrame> frames) {
+		this.name = name;
+		this.frames = Collections.unmodifiableList(frames);
+	}
+
+	@Nonnull
+	public String getName() {
+		return this.name;
+	}
+
+	@Nonnull
+	public List<TraceFrame> getFrames() {
+		return this.frames;
+	}
+
+	public int getFirstTick() {
+		return this.frames.isEmpty() ? 0 : this.frames.get(0).tick;
+	}
+
+	public int getLastTick() {
+		return this.frames.isEmpty() ? 0 : this.frames.get(this.frames.size() - 1).tick;
+	}
+
+	@Nonnull
+	public static ReplayTrace load(@Nonnull final Path path) throws IOException {
+		final List<TraceFrame> frames = new ArrayList<>();
+		try (final BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			int lineNumber = 0;
+			int lastTick = Integer.MIN_VALUE;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+				final String[] parts = line.split("\\s+");
+				if (parts.length != FIELDS)
+					throw new IOException(
+							String.format("%s:%d: expected %d fields, found %d", path, lineNumber, FIELDS, parts.length));
+				try {
+					final TraceFrame frame = new TraceFrame(Integer.parseInt(parts[0]), Double.parseDouble(parts[1]),
+							Double.parseDouble(parts[2]), Double.parseDouble(parts[3]), Float.parseFloat(parts[4]),
+							Float.parseFloat(parts[5]), Double.parseDouble(parts[6]), Double.parseDouble(parts[7]),
+							Double.parseDouble(parts[8]), Float.parseFloat(parts[9]), Float.parseFloat(parts[10]));
+					if (frame.tick <= lastTick)
+						throw new IOException(String.format("%s:%d: tick %d is not after %d", path, lineNumber,
+								frame.tick, lastTick));
+					lastTick = frame.tick;
+					frames.add(frame);
+				} catch (final NumberFormatException ex) {
+					throw new IOException(String.format("%s:%d: %s", path, lineNumber, ex.getMessage()), ex);
+				}
+			}
+		}
+		return new ReplayTrace(path.getFileName().toString(), frames);
+	}
+
+}
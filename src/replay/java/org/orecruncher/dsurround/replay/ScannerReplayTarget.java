@@ -0,0 +1,200 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.replay;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.dsurround.ModOptions;
+import org.orecruncher.dsurround.client.fx.BlockEffect;
+import org.orecruncher.dsurround.client.fx.BlockEffectType;
+import org.orecruncher.dsurround.client.fx.BubbleJetEffect;
+import org.orecruncher.dsurround.client.fx.DustJetEffect;
+import org.orecruncher.dsurround.client.fx.FireJetEffect;
+import org.orecruncher.dsurround.client.fx.SteamJetEffect;
+import org.orecruncher.dsurround.client.fx.WaterSplashJetEffect;
+import org.orecruncher.dsurround.client.handlers.scanners.AlwaysOnBlockEffectScanner;
+import org.orecruncher.dsurround.client.handlers.scanners.RandomBlockEffectScanner;
+import org.orecruncher.dsurround.lib.scanner.ScanLocus;
+import org.orecruncher.dsurround.lib.scanner.Scanner;
+import org.orecruncher.dsurround.registry.blockstate.BlockStateData;
+import org.orecruncher.dsurround.registry.blockstate.BlockStateProfile;
+import org.orecruncher.dsurround.registry.config.BlockConfig;
+import org.orecruncher.dsurround.registry.config.EffectConfig;
+import org.orecruncher.lib.chunk.IBlockAccessEx;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Runs the block effect scanners AreaBlockEffectsHandler ticks, the near and
+ * far random scanners and the always on scanner, over the synthetic world.
+ * Block profiles come from the "blocks" section of the core config pack.
+ *
+ * The effects in those profiles are stand-ins. They use the spawn checks of
+ * the real effects, but skip the condition scripts and the particle system
+ * occupancy check since both need a running client, and they record the
+ * effect rather than spawning particles. Block sounds are not loaded because
+ * SoundEffect needs the sound registry.
+ */
+public final class ScannerReplayTarget implements IReplayTarget {
+
+	private final Map<IBlockState, BlockStateData> profiles = new Reference2ObjectOpenHashMap<>();
+	private Scanner[] scanners;
+
+	@Override
+	@Nonnull
+	public String getName() {
+		return "scanners";
+	}
+
+	@Override
+	public void start(@Nonnull final ReplayContext ctx) {
+		loadProfiles(ctx);
+
+		final ScanLocus locus = new ReplayLocus(ctx);
+		//@formatter:off
+		this.scanners = new Scanner[] {
+			new RandomBlockEffectScanner(locus, RandomBlockEffectScanner.NEAR_RANGE) {
+				@Override
+				@Nonnull
+				protected BlockStateData getStateData(@Nonnull final IBlockState state) {
+					return getProfile(state);
+				}
+			},
+			new RandomBlockEffectScanner(locus, RandomBlockEffectScanner.FAR_RANGE) {
+				@Override
+				@Nonnull
+				protected BlockStateData getStateData(@Nonnull final IBlockState state) {
+					return getProfile(state);
+				}
+			},
+			new AlwaysOnBlockEffectScanner(locus, ModOptions.effects.specialEffectRange) {
+				@Override
+				@Nonnull
+				protected BlockStateData getStateData(@Nonnull final IBlockState state) {
+					return getProfile(state);
+				}
+			}
+		};
+		//@formatter:on
+
+		for (final Scanner scanner : this.scanners)
+			scanner.setSeed(ctx.getRandom().nextLong());
+
+		ctx.event(String.format(Locale.ROOT, "profiles %d", this.profiles.size()));
+	}
+
+	@Override
+	public void tick(@Nonnull final ReplayContext ctx) {
+		for (final Scanner scanner : this.scanners)
+			scanner.update();
+	}
+
+	@Nonnull
+	private BlockStateData getProfile(@Nonnull final IBlockState state) {
+		final BlockStateData data = this.profiles.get(state);
+		return data != null ? data : ReplayEffect.NONE;
+	}
+
+	private void loadProfiles(@Nonnull final ReplayContext ctx) {
+		for (final BlockConfig entry : ctx.getCoreConfig().blocks) {
+			for (final String name : entry.blocks) {
+				final Block block = Block.getBlockFromName(name);
+				if (block == null)
+					continue;
+				for (final IBlockState state : block.getBlockState().getValidStates()) {
+					BlockStateData profile = this.profiles.get(state);
+					if (profile == null)
+						this.profiles.put(state, profile = new BlockStateProfile());
+					if (entry.effectReset != null && entry.effectReset)
+						profile.clearEffects();
+					for (final EffectConfig e : entry.effects) {
+						if (e.effect == null)
+							continue;
+						final BlockEffectType type = BlockEffectType.get(e.effect);
+						if (type.isEnabled())
+							profile.addEffect(new ReplayEffect(ctx, type, e.chance != null ? e.chance : 100));
+					}
+				}
+			}
+		}
+	}
+
+	/*
+	 * Records an effect instead of spawning it. Spawn checks are those of the
+	 * effect it stands in for.
+	 */
+	private static final class ReplayEffect extends BlockEffect {
+
+		static final BlockStateData NONE = new BlockStateProfile();
+
+		private final ReplayContext ctx;
+		private final BlockEffectType type;
+
+		ReplayEffect(@Nonnull final ReplayContext ctx, @Nonnull final BlockEffectType type, final int chance) {
+			super(chance);
+			this.ctx = ctx;
+			this.type = type;
+		}
+
+		@Override
+		@Nonnull
+		public BlockEffectType getEffectType() {
+			return this.type;
+		}
+
+		@Override
+		public boolean canTriggerAt(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
+				@Nonnull final BlockPos pos) {
+			switch (this.type) {
+			case STEAM_JET:
+				return SteamJetEffect.isValidSpawnBlock(state, provider, pos);
+			case FIRE_JET:
+				return FireJetEffect.isValidSpawnBlock(state, provider, pos);
+			case BUBBLE_JET:
+				return BubbleJetEffect.isValidSpawnBlock(state, provider, pos);
+			case DUST_JET:
+				return DustJetEffect.isValidSpawnBlock(state, provider, pos);
+			case SPLASH_JET:
+				return WaterSplashJetEffect.isValidSpawnBlock(provider, pos);
+			default:
+				return true;
+			}
+		}
+
+		@Override
+		public void doEffect(@Nonnull final IBlockAccessEx provider, @Nonnull final IBlockState state,
+				@Nonnull final BlockPos pos, @Nonnull final Random random) {
+			this.ctx.particle(this.type.getName(), pos.getX() + 0.5D, pos.getY() + 1.0D, pos.getZ() + 0.5D);
+		}
+	}
+
+}
@@ -0,0 +1,185 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.replay;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.orecruncher.lib.chunk.IBlockAccessEx;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Biomes;
+import net.minecraft.init.Blocks;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.biome.Biome;
+
+/**
+ * Procedural block and biome source for the replay harness. Every query is a
+ * pure function of the position and the world seed so a replay sees exactly
+ * the same world no matter what order it asks in. The terrain is a rolling
+ * surface over a band of 4x4x4 cave cells; cave floors below y 20 are lava and
+ * some of the others hold a layer of water, so drips, bubbles and fire all
+ * have something to work with.
+ *
+ * Every position is always available. There is no World behind it, so
+ * getWorld() returns null; code that needs one, such as anything that spawns
+ * a particle, cannot be driven against it.
+ */
+public final class SyntheticWorld implements IBlockAccessEx {
+
+	private static final int SEA_LEVEL = 63;
+	private static final int CAVE_MIN = 16;
+	private static final int CAVE_MAX = 48;
+	private static final int LAVA_LEVEL = 20;
+
+	private static final Biome[] BIOMES = { Biomes.PLAINS, Biomes.FOREST, Biomes.DESERT, Biomes.SWAMPLAND,
+			Biomes.OCEAN, Biomes.EXTREME_HILLS };
+
+	private final long seed;
+
+	public SyntheticWorld(final long seed) {
+		this.seed = seed;
+	}
+
+	private long hash(final int x, final int y, final int z) {
+		long h = this.seed ^ (x * 0x9E3779B97F4A7C15L) ^ (y * 0xC2B2AE3D27D4EB4FL) ^ (z * 0x165667B19E3779F9L);
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	public int getSurfaceHeight(final int x, final int z) {
+		return SEA_LEVEL - 2 + (int) Math.floorMod(hash(x >> 3, 0, z >> 3), 6L);
+	}
+
+	private boolean isCave(final int x, final int y, final int z) {
+		return y >= CAVE_MIN && y < CAVE_MAX && (hash(x >> 2, y >> 2, z >> 2) & 3) == 0;
+	}
+
+	@Override
+	@Nonnull
+	public IBlockState getBlockState(@Nonnull final BlockPos pos) {
+		return getBlockState(pos.getX(), pos.getY(), pos.getZ());
+	}
+
+	@Override
+	@Nonnull
+	public IBlockState getBlockState(final int x, final int y, final int z) {
+		if (y < 0 || y > 255)
+			return Blocks.AIR.getDefaultState();
+		if (y == 0)
+			return Blocks.BEDROCK.getDefaultState();
+
+		final int height = getSurfaceHeight(x, z);
+		if (y > height)
+			return y <= SEA_LEVEL ? Blocks.WATER.getDefaultState() : Blocks.AIR.getDefaultState();
+		if (y == height)
+			return getBiome(x, z) == Biomes.DESERT ? Blocks.SAND.getDefaultState() : Blocks.GRASS.getDefaultState();
+		if (y >= height - 3)
+			return Blocks.DIRT.getDefaultState();
+
+		if (isCave(x, y, z)) {
+			if ((y & 3) == 0) {
+				if (y < LAVA_LEVEL)
+					return Blocks.LAVA.getDefaultState();
+				if ((hash(x >> 2, y >> 2, z >> 2) & 0x30) == 0)
+					return Blocks.WATER.getDefaultState();
+			}
+			return Blocks.AIR.getDefaultState();
+		}
+
+		return (hash(x, y, z) & 0x3F) == 0 ? Blocks.GRAVEL.getDefaultState() : Blocks.STONE.getDefaultState();
+	}
+
+	@Override
+	@Nullable
+	public TileEntity getTileEntity(@Nonnull final BlockPos pos) {
+		return null;
+	}
+
+	@Override
+	public int getCombinedLight(@Nonnull final BlockPos pos, final int lightValue) {
+		final int sky = pos.getY() > getSurfaceHeight(pos.getX(), pos.getZ()) ? 15 : 0;
+		return sky << 20 | lightValue << 4;
+	}
+
+	@Override
+	public boolean isAirBlock(@Nonnull final BlockPos pos) {
+		final IBlockState state = getBlockState(pos);
+		return state.getBlock().isAir(state, this, pos);
+	}
+
+	@Override
+	@Nonnull
+	public Biome getBiome(@Nonnull final BlockPos pos) {
+		return getBiome(pos.getX(), pos.getZ());
+	}
+
+	@Nonnull
+	private Biome getBiome(final int x, final int z) {
+		return BIOMES[(int) Math.floorMod(hash(x >> 6, 1, z >> 6), (long) BIOMES.length)];
+	}
+
+	@Override
+	@Nullable
+	public World getWorld() {
+		return null;
+	}
+
+	@Override
+	public int worldReference() {
+		return (int) (this.seed ^ (this.seed >>> 32));
+	}
+
+	@Override
+	public boolean isAvailable(@Nonnull final BlockPos pos) {
+		return true;
+	}
+
+	@Override
+	public int getStrongPower(@Nonnull final BlockPos pos, @Nonnull final EnumFacing direction) {
+		return 0;
+	}
+
+	@Override
+	@Nonnull
+	public WorldType getWorldType() {
+		return WorldType.DEFAULT;
+	}
+
+	@Override
+	public boolean isSideSolid(@Nonnull final BlockPos pos, @Nonnull final EnumFacing side, final boolean _default) {
+		if (pos.getY() < 0 || pos.getY() > 255)
+			return _default;
+		return getBlockState(pos).isSideSolid(this, pos, side);
+	}
+
+}
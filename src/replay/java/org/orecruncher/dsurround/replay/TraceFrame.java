@@ -0,0 +1,67 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.replay;
+
+/**
+ * A single tick of a recorded player trace.
+ */
+public final class TraceFrame {
+
+	public final int tick;
+	public final double x;
+	public final double y;
+	public final double z;
+	public final float yaw;
+	public final float pitch;
+	public final double motionX;
+	public final double motionY;
+	public final double motionZ;
+	public final float rain;
+	public final float thunder;
+
+	public TraceFrame(final int tick, final double x, final double y, final double z, final float yaw,
+			final float pitch, final double motionX, final double motionY, final double motionZ, final float rain,
+			final float thunder) {
+		this.tick = tick;
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.yaw = yaw;
+		this.pitch = pitch;
+		this.motionX = motionX;
+		this.motionY = motionY;
+		this.motionZ = motionZ;
+		this.rain = rain;
+		this.thunder = thunder;
+	}
+
+	public boolean isRaining() {
+		return this.rain > 0.2F;
+	}
+
+	public boolean isThundering() {
+		return this.thunder > 0.9F;
+	}
+
+}
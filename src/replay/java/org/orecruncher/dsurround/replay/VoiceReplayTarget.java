@@ -0,0 +1,201 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.replay;
+
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.dsurround.client.sound.Emitter;
+import org.orecruncher.dsurround.client.sound.VirtualVoiceTable;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.biome.Biome;
+
+/**
+ * Drives a field of looping spot emitters through the virtual voice table with
+ * fewer channels than emitters, the way Emitter and SoundEffectHandler do
+ * against the sound engine. Emitter needs a live sound engine to play, so the
+ * voices here stand in for it and only share its priority calculation.
+ */
+public final class VoiceReplayTarget implements IReplayTarget {
+
+	private static final int CHANNELS = 8;
+	private static final int CELL_SHIFT = 3;
+	private static final int CELL_RANGE = 3;
+	private static final int STALE_TICKS = 40;
+	private static final int RETRY_DELAY = 20;
+
+	private static final class Voice {
+		final String name;
+		final double x;
+		final double y;
+		final double z;
+		final float volume;
+		final int length;
+		final float bias;
+		boolean playing;
+		int endTick;
+		int startTick = -1;
+
+		Voice(@Nonnull final String name, final double x, final double y, final double z, final float volume,
+				final int length, final float bias) {
+			this.name = name;
+			this.x = x;
+			this.y = y;
+			this.z = z;
+			this.volume = volume;
+			this.length = length;
+			this.bias = bias;
+		}
+	}
+
+	private final VirtualVoiceTable<Voice> table = new VirtualVoiceTable<>(STALE_TICKS, RETRY_DELAY);
+	private final Long2ObjectOpenHashMap<Voice> voices = new Long2ObjectOpenHashMap<>();
+	private int playing;
+
+	@Override
+	@Nonnull
+	public String getName() {
+		return "voices";
+	}
+
+	@Override
+	public void tick(@Nonnull final ReplayContext ctx) {
+		final int tick = ctx.getTick();
+		populate(ctx);
+
+		final ObjectIterator<Long2ObjectMap.Entry<Voice>> itr = this.voices.long2ObjectEntrySet().fastIterator();
+		while (itr.hasNext()) {
+			final Voice v = itr.next().getValue();
+			if (v.playing && tick - v.endTick >= 0) {
+				v.playing = false;
+				this.playing--;
+			}
+
+			final float priority = getPriority(ctx, v);
+			if (priority <= 0F) {
+				if (v.playing) {
+					this.playing--;
+					ctx.event("stop " + v.name);
+				}
+				this.table.remove(v);
+				itr.remove();
+				continue;
+			}
+
+			if (v.playing)
+				continue;
+
+			if (!this.table.touch(v, tick, priority) && !play(ctx, v)) {
+				this.table.virtualize(v, v.startTick < 0 ? tick : v.startTick, tick, priority);
+				ctx.event("virtual " + v.name);
+			}
+		}
+
+		this.table.promote(CHANNELS - this.playing, tick, v -> {
+			final int position = this.table.getPosition(v, tick);
+			if (!play(ctx, v))
+				return false;
+			ctx.event(String.format(Locale.ROOT, "promote %s at=%d", v.name, position));
+			return true;
+		});
+	}
+
+	@Override
+	public void finish(@Nonnull final ReplayContext ctx) {
+		ctx.event(String.format(Locale.ROOT, "active %d playing %d virtual %d", this.voices.size(), this.playing,
+				this.table.size()));
+		this.table.clear();
+		this.voices.clear();
+	}
+
+	private boolean play(@Nonnull final ReplayContext ctx, @Nonnull final Voice v) {
+		if (this.playing >= CHANNELS)
+			return false;
+		this.playing++;
+		v.playing = true;
+		v.endTick = ctx.getTick() + v.length;
+		if (v.startTick < 0)
+			v.startTick = ctx.getTick();
+		ctx.sound(v.name, v.x, v.y, v.z, v.volume);
+		return true;
+	}
+
+	/*
+	 * Emitter priority: volume with linear distance attenuation. The bias breaks
+	 * ties between voices the same distance away so promotion order does not
+	 * depend on hash order.
+	 */
+	private static float getPriority(@Nonnull final ReplayContext ctx, @Nonnull final Voice v) {
+		final TraceFrame frame = ctx.getFrame();
+		final double dx = v.x - frame.x;
+		final double dy = v.y - frame.y;
+		final double dz = v.z - frame.z;
+		final float result = Emitter.attenuate(v.volume, v.volume, Math.sqrt(dx * dx + dy * dy + dz * dz));
+		return result > 0F ? result + v.bias : 0F;
+	}
+
+	/*
+	 * Every cell near the player gets a chance at an emitter. Whether a cell has
+	 * one and what it sounds like only depends on the cell so voices come back
+	 * the same when the player returns.
+	 */
+	private void populate(@Nonnull final ReplayContext ctx) {
+		final BlockPos player = ctx.getPlayerPosition();
+		final int pcx = player.getX() >> CELL_SHIFT;
+		final int pcz = player.getZ() >> CELL_SHIFT;
+		for (int cx = pcx - CELL_RANGE; cx <= pcx + CELL_RANGE; cx++)
+			for (int cz = pcz - CELL_RANGE; cz <= pcz + CELL_RANGE; cz++) {
+				final long key = (long) cx << 32 | (cz & 0xFFFFFFFFL);
+				if (this.voices.containsKey(key))
+					continue;
+				final long h = mix(key);
+				if ((h & 3) != 0)
+					continue;
+				final int x = (cx << CELL_SHIFT) + 4;
+				final int z = (cz << CELL_SHIFT) + 4;
+				final BlockPos pos = new BlockPos(x, player.getY(), z);
+				final Biome biome = ctx.getWorld().getBiome(pos);
+				final String name = "ambient." + biome.getRegistryName().getPath();
+				final float volume = 0.3F + ((h >>> 8) & 0xFF) / 255F * 0.7F;
+				final int length = 60 + (int) ((h >>> 16) & 0x7F);
+				final float bias = ((h >>> 24) & 0xFF) * 1E-6F;
+				this.voices.put(key, new Voice(name, x + 0.5D, player.getY() + 0.5D, z + 0.5D, volume, length, bias));
+			}
+	}
+
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+}
@@ -0,0 +1,223 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.footsteps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.junit.Test;
+import org.orecruncher.dsurround.registry.acoustics.IOptions;
+import org.orecruncher.dsurround.registry.acoustics.ISoundPlayer;
+
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.SoundEvent;
+import net.minecraft.util.math.Vec3d;
+
+public class PendingSoundQueueTest {
+
+	private static final Vec3d LOCATION = new Vec3d(0, 0, 0);
+	private static final SoundEvent SOUND = new SoundEvent(new ResourceLocation("test", "step"));
+
+	/*
+	 * Records the volume of each sound played. The tests use the volume as the
+	 * id of the sound.
+	 */
+	private static final class Recorder implements ISoundPlayer {
+
+		final List<Integer> played = new ArrayList<>();
+
+		@Override
+		public void playSound(@Nonnull final Vec3d location, @Nonnull final SoundEvent sound, final float volume,
+				final float pitch, @Nullable final IOptions options) {
+			this.played.add((int) volume);
+		}
+
+		@Override
+		public Random getRNG() {
+			return null;
+		}
+	}
+
+	private static void add(@Nonnull final PendingSoundQueue queue, @Nonnull final Recorder player, final int id,
+			final long time, final long maximum) {
+		queue.add(player, LOCATION, SOUND, id, 1F, time, maximum);
+	}
+
+	@Test
+	public void playsInTimeOrder() {
+		final PendingSoundQueue queue = new PendingSoundQueue();
+		final Recorder player = new Recorder();
+		final Random random = new Random(1234);
+		final List<long[]> queued = new ArrayList<>();
+
+		// Enough to grow the heap past its initial size
+		for (int id = 0; id < 200; id++) {
+			final long time = random.nextInt(1000);
+			queued.add(new long[] { time, id });
+			add(queue, player, id, time, -1);
+		}
+
+		assertEquals(200, queue.size());
+		assertEquals(queued.stream().mapToLong(e -> e[0]).min().getAsLong(), queue.nextTime());
+
+		queued.sort(Comparator.<long[]> comparingLong(e -> e[0]).thenComparingLong(e -> e[1]));
+		final List<Integer> expected = new ArrayList<>();
+		for (final long[] e : queued)
+			expected.add((int) e[1]);
+
+		assertEquals(200, queue.process(1000));
+		assertEquals(expected, player.played);
+		assertTrue(queue.isEmpty());
+		assertEquals(Long.MAX_VALUE, queue.nextTime());
+	}
+
+	@Test
+	public void tiesGoInQueueOrder() {
+		final PendingSoundQueue queue = new PendingSoundQueue();
+		final Recorder player = new Recorder();
+
+		// Interleave three deadlines so ties are spread through the heap rather
+		// than added back to back.
+		for (int id = 0; id < 60; id++)
+			add(queue, player, id, 100 + (id % 3) * 10, -1);
+
+		final List<Integer> expected = new ArrayList<>();
+		for (int slot = 0; slot < 3; slot++)
+			for (int id = slot; id < 60; id += 3)
+				expected.add(id);
+
+		assertEquals(60, queue.process(200));
+		assertEquals(expected, player.played);
+	}
+
+	@Test
+	public void onlyDueSoundsAreProcessed() {
+		final PendingSoundQueue queue = new PendingSoundQueue();
+		final Recorder player = new Recorder();
+		add(queue, player, 1, 100, -1);
+		add(queue, player, 2, 200, -1);
+		add(queue, player, 3, 300, -1);
+
+		assertEquals(0, queue.process(99));
+		assertEquals(2, queue.process(200));
+		final List<Integer> expected = new ArrayList<>();
+		expected.add(1);
+		expected.add(2);
+		assertEquals(expected, player.played);
+		assertEquals(300, queue.nextTime());
+		assertEquals(1, queue.size());
+	}
+
+	@Test
+	public void lateSoundsAreDropped() {
+		final PendingSoundQueue queue = new PendingSoundQueue();
+		final Recorder player = new Recorder();
+
+		// A maximum delay of 100 lets a sound be up to 120 late
+		add(queue, player, 1, 1000, 100);
+		assertEquals(1, queue.process(1120));
+		add(queue, player, 2, 1000, 100);
+		assertEquals(1, queue.process(1121));
+
+		// A negative maximum is never dropped
+		add(queue, player, 3, 1000, -1);
+		assertEquals(1, queue.process(1000000));
+
+		final List<Integer> expected = new ArrayList<>();
+		expected.add(1);
+		expected.add(3);
+		assertEquals(expected, player.played);
+		assertEquals(2, queue.getPlayed());
+		assertEquals(1, queue.getDropped());
+	}
+
+	@Test
+	public void entriesArePooled() {
+		final PendingSoundQueue queue = new PendingSoundQueue();
+		final Recorder player = new Recorder();
+
+		add(queue, player, 1, 10, -1);
+		final PendingSound first = queue.peek();
+		queue.process(10);
+
+		// A finished entry lets go of what it referenced
+		assertNull(queue.peek());
+		assertNull(first.player);
+		assertNull(first.sound);
+		assertNull(first.location);
+
+		// and is handed out for the next sound with the new values
+		add(queue, player, 2, 20, 50);
+		assertSame(first, queue.peek());
+		assertSame(player, first.player);
+		assertEquals(20, first.getTimeToPlay());
+		assertEquals(50, first.getMaximumBase());
+
+		// Cleared entries go back to the pool without being played
+		queue.clear();
+		assertTrue(queue.isEmpty());
+		assertNull(first.player);
+		add(queue, player, 3, 30, -1);
+		assertSame(first, queue.peek());
+
+		queue.process(30);
+		final List<Integer> expected = new ArrayList<>();
+		expected.add(1);
+		expected.add(3);
+		assertEquals(expected, player.played);
+	}
+
+	@Test
+	public void reusedEntriesKeepQueueOrder() {
+		final PendingSoundQueue queue = new PendingSoundQueue();
+		final Recorder player = new Recorder();
+
+		// Fill the pool then queue sounds with the same deadline. The pooled
+		// entries carry stale sequence numbers that must be replaced.
+		for (int id = 0; id < 10; id++)
+			add(queue, player, id, id, -1);
+		queue.process(10);
+		player.played.clear();
+
+		for (int id = 10; id < 20; id++)
+			add(queue, player, id, 50, -1);
+		queue.process(50);
+
+		final List<Integer> expected = new ArrayList<>();
+		for (int id = 10; id < 20; id++)
+			expected.add(id);
+		assertEquals(expected, player.played);
+	}
+}
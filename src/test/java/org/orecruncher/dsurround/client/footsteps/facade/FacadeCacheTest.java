@@ -0,0 +1,346 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.footsteps.facade;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.IBlockAccess;
+
+public class FacadeCacheTest {
+
+	/*
+	 * Stands in for a mod's facade interface. The accessor only knows it by name.
+	 */
+	public interface ITestFacade {
+		IBlockState getFacade(IBlockAccess world, BlockPos pos, EnumFacing side);
+	}
+
+	public static final class TestFacadeBlock extends Block implements ITestFacade {
+
+		IBlockState facade;
+		final List<EnumFacing> calls = new ArrayList<>();
+
+		public TestFacadeBlock() {
+			super(Material.ROCK);
+		}
+
+		@Override
+		public IBlockState getFacade(final IBlockAccess world, final BlockPos pos, final EnumFacing side) {
+			this.calls.add(side);
+			return this.facade;
+		}
+	}
+
+	/*
+	 * Accessor that claims one block and resolves it to whatever it is told,
+	 * counting the calls.
+	 */
+	private static final class FakeAccessor implements IFacadeAccessor {
+
+		final Block block;
+		final boolean cacheable;
+		IBlockState result;
+		int calls;
+
+		FakeAccessor(@Nonnull final Block block, final boolean cacheable) {
+			this.block = block;
+			this.cacheable = cacheable;
+		}
+
+		@Override
+		@Nonnull
+		public String getName() {
+			return "fake";
+		}
+
+		@Override
+		public boolean instanceOf(@Nonnull final Block block) {
+			return block == this.block;
+		}
+
+		@Override
+		public boolean isValid() {
+			return true;
+		}
+
+		@Override
+		public boolean isCacheable() {
+			return this.cacheable;
+		}
+
+		@Override
+		@Nullable
+		public IBlockState getBlockState(@Nonnull final EntityLivingBase entity, @Nonnull final IBlockState state,
+				@Nonnull final IBlockAccess world, @Nonnull final Vec3d pos, @Nullable final EnumFacing side) {
+			this.calls++;
+			return this.result;
+		}
+	}
+
+	private static Block facadeBlock;
+	private static Block plainBlock;
+	private static IBlockAccess world;
+
+	@BeforeClass
+	public static void setup() {
+		Bootstrap.register();
+		facadeBlock = new TestFacadeBlock();
+		plainBlock = new Block(Material.ROCK);
+		world = (IBlockAccess) Proxy.newProxyInstance(FacadeCacheTest.class.getClassLoader(),
+				new Class<?>[] { IBlockAccess.class }, (proxy, method, args) -> {
+					throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	@Nonnull
+	private static IBlockState state(@Nonnull final Block block, @Nonnull final String name) {
+		return (IBlockState) Proxy.newProxyInstance(FacadeCacheTest.class.getClassLoader(),
+				new Class<?>[] { IBlockState.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getBlock":
+						return block;
+					case "toString":
+						return name;
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "equals":
+						return proxy == args[0];
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+	private static long pos(final int x, final int y, final int z) {
+		return new BlockPos(x, y, z).toLong();
+	}
+
+	@Test
+	public void hitKeyedOnPositionAndSide() {
+		final FacadeCache cache = new FacadeCache();
+		final IBlockState source = state(plainBlock, "source");
+		final IBlockState camo = state(plainBlock, "camo");
+		final IBlockState other = state(plainBlock, "other");
+
+		cache.put(pos(1, 64, 1), EnumFacing.UP, source, camo);
+		assertSame(camo, cache.get(pos(1, 64, 1), EnumFacing.UP, source));
+		assertNull(cache.get(pos(1, 64, 1), EnumFacing.NORTH, source));
+		assertNull(cache.get(pos(1, 64, 1), null, source));
+		assertNull(cache.get(pos(1, 65, 1), EnumFacing.UP, source));
+		// Block changed without an update reaching the cache
+		assertNull(cache.get(pos(1, 64, 1), EnumFacing.UP, other));
+
+		cache.put(pos(1, 64, 1), null, source, other);
+		assertSame(other, cache.get(pos(1, 64, 1), null, source));
+		assertSame(camo, cache.get(pos(1, 64, 1), EnumFacing.UP, source));
+		assertEquals(2, cache.size());
+
+		// Replacing an entry does not grow the cache
+		cache.put(pos(1, 64, 1), null, source, camo);
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void invalidateDropsAllSides() {
+		final FacadeCache cache = new FacadeCache();
+		final IBlockState source = state(plainBlock, "source");
+		for (final EnumFacing side : EnumFacing.VALUES)
+			cache.put(pos(5, 10, -5), side, source, source);
+		cache.put(pos(5, 10, -5), null, source, source);
+		cache.put(pos(6, 10, -5), EnumFacing.UP, source, source);
+		assertEquals(8, cache.size());
+
+		cache.invalidate(pos(5, 10, -5));
+		assertEquals(1, cache.size());
+		for (final EnumFacing side : EnumFacing.VALUES)
+			assertNull(cache.get(pos(5, 10, -5), side, source));
+		assertSame(source, cache.get(pos(6, 10, -5), EnumFacing.UP, source));
+	}
+
+	@Test
+	public void invalidateChunk() {
+		final FacadeCache cache = new FacadeCache();
+		final IBlockState source = state(plainBlock, "source");
+		// Chunk (-1, -1) spans -16 to -1; its neighbours are just outside
+		cache.put(pos(-1, 70, -1), EnumFacing.UP, source, source);
+		cache.put(pos(-16, 0, -16), null, source, source);
+		cache.put(pos(0, 70, -1), EnumFacing.UP, source, source);
+		cache.put(pos(-1, 70, 0), EnumFacing.UP, source, source);
+		cache.put(pos(-17, 70, -1), EnumFacing.DOWN, source, source);
+
+		cache.invalidateChunk(-1, -1);
+		assertEquals(3, cache.size());
+		assertNull(cache.get(pos(-1, 70, -1), EnumFacing.UP, source));
+		assertNull(cache.get(pos(-16, 0, -16), null, source));
+		assertSame(source, cache.get(pos(0, 70, -1), EnumFacing.UP, source));
+		assertSame(source, cache.get(pos(-1, 70, 0), EnumFacing.UP, source));
+		assertSame(source, cache.get(pos(-17, 70, -1), EnumFacing.DOWN, source));
+
+		cache.clear();
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void clearedWhenFull() {
+		final FacadeCache cache = new FacadeCache();
+		final IBlockState source = state(plainBlock, "source");
+		for (int i = 0; i < 4096; i++)
+			cache.put(pos(i, 64, 0), EnumFacing.UP, source, source);
+		assertEquals(4096, cache.size());
+		cache.put(pos(0, 65, 0), EnumFacing.UP, source, source);
+		assertEquals(1, cache.size());
+		assertNull(cache.get(pos(0, 64, 0), EnumFacing.UP, source));
+		assertSame(source, cache.get(pos(0, 65, 0), EnumFacing.UP, source));
+	}
+
+	@Test
+	public void resolverCachesPerPositionAndSide() {
+		final FakeAccessor accessor = new FakeAccessor(facadeBlock, true);
+		final FacadeResolver resolver = new FacadeResolver(Collections.singletonList(accessor),
+				Arrays.asList(plainBlock, facadeBlock));
+		final IBlockState source = state(facadeBlock, "facade");
+		final IBlockState camo = state(plainBlock, "camo");
+		accessor.result = camo;
+
+		final Vec3d strike = new Vec3d(2.5D, 64.0D, -3.5D);
+		assertSame(camo, resolver.resolve(null, source, world, strike, EnumFacing.UP));
+		// Anywhere in the same block and side is a hit
+		assertSame(camo, resolver.resolve(null, source, world, new Vec3d(2.1D, 64.9D, -3.9D), EnumFacing.UP));
+		assertEquals(1, accessor.calls);
+
+		// A different side is looked up on its own
+		resolver.resolve(null, source, world, strike, EnumFacing.NORTH);
+		assertEquals(2, accessor.calls);
+
+		// Blocks the accessor does not claim are passed through untouched
+		final IBlockState plain = state(plainBlock, "plain");
+		assertSame(plain, resolver.resolve(null, plain, world, strike, EnumFacing.UP));
+		assertEquals(2, accessor.calls);
+
+		// An accessor with nothing to say leaves the state alone
+		accessor.result = null;
+		assertSame(source, resolver.resolve(null, source, world, strike, EnumFacing.SOUTH));
+	}
+
+	@Test
+	public void resolverInvalidation() {
+		final FakeAccessor accessor = new FakeAccessor(facadeBlock, true);
+		final FacadeResolver resolver = new FacadeResolver(Collections.singletonList(accessor),
+				Collections.singletonList(facadeBlock));
+		final IBlockState source = state(facadeBlock, "facade");
+		accessor.result = state(plainBlock, "camo");
+		final Vec3d strike = new Vec3d(-20.5D, 64.0D, 7.5D);
+
+		resolver.resolve(null, source, world, strike, EnumFacing.UP);
+		resolver.resolve(null, source, world, strike, EnumFacing.UP);
+		assertEquals(1, accessor.calls);
+
+		// Block update at the position
+		resolver.invalidate(new BlockPos(strike));
+		final IBlockState repainted = state(plainBlock, "repainted");
+		accessor.result = repainted;
+		assertSame(repainted, resolver.resolve(null, source, world, strike, EnumFacing.UP));
+		assertEquals(2, accessor.calls);
+
+		// Unloading some other chunk keeps the entry
+		resolver.invalidateChunk(-1, 1);
+		resolver.resolve(null, source, world, strike, EnumFacing.UP);
+		assertEquals(2, accessor.calls);
+
+		// Unloading its chunk drops it
+		resolver.invalidateChunk(-2, 0);
+		resolver.resolve(null, source, world, strike, EnumFacing.UP);
+		assertEquals(3, accessor.calls);
+	}
+
+	@Test
+	public void uncacheableAccessorAlwaysAsked() {
+		final FakeAccessor accessor = new FakeAccessor(facadeBlock, false);
+		final FacadeResolver resolver = new FacadeResolver(Collections.singletonList(accessor),
+				Collections.singletonList(facadeBlock));
+		final IBlockState source = state(facadeBlock, "facade");
+		final Vec3d strike = new Vec3d(0.5D, 64.0D, 0.5D);
+		for (int i = 1; i <= 3; i++) {
+			resolver.resolve(null, source, world, strike, EnumFacing.UP);
+			assertEquals(i, accessor.calls);
+		}
+	}
+
+	@Test
+	public void methodHandleBinding() throws Throwable {
+		final FacadeAccessor accessor = new FacadeAccessor(ITestFacade.class.getName(), "getFacade");
+		assertTrue(accessor.isValid());
+		assertEquals(ITestFacade.class.getName(), accessor.getName());
+		assertTrue(accessor.instanceOf(facadeBlock));
+		assertFalse(accessor.instanceOf(plainBlock));
+
+		final TestFacadeBlock block = (TestFacadeBlock) facadeBlock;
+		final IBlockState camo = state(plainBlock, "camo");
+		block.facade = camo;
+		block.calls.clear();
+
+		// The handle takes the receiver as a Block so invokeExact has to match
+		assertSame(camo, accessor.call(state(facadeBlock, "facade"), world, new BlockPos(1, 2, 3), EnumFacing.UP));
+		assertEquals(Arrays.asList(EnumFacing.UP), block.calls);
+		assertSame(camo, accessor.call(state(facadeBlock, "facade"), world, BlockPos.ORIGIN, null));
+		assertEquals(Arrays.asList(EnumFacing.UP, null), block.calls);
+	}
+
+	@Test
+	public void missingMethodIsInvalid() {
+		final FacadeAccessor noMethod = new FacadeAccessor(ITestFacade.class.getName(), "getCover");
+		assertFalse(noMethod.isValid());
+		assertFalse(noMethod.instanceOf(facadeBlock));
+		assertEquals("INVALID", noMethod.getName());
+
+		final FacadeAccessor noClass = new FacadeAccessor("com.example.IMissingFacade", "getFacade");
+		assertFalse(noClass.isValid());
+	}
+
+}
@@ -0,0 +1,218 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.fx.particle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.junit.Test;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IBlockAccess;
+
+public class DripModelTest {
+
+	// Vanilla drip gravity
+	private static final double GRAVITY = 0.06D;
+	private static final double EPSILON = 1E-9D;
+
+	/*
+	 * Block state that only answers what the model asks about: its material and
+	 * its collision box.
+	 */
+	@Nonnull
+	private static IBlockState state(@Nonnull final Material material, @Nullable final AxisAlignedBB box) {
+		return (IBlockState) Proxy.newProxyInstance(DripModelTest.class.getClassLoader(),
+				new Class<?>[] { IBlockState.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getMaterial":
+						return material;
+					case "getCollisionBoundingBox":
+						return box;
+					case "toString":
+						return material.toString();
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "equals":
+						return proxy == args[0];
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+	private static final IBlockState AIR = state(Material.AIR, null);
+	private static final IBlockState STONE = state(Material.ROCK, new AxisAlignedBB(0, 0, 0, 1, 1, 1));
+	private static final IBlockState SLAB = state(Material.ROCK, new AxisAlignedBB(0, 0, 0, 1, 0.5D, 1));
+	private static final IBlockState FENCE = state(Material.WOOD,
+			new AxisAlignedBB(0.375D, 0, 0.375D, 0.625D, 1.5D, 0.625D));
+	private static final IBlockState WATER = state(Material.WATER, null);
+	private static final IBlockState TORCH = state(Material.CIRCUITS, null);
+
+	/*
+	 * A single column of blocks at x = 0, z = 0. Anything not set is air.
+	 */
+	@Nonnull
+	private static IBlockAccess column(@Nonnull final Object... yAndState) {
+		final Int2ObjectOpenHashMap<IBlockState> blocks = new Int2ObjectOpenHashMap<>();
+		for (int i = 0; i < yAndState.length; i += 2)
+			blocks.put((int) (Integer) yAndState[i], (IBlockState) yAndState[i + 1]);
+		blocks.defaultReturnValue(AIR);
+		return (IBlockAccess) Proxy.newProxyInstance(DripModelTest.class.getClassLoader(),
+				new Class<?>[] { IBlockAccess.class }, (proxy, method, args) -> {
+					if ("getBlockState".equals(method.getName())) {
+						final BlockPos pos = (BlockPos) args[0];
+						return pos.getX() == 0 && pos.getZ() == 0 ? blocks.get(pos.getY()) : AIR;
+					}
+					throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	/*
+	 * Steps the drip the way the vanilla particle does and returns the first tick
+	 * at which it reaches the surface, or -1.
+	 */
+	private static int simulate(final double y0, final double v0, final int bob, final double surface,
+			final int maxTicks) {
+		double y = y0;
+		double v = v0;
+		for (int tick = 1; tick <= maxTicks; tick++) {
+			final double s = tick <= bob ? DripModel.BOB_SCALE : 1.0D;
+			final double u = v - GRAVITY;
+			y += s * u;
+			v = DripModel.DRAG * s * u;
+			if (y <= surface)
+				return tick;
+		}
+		return -1;
+	}
+
+	@Test
+	public void offsetMatchesStepping() {
+		double y = 0;
+		double v = 0;
+		for (int tick = 1; tick <= 120; tick++) {
+			final double s = tick <= DripModel.BOB_TICKS ? DripModel.BOB_SCALE : 1.0D;
+			final double u = v - GRAVITY;
+			y += s * u;
+			v = DripModel.DRAG * s * u;
+			assertEquals("tick " + tick, y, DripModel.offset(0, DripModel.BOB_TICKS, GRAVITY, tick), EPSILON);
+			assertEquals("tick " + tick, v, DripModel.velocity(0, DripModel.BOB_TICKS, GRAVITY, tick), EPSILON);
+		}
+	}
+
+	@Test
+	public void landsOnSolidBlock() {
+		final IBlockAccess world = column(60, STONE);
+		final DripModel.Landing landing = DripModel.findLanding(world, 0.5D, 70.9D, 0.5D);
+		assertNotNull(landing);
+		assertEquals(new BlockPos(0, 60, 0), landing.pos);
+		assertSame(STONE, landing.state);
+		assertEquals(61D, landing.surface, EPSILON);
+
+		final int tick = DripModel.impactTick(70.9D, 0, DripModel.BOB_TICKS, GRAVITY, landing.surface, 200);
+		assertEquals(simulate(70.9D, 0, DripModel.BOB_TICKS, landing.surface, 200), tick);
+		// Lands on the tick it reaches the surface and not before
+		assertTrue(70.9D + DripModel.offset(0, DripModel.BOB_TICKS, GRAVITY, tick) <= 61D);
+		assertTrue(70.9D + DripModel.offset(0, DripModel.BOB_TICKS, GRAVITY, tick - 1) > 61D);
+	}
+
+	@Test
+	public void landsOnTopOfPartialBlock() {
+		final DripModel.Landing landing = DripModel.findLanding(column(60, SLAB), 0.5D, 64.2D, 0.5D);
+		assertNotNull(landing);
+		assertEquals(60, landing.pos.getY());
+		assertEquals(60.5D, landing.surface, EPSILON);
+	}
+
+	@Test
+	public void fallsThroughBlocksWithoutCollision() {
+		final DripModel.Landing landing = DripModel.findLanding(column(63, TORCH, 60, STONE), 0.5D, 64.2D, 0.5D);
+		assertNotNull(landing);
+		assertEquals(60, landing.pos.getY());
+	}
+
+	@Test
+	public void landsOnLiquidSurface() {
+		// Water has no collision box but still stops the drip at the top of the block
+		final DripModel.Landing landing = DripModel.findLanding(column(62, WATER, 61, WATER, 60, STONE), 0.5D,
+				66.9D, 0.5D);
+		assertNotNull(landing);
+		assertEquals(new BlockPos(0, 62, 0), landing.pos);
+		assertSame(WATER, landing.state);
+		assertEquals(63D, landing.surface, EPSILON);
+		assertEquals(simulate(66.9D, 0, DripModel.BOB_TICKS, 63D, 200),
+				DripModel.impactTick(66.9D, 0, DripModel.BOB_TICKS, GRAVITY, 63D, 200));
+	}
+
+	@Test
+	public void surfaceAboveDripIsClamped() {
+		// Fence boxes extend above the block so a drip in the block above is already
+		// at the surface
+		final DripModel.Landing landing = DripModel.findLanding(column(60, FENCE), 0.5D, 61.2D, 0.5D);
+		assertNotNull(landing);
+		assertEquals(61.2D, landing.surface, EPSILON);
+		assertEquals(1, DripModel.impactTick(61.2D, 0, 0, GRAVITY, landing.surface, 100));
+	}
+
+	@Test
+	public void fallOutOfWorld() {
+		assertNull(DripModel.findLanding(column(), 0.5D, 20.5D, 0.5D));
+	}
+
+	@Test
+	public void fallLongerThanSearchLimit() {
+		final double y0 = 200.9D;
+		final double surface = 5D;
+		final int needed = simulate(y0, 0, DripModel.BOB_TICKS, surface, 1000);
+		assertTrue(needed > DripModel.BOB_TICKS);
+		assertEquals(needed, DripModel.impactTick(y0, 0, DripModel.BOB_TICKS, GRAVITY, surface, needed));
+		assertEquals(-1, DripModel.impactTick(y0, 0, DripModel.BOB_TICKS, GRAVITY, surface, needed - 1));
+		assertEquals(-1, DripModel.impactTick(y0, 0, DripModel.BOB_TICKS, GRAVITY, surface, 0));
+	}
+
+	@Test
+	public void restartMidFall() {
+		// Re-predicting part way down continues the same trajectory
+		final int split = DripModel.BOB_TICKS + 7;
+		final double y = 90.9D + DripModel.offset(0, DripModel.BOB_TICKS, GRAVITY, split);
+		final double v = DripModel.velocity(0, DripModel.BOB_TICKS, GRAVITY, split);
+		final int whole = DripModel.impactTick(90.9D, 0, DripModel.BOB_TICKS, GRAVITY, 61D, 400);
+		assertEquals(whole - split, DripModel.impactTick(y, v, 0, GRAVITY, 61D, 400));
+	}
+
+}
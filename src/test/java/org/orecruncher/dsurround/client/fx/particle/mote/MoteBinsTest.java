@@ -0,0 +1,199 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.fx.particle.mote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+public class MoteBinsTest {
+
+	private final MoteBins<String> bins = new MoteBins<>();
+
+	// A zero matrix leaves every plane degenerate, so nothing is rejected
+	@Nonnull
+	private static MoteFrustum everything() {
+		final MoteFrustum frustum = new MoteFrustum();
+		frustum.set(new float[16]);
+		return frustum;
+	}
+
+	// Looking down -Z from the camera with a 90 degree field of view
+	@Nonnull
+	private static MoteFrustum lookingNorth() {
+		final float near = 0.05F;
+		final float far = 256F;
+		final float[] m = new float[16];
+		m[0] = 1F;
+		m[5] = 1F;
+		m[10] = -(far + near) / (far - near);
+		m[11] = -1F;
+		m[14] = -2F * far * near / (far - near);
+		final MoteFrustum frustum = new MoteFrustum();
+		frustum.set(m);
+		return frustum;
+	}
+
+	@Nonnull
+	private List<List<String>> cull(@Nonnull final MoteFrustum frustum, final double x, final double y,
+			final double z, final double range) {
+		final int count = this.bins.cull(frustum, x, y, z, range);
+		final List<List<String>> result = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			final List<String> motes = new ArrayList<>(this.bins.getVisible(i));
+			Collections.sort(motes);
+			result.add(motes);
+		}
+		return result;
+	}
+
+	@Test
+	public void binsSplitAtSectionBoundaries() {
+		this.bins.add("a", 15.99D, 64D, 0D);
+		this.bins.add("b", 16D, 64D, 0D);
+		this.bins.add("c", 31.99D, 79.99D, 15.99D);
+		assertEquals(2, this.bins.getBinCount());
+
+		this.bins.add("d", 0D, 64D, 0D);
+		this.bins.add("e", 15.99D, 63.99D, 0D);
+		assertEquals(3, this.bins.getBinCount());
+	}
+
+	@Test
+	public void negativeCoordinatesRoundDown() {
+		// -0.01 is in block -1 and so section -1, not section 0
+		this.bins.add("a", -0.01D, 0D, 0D);
+		this.bins.add("b", 0D, 0D, 0D);
+		assertEquals(2, this.bins.getBinCount());
+
+		// -16 is the first block of section -1, -16.01 is in section -2
+		this.bins.add("c", -16D, 0D, 0D);
+		this.bins.add("d", -16.01D, 0D, 0D);
+		assertEquals(3, this.bins.getBinCount());
+
+		// Below the world and negative on every axis
+		this.bins.add("e", -1D, -1D, -1D);
+		this.bins.add("f", -16D, -16D, -16D);
+		this.bins.add("g", -0.5D, -0.5D, 0D);
+		assertEquals(5, this.bins.getBinCount());
+
+		final List<List<String>> visible = cull(everything(), 0, 0, 0, 1000);
+		assertEquals(5, visible.size());
+		assertTrue(visible.contains(Arrays.asList("a", "c")));
+		assertTrue(visible.contains(Arrays.asList("e", "f")));
+	}
+
+	@Test
+	public void farCoordinatesDoNotCollide() {
+		this.bins.add("a", -30000000D, 0D, 30000000D);
+		this.bins.add("b", 30000000D, 0D, -30000000D);
+		this.bins.add("c", 30000000D, 0D, 30000000D);
+		this.bins.add("d", -30000000D, 0D, -30000000D);
+		this.bins.add("e", -30000000D, 255D, -30000000D);
+		assertEquals(5, this.bins.getBinCount());
+	}
+
+	@Test
+	public void cullHonorsRenderRange() {
+		final double range = ParticleCollection.RENDER_RANGE;
+		// Camera in the middle of section (0, 0, 0)
+		final double camX = 8;
+		final double camY = 8;
+		final double camZ = 8;
+
+		// Sections along +X and -X: the near face of section 4 is 56 away and
+		// section 5 is 72 away. The bin margin pulls each face one block closer.
+		this.bins.add("x4", 64D + 8D, 8D, 8D);
+		this.bins.add("x5", 80D + 8D, 8D, 8D);
+		this.bins.add("-x4", -64D + 8D, 8D, 8D);
+		this.bins.add("-x5", -80D + 8D, 8D, 8D);
+		// Diagonal: section (3, 0, 3) is 39 away on each axis, (4, 0, 4) is 55
+		this.bins.add("d3", 56D, 8D, 56D);
+		this.bins.add("d4", 72D, 8D, 72D);
+
+		final List<List<String>> visible = cull(everything(), camX, camY, camZ, range);
+		final List<String> names = new ArrayList<>();
+		for (final List<String> motes : visible)
+			names.addAll(motes);
+		Collections.sort(names);
+		assertEquals(Arrays.asList("-x4", "d3", "x4"), names);
+
+		// With the margin the near face of section 5 is at 79: out of range
+		// from 64.5 away, in range from 63.5
+		this.bins.reset();
+		this.bins.add("edge", 80D + 8D, 8D, 8D);
+		assertEquals(0, this.bins.cull(everything(), 14.5D, camY, camZ, range));
+		assertEquals(1, this.bins.cull(everything(), 15.5D, camY, camZ, range));
+	}
+
+	@Test
+	public void cullUsesTheFrustum() {
+		this.bins.add("north", 8D, 8D, -24D);
+		this.bins.add("south", 8D, 8D, 40D);
+		this.bins.add("here", 8D, 8D, 8D);
+
+		final List<List<String>> visible = cull(lookingNorth(), 8D, 8D, 8D, 64D);
+		assertEquals(Arrays.asList(Arrays.asList("north"), Arrays.asList("here")), visible);
+	}
+
+	@Test
+	public void visibleBinsAreBackToFront() {
+		this.bins.add("near", 20D, 8D, 8D);
+		this.bins.add("far", 56D, 8D, 8D);
+		this.bins.add("middle", 40D, 8D, 8D);
+		this.bins.add("middle2", 41D, 9D, 10D);
+
+		final List<List<String>> visible = cull(everything(), 8D, 8D, 8D, 64D);
+		assertEquals(Arrays.asList(Arrays.asList("far"), Arrays.asList("middle", "middle2"), Arrays.asList("near")),
+				visible);
+	}
+
+	@Test
+	public void resetReleasesEmptyBins() {
+		this.bins.add("a", 0D, 0D, 0D);
+		this.bins.add("b", 32D, 0D, 0D);
+		assertEquals(2, this.bins.getBinCount());
+
+		// Emptied but kept for the next fill
+		this.bins.reset();
+		assertEquals(2, this.bins.getBinCount());
+		assertEquals(0, this.bins.cull(everything(), 0, 0, 0, 1000));
+
+		// Bins left empty through a fill are released
+		this.bins.add("a", 0D, 0D, 0D);
+		this.bins.reset();
+		assertEquals(1, this.bins.getBinCount());
+		this.bins.reset();
+		assertEquals(0, this.bins.getBinCount());
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.fx.particle.mote;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+public class MoteFrustumTest {
+
+	private static final float NEAR = 0.05F;
+	private static final float FAR = 100F;
+
+	// Perspective projection with a 90 degree field of view and square aspect,
+	// column major like OpenGL.
+	@Nonnull
+	private static float[] projection() {
+		final float[] m = new float[16];
+		m[0] = 1F;
+		m[5] = 1F;
+		m[10] = -(FAR + NEAR) / (FAR - NEAR);
+		m[11] = -1F;
+		m[14] = -2F * FAR * NEAR / (FAR - NEAR);
+		return m;
+	}
+
+	// Rotation about the Y axis
+	@Nonnull
+	private static float[] yaw(final double degrees) {
+		final float c = (float) Math.cos(Math.toRadians(degrees));
+		final float s = (float) Math.sin(Math.toRadians(degrees));
+		final float[] m = new float[16];
+		m[0] = c;
+		m[2] = -s;
+		m[5] = 1F;
+		m[8] = s;
+		m[10] = c;
+		m[15] = 1F;
+		return m;
+	}
+
+	@Nonnull
+	private static float[] multiply(@Nonnull final float[] a, @Nonnull final float[] b) {
+		final float[] m = new float[16];
+		for (int col = 0; col < 4; col++)
+			for (int row = 0; row < 4; row++) {
+				float sum = 0F;
+				for (int k = 0; k < 4; k++)
+					sum += a[k * 4 + row] * b[col * 4 + k];
+				m[col * 4 + row] = sum;
+			}
+		return m;
+	}
+
+	@Nonnull
+	private static MoteFrustum frustum(@Nonnull final float[] modelview) {
+		final MoteFrustum frustum = new MoteFrustum();
+		frustum.set(multiply(projection(), modelview));
+		return frustum;
+	}
+
+	private static boolean point(@Nonnull final MoteFrustum frustum, final double x, final double y,
+			final double z) {
+		return frustum.isBoxVisible(x, y, z, x, y, z);
+	}
+
+	@Test
+	public void planesFromIdentityModelview() {
+		final MoteFrustum frustum = frustum(yaw(0));
+
+		// Looking down -Z
+		assertTrue(point(frustum, 0, 0, -10));
+		assertFalse(point(frustum, 0, 0, 10));
+
+		// Side planes sit at 45 degrees
+		assertTrue(point(frustum, 9.9, 0, -10));
+		assertFalse(point(frustum, 10.1, 0, -10));
+		assertTrue(point(frustum, -9.9, 0, -10));
+		assertFalse(point(frustum, -10.1, 0, -10));
+		assertTrue(point(frustum, 0, 9.9, -10));
+		assertFalse(point(frustum, 0, 10.1, -10));
+		assertTrue(point(frustum, 0, -9.9, -10));
+		assertFalse(point(frustum, 0, -10.1, -10));
+
+		// Near and far planes
+		assertTrue(point(frustum, 0, 0, -0.06));
+		assertFalse(point(frustum, 0, 0, -0.04));
+		assertTrue(point(frustum, 0, 0, -99));
+		assertFalse(point(frustum, 0, 0, -101));
+	}
+
+	@Test
+	public void planesFollowTheModelview() {
+		// Turned around to look down +Z
+		final MoteFrustum behind = frustum(yaw(180));
+		assertTrue(point(behind, 0, 0, 10));
+		assertFalse(point(behind, 0, 0, -10));
+
+		// A quarter turn maps +X onto -Z in eye space
+		final MoteFrustum quarter = frustum(yaw(90));
+		assertTrue(point(quarter, 10, 0, 0));
+		assertFalse(point(quarter, -10, 0, 0));
+		assertFalse(point(quarter, 0, 0, -10));
+		assertFalse(point(quarter, 0, 0, 10));
+	}
+
+	@Test
+	public void boxesStraddlingAPlaneAreVisible() {
+		final MoteFrustum frustum = frustum(yaw(0));
+
+		// Mostly off to the right with one corner inside
+		assertTrue(frustum.isBoxVisible(9, -1, -11, 30, 1, -9));
+		// Spans the camera
+		assertTrue(frustum.isBoxVisible(-1, -1, -1, 1, 1, 1));
+		// Entirely behind
+		assertFalse(frustum.isBoxVisible(-5, -5, 1, 5, 5, 20));
+		// Entirely past the far plane
+		assertFalse(frustum.isBoxVisible(-5, -5, -150, 5, 5, -120));
+	}
+
+	@Test
+	public void degenerateMatrixAcceptsEverything() {
+		final MoteFrustum frustum = new MoteFrustum();
+		frustum.set(new float[16]);
+		assertTrue(point(frustum, 0, 0, -10));
+		assertTrue(point(frustum, 0, 0, 10));
+		assertTrue(point(frustum, 1000, -1000, 1000));
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.renderer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class VisibilityCacheTest {
+
+	private static final int BUDGET = 3;
+	private static final double THRESHOLD = 0.5D;
+	private static final int MAX_AGE = 10;
+
+	/*
+	 * Stands in for the game's line of sight check. Records what it was asked
+	 * about and answers from a set of visible subjects.
+	 */
+	private static final class FakeRaycaster implements VisibilityCache.IRaycaster<Integer> {
+
+		final List<Integer> calls = new ArrayList<>();
+		final Set<Integer> visible = new HashSet<>();
+
+		@Override
+		public boolean canSee(final Integer subject) {
+			this.calls.add(subject);
+			return this.visible.contains(subject);
+		}
+	}
+
+	private final FakeRaycaster raycaster = new FakeRaycaster();
+	private final VisibilityCache<Integer> cache = new VisibilityCache<>(this.raycaster, BUDGET, THRESHOLD, MAX_AGE);
+
+	// Subject i stands at (10, 0, i) and the camera at the origin
+	private void tick(final int tick, final int... ids) {
+		tick(tick, 0D, ids);
+	}
+
+	private void tick(final int tick, final double camX, final int... ids) {
+		this.cache.begin(tick, camX, 0D, 0D);
+		for (final int id : ids)
+			this.cache.offer(id, id, 10D, 0D, id);
+		this.cache.end();
+	}
+
+	private static List<Integer> list(final int... ids) {
+		final List<Integer> result = new ArrayList<>();
+		for (final int id : ids)
+			result.add(id);
+		return result;
+	}
+
+	@Test
+	public void evaluatesInOfferOrderWithinBudget() {
+		this.raycaster.visible.add(2);
+		tick(1, 1, 2, 3, 4, 5, 6, 7);
+		assertEquals(list(1, 2, 3), this.raycaster.calls);
+		assertEquals(4, this.cache.pending());
+
+		assertTrue(this.cache.isVisible(2));
+		// Not evaluated yet counts as not visible
+		assertFalse(this.cache.isVisible(5));
+
+		// The rest go in the order they were first offered, and the ones
+		// already done are not repeated
+		tick(2, 7, 6, 5, 4, 3, 2, 1);
+		tick(3, 1, 2, 3, 4, 5, 6, 7);
+		assertEquals(list(1, 2, 3, 4, 5, 6, 7), this.raycaster.calls);
+		assertEquals(0, this.cache.pending());
+
+		tick(4, 1, 2, 3, 4, 5, 6, 7);
+		assertEquals(7, this.raycaster.calls.size());
+	}
+
+	@Test
+	public void subjectsNotOfferedAreDropped() {
+		tick(1, 1, 2, 3, 4, 5);
+		// 4 and 5 are waiting but are no longer offered
+		tick(2, 1, 2, 3);
+		assertEquals(3, this.raycaster.calls.size());
+		assertEquals(3, this.cache.size());
+		assertEquals(0, this.cache.pending());
+		assertFalse(this.cache.isVisible(4));
+	}
+
+	@Test
+	public void resultsExpireWithAge() {
+		tick(1, 1);
+		for (int t = 2; t < 1 + MAX_AGE; t++)
+			tick(t, 1);
+		assertEquals(1, this.raycaster.calls.size());
+		tick(1 + MAX_AGE, 1);
+		assertEquals(2, this.raycaster.calls.size());
+	}
+
+	@Test
+	public void cameraMovementInvalidates() {
+		tick(1, 0D, 1, 2);
+		tick(2, THRESHOLD * 0.9D, 1, 2);
+		assertEquals(2, this.raycaster.calls.size());
+
+		// Measured from where the camera was at evaluation, so creeping along
+		// in small steps still adds up
+		tick(3, THRESHOLD * 1.8D, 1, 2);
+		assertEquals(list(1, 2, 1, 2), this.raycaster.calls);
+	}
+
+	@Test
+	public void subjectMovementInvalidates() {
+		this.cache.begin(1, 0D, 0D, 0D);
+		this.cache.offer(1, 1, 10D, 0D, 0D);
+		this.cache.offer(2, 2, 10D, 0D, 5D);
+		this.cache.end();
+
+		this.cache.begin(2, 0D, 0D, 0D);
+		this.cache.offer(1, 1, 10D, THRESHOLD * 2D, 0D);
+		this.cache.offer(2, 2, 10D, 0D, 5D + THRESHOLD * 0.5D);
+		this.cache.end();
+
+		assertEquals(list(1, 2, 1), this.raycaster.calls);
+	}
+
+	@Test
+	public void blockChangeOnTheSightlineInvalidates() {
+		this.raycaster.visible.add(0);
+		this.raycaster.visible.add(5);
+		tick(1, 0, 5);
+
+		// Off to the side of both lines of sight
+		assertEquals(0, this.cache.invalidate(5, 10, 2));
+		// Halfway along the line to subject 0, which runs from (0,0,0) to (10,0,0)
+		assertEquals(1, this.cache.invalidate(4, 0, 0));
+		// Already waiting, so not counted again
+		assertEquals(0, this.cache.invalidate(5, 0, 0));
+
+		// The old result holds until the subject is evaluated again
+		assertTrue(this.cache.isVisible(0));
+		this.raycaster.visible.remove(0);
+		tick(2, 0, 5);
+		assertEquals(list(0, 5, 0), this.raycaster.calls);
+		assertFalse(this.cache.isVisible(0));
+		assertTrue(this.cache.isVisible(5));
+	}
+
+	@Test
+	public void blockChangeBehindTheSubjectIsIgnored() {
+		tick(1, 0);
+		// Past the subject along the same line
+		assertEquals(0, this.cache.invalidate(12, 0, 0));
+		// Right behind the camera
+		assertEquals(0, this.cache.invalidate(-2, 0, 0));
+	}
+
+	@Test
+	public void clearForgetsEverything() {
+		this.raycaster.visible.add(1);
+		tick(1, 1, 2, 3, 4);
+		this.cache.clear();
+		assertEquals(0, this.cache.size());
+		assertEquals(0, this.cache.pending());
+		assertFalse(this.cache.isVisible(1));
+	}
+}
@@ -0,0 +1,211 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.sound;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MixerGraphTest {
+
+	private static final float EPSILON = 1E-5F;
+
+	private final MixerGraph graph = new MixerGraph();
+	private final Set<String> active = new HashSet<>();
+	private int master;
+	private int effects;
+	private int footsteps;
+	private int music;
+
+	@Before
+	public void setup() {
+		this.master = this.graph.addBus("master", null);
+		this.effects = this.graph.addBus("effects", "master");
+		this.footsteps = this.graph.addBus("footsteps", "effects");
+		this.music = this.graph.addBus("music", "master");
+	}
+
+	private boolean update() {
+		return this.graph.update(this.active::contains);
+	}
+
+	@Test
+	public void gainComposesUpParentChain() {
+		this.graph.setGain(this.master, 0.5F);
+		this.graph.setGain(this.effects, 0.5F);
+		this.graph.setGain(this.footsteps, 0.8F);
+		assertTrue(update());
+
+		assertEquals(0.5F, this.graph.getGain(this.master), EPSILON);
+		assertEquals(0.25F, this.graph.getGain(this.effects), EPSILON);
+		assertEquals(0.2F, this.graph.getGain(this.footsteps), EPSILON);
+		assertEquals(0.5F, this.graph.getGain(this.music), EPSILON);
+
+		// Nothing changed so nothing is flagged
+		assertFalse(update());
+		assertFalse(this.graph.isChanged(this.footsteps));
+
+		// A change at the root is seen by every descendant
+		this.graph.setGain(this.master, 1F);
+		assertTrue(update());
+		assertTrue(this.graph.isChanged(this.footsteps));
+		assertTrue(this.graph.isChanged(this.music));
+		assertEquals(0.4F, this.graph.getGain(this.footsteps), EPSILON);
+	}
+
+	@Test
+	public void badBuses() {
+		assertEquals(-1, this.graph.getBus("nope"));
+		try {
+			this.graph.addBus("master", null);
+			throw new AssertionError("Duplicate bus accepted");
+		} catch (final IllegalArgumentException expected) {
+			// Expected
+		}
+		try {
+			this.graph.addBus("orphan", "nope");
+			throw new AssertionError("Unknown parent accepted");
+		} catch (final IllegalArgumentException expected) {
+			// Expected
+		}
+		// Unknown targets are reported but the rule still applies to the rest
+		assertFalse(this.graph.addRule("battle", Arrays.asList("music", "nope"), 0.5F, 1F, 1F));
+		this.active.add("battle");
+		update();
+		assertEquals(0.5F, this.graph.getGain(this.music), EPSILON);
+	}
+
+	@Test
+	public void duckAttackAndRelease() {
+		assertTrue(this.graph.addRule("battle", Arrays.asList("effects"), 0.2F, 0.25F, 0.1F));
+		update();
+		assertEquals(1F, this.graph.getGain(this.effects), EPSILON);
+
+		// Ramps in over four updates and holds
+		this.active.add("battle");
+		final float[] attack = { 0.8F, 0.6F, 0.4F, 0.2F, 0.2F };
+		for (final float expected : attack) {
+			update();
+			assertEquals(expected, this.graph.getGain(this.effects), EPSILON);
+			// Children follow and siblings are left alone
+			assertEquals(expected, this.graph.getGain(this.footsteps), EPSILON);
+			assertEquals(1F, this.graph.getGain(this.music), EPSILON);
+		}
+
+		// Ramps out over ten updates
+		this.active.clear();
+		for (int i = 1; i <= 10; i++) {
+			update();
+			final float level = Math.max(0F, 1F - i * 0.1F);
+			assertEquals("release " + i, 1F - level * 0.8F, this.graph.getGain(this.effects), EPSILON);
+		}
+		assertFalse(update());
+		assertEquals(1F, this.graph.getGain(this.effects), EPSILON);
+	}
+
+	@Test
+	public void rulesOnSameBusMultiply() {
+		this.graph.addRule("battle", Arrays.asList("music"), 0.5F, 1F, 1F);
+		this.graph.addRule("preview", Arrays.asList("music", "effects"), 0.2F, 0.5F, 1F);
+
+		this.active.add("battle");
+		update();
+		assertEquals(0.5F, this.graph.getGain(this.music), EPSILON);
+		assertEquals(1F, this.graph.getGain(this.effects), EPSILON);
+
+		this.active.add("preview");
+		update();
+		// Preview is half way in: factor 1 - 0.5 * 0.8
+		assertEquals(0.5F * 0.6F, this.graph.getGain(this.music), EPSILON);
+		assertEquals(0.6F, this.graph.getGain(this.effects), EPSILON);
+		update();
+		assertEquals(0.5F * 0.2F, this.graph.getGain(this.music), EPSILON);
+
+		this.active.remove("battle");
+		update();
+		assertEquals(0.2F, this.graph.getGain(this.music), EPSILON);
+	}
+
+	@Test
+	public void reloadCarriesDuckLevel() {
+		this.graph.addRule("battle", Arrays.asList("music"), 0.2F, 0.25F, 0.25F);
+		this.active.add("battle");
+		update();
+		update();
+		assertEquals(0.6F, this.graph.getGain(this.music), EPSILON);
+
+		// Reload mid fade. The replacement rule continues from where the old one was
+		// even though its settings changed.
+		this.graph.clearRules();
+		this.graph.addRule("battle", Arrays.asList("music"), 0.2F, 0.5F, 0.25F);
+		assertEquals(1, this.graph.ruleCount());
+		update();
+		assertEquals(0.2F, this.graph.getGain(this.music), EPSILON);
+
+		// And releases from there
+		this.active.clear();
+		update();
+		assertEquals(0.4F, this.graph.getGain(this.music), EPSILON);
+	}
+
+	@Test
+	public void reloadDropsRemovedRules() {
+		this.graph.addRule("battle", Arrays.asList("music"), 0.2F, 0.5F, 0.5F);
+		this.active.add("battle");
+		update();
+		assertEquals(0.6F, this.graph.getGain(this.music), EPSILON);
+
+		// A rule that is no longer configured stops ducking right away
+		this.graph.clearRules();
+		this.graph.addRule("preview", Arrays.asList("music"), 0.2F, 0.5F, 0.5F);
+		assertTrue(update());
+		assertEquals(1F, this.graph.getGain(this.music), EPSILON);
+
+	}
+
+	@Test
+	public void carriedLevelsLastOneUpdate() {
+		this.graph.addRule("battle", Arrays.asList("music"), 0.2F, 0.5F, 0.5F);
+		this.active.add("battle");
+		update();
+		update();
+		assertEquals(0.2F, this.graph.getGain(this.music), EPSILON);
+
+		// A rule added after an update has passed starts from scratch
+		this.graph.clearRules();
+		update();
+		this.graph.addRule("battle", Arrays.asList("music"), 0.2F, 0.5F, 0.5F);
+		update();
+		assertEquals(0.6F, this.graph.getGain(this.music), EPSILON);
+	}
+
+}
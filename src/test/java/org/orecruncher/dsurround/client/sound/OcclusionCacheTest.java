@@ -0,0 +1,205 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.sound;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+public class OcclusionCacheTest {
+
+	private static final float EPSILON = 0.0001F;
+
+	// Same settings SoundOcclusion uses
+	private static final int INTERVAL = 10;
+	private static final int BUDGET = 8;
+	private static final int STALE = 40;
+	private static final float RATE = 0.35F;
+
+	// Keys are tracked by identity
+	private static final class FakeSound {
+		final String name;
+
+		FakeSound(@Nonnull final String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String toString() {
+			return this.name;
+		}
+	}
+
+	// Hands out whatever gain it is told and counts evaluations per key
+	private static final class FakeEvaluator implements OcclusionCache.IEvaluator<FakeSound> {
+		final Map<FakeSound, Float> gains = new HashMap<>();
+		final Map<FakeSound, Integer> counts = new HashMap<>();
+		final List<FakeSound> log = new ArrayList<>();
+
+		@Override
+		public void evaluate(@Nonnull final FakeSound key, @Nonnull final OcclusionCache.Entry<FakeSound> entry) {
+			this.log.add(key);
+			this.counts.merge(key, 1, Integer::sum);
+			entry.setTarget(this.gains.getOrDefault(key, 1F), 0F);
+		}
+	}
+
+	private final OcclusionCache<FakeSound> cache = new OcclusionCache<>(INTERVAL, BUDGET, STALE, RATE);
+	private final FakeEvaluator evaluator = new FakeEvaluator();
+
+	@Nonnull
+	private List<FakeSound> sounds(final int count) {
+		final List<FakeSound> sounds = new ArrayList<>();
+		for (int i = 0; i < count; i++)
+			sounds.add(new FakeSound("s" + i));
+		return sounds;
+	}
+
+	// The sound engine asks for every playing sound, then the cache updates
+	private void tick(final int tick, @Nonnull final List<FakeSound> playing) {
+		for (final FakeSound s : playing)
+			this.cache.get(s, tick, this.evaluator);
+		this.cache.update(tick, this.evaluator);
+	}
+
+	@Test
+	public void newEntriesAreEvaluatedRightAway() {
+		final FakeSound sound = new FakeSound("a");
+		this.evaluator.gains.put(sound, 0.25F);
+
+		final OcclusionCache.Entry<FakeSound> entry = this.cache.get(sound, 0, this.evaluator);
+		assertEquals(0.25F, entry.getGain(), EPSILON);
+		assertSame(entry, this.cache.get(sound, 1, this.evaluator));
+		assertEquals(1, this.evaluator.log.size());
+	}
+
+	@Test
+	public void reevaluatedWithinTheBudget() {
+		final List<FakeSound> playing = sounds(20);
+		tick(0, playing);
+		assertEquals(20, this.evaluator.log.size());
+		assertEquals(0, this.cache.getEvaluations());
+
+		// Nothing is due until ten ticks later
+		for (int t = 1; t < INTERVAL; t++) {
+			tick(t, playing);
+			assertEquals(0, this.cache.getEvaluations());
+		}
+
+		// Then eight a tick until all have had their turn
+		this.evaluator.log.clear();
+		tick(10, playing);
+		assertEquals(8, this.cache.getEvaluations());
+		tick(11, playing);
+		assertEquals(8, this.cache.getEvaluations());
+		tick(12, playing);
+		assertEquals(4, this.cache.getEvaluations());
+		tick(13, playing);
+		assertEquals(0, this.cache.getEvaluations());
+
+		assertEquals(20, this.evaluator.log.size());
+		for (final FakeSound s : playing)
+			assertEquals(s.name, Integer.valueOf(2), this.evaluator.counts.get(s));
+	}
+
+	@Test
+	public void budgetHoldsUnderLoad() {
+		final List<FakeSound> playing = sounds(200);
+		tick(0, playing);
+		this.evaluator.counts.clear();
+
+		// 200 sounds due every ten ticks is more than eight a tick can keep up
+		// with, but round robin still gets to every one of them.
+		final int ticks = 200 / BUDGET;
+		for (int t = 1; t <= INTERVAL + ticks; t++) {
+			tick(t, playing);
+			assertTrue(this.cache.getEvaluations() <= BUDGET);
+		}
+		for (final FakeSound s : playing)
+			assertNotNull(s.name, this.evaluator.counts.get(s));
+	}
+
+	@Test
+	public void unaskedEntriesAreDropped() {
+		final FakeSound kept = new FakeSound("kept");
+		final FakeSound stopped = new FakeSound("stopped");
+		this.cache.get(kept, 0, this.evaluator);
+		this.cache.get(stopped, 0, this.evaluator);
+
+		final List<FakeSound> playing = new ArrayList<>();
+		playing.add(kept);
+		for (int t = 1; t <= STALE; t++)
+			tick(t, playing);
+		assertEquals(2, this.cache.size());
+		assertNotNull(this.cache.peek(stopped));
+
+		// Forty ticks without being asked for is the limit
+		tick(STALE + 1, playing);
+		assertEquals(1, this.cache.size());
+		assertNull(this.cache.peek(stopped));
+		assertNotNull(this.cache.peek(kept));
+
+		// Dropped entries are not evaluated again
+		final int before = this.evaluator.counts.get(stopped);
+		for (int t = STALE + 2; t < STALE + 2 + INTERVAL * 2; t++)
+			tick(t, playing);
+		assertEquals(before, (int) this.evaluator.counts.get(stopped));
+
+		this.cache.clear();
+		assertEquals(0, this.cache.size());
+	}
+
+	@Test
+	public void changesAreEased() {
+		final FakeSound sound = new FakeSound("a");
+		final List<FakeSound> playing = new ArrayList<>();
+		playing.add(sound);
+		tick(0, playing);
+		assertEquals(1F, this.cache.peek(sound).getGain(), EPSILON);
+
+		// A wall appears. The new target is picked up on the next evaluation and
+		// the gain covers 35% of the distance each tick after that.
+		this.evaluator.gains.put(sound, 0F);
+		for (int t = 1; t <= INTERVAL; t++)
+			tick(t, playing);
+		assertEquals(1F, this.cache.peek(sound).getGain(), EPSILON);
+
+		tick(INTERVAL + 1, playing);
+		assertEquals(0.65F, this.cache.peek(sound).getGain(), EPSILON);
+		tick(INTERVAL + 2, playing);
+		assertEquals(0.65F * 0.65F, this.cache.peek(sound).getGain(), EPSILON);
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.sound;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+
+public class OcclusionTracerTest {
+
+	private static final float EPSILON = 0.0001F;
+
+	// Open everywhere except where told otherwise, and remembers the order
+	// voxels were asked for.
+	private static final class FakeGrid implements OcclusionTracer.IGrid {
+		final Long2IntOpenHashMap blocks = new Long2IntOpenHashMap();
+		final List<String> visited = new ArrayList<>();
+
+		private static long key(final int x, final int y, final int z) {
+			return ((long) x & 0xFFFFF) << 40 | ((long) y & 0xFFFFF) << 20 | ((long) z & 0xFFFFF);
+		}
+
+		FakeGrid set(final int x, final int y, final int z, final int id) {
+			this.blocks.put(key(x, y, z), id);
+			return this;
+		}
+
+		@Override
+		public int getMaterial(final int x, final int y, final int z) {
+			this.visited.add(x + "," + y + "," + z);
+			return this.blocks.get(key(x, y, z));
+		}
+	}
+
+	private final AbsorptionTable table = new AbsorptionTable();
+	private final int stone = this.table.add(0.5F, 0.4F);
+	private final int glass = this.table.add(0.2F, 0.1F);
+	private final int stoneSlab = this.table.addPartial(0.5F, 0.4F);
+	private final OcclusionTracer tracer = new OcclusionTracer(this.table, 48);
+
+	@Nonnull
+	private List<String> visit(final double x0, final double y0, final double z0, final double x1, final double y1,
+			final double z1) {
+		final FakeGrid grid = new FakeGrid();
+		this.tracer.trace(grid, x0, y0, z0, x1, y1, z1);
+		assertEquals(grid.visited.size(), this.tracer.getSteps());
+		return grid.visited;
+	}
+
+	@Test
+	public void axisAligned() {
+		// The blocks holding the listener and the source are not counted
+		assertEquals(Arrays.asList("1,0,0", "2,0,0", "3,0,0", "4,0,0"), visit(0.5, 0.5, 0.5, 5.5, 0.5, 0.5));
+		assertEquals(Arrays.asList("0,-1,0", "0,-2,0"), visit(0.5, 0.5, 0.5, 0.5, -2.5, 0.5));
+		assertEquals(Arrays.asList("-2,0,0", "-3,0,0"), visit(-0.5, 0.5, 0.5, -3.5, 0.5, 0.5));
+		assertEquals(Arrays.asList("0,0,1"), visit(0.9, 0.1, 0.5, 0.9, 0.1, 2.5));
+
+		// Same or neighboring block
+		assertEquals(Arrays.asList(), visit(0.1, 0.1, 0.1, 0.9, 0.9, 0.9));
+		assertEquals(Arrays.asList(), visit(0.5, 0.5, 0.5, 1.5, 0.5, 0.5));
+	}
+
+	@Test
+	public void diagonal() {
+		// X crosses at 1/6, 1/2 and 5/6 of the way, Y at 1/2; the tie goes to X
+		assertEquals(Arrays.asList("1,0,0", "2,0,0", "2,1,0"), visit(0.5, 0.5, 0.5, 3.5, 1.5, 0.5));
+
+		// Shallow slope through negative coordinates: X crosses every quarter
+		// starting at 1/8, Z once halfway
+		assertEquals(Arrays.asList("-2,0,-1", "-3,0,-1", "-3,0,-2", "-4,0,-2"),
+				visit(-0.5, 0.5, -0.5, -4.5, 0.5, -1.5));
+	}
+
+	@Test
+	public void exactTies() {
+		// Every crossing is a tie between X and Y: X goes first each time
+		assertEquals(Arrays.asList("1,0,0", "1,1,0", "2,1,0"), visit(0.5, 0.5, 0.5, 2.5, 2.5, 0.5));
+		assertEquals(Arrays.asList("-1,0,0", "-1,-1,0", "-2,-1,0"), visit(0.5, 0.5, 0.5, -1.5, -1.5, 0.5));
+
+		// Three way tie: X, then Y, then Z
+		assertEquals(Arrays.asList("1,0,0", "1,1,0", "1,1,1", "2,1,1", "2,2,1"),
+				visit(0.5, 0.5, 0.5, 2.5, 2.5, 2.5));
+
+		// Y before Z
+		assertEquals(Arrays.asList("0,1,0", "0,1,1", "0,2,1"), visit(0.5, 0.5, 0.5, 0.5, 2.5, 2.5));
+	}
+
+	@Test
+	public void mixedMaterials() {
+		final FakeGrid grid = new FakeGrid().set(1, 0, 0, this.stone).set(2, 0, 0, this.glass)
+				.set(3, 0, 0, this.stoneSlab);
+		// The blocks at either end do not count
+		grid.set(0, 0, 0, this.stone).set(5, 0, 0, this.stone);
+		this.tracer.trace(grid, 0.5, 0.5, 0.5, 5.5, 0.5, 0.5);
+
+		// Gain multiplies: stone 0.5, glass 0.8 and the slab half of stone at
+		// 0.75. Low-pass accumulates as 1 - (0.6 * 0.9 * 0.8).
+		assertEquals(0.5F * 0.8F * 0.75F, this.tracer.getGain(), EPSILON);
+		assertEquals(1F - 0.6F * 0.9F * 0.8F, this.tracer.getLowPass(), EPSILON);
+		assertEquals(4, this.tracer.getSteps());
+	}
+
+	@Test
+	public void partialBlocksCountHalf() {
+		assertEquals(0.75F, this.table.getTransmission(this.stoneSlab), EPSILON);
+		assertEquals(0.2F, this.table.getLowPass(this.stoneSlab), EPSILON);
+
+		final FakeGrid grid = new FakeGrid().set(1, 0, 0, this.stoneSlab).set(2, 0, 0, this.stoneSlab);
+		this.tracer.trace(grid, 0.5, 0.5, 0.5, 3.5, 0.5, 0.5);
+		assertEquals(0.75F * 0.75F, this.tracer.getGain(), EPSILON);
+		assertEquals(1F - 0.8F * 0.8F, this.tracer.getLowPass(), EPSILON);
+	}
+
+	@Test
+	public void openRayIsUntouched() {
+		this.tracer.trace(new FakeGrid(), 0.5, 64.5, 0.5, 10.5, 70.5, -6.5);
+		assertEquals(1F, this.tracer.getGain(), EPSILON);
+		assertEquals(0F, this.tracer.getLowPass(), EPSILON);
+	}
+
+	@Test
+	public void stopsOnceNothingGetsThrough() {
+		final FakeGrid grid = new FakeGrid();
+		for (int x = 1; x < 40; x++)
+			grid.set(x, 0, 0, this.stone);
+		this.tracer.trace(grid, 0.5, 0.5, 0.5, 40.5, 0.5, 0.5);
+
+		// 0.5^10 is the first below 0.001
+		assertEquals(0F, this.tracer.getGain(), EPSILON);
+		assertEquals(10, this.tracer.getSteps());
+	}
+
+	@Test
+	public void stepLimit() {
+		final OcclusionTracer limited = new OcclusionTracer(this.table, 3);
+		final FakeGrid grid = new FakeGrid();
+		for (int x = 1; x < 10; x++)
+			grid.set(x, 0, 0, this.glass);
+		limited.trace(grid, 0.5, 0.5, 0.5, 10.5, 0.5, 0.5);
+		assertEquals(3, limited.getSteps());
+		assertEquals(0.8F * 0.8F * 0.8F, limited.getGain(), EPSILON);
+		assertEquals(3, grid.visited.size());
+	}
+}
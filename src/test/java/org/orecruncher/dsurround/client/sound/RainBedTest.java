@@ -0,0 +1,224 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.sound;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class RainBedTest {
+
+	private static final float EPSILON = 0.0001F;
+
+	// A column probed around the listener
+	private static final class Splash {
+		final double dx;
+		final double dz;
+		final boolean wet;
+		final boolean sheltered;
+		final float weight;
+		final float bright;
+
+		Splash(final double dx, final double dz, final boolean wet, final boolean sheltered, final float weight,
+				final float bright) {
+			this.dx = dx;
+			this.dz = dz;
+			this.wet = wet;
+			this.sheltered = sheltered;
+			this.weight = weight;
+			this.bright = bright;
+		}
+	}
+
+	private static Splash open(final double dx, final double dz) {
+		return new Splash(dx, dz, true, false, 1F, 0.5F);
+	}
+
+	private static Splash covered(final double dx, final double dz) {
+		return new Splash(dx, dz, true, true, 1F, 0.5F);
+	}
+
+	private static Splash dry(final double dx, final double dz) {
+		return new Splash(dx, dz, false, false, 0F, 0F);
+	}
+
+	private final RainBed bed = new RainBed();
+
+	// Feeds the same columns until the smoothing has caught up
+	private void settle(final float intensity, final Splash... splashes) {
+		for (int i = 0; i < 200; i++) {
+			this.bed.begin();
+			for (final Splash s : splashes)
+				if (s.wet)
+					this.bed.addColumn(s.dx, s.dz, s.sheltered, s.weight, s.bright);
+				else
+					this.bed.addDry(s.dx, s.dz);
+			this.bed.update(intensity);
+		}
+	}
+
+	@Test
+	public void quadrants() {
+		// North is -Z
+		assertEquals(RainBed.NORTH_EAST, RainBed.quadrant(1, -1));
+		assertEquals(RainBed.NORTH_WEST, RainBed.quadrant(-1, -1));
+		assertEquals(RainBed.SOUTH_WEST, RainBed.quadrant(-1, 1));
+		assertEquals(RainBed.SOUTH_EAST, RainBed.quadrant(1, 1));
+
+		// On an axis the column goes east and south
+		assertEquals(RainBed.NORTH_EAST, RainBed.quadrant(0, -1));
+		assertEquals(RainBed.SOUTH_EAST, RainBed.quadrant(1, 0));
+		assertEquals(RainBed.SOUTH_WEST, RainBed.quadrant(-1, 0));
+		assertEquals(RainBed.SOUTH_EAST, RainBed.quadrant(0, 0));
+	}
+
+	@Test
+	public void singleOpenColumn() {
+		settle(0.8F, open(3, -3));
+
+		assertEquals(0.8F, this.bed.getGain(RainBed.NORTH_EAST), EPSILON);
+		assertEquals(0F, this.bed.getGain(RainBed.NORTH_WEST), EPSILON);
+		assertEquals(0F, this.bed.getGain(RainBed.SOUTH_WEST), EPSILON);
+		assertEquals(0F, this.bed.getGain(RainBed.SOUTH_EAST), EPSILON);
+		assertEquals(0F, this.bed.getGain(RainBed.ROOF), EPSILON);
+
+		// The loop sits on the column, and mid brightness leaves the pitch alone
+		assertEquals(3F, this.bed.getOffsetX(RainBed.NORTH_EAST), EPSILON);
+		assertEquals(-3F, this.bed.getOffsetZ(RainBed.NORTH_EAST), EPSILON);
+		assertEquals(1F, this.bed.getPitch(RainBed.NORTH_EAST), EPSILON);
+		assertEquals(0F, this.bed.getEnclosure(), EPSILON);
+	}
+
+	@Test
+	public void quadrantWeightsFavorNearColumns() {
+		// Weights are 1 / (1 + d^2 / 36): 4/9 for the wet column at d^2 = 45
+		// and 1/6 for the dry one at d^2 = 180, so 8/11 of the quadrant is wet.
+		settle(1F, open(-3, 6), dry(-6, 12));
+		assertEquals(8F / 11F, this.bed.getGain(RainBed.SOUTH_WEST), EPSILON);
+
+		// Swapped, the wet column is the far one
+		this.bed.reset();
+		settle(1F, dry(-3, 6), open(-6, 12));
+		assertEquals(3F / 11F, this.bed.getGain(RainBed.SOUTH_WEST), EPSILON);
+
+		// The loop is placed at the weighted mean of the wet columns, but no
+		// further out than six blocks
+		assertEquals(-6F, this.bed.getOffsetX(RainBed.SOUTH_WEST), EPSILON);
+		assertEquals(6F, this.bed.getOffsetZ(RainBed.SOUTH_WEST), EPSILON);
+	}
+
+	@Test
+	public void surfaceWeightAndBrightness() {
+		// A quiet, dull surface next to a loud, sharp one: exposure is 1/2 and
+		// 1/2 * (0.25 + 1) of the two equal weights
+		settle(1F, new Splash(5, 5, true, false, 0.25F, 0F), new Splash(5, 5, true, false, 1F, 1F));
+		assertEquals(0.625F, this.bed.getGain(RainBed.SOUTH_EAST), EPSILON);
+		// Brightness is averaged by exposure: 0.8, so pitch is 0.9 + 0.16
+		assertEquals(1.06F, this.bed.getPitch(RainBed.SOUTH_EAST), EPSILON);
+	}
+
+	@Test
+	public void fullCoverFeedsTheRoof() {
+		// Everything within four blocks is sheltered, open rain further out
+		settle(1F, covered(1, 1), covered(-1, -1), covered(2, -2), open(8, -8));
+
+		assertEquals(1F, this.bed.getEnclosure(), EPSILON);
+		assertEquals(1F, this.bed.getGain(RainBed.ROOF), EPSILON);
+		assertEquals(0.5F, this.bed.getPitch(RainBed.ROOF), EPSILON);
+
+		// Rain on the roof is not rain in the quadrant. The open column in the
+		// NE is heard at half volume and a quarter lower through the shelter.
+		assertEquals(0F, this.bed.getGain(RainBed.SOUTH_EAST), EPSILON);
+		assertEquals(0F, this.bed.getGain(RainBed.NORTH_WEST), EPSILON);
+		final float wNear = 1F / (1F + 8F / 36F);
+		final float wFar = 1F / (1F + 128F / 36F);
+		assertEquals(0.5F * wFar / (wNear + wFar), this.bed.getGain(RainBed.NORTH_EAST), EPSILON);
+		assertEquals(0.75F, this.bed.getPitch(RainBed.NORTH_EAST), EPSILON);
+	}
+
+	@Test
+	public void partialCoverSplitsTheRoof() {
+		// Same distance on both sides, one sheltered and one dry
+		settle(1F, covered(1, 1), dry(-1, -1));
+
+		assertEquals(0.5F, this.bed.getEnclosure(), EPSILON);
+		assertEquals(0.5F, this.bed.getGain(RainBed.ROOF), EPSILON);
+		assertEquals(0F, this.bed.getGain(RainBed.SOUTH_EAST), EPSILON);
+		assertEquals(0F, this.bed.getGain(RainBed.NORTH_WEST), EPSILON);
+
+		// Half open rain beyond the roof is turned down by a quarter
+		this.bed.reset();
+		settle(1F, covered(1, 1), dry(1, -1), dry(-5, -5), open(-5, -5));
+		assertEquals(0.5F, this.bed.getEnclosure(), EPSILON);
+		assertEquals(0.5F * 0.75F, this.bed.getGain(RainBed.NORTH_WEST), EPSILON);
+	}
+
+	@Test
+	public void shelteredAwayFromTheListenerIsHalved() {
+		settle(1F, covered(6, 6));
+		assertEquals(0.5F, this.bed.getGain(RainBed.SOUTH_EAST), EPSILON);
+		assertEquals(0F, this.bed.getGain(RainBed.ROOF), EPSILON);
+		assertEquals(0F, this.bed.getEnclosure(), EPSILON);
+	}
+
+	@Test
+	public void smoothingAndReset() {
+		this.bed.begin();
+		this.bed.addColumn(3, -3, false, 1F, 0.5F);
+		this.bed.update(1F);
+		assertEquals(0.15F, this.bed.getGain(RainBed.NORTH_EAST), EPSILON);
+
+		this.bed.reset();
+		assertEquals(0F, this.bed.getGain(RainBed.NORTH_EAST), EPSILON);
+		assertEquals(0F, this.bed.getOffsetX(RainBed.NORTH_EAST), EPSILON);
+		assertEquals(0F, this.bed.getEnclosure(), EPSILON);
+	}
+
+	@Test
+	public void channelCountIsFixed() {
+		assertEquals(5, RainBed.LAYERS);
+
+		// However many columns are fed in there are the same five layers, each
+		// no louder than the rain itself.
+		final Random rnd = new Random(1234);
+		for (final int columns : new int[] { 1, 100, 10000, 100000 }) {
+			this.bed.reset();
+			for (int tick = 0; tick < 50; tick++) {
+				this.bed.begin();
+				for (int i = 0; i < columns; i++)
+					this.bed.addColumn(rnd.nextGaussian() * 10, rnd.nextGaussian() * 10, rnd.nextBoolean(), 1F,
+							rnd.nextFloat());
+				this.bed.update(1F);
+			}
+			for (int layer = 0; layer < RainBed.LAYERS; layer++) {
+				final float gain = this.bed.getGain(layer);
+				assertTrue(columns + " columns, layer " + layer + ": " + gain, gain >= 0F && gain <= 1F);
+			}
+		}
+	}
+}
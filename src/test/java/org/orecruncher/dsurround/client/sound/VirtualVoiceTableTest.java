@@ -0,0 +1,187 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.client.sound;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+public class VirtualVoiceTableTest {
+
+	// Same settings the emitters use
+	private static final int STALE_TICKS = 40;
+	private static final int ERROR_DELAY = 10;
+
+	/*
+	 * Stands in for the sound engine. Records each play attempt and refuses the
+	 * voices it is told to.
+	 */
+	private static final class FakeEngine implements Predicate<String> {
+
+		final List<String> attempts = new ArrayList<>();
+		final Set<String> refuse = new HashSet<>();
+
+		@Override
+		public boolean test(final String voice) {
+			this.attempts.add(voice);
+			return !this.refuse.contains(voice);
+		}
+	}
+
+	private final VirtualVoiceTable<String> table = new VirtualVoiceTable<>(STALE_TICKS, ERROR_DELAY);
+	private final FakeEngine engine = new FakeEngine();
+
+	private static List<String> list(final String... voices) {
+		final List<String> result = new ArrayList<>();
+		for (final String v : voices)
+			result.add(v);
+		return result;
+	}
+
+	@Test
+	public void promotesInPriorityOrder() {
+		this.table.virtualize("quiet", 0, 0, 0.1F);
+		this.table.virtualize("loud", 0, 0, 0.9F);
+		this.table.virtualize("middle", 0, 0, 0.5F);
+		this.table.virtualize("soft", 0, 0, 0.3F);
+
+		assertEquals(2, this.table.promote(2, 1, this.engine));
+		assertEquals(list("loud", "middle"), this.engine.attempts);
+		assertFalse(this.table.isVirtual("loud"));
+		assertFalse(this.table.isVirtual("middle"));
+		assertEquals(2, this.table.size());
+
+		this.engine.attempts.clear();
+		assertEquals(2, this.table.promote(5, 2, this.engine));
+		assertEquals(list("soft", "quiet"), this.engine.attempts);
+		assertEquals(0, this.table.size());
+	}
+
+	@Test
+	public void touchChangesOrder() {
+		this.table.virtualize("a", 0, 0, 0.9F);
+		this.table.virtualize("b", 0, 0, 0.1F);
+		assertTrue(this.table.touch("b", 1, 1.0F));
+		assertFalse(this.table.touch("c", 1, 1.0F));
+
+		assertEquals(1, this.table.promote(1, 1, this.engine));
+		assertEquals(list("b"), this.engine.attempts);
+	}
+
+	@Test
+	public void noFreeChannels() {
+		this.table.virtualize("a", 0, 0, 0.9F);
+		assertEquals(0, this.table.promote(0, 1, this.engine));
+		assertTrue(this.engine.attempts.isEmpty());
+		assertTrue(this.table.isVirtual("a"));
+	}
+
+	@Test
+	public void failedPromotionIsHeld() {
+		this.table.virtualize("a", 0, 0, 0.9F);
+		this.table.virtualize("b", 0, 0, 0.5F);
+		this.engine.refuse.add("a");
+
+		// The failure does not use up the slot so the next voice gets it
+		assertEquals(1, this.table.promote(1, 5, this.engine));
+		assertEquals(list("a", "b"), this.engine.attempts);
+		assertTrue(this.table.isVirtual("a"));
+
+		// Held until the error delay has passed even though it is the loudest
+		this.engine.attempts.clear();
+		this.engine.refuse.clear();
+		for (int tick = 6; tick < 5 + ERROR_DELAY; tick++) {
+			this.table.touch("a", tick, 0.9F);
+			assertEquals(0, this.table.promote(4, tick, this.engine));
+		}
+		assertTrue(this.engine.attempts.isEmpty());
+
+		this.table.touch("a", 5 + ERROR_DELAY, 0.9F);
+		assertEquals(1, this.table.promote(4, 5 + ERROR_DELAY, this.engine));
+		assertEquals(list("a"), this.engine.attempts);
+		assertFalse(this.table.isVirtual("a"));
+	}
+
+	@Test
+	public void zeroPriorityNeverAttempted() {
+		this.table.virtualize("silent", 0, 0, 0F);
+		this.table.virtualize("negative", 0, 0, -1F);
+		for (int tick = 1; tick <= 20; tick++) {
+			this.table.touch("silent", tick, 0F);
+			this.table.touch("negative", tick, -1F);
+			assertEquals(0, this.table.promote(8, tick, this.engine));
+		}
+		assertTrue(this.engine.attempts.isEmpty());
+		assertEquals(2, this.table.size());
+
+		// Once it can be heard it is eligible again
+		this.table.touch("silent", 21, 0.2F);
+		assertEquals(1, this.table.promote(8, 21, this.engine));
+		assertEquals(list("silent"), this.engine.attempts);
+	}
+
+	@Test
+	public void unseenVoicesDropped() {
+		this.table.virtualize("kept", 0, 0, 0.5F);
+		this.table.virtualize("lost", 0, 0, 0.5F);
+
+		for (int tick = 1; tick <= STALE_TICKS + 1; tick++) {
+			this.table.touch("kept", tick, 0.5F);
+			this.table.promote(0, tick, this.engine);
+			if (tick <= STALE_TICKS)
+				assertTrue("tick " + tick, this.table.isVirtual("lost"));
+		}
+
+		assertFalse(this.table.isVirtual("lost"));
+		assertTrue(this.table.isVirtual("kept"));
+		assertEquals(1, this.table.size());
+
+		// Dropped voices are not played
+		assertEquals(1, this.table.promote(4, STALE_TICKS + 2, this.engine));
+		assertEquals(list("kept"), this.engine.attempts);
+	}
+
+	@Test
+	public void positionTracksStartTick() {
+		assertEquals(-1, this.table.getPosition("a", 10));
+		this.table.virtualize("a", 3, 10, 0.5F);
+		assertEquals(7, this.table.getPosition("a", 10));
+		// Virtualizing again only refreshes the priority
+		this.table.virtualize("a", 12, 12, 0.6F);
+		assertEquals(17, this.table.getPosition("a", 20));
+		assertTrue(this.table.remove("a"));
+		assertEquals(-1, this.table.getPosition("a", 20));
+		assertFalse(this.table.remove("a"));
+	}
+
+}
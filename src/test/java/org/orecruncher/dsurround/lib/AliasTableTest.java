@@ -0,0 +1,114 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class AliasTableTest {
+
+	private static final int SAMPLES = 1000000;
+
+	/*
+	 * Draws from the table and checks each item is selected in proportion to its
+	 * weight. The tolerance is five standard deviations of the binomial count so
+	 * a correct table does not fail by chance.
+	 */
+	private static void checkDistribution(final int[] weights, final long seed) {
+		final Integer[] items = new Integer[weights.length];
+		for (int i = 0; i < items.length; i++)
+			items[i] = i;
+
+		final AliasTable<Integer> table = new AliasTable<>(items, weights);
+		final Random random = new Random(seed);
+		final int[] counts = new int[weights.length];
+		for (int i = 0; i < SAMPLES; i++)
+			counts[table.next(random)]++;
+
+		long total = 0;
+		for (final int w : weights)
+			if (w > 0)
+				total += w;
+
+		for (int i = 0; i < weights.length; i++) {
+			if (weights[i] <= 0) {
+				assertEquals("Item with no weight was selected", 0, counts[i]);
+				continue;
+			}
+			final double p = (double) weights[i] / total;
+			final double expected = p * SAMPLES;
+			final double sigma = Math.sqrt(SAMPLES * p * (1.0D - p));
+			assertTrue(String.format("item %d: expected %.0f, got %d", i, expected, counts[i]),
+					Math.abs(counts[i] - expected) <= 5.0D * sigma + 1.0D);
+		}
+	}
+
+	@Test
+	public void uniformWeights() {
+		checkDistribution(new int[] { 1, 1, 1, 1, 1 }, 1L);
+	}
+
+	@Test
+	public void skewedWeights() {
+		// Typical biome spot sound weights
+		checkDistribution(new int[] { 10, 10, 1, 30, 5, 100, 2 }, 2L);
+	}
+
+	@Test
+	public void zeroAndNegativeWeightsAreNeverSelected() {
+		checkDistribution(new int[] { 0, 5, -3, 15, 0 }, 3L);
+	}
+
+	@Test
+	public void singleItem() {
+		checkDistribution(new int[] { 7 }, 4L);
+	}
+
+	@Test
+	public void emptyTableSelectsNothing() {
+		final AliasTable<String> table = new AliasTable<>(new String[] { "a", "b" }, new int[] { 0, 0 });
+		assertTrue(table.isEmpty());
+		assertNull(table.next(new Random(5L)));
+	}
+
+	@Test
+	public void sameSeedSameSequence() {
+		final AliasTable<String> table = new AliasTable<>(new String[] { "a", "b", "c" }, new int[] { 3, 1, 6 });
+		final Random r1 = new Random(99L);
+		final Random r2 = new Random(99L);
+		for (int i = 0; i < 1000; i++)
+			assertEquals(table.next(r1), table.next(r2));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void mismatchedLengths() {
+		new AliasTable<>(new String[] { "a", "b" }, new int[] { 1 });
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ClassResolverTest {
+
+	// Synthetic hierarchy standing in for the entity classes:
+	//
+	// Base
+	// +-- Living
+	// |   +-- Mob
+	// |   |   +-- Zombie
+	// |   |   |   +-- Husk
+	// |   |   +-- Skeleton
+	// |   +-- Animal
+	// |       +-- Cow
+	// +-- Item
+	private static class Base {
+	}
+
+	private static class Living extends Base {
+	}
+
+	private static class Mob extends Living {
+	}
+
+	private static class Zombie extends Mob {
+	}
+
+	private static class Husk extends Zombie {
+	}
+
+	private static class Skeleton extends Mob {
+	}
+
+	private static class Animal extends Living {
+	}
+
+	private static class Cow extends Animal {
+	}
+
+	private static class Item extends Base {
+	}
+
+	private static final Class<?>[] ALL = { Base.class, Living.class, Mob.class, Zombie.class, Husk.class,
+			Skeleton.class, Animal.class, Cow.class, Item.class };
+
+	private static final String DEFAULT = "default";
+
+	@Test
+	public void unconfiguredGetsTheDefault() {
+		final ClassResolver<String> resolver = new ClassResolver<>(DEFAULT);
+		for (final Class<?> c : ALL)
+			assertSame(DEFAULT, resolver.resolve(c));
+		assertSame(DEFAULT, resolver.resolve(Object.class));
+	}
+
+	@Test
+	public void mostSpecificAncestorWins() {
+		final ClassResolver<String> resolver = new ClassResolver<>(DEFAULT);
+		resolver.put(Living.class, "living");
+		resolver.put(Zombie.class, "zombie");
+
+		assertEquals(DEFAULT, resolver.resolve(Base.class));
+		assertEquals(DEFAULT, resolver.resolve(Item.class));
+		assertEquals("living", resolver.resolve(Living.class));
+		assertEquals("living", resolver.resolve(Mob.class));
+		assertEquals("living", resolver.resolve(Skeleton.class));
+		assertEquals("living", resolver.resolve(Cow.class));
+		assertEquals("zombie", resolver.resolve(Zombie.class));
+		assertEquals("zombie", resolver.resolve(Husk.class));
+	}
+
+	@Test
+	public void insertionOrderDoesNotMatter() {
+		// Every order of the same configuration resolves the same way
+		final Class<?>[] configured = { Base.class, Mob.class, Husk.class, Animal.class };
+		final ClassResolver<String> reference = new ClassResolver<>(DEFAULT);
+		for (final Class<?> c : configured)
+			reference.put(c, c.getSimpleName());
+
+		final List<Class<?>> order = new ArrayList<>();
+		Collections.addAll(order, configured);
+		final Random random = new Random(1L);
+		for (int trial = 0; trial < 50; trial++) {
+			Collections.shuffle(order, random);
+			final ClassResolver<String> resolver = new ClassResolver<>(DEFAULT);
+			// Resolve a few classes part way through to make sure an earlier
+			// lookup does not pin a stale answer
+			for (int i = 0; i < order.size(); i++) {
+				resolver.put(order.get(i), order.get(i).getSimpleName());
+				resolver.resolve(ALL[random.nextInt(ALL.length)]);
+			}
+			for (final Class<?> c : ALL)
+				assertEquals(c.getSimpleName(), reference.resolve(c), resolver.resolve(c));
+		}
+	}
+
+	@Test
+	public void removeFallsBackToTheAncestor() {
+		final ClassResolver<String> resolver = new ClassResolver<>(DEFAULT);
+		resolver.put(Mob.class, "mob");
+		resolver.put(Zombie.class, "zombie");
+		assertEquals("zombie", resolver.resolve(Husk.class));
+
+		resolver.remove(Zombie.class);
+		assertEquals("mob", resolver.resolve(Husk.class));
+		assertEquals("mob", resolver.resolve(Zombie.class));
+
+		resolver.remove(Mob.class);
+		assertSame(DEFAULT, resolver.resolve(Husk.class));
+		assertEquals(0, resolver.size());
+	}
+
+	@Test
+	public void clearForgetsEverything() {
+		final ClassResolver<String> resolver = new ClassResolver<>(DEFAULT);
+		resolver.put(Base.class, "base");
+		assertEquals("base", resolver.resolve(Cow.class));
+		resolver.clear();
+		assertSame(DEFAULT, resolver.resolve(Cow.class));
+	}
+
+	@Test
+	public void seededRandomConfigurations() {
+		// Compare against a brute force walk for random configurations
+		final Random random = new Random(2L);
+		for (int trial = 0; trial < 500; trial++) {
+			final ClassResolver<Integer> resolver = new ClassResolver<>(-1);
+			final Integer[] values = new Integer[ALL.length];
+			for (int i = 0; i < ALL.length; i++) {
+				if (random.nextInt(3) == 0) {
+					values[i] = random.nextInt(1000);
+					resolver.put(ALL[i], values[i]);
+				}
+			}
+			for (final Class<?> c : ALL)
+				assertEquals(expected(c, values), resolver.resolve(c));
+		}
+	}
+
+	private static Integer expected(final Class<?> clazz, final Integer[] values) {
+		for (Class<?> c = clazz; c != null; c = c.getSuperclass())
+			for (int i = 0; i < ALL.length; i++)
+				if (ALL[i] == c && values[i] != null)
+					return values[i];
+		return -1;
+	}
+}
@@ -0,0 +1,219 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class StormFieldTest {
+
+	private static final double[] ORIGIN = { 0D, 0D };
+
+	// Fastest a cell can move: the strongest wind plus the most jitter on both
+	// axes. Steering only blends toward the wind so it never adds speed.
+	private static final double SPEED_LIMIT = StormField.MAX_WIND + StormField.CELL_JITTER * Math.sqrt(2D);
+
+	private static void assertSameCells(final StormField expected, final StormField actual) {
+		assertEquals(expected.getSteps(), actual.getSteps());
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.getX(i), actual.getX(i), 0D);
+			assertEquals(expected.getZ(i), actual.getZ(i), 0D);
+			assertEquals(expected.getRadius(i), actual.getRadius(i), 0F);
+			assertEquals(expected.getLevel(i), actual.getLevel(i), 0F);
+			assertEquals(expected.getThunderChance(i), actual.getThunderChance(i), 0F);
+		}
+	}
+
+	@Test
+	public void sameResultForAnyTickCadence() {
+		final int steps = 3000;
+		final StormField perStep = new StormField(42L);
+		final StormField allAtOnce = new StormField(42L);
+		final StormField ragged = new StormField(42L);
+
+		for (int i = 0; i < steps; i++)
+			assertEquals(1, perStep.advance(StormField.STEP_TICKS, true, ORIGIN, 1));
+
+		assertEquals(steps, allAtOnce.advance(steps * StormField.STEP_TICKS, true, ORIGIN, 1));
+
+		// Uneven chunks, with the leftover ticks carried between calls
+		final int[] chunks = { 1, 7, 19, 20, 21, 33, 59 };
+		int remaining = steps * StormField.STEP_TICKS;
+		for (int i = 0; remaining > 0; i++) {
+			final int t = Math.min(remaining, chunks[i % chunks.length]);
+			ragged.advance(t, true, ORIGIN, 1);
+			remaining -= t;
+		}
+
+		assertTrue(perStep.size() > 0);
+		assertSameCells(perStep, allAtOnce);
+		assertSameCells(perStep, ragged);
+	}
+
+	@Test
+	public void sameSeedSameWeather() {
+		final StormField a = new StormField(7L);
+		final StormField b = new StormField(7L);
+		final double[] anchors = { 0D, 0D, 3000D, -1200D };
+		a.advance(2000 * StormField.STEP_TICKS, true, anchors, 2);
+		b.advance(2000 * StormField.STEP_TICKS, true, anchors, 2);
+		assertSameCells(a, b);
+	}
+
+	@Test
+	public void cellsDriftWithinWindLimits() {
+		for (long seed = 1; seed <= 5; seed++) {
+			final StormField field = new StormField(seed);
+			final double[] sum = new double[2];
+			for (int step = 0; step < 5000; step++) {
+				field.advance(StormField.STEP_TICKS, true, ORIGIN, 1);
+				field.forEachNear(0D, 0D, Double.MAX_VALUE, (x, z, vx, vz, radius, level, thunder) -> {
+					final double speed = Math.sqrt(vx * vx + vz * vz);
+					assertTrue(speed <= SPEED_LIMIT);
+					sum[0] += speed;
+					sum[1]++;
+				});
+			}
+
+			// Cells settle on the prevailing wind so on average they move at a
+			// speed the wind can have.
+			final double mean = sum[0] / sum[1];
+			assertTrue("seed " + seed + " mean " + mean, mean >= StormField.MIN_WIND && mean <= StormField.MAX_WIND);
+		}
+	}
+
+	@Test
+	public void cellsMoveByTheirVelocity() {
+		final StormField field = new StormField(3L);
+		field.advance(500 * StormField.STEP_TICKS, true, ORIGIN, 1);
+
+		// With no rain nothing spawns, so while the count holds the cells keep
+		// their indices and each step moves them a step's worth of drift.
+		int checked = 0;
+		while (field.size() > 0) {
+			final int count = field.size();
+			final double[] x = new double[count];
+			final double[] z = new double[count];
+			for (int i = 0; i < count; i++) {
+				x[i] = field.getX(i);
+				z[i] = field.getZ(i);
+			}
+			field.advance(StormField.STEP_TICKS, false, ORIGIN, 1);
+			if (field.size() != count)
+				continue;
+			for (int i = 0; i < count; i++) {
+				final double dx = field.getX(i) - x[i];
+				final double dz = field.getZ(i) - z[i];
+				assertTrue(Math.sqrt(dx * dx + dz * dz) <= SPEED_LIMIT * StormField.STEP_TICKS + 1E-6D);
+				checked++;
+			}
+		}
+		assertTrue(checked > 0);
+	}
+
+	@Test
+	public void replicaDriftMatchesVelocity() {
+		final StormField replica = new StormField();
+		replica.add(100D, -50D, 0.2F, -0.1F, 200F, 0.5F, 0F);
+		for (int i = 0; i < 3; i++)
+			replica.drift(StormField.STEP_TICKS);
+		assertEquals(100D + 0.2F * 60, replica.getX(0), 1E-4D);
+		assertEquals(-50D - 0.1F * 60, replica.getZ(0), 1E-4D);
+		assertEquals(0.5F, replica.getLevel(0), 0F);
+	}
+
+	@Test
+	public void coverageAroundAnchor() {
+		for (long seed = 1; seed <= 5; seed++) {
+			final StormField field = new StormField(seed);
+			field.setStrengthRange(0.2F, 0.6F);
+
+			// Let the field reach a steady state before sampling
+			field.advance(2000 * StormField.STEP_TICKS, true, ORIGIN, 1);
+
+			double coverage = 0D;
+			int samples = 0;
+			for (int step = 0; step < 10000; step++) {
+				field.advance(StormField.STEP_TICKS, true, ORIGIN, 1);
+				assertTrue(field.size() <= StormField.MAX_CELLS);
+				for (int i = 0; i < field.size(); i++)
+					assertTrue(field.getLevel(i) <= 0.6F);
+				if (step % 10 != 0)
+					continue;
+				int wet = 0;
+				int total = 0;
+				for (int x = -512; x <= 512; x += 64)
+					for (int z = -512; z <= 512; z += 64) {
+						final float intensity = field.getIntensity(x, z);
+						assertTrue(intensity >= 0F && intensity <= 1F);
+						total++;
+						if (intensity > 0F)
+							wet++;
+					}
+				coverage += (double) wet / total;
+				samples++;
+			}
+
+			// Patchy: rain over a good part of the area, but not all of it
+			coverage /= samples;
+			assertTrue("seed " + seed + " coverage " + coverage, coverage > 0.3D && coverage < 0.95D);
+		}
+	}
+
+	@Test
+	public void stormsDissipateWhenRainStops() {
+		// The longest lived cell ages out this many steps after the rain stops
+		final int limit = StormField.MAX_LIFE / (StormField.STEP_TICKS * StormField.DISSIPATE_RATE);
+		for (long seed = 1; seed <= 5; seed++) {
+			final StormField field = new StormField(seed);
+			field.advance(3000 * StormField.STEP_TICKS, true, ORIGIN, 1);
+			assertTrue(field.size() > 0);
+
+			int steps = 0;
+			while (field.size() > 0) {
+				final int before = field.size();
+				field.advance(StormField.STEP_TICKS, false, ORIGIN, 1);
+				assertTrue(field.size() <= before);
+				steps++;
+			}
+			assertTrue("seed " + seed + " took " + steps, steps <= limit);
+		}
+	}
+
+	@Test
+	public void cellsAwayFromAnchorsAreDropped() {
+		final StormField field = new StormField(11L);
+		field.advance(1000 * StormField.STEP_TICKS, true, ORIGIN, 1);
+		assertTrue(field.size() > 0);
+
+		final double[] far = { 100000D, 100000D };
+		field.advance(StormField.STEP_TICKS, false, far, 1);
+		assertEquals(0, field.size());
+		assertEquals(0F, field.getIntensity(0D, 0D), 0F);
+	}
+}
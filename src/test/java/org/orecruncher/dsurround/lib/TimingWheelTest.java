@@ -0,0 +1,209 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TimingWheelTest {
+
+	// Item that remembers when it was supposed to fire
+	private static final class Item {
+		final int deadline;
+		final Object owner;
+		int firedAt = Integer.MIN_VALUE;
+		boolean fired;
+
+		Item(final int deadline, final Object owner) {
+			this.deadline = deadline;
+			this.owner = owner;
+		}
+	}
+
+	/*
+	 * Steps the wheel one tick at a time, recording the tick each item fired on.
+	 */
+	private static void run(final TimingWheel<Item> wheel, final int from, final int ticks) {
+		for (int i = 0; i < ticks; i++) {
+			final int tick = from + i;
+			wheel.advance(tick, item -> {
+				assertTrue("Item fired twice", !item.fired);
+				item.fired = true;
+				item.firedAt = tick;
+			});
+		}
+	}
+
+	@Test
+	public void firesOnTheDeadlineAtEveryLevel() {
+		final TimingWheel<Item> wheel = new TimingWheel<>(0);
+		final int[] deadlines = { 0, 1, 63, 64, 65, 4095, 4096, 4097, 262143, 262144, 300000 };
+		final List<Item> items = new ArrayList<>();
+		for (final int d : deadlines) {
+			final Item item = new Item(d, null);
+			items.add(item);
+			wheel.schedule(d, null, item);
+		}
+
+		run(wheel, 0, 300001);
+
+		for (final Item item : items)
+			assertEquals(item.deadline, item.firedAt);
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void pastDeadlinesFireOnTheNextAdvance() {
+		final TimingWheel<Item> wheel = new TimingWheel<>(100);
+		final Item item = new Item(50, null);
+		wheel.schedule(50, null, item);
+		run(wheel, 100, 1);
+		assertEquals(100, item.firedAt);
+	}
+
+	@Test
+	public void survivesTickCounterWrapAround() {
+		final int start = Integer.MAX_VALUE - 5000;
+		final TimingWheel<Item> wheel = new TimingWheel<>(start);
+		final List<Item> items = new ArrayList<>();
+		final Random rand = new Random(1234L);
+		for (int i = 0; i < 2000; i++) {
+			// Overflow is intended; deadlines land on both sides of the wrap
+			final int d = start + rand.nextInt(20000);
+			final Item item = new Item(d, null);
+			items.add(item);
+			wheel.schedule(d, null, item);
+		}
+
+		run(wheel, start, 20000);
+
+		for (final Item item : items)
+			assertEquals(item.deadline, item.firedAt);
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void cancelRemovesEverythingForTheOwner() {
+		final TimingWheel<Item> wheel = new TimingWheel<>(0);
+		final Object a = new Object();
+		final Object b = new Object();
+		final List<Item> items = new ArrayList<>();
+		// Spread across all the levels so cancellation has to unlink from each
+		final int[] deadlines = { 3, 70, 5000, 300000, 20000000 };
+		for (final int d : deadlines) {
+			for (final Object owner : new Object[] { a, b, null }) {
+				final Item item = new Item(d, owner);
+				items.add(item);
+				wheel.schedule(d, owner, item);
+			}
+		}
+
+		assertEquals(15, wheel.size());
+		assertEquals(5, wheel.cancel(a));
+		assertEquals(10, wheel.size());
+		assertEquals(0, wheel.cancel(a));
+
+		wheel.forEach(item -> assertTrue(item.owner != a));
+
+		run(wheel, 0, 20000001);
+
+		for (final Item item : items) {
+			if (item.owner == a) {
+				assertTrue(!item.fired);
+			} else {
+				assertEquals(item.deadline, item.firedAt);
+			}
+		}
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void cancelAfterSomeItemsFired() {
+		final TimingWheel<Item> wheel = new TimingWheel<>(0);
+		final Object owner = new Object();
+		final Item first = new Item(1, owner);
+		final Item second = new Item(2, owner);
+		final Item third = new Item(10, owner);
+		wheel.schedule(1, owner, first);
+		wheel.schedule(2, owner, second);
+		wheel.schedule(10, owner, third);
+
+		run(wheel, 0, 3);
+		assertTrue(first.fired);
+		assertTrue(second.fired);
+
+		assertEquals(1, wheel.cancel(owner));
+		run(wheel, 3, 20);
+		assertTrue(!third.fired);
+
+		// The owner can be reused once its items are gone
+		final Item again = new Item(30, owner);
+		wheel.schedule(30, owner, again);
+		run(wheel, 23, 10);
+		assertEquals(30, again.firedAt);
+		assertEquals(0, wheel.cancel(owner));
+	}
+
+	@Test
+	public void seededScheduleAndCancel() {
+		final Random rand = new Random(42L);
+		final TimingWheel<Item> wheel = new TimingWheel<>(-1000);
+		final Object[] owners = { new Object(), new Object(), new Object(), new Object() };
+		final List<Item> items = new ArrayList<>();
+		final boolean[] cancelled = new boolean[owners.length];
+
+		int tick = -1000;
+		for (int step = 0; step < 5000; step++) {
+			final int d = tick + rand.nextInt(5000);
+			final int o = rand.nextInt(owners.length + 1);
+			final Object owner = o < owners.length ? owners[o] : null;
+			if (owner == null || !cancelled[o]) {
+				final Item item = new Item(d, owner);
+				items.add(item);
+				wheel.schedule(d, owner, item);
+			}
+			if (step == 2500) {
+				cancelled[1] = true;
+				wheel.cancel(owners[1]);
+			}
+			run(wheel, tick, 1);
+			tick++;
+		}
+		run(wheel, tick, 5000);
+
+		for (final Item item : items) {
+			final boolean expectCancelled = item.owner == owners[1] && !item.fired;
+			if (!expectCancelled)
+				assertEquals(item.deadline, item.firedAt);
+		}
+		assertEquals(0, wheel.size());
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TriggerSamplerTest {
+
+	// Spans the array backed classes and the map backed classes
+	private static final int[] CHANCES = { 2, 3, 10, 50, 200, 1000, 4095, 4096, 5000, 20000 };
+
+	/*
+	 * Checks an observed fire count against the one in chance expectation. The
+	 * tolerance is five standard deviations of the binomial count.
+	 */
+	private static void checkRate(final String label, final int chance, final long trials, final long fired) {
+		final double p = 1.0D / chance;
+		final double expected = trials * p;
+		final double sigma = Math.sqrt(trials * p * (1.0D - p));
+		assertTrue(String.format("%s chance %d: expected %.0f, fired %d", label, chance, expected, fired),
+				Math.abs(fired - expected) <= 5.0D * sigma + 1.0D);
+	}
+
+	private static long trialsFor(final int chance) {
+		// Enough trials for roughly 2000 expected firings per class
+		return Math.max(200000L, chance * 2000L);
+	}
+
+	@Test
+	public void lowChanceAlwaysFires() {
+		final TriggerSampler sampler = new TriggerSampler(new Random(1L));
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(sampler.fires(1));
+			assertTrue(sampler.fires(0));
+			assertTrue(sampler.fires(-5));
+		}
+	}
+
+	@Test
+	public void firingRateMatchesNextInt() {
+		final Random baseline = new Random(2L);
+		final TriggerSampler sampler = new TriggerSampler(new Random(3L));
+		for (final int chance : CHANCES) {
+			final long trials = trialsFor(chance);
+			long rolled = 0;
+			long sampled = 0;
+			for (long i = 0; i < trials; i++) {
+				if (baseline.nextInt(chance) == 0)
+					rolled++;
+				if (sampler.fires(chance))
+					sampled++;
+			}
+			checkRate("nextInt", chance, trials, rolled);
+			checkRate("sampler", chance, trials, sampled);
+		}
+	}
+
+	@Test
+	public void interleavedClassesAreIndependent() {
+		// The scanners mix chance classes from block to block; each class should
+		// keep its own rate regardless of what is rolled in between.
+		final Random order = new Random(4L);
+		final TriggerSampler sampler = new TriggerSampler(new Random(5L));
+		final long[] trials = new long[CHANCES.length];
+		final long[] fired = new long[CHANCES.length];
+		for (int i = 0; i < 20000000; i++) {
+			final int idx = order.nextInt(CHANCES.length);
+			trials[idx]++;
+			if (sampler.fires(CHANCES[idx]))
+				fired[idx]++;
+		}
+		for (int i = 0; i < CHANCES.length; i++)
+			checkRate("interleaved", CHANCES[i], trials[i], fired[i]);
+	}
+
+	@Test
+	public void gapsAreGeometric() {
+		// Mean and variance of the trials between firings should match the
+		// geometric distribution that independent nextInt rolls produce.
+		final int chance = 100;
+		final TriggerSampler sampler = new TriggerSampler(new Random(6L));
+		final int firings = 100000;
+		long sum = 0;
+		double sumSq = 0;
+		int gap = 0;
+		for (int n = 0; n < firings;) {
+			gap++;
+			if (sampler.fires(chance)) {
+				sum += gap;
+				sumSq += (double) gap * gap;
+				gap = 0;
+				n++;
+			}
+		}
+		final double mean = (double) sum / firings;
+		final double variance = sumSq / firings - mean * mean;
+		final double p = 1.0D / chance;
+		assertEquals(1.0D / p, mean, 0.02D * chance);
+		assertEquals((1.0D - p) / (p * p), variance, 0.05D * (1.0D - p) / (p * p));
+	}
+
+	@Test
+	public void resetKeepsTheRate() {
+		final int chance = 20;
+		final TriggerSampler sampler = new TriggerSampler(new Random(7L));
+		final long trials = 400000;
+		long fired = 0;
+		for (long i = 0; i < trials; i++) {
+			if ((i & 1023) == 0)
+				sampler.reset();
+			if (sampler.fires(chance))
+				fired++;
+		}
+		checkRate("reset", chance, trials, fired);
+	}
+
+	@Test
+	public void sameSeedSameSequence() {
+		final TriggerSampler s1 = new TriggerSampler(new Random(8L));
+		final TriggerSampler s2 = new TriggerSampler(new Random(8L));
+		for (int i = 0; i < 100000; i++) {
+			final int chance = CHANCES[i % CHANCES.length];
+			assertEquals(s1.fires(chance), s2.fires(chance));
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+
+public class OutboundQueueTest {
+
+	@Test
+	public void deliversInOrderPerRecipient() {
+		final OutboundQueue<String, Integer> queue = new OutboundQueue<>();
+		queue.enqueue("a", 1);
+		queue.enqueue("b", 2);
+		queue.enqueue("a", 3);
+
+		final List<String> sent = new ArrayList<>();
+		final int count = queue.flush(k -> k, (k, m) -> sent.add(k + m));
+
+		assertEquals(3, count);
+		assertTrue(sent.indexOf("a1") < sent.indexOf("a3"));
+		assertEquals(0, queue.pending("a"));
+		// Buffers are kept for live recipients
+		assertEquals(2, queue.recipients());
+	}
+
+	@Test
+	public void followsTheRecipientAcrossEntityReplacement() {
+		// Stands in for the player entity being replaced on respawn: the key
+		// stays the same while the resolved target changes.
+		final UUID id = UUID.randomUUID();
+		final Map<UUID, Object> players = new HashMap<>();
+		final Object first = new Object();
+		final Object second = new Object();
+
+		final OutboundQueue<UUID, String> queue = new OutboundQueue<>();
+		final List<Object> targets = new ArrayList<>();
+
+		players.put(id, first);
+		queue.enqueue(id, "x");
+		queue.flush(players::get, (t, m) -> targets.add(t));
+
+		players.put(id, second);
+		queue.enqueue(id, "y");
+		queue.flush(players::get, (t, m) -> targets.add(t));
+
+		assertEquals(2, targets.size());
+		assertEquals(first, targets.get(0));
+		assertEquals(second, targets.get(1));
+		assertEquals(1, queue.recipients());
+	}
+
+	@Test
+	public void dropsRecipientsThatNoLongerResolve() {
+		final OutboundQueue<UUID, String> queue = new OutboundQueue<>();
+		final UUID gone = UUID.randomUUID();
+		queue.enqueue(gone, "x");
+
+		final int count = queue.flush(k -> null, (t, m) -> {
+			throw new IllegalStateException("Should not send");
+		});
+
+		assertEquals(0, count);
+		assertEquals(0, queue.recipients());
+		assertEquals(0, queue.pending(gone));
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class RecipientIndexTest {
+
+	@Test
+	public void rangeUsesTheIndexedPositions() {
+		final RecipientIndex<String> index = new RecipientIndex<>();
+		index.add("near", 1, 0, 0);
+		index.add("edge", 10, 0, 0);
+		index.add("far", 0, 20, 0);
+
+		final List<String> found = new ArrayList<>();
+		index.forEachInRange(0, 0, 0, 10, found::add);
+		assertEquals(2, found.size());
+		assertTrue(found.contains("near"));
+		assertTrue(found.contains("edge"));
+	}
+
+	@Test
+	public void removedRecipientIsNoLongerReached() {
+		final RecipientIndex<String> index = new RecipientIndex<>();
+		final String leaving = new String("leaving");
+		index.add("a", 0, 0, 0);
+		index.add(leaving, 1, 0, 0);
+		index.add("b", 50, 0, 0);
+
+		// Identity, not equality, decides what is removed
+		assertFalse(index.remove(new String("leaving")));
+		assertTrue(index.remove(leaving));
+		assertFalse(index.remove(leaving));
+		assertEquals(2, index.size());
+
+		final List<String> all = new ArrayList<>();
+		index.forEach(all::add);
+		assertEquals(2, all.size());
+		assertFalse(all.contains(leaving));
+
+		// The positions of the recipients after it moved down with them
+		final List<String> near = new ArrayList<>();
+		index.forEachInRange(50, 0, 0, 1, near::add);
+		assertEquals(1, near.size());
+		assertEquals("b", near.get(0));
+	}
+
+	@Test
+	public void resetDropsEverything() {
+		final RecipientIndex<String> index = new RecipientIndex<>();
+		for (int i = 0; i < 20; i++)
+			index.add("p" + i, i, 0, 0);
+		assertEquals(20, index.size());
+		index.reset();
+		assertEquals(0, index.size());
+		final List<String> all = new ArrayList<>();
+		index.forEach(all::add);
+		assertTrue(all.isEmpty());
+	}
+}
@@ -0,0 +1,256 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.registry.acoustics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.junit.Test;
+
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.SoundEvent;
+import net.minecraft.util.math.Vec3d;
+
+public class AcousticProgramTest {
+
+	private static final int SEEDS = 2000;
+	private static final Vec3d LOCATION = new Vec3d(1, 2, 3);
+
+	// Consecutive seeds give java.util.Random nearly the same first draw, which
+	// would leave most branches untried. Spread them out instead.
+	private static final long[] SEED_LIST = new Random(0x5EEDL).longs(SEEDS).toArray();
+
+	/*
+	 * Records what was played along with the RNG so the interpreted and compiled
+	 * forms can be compared sound for sound.
+	 */
+	private static final class Recorder implements ISoundPlayer {
+
+		final Random rng;
+		final List<String> played = new ArrayList<>();
+
+		Recorder(final long seed) {
+			this.rng = new Random(seed);
+		}
+
+		@Override
+		public void playSound(@Nonnull final Vec3d location, @Nonnull final SoundEvent sound, final float volume,
+				final float pitch, @Nullable final IOptions options) {
+			this.played.add(sound.getSoundName() + " v" + volume + " p" + pitch + " o" + options);
+		}
+
+		@Override
+		public Random getRNG() {
+			return this.rng;
+		}
+	}
+
+	/*
+	 * Stands in for acoustics the compiler does not flatten, like
+	 * RainSplashAcoustic. It draws from the RNG so a call made out of order
+	 * shows up in the results.
+	 */
+	private static final class CallAcoustic implements IAcoustic {
+
+		@Override
+		@Nonnull
+		public String getName() {
+			return "call";
+		}
+
+		@Override
+		public void playSound(@Nonnull final ISoundPlayer player, @Nonnull final Vec3d location,
+				@Nullable final EventType event, @Nullable final IOptions inputOptions) {
+			final float volume = player.getRNG().nextFloat();
+			player.playSound(location, sound("call_" + event), volume, 1F, null);
+		}
+	}
+
+	private static final IOptions DELAYED = new IOptions() {
+		@Override
+		public long getDelayMin() {
+			return 100;
+		}
+
+		@Override
+		public long getDelayMax() {
+			return 200;
+		}
+
+		@Override
+		public String toString() {
+			return "delayed";
+		}
+	};
+
+	private static final IOptions GLIDING = new IOptions() {
+		@Override
+		public float getGlidingVolume() {
+			return 0.25F;
+		}
+
+		@Override
+		public float getPitchScale() {
+			return 0.75F;
+		}
+	};
+
+	private static SoundEvent sound(@Nonnull final String name) {
+		return new SoundEvent(new ResourceLocation("test", name));
+	}
+
+	private static SimpleAcoustic simple(@Nonnull final String name, final float volMin, final float volMax,
+			final float pitchMin, final float pitchMax) {
+		final SimpleAcoustic a = new SimpleAcoustic(sound(name));
+		a.setVolMin(volMin);
+		a.setVolMax(volMax);
+		a.setPitchMin(pitchMin);
+		a.setPitchMax(pitchMax);
+		return a;
+	}
+
+	private static ProbabilityWeightsAcoustic weighted(@Nonnull final IAcoustic[] acoustics,
+			@Nonnull final Integer[] weights) {
+		return new ProbabilityWeightsAcoustic(Arrays.asList(acoustics), Arrays.asList(weights));
+	}
+
+	/*
+	 * A footstep definition shaped like the ones in the config: an event
+	 * selector whose entries mix plain sounds, weighted choices, simultaneous
+	 * sounds, delayed output and acoustics that are only called.
+	 */
+	private static IAcoustic[] buildAcoustics() {
+		final SimpleAcoustic ranged = simple("ranged", 0.5F, 1F, 0.8F, 1.2F);
+		final SimpleAcoustic fixed = simple("fixed", 0.7F, 0.7F, 1F, 1F);
+		final SimpleAcoustic inverted = simple("inverted", 1F, 0.5F, 1.1F, 0.9F);
+		final SimpleAcoustic delayed = simple("delayed", 0.2F, 0.4F, 1F, 1.5F);
+		delayed.outputOptions = DELAYED;
+		final SimpleAcoustic silent = new SimpleAcoustic();
+
+		final ProbabilityWeightsAcoustic inner = weighted(new IAcoustic[] { fixed, delayed, silent },
+				new Integer[] { 1, 4, 2 });
+		final ProbabilityWeightsAcoustic choice = weighted(
+				new IAcoustic[] { ranged, inner, inverted, new CallAcoustic(), fixed },
+				new Integer[] { 5, 3, 0, 2, -1 });
+		final SimultaneousAcoustic both = new SimultaneousAcoustic(
+				Arrays.asList(ranged, choice, new NullAcoustic("null")));
+
+		final EventSelectorAcoustics selector = new EventSelectorAcoustics("selector");
+		selector.setAcousticPair(EventType.WALK, both);
+		selector.setAcousticPair(EventType.RUN, choice);
+		selector.setAcousticPair(EventType.WANDER, inverted);
+		selector.setAcousticPair(EventType.SWIM, new CallAcoustic());
+		selector.setAcousticPair(EventType.UP, delayed);
+
+		final EventSelectorAcoustics sparse = new EventSelectorAcoustics("sparse");
+		sparse.setAcousticPair(EventType.LAND, inner);
+
+		return new IAcoustic[] { selector, fixed, sparse, choice };
+	}
+
+	private static List<String> interpret(@Nonnull final IAcoustic[] acoustics, @Nonnull final EventType event,
+			@Nullable final IOptions options, final long seed) {
+		final Recorder player = new Recorder(seed);
+		for (final IAcoustic a : acoustics)
+			a.playSound(player, LOCATION, event, options);
+		player.played.add("next " + player.rng.nextLong());
+		return player.played;
+	}
+
+	private static List<String> execute(@Nonnull final AcousticProgram program, @Nonnull final EventType event,
+			@Nullable final IOptions options, final long seed) {
+		final Recorder player = new Recorder(seed);
+		program.execute(player, LOCATION, event, options);
+		player.played.add("next " + player.rng.nextLong());
+		return player.played;
+	}
+
+	private static List<String> executeEach(@Nonnull final AcousticProgram[] programs,
+			@Nonnull final EventType event, @Nullable final IOptions options, final long seed) {
+		final Recorder player = new Recorder(seed);
+		for (final AcousticProgram p : programs)
+			p.execute(player, LOCATION, event, options);
+		player.played.add("next " + player.rng.nextLong());
+		return player.played;
+	}
+
+	private static void checkSameResults(@Nullable final IOptions options) {
+		final IAcoustic[] acoustics = buildAcoustics();
+		final AcousticProgram program = AcousticProgram.compile(acoustics);
+		final AcousticProgram[] each = Arrays.stream(acoustics).map(AcousticProgram::compile)
+				.toArray(AcousticProgram[]::new);
+
+		for (final EventType event : EventType.values()) {
+			for (final long seed : SEED_LIST) {
+				final List<String> expected = interpret(acoustics, event, options, seed);
+				assertEquals(event + " seed " + seed, expected, execute(program, event, options, seed));
+				assertEquals(event + " seed " + seed, expected, executeEach(each, event, options, seed));
+			}
+		}
+	}
+
+	@Test
+	public void compiledMatchesInterpreted() {
+		checkSameResults(null);
+	}
+
+	@Test
+	public void compiledMatchesInterpretedWithInputOptions() {
+		checkSameResults(GLIDING);
+	}
+
+	@Test
+	public void weightedChoiceTakesEveryLiveBranch() {
+		// The compiled choice has to reach each branch with a positive weight and
+		// never the ones without, otherwise the equality checks above could pass
+		// on a path that is never taken.
+		final SimpleAcoustic a = simple("a", 1F, 1F, 1F, 1F);
+		final SimpleAcoustic b = simple("b", 1F, 1F, 1F, 1F);
+		final SimpleAcoustic c = simple("c", 1F, 1F, 1F, 1F);
+		final SimpleAcoustic d = simple("d", 1F, 1F, 1F, 1F);
+		final AcousticProgram program = AcousticProgram
+				.compile(weighted(new IAcoustic[] { a, b, c, d }, new Integer[] { 1, 0, 6, -3 }));
+
+		final int[] counts = new int[2];
+		for (final long seed : SEED_LIST) {
+			final List<String> played = execute(program, EventType.WALK, null, seed);
+			assertEquals(2, played.size());
+			final String s = played.get(0);
+			assertFalse(s, s.startsWith("test:b") || s.startsWith("test:d"));
+			counts[s.startsWith("test:a") ? 0 : 1]++;
+		}
+
+		// 1 in 7 for a, with plenty of room either side
+		assertEquals(SEEDS / 7.0D, counts[0], SEEDS / 14.0D);
+	}
+}
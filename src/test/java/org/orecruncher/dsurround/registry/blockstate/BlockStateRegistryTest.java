@@ -0,0 +1,218 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.registry.blockstate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.orecruncher.dsurround.registry.RegistryManager;
+import org.orecruncher.dsurround.registry.config.ConfigDiff;
+import org.orecruncher.dsurround.registry.config.ModConfiguration;
+import org.orecruncher.dsurround.registry.dump.ClientDumper;
+import org.orecruncher.dsurround.registry.sound.SoundRegistry;
+
+import com.google.gson.Gson;
+
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+
+/*
+ * Checks that staging an in place update resolves the changed blocks the same
+ * way a full rebuild from the new configuration does. States are compared by
+ * their dump record so the effects and sounds have to match as well as the
+ * chance. Registries are not put under management when created, so the only
+ * global touched is the sound registry the entries are checked against, which
+ * is put back afterwards.
+ */
+public class BlockStateRegistryTest {
+
+	private static final Gson GSON = new Gson();
+
+	//@formatter:off
+	private static final String STONE = "{\"blocks\":[\"minecraft:stone\"],\"chance\":10,"
+			+ "\"effects\":[{\"effect\":\"steam\",\"chance\":0}],"
+			+ "\"sounds\":[{\"sound\":\"minecraft:block.stone.hit\",\"volume\":0.5}]}";
+	private static final String GRANITE = "{\"blocks\":[\"minecraft:stone[variant=granite]\",\"minecraft:dirt\"],"
+			+ "\"chance\":20,"
+			+ "\"effects\":[{\"effect\":\"dust\",\"chance\":50}],"
+			+ "\"sounds\":[{\"sound\":\"dsurround:rockfall\",\"volume\":0.5}]}";
+	private static final String STONE_LATE = "{\"blocks\":[\"minecraft:stone\"],\"chance\":40,"
+			+ "\"soundReset\":true,\"effectReset\":true,"
+			+ "\"effects\":[{\"effect\":\"fire\",\"chance\":20}],"
+			+ "\"sounds\":[{\"sound\":\"minecraft:block.stone.break\"}]}";
+	private static final String SAND = "{\"blocks\":[\"minecraft:sand\"],\"chance\":5,"
+			+ "\"sounds\":[{\"sound\":\"minecraft:block.sand.step\",\"weight\":5}]}";
+	//@formatter:on
+
+	private static final Block[] BLOCKS = { Blocks.STONE, Blocks.DIRT, Blocks.SAND, Blocks.GRAVEL, Blocks.GRASS };
+
+	private static SoundRegistry sounds;
+
+	@BeforeClass
+	public static void setup() {
+		Bootstrap.register();
+		sounds = RegistryManager.SOUND;
+		RegistryManager.SOUND = new SoundRegistry();
+	}
+
+	@AfterClass
+	public static void teardown() {
+		RegistryManager.SOUND = sounds;
+	}
+
+	@Nonnull
+	private static ModConfiguration config(@Nonnull final String... blocks) {
+		return GSON.fromJson("{\"blocks\":[" + String.join(",", blocks) + "]}", ModConfiguration.class);
+	}
+
+	@Nonnull
+	private static List<ModConfiguration> baseline() {
+		return Arrays.asList(config(STONE, GRANITE), config(STONE_LATE, SAND));
+	}
+
+	@Nonnull
+	private static BlockStateRegistry rebuild(@Nonnull final List<ModConfiguration> data) {
+		final BlockStateRegistry full = new BlockStateRegistry();
+		full.reset();
+		for (final ModConfiguration cfg : data)
+			full.init(cfg);
+		return full;
+	}
+
+	@Nonnull
+	private static String describe(@Nonnull final BlockStateData data) {
+		return ClientDumper.describe(data);
+	}
+
+	private static void checkAgainstRebuild(@Nonnull final List<ModConfiguration> before,
+			@Nonnull final List<ModConfiguration> after) {
+		final ConfigDiff diff = ConfigDiff.compare(ConfigDiff.fingerprint(before), ConfigDiff.fingerprint(after));
+		final Set<Block> changed = new ReferenceOpenHashSet<>();
+		for (final String key : diff.getChangedKeys(ConfigDiff.BLOCKS))
+			changed.add(BlockStateMatcher.create(key).getBlock());
+		assertFalse(changed.isEmpty());
+
+		final Map<IBlockState, BlockStateData> staged = new BlockStateRegistry().stage(after, diff);
+		final BlockStateRegistry full = rebuild(after);
+
+		for (final Block block : BLOCKS) {
+			for (final IBlockState state : block.getBlockState().getValidStates()) {
+				if (changed.contains(block)) {
+					assertTrue(state.toString(), staged.containsKey(state));
+					assertEquals(state.toString(), describe(full.resolve(state)), describe(staged.get(state)));
+				} else {
+					assertFalse(state.toString(), staged.containsKey(state));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void changedEntry() {
+		checkAgainstRebuild(baseline(),
+				Arrays.asList(config(STONE, GRANITE.replace("20", "25")), config(STONE_LATE, SAND)));
+	}
+
+	@Test
+	public void changedSoundOnly() {
+		final List<ModConfiguration> after = Arrays
+				.asList(config(STONE, GRANITE.replace("\"volume\":0.5", "\"volume\":0.8")), config(STONE_LATE, SAND));
+		checkAgainstRebuild(baseline(), after);
+
+		// Same chance and the same number of sounds, but not the same profile
+		final IBlockState dirt = Blocks.DIRT.getDefaultState();
+		final BlockStateData before = rebuild(baseline()).resolve(dirt);
+		final BlockStateData changed = rebuild(after).resolve(dirt);
+		assertEquals(before.getChance(), changed.getChance());
+		assertEquals(before.getSounds().length, changed.getSounds().length);
+		assertNotEquals(describe(before), describe(changed));
+	}
+
+	@Test
+	public void changedEffectOnly() {
+		checkAgainstRebuild(baseline(), Arrays.asList(config(STONE, GRANITE.replace("dust", "fountain")),
+				config(STONE_LATE, SAND)));
+	}
+
+	@Test
+	public void blockAddedToEntry() {
+		checkAgainstRebuild(baseline(), Arrays.asList(
+				config(STONE, GRANITE.replace("\"minecraft:dirt\"", "\"minecraft:dirt\",\"minecraft:gravel\"")),
+				config(STONE_LATE, SAND)));
+	}
+
+	@Test
+	public void movedEntry() {
+		// The later stone entry now comes first so the earlier one wins
+		checkAgainstRebuild(baseline(), Arrays.asList(config(STONE_LATE, STONE, GRANITE), config(SAND)));
+	}
+
+	@Test
+	public void removedEntry() {
+		checkAgainstRebuild(baseline(), Arrays.asList(config(STONE, GRANITE), config(SAND)));
+	}
+
+	@Test
+	public void removedBlock() {
+		// Sand is no longer named anywhere and goes back to the default
+		checkAgainstRebuild(baseline(), Arrays.asList(config(STONE, GRANITE), config(STONE_LATE)));
+	}
+
+	@Test
+	public void stateEntriesResolveBeforeTheBlock() {
+		// A state named on its own keeps its own profile, the other states of
+		// the block take the generic entries, and unnamed blocks the default.
+		final List<ModConfiguration> after = Arrays.asList(config(STONE_LATE, GRANITE), config(STONE, SAND));
+		checkAgainstRebuild(baseline(), after);
+
+		final BlockStateRegistry full = rebuild(after);
+		final String granite = describe(full.resolve(Blocks.STONE.getStateFromMeta(1)));
+		assertTrue(granite,
+				granite.startsWith("chance=20; effects=[dust]; alwaysOn=[]; sounds=[dsurround:rockfall("));
+
+		// The reset comes first this time so the later entry adds to it
+		final String stone = describe(full.resolve(Blocks.STONE.getDefaultState()));
+		assertTrue(stone, stone.startsWith("chance=10; effects=[fire]; alwaysOn=[steam]; sounds=["));
+		assertTrue(stone, stone.contains("minecraft:block.stone.break("));
+		assertTrue(stone, stone.contains("minecraft:block.stone.hit("));
+
+		assertEquals(BlockStateData.DEFAULT, full.resolve(Blocks.GRAVEL.getDefaultState()));
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.registry.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+public class ConfigDiffTest {
+
+	private static final Gson GSON = new Gson();
+
+	private static final String STONE = "{\"blocks\":[\"stone\"],\"chance\":10}";
+	private static final String GRANITE = "{\"blocks\":[\"minecraft:stone[variant=granite]\",\"minecraft:dirt\"],\"chance\":20}";
+	private static final String STONE_RESET = "{\"blocks\":[\"minecraft:stone\"],\"soundReset\":true}";
+	private static final String SAND = "{\"blocks\":[\"minecraft:sand\"],\"chance\":5}";
+	private static final String MOD_BLOCK = "{\"blocks\":[\"mod:thing[facing=north]\"],\"chance\":30}";
+
+	@Nonnull
+	private static ModConfiguration config(@Nonnull final String... blocks) {
+		return GSON.fromJson("{\"blocks\":[" + String.join(",", blocks) + "]}", ModConfiguration.class);
+	}
+
+	@Nonnull
+	private static ModConfiguration entities(@Nonnull final String entities) {
+		return GSON.fromJson("{\"entities\":" + entities + "}", ModConfiguration.class);
+	}
+
+	@Nonnull
+	private static ConfigDiff.Fingerprint fingerprint(@Nonnull final ModConfiguration... configs) {
+		return ConfigDiff.fingerprint(Arrays.asList(configs));
+	}
+
+	@Nonnull
+	private static Set<String> set(@Nonnull final String... keys) {
+		return new HashSet<>(Arrays.asList(keys));
+	}
+
+	@Nonnull
+	private static List<ModConfiguration> baseline() {
+		return Arrays.asList(config(STONE, GRANITE), config(STONE_RESET, SAND, MOD_BLOCK));
+	}
+
+	@Test
+	public void blockKeyDropsPropertiesAndAddsDomain() {
+		assertEquals("minecraft:stone", ConfigDiff.blockKey("stone"));
+		assertEquals("minecraft:stone", ConfigDiff.blockKey("minecraft:stone"));
+		assertEquals("minecraft:stone", ConfigDiff.blockKey("minecraft:stone[variant=granite]"));
+		assertEquals("minecraft:stone", ConfigDiff.blockKey(" stone [variant=granite] "));
+		assertEquals("mod:thing", ConfigDiff.blockKey("mod:thing[facing=north]"));
+	}
+
+	@Test
+	public void nothingToCompareAgainstIsFull() {
+		final ConfigDiff diff = ConfigDiff.compare(null, ConfigDiff.fingerprint(baseline()));
+		assertTrue(diff.isFull());
+		assertFalse(diff.isEmpty());
+		assertEquals(ConfigDiff.SECTIONS, diff.getChangedSections());
+		assertTrue(diff.hasChanged(ConfigDiff.DUCKING));
+		assertTrue(diff.getChangedKeys(ConfigDiff.BLOCKS).isEmpty());
+	}
+
+	@Test
+	public void sameDataIsEmpty() {
+		final ConfigDiff diff = ConfigDiff.compare(ConfigDiff.fingerprint(baseline()),
+				ConfigDiff.fingerprint(baseline()));
+		assertFalse(diff.isFull());
+		assertTrue(diff.isEmpty());
+		assertTrue(diff.getChangedSections().isEmpty());
+		assertTrue(diff.getChangedKeys(ConfigDiff.BLOCKS).isEmpty());
+	}
+
+	@Test
+	public void stateEntriesGroupUnderTheirBlock() {
+		// Changing the granite entry touches stone, since any state of stone is
+		// under the one key, and dirt, which the entry also names.
+		final ConfigDiff diff = ConfigDiff.compare(ConfigDiff.fingerprint(baseline()),
+				fingerprint(config(STONE, GRANITE.replace("20", "25")), config(STONE_RESET, SAND, MOD_BLOCK)));
+		assertEquals(set(ConfigDiff.BLOCKS), diff.getChangedSections());
+		assertEquals(set("minecraft:stone", "minecraft:dirt"), diff.getChangedKeys(ConfigDiff.BLOCKS));
+	}
+
+	@Test
+	public void addingABlockToAnEntryLeavesTheOthers() {
+		final ConfigDiff diff = ConfigDiff.compare(ConfigDiff.fingerprint(baseline()), fingerprint(
+				config(STONE, GRANITE.replace("\"minecraft:dirt\"", "\"minecraft:dirt\",\"minecraft:gravel\"")),
+				config(STONE_RESET, SAND, MOD_BLOCK)));
+		assertEquals(set("minecraft:gravel"), diff.getChangedKeys(ConfigDiff.BLOCKS));
+	}
+
+	@Test
+	public void movingAnEntryChangesOnlyBlocksWithOtherEntries() {
+		// Sand has one entry so where it sits does not matter. Stone has several,
+		// and they are applied in order, so moving one of them is a change.
+		ConfigDiff diff = ConfigDiff.compare(ConfigDiff.fingerprint(baseline()),
+				fingerprint(config(SAND, STONE, GRANITE), config(STONE_RESET, MOD_BLOCK)));
+		assertTrue(diff.hasChanged(ConfigDiff.BLOCKS));
+		assertTrue(diff.getChangedKeys(ConfigDiff.BLOCKS).isEmpty());
+
+		diff = ConfigDiff.compare(ConfigDiff.fingerprint(baseline()),
+				fingerprint(config(STONE_RESET, STONE, GRANITE), config(SAND, MOD_BLOCK)));
+		assertEquals(set("minecraft:stone"), diff.getChangedKeys(ConfigDiff.BLOCKS));
+
+		// Same goes for moving between configuration files
+		diff = ConfigDiff.compare(ConfigDiff.fingerprint(baseline()),
+				fingerprint(config(GRANITE), config(STONE_RESET, STONE, SAND, MOD_BLOCK)));
+		assertEquals(set("minecraft:stone"), diff.getChangedKeys(ConfigDiff.BLOCKS));
+	}
+
+	@Test
+	public void removingAnEntry() {
+		// The block still has other entries
+		ConfigDiff diff = ConfigDiff.compare(ConfigDiff.fingerprint(baseline()),
+				fingerprint(config(STONE, GRANITE), config(SAND, MOD_BLOCK)));
+		assertEquals(set("minecraft:stone"), diff.getChangedKeys(ConfigDiff.BLOCKS));
+
+		// The block is no longer named anywhere
+		diff = ConfigDiff.compare(ConfigDiff.fingerprint(baseline()),
+				fingerprint(config(STONE, GRANITE), config(STONE_RESET, SAND)));
+		assertEquals(set("mod:thing"), diff.getChangedKeys(ConfigDiff.BLOCKS));
+
+		// Removing the last configuration file with block entries
+		diff = ConfigDiff.compare(fingerprint(config(SAND)), fingerprint(config()));
+		assertEquals(set("minecraft:sand"), diff.getChangedKeys(ConfigDiff.BLOCKS));
+	}
+
+	@Test
+	public void entitiesTrackedByKey() {
+		final String before = "{\"minecraft:zombie\":{\"effects\":\"breath\"},\"minecraft:cow\":{\"effects\":\"\"}}";
+		final String after = "{\"minecraft:zombie\":{\"effects\":\"breath\"},\"minecraft:cow\":{\"effects\":\"breath\"},"
+				+ "\"minecraft:pig\":{\"variator\":\"small\"}}";
+		final ConfigDiff diff = ConfigDiff.compare(fingerprint(entities(before)), fingerprint(entities(after)));
+		assertEquals(set(ConfigDiff.ENTITIES), diff.getChangedSections());
+		assertEquals(set("minecraft:cow", "minecraft:pig"), diff.getChangedKeys(ConfigDiff.ENTITIES));
+		assertTrue(diff.getChangedKeys(ConfigDiff.BLOCKS).isEmpty());
+	}
+
+	@Test
+	public void otherSectionsAreNotKeyed() {
+		final ModConfiguration before = GSON.fromJson("{\"footsteps\":{\"minecraft:stone\":\"stone\"}}",
+				ModConfiguration.class);
+		final ModConfiguration after = GSON.fromJson("{\"footsteps\":{\"minecraft:stone\":\"wood\"}}",
+				ModConfiguration.class);
+		final ConfigDiff diff = ConfigDiff.compare(fingerprint(before), fingerprint(after));
+		assertEquals(set(ConfigDiff.FOOTSTEPS), diff.getChangedSections());
+		assertTrue(diff.hasChanged(Arrays.asList(ConfigDiff.BLOCKS, ConfigDiff.FOOTSTEPS)));
+		assertFalse(diff.hasChanged(ConfigDiff.BLOCKS));
+		assertTrue(diff.getChangedKeys(ConfigDiff.FOOTSTEPS).isEmpty());
+	}
+}
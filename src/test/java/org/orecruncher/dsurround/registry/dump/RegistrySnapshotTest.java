@@ -0,0 +1,143 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.registry.dump;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RegistrySnapshotTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private static RegistrySnapshot sample() {
+		final RegistrySnapshot snapshot = new RegistrySnapshot();
+		snapshot.put(RegistrySnapshot.BLOCKS, "minecraft:stone", "chance=0; effects=[]");
+		snapshot.put(RegistrySnapshot.BLOCKS, "minecraft:water[level=0]", "chance=100; effects=[bubble,splash]");
+		snapshot.put(RegistrySnapshot.BLOCKS, "minecraft:lava[level=0]", "chance=25; effects=[fire]");
+		snapshot.put(RegistrySnapshot.BIOMES, "minecraft:plains", "rain\tsounds=2");
+		snapshot.addSection(RegistrySnapshot.ENTITIES);
+		return snapshot;
+	}
+
+	private static int diff(final RegistrySnapshot before, final RegistrySnapshot after, final StringBuilder text) {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final int count;
+		try (final PrintStream out = new PrintStream(bytes, true)) {
+			count = DumpDiff.diff(before, after, out);
+		}
+		text.append(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+		return count;
+	}
+
+	@Test
+	public void roundTrip() throws IOException {
+		final RegistrySnapshot written = sample();
+		final Path dir = this.folder.getRoot().toPath().resolve("dump");
+		written.write(dir);
+
+		final RegistrySnapshot read = RegistrySnapshot.read(dir);
+		assertEquals(written.getSections(), read.getSections());
+		for (final String section : written.getSections())
+			assertEquals(section, written.getSection(section), read.getSection(section));
+
+		// Empty sections are still written, and tabs do not split a record
+		assertTrue(read.getSection(RegistrySnapshot.ENTITIES).isEmpty());
+		assertEquals("rain sounds=2", read.getSection(RegistrySnapshot.BIOMES).get("minecraft:plains"));
+
+		// Records are sorted by key under a header with the count
+		final List<String> lines = Files.readAllLines(dir.resolve("blocks.txt"), StandardCharsets.UTF_8);
+		assertEquals("# blocks 3", lines.get(0));
+		assertTrue(lines.get(1).startsWith("minecraft:lava[level=0]\t"));
+		assertTrue(lines.get(3).startsWith("minecraft:water[level=0]\t"));
+
+		final StringBuilder text = new StringBuilder();
+		assertEquals(0, diff(written, read, text));
+		assertEquals("", text.toString());
+	}
+
+	@Test
+	public void readSingleSection() throws IOException {
+		final Path dir = this.folder.getRoot().toPath();
+		sample().write(dir);
+		final RegistrySnapshot read = RegistrySnapshot.read(dir.resolve("blocks.txt"));
+		assertEquals(1, read.getSections().size());
+		assertEquals(3, read.getSection(RegistrySnapshot.BLOCKS).size());
+	}
+
+	@Test
+	public void duplicateKeysMerge() {
+		final RegistrySnapshot snapshot = new RegistrySnapshot();
+		snapshot.put(RegistrySnapshot.FOOTSTEPS, "minecraft:grass", "grass");
+		snapshot.put(RegistrySnapshot.FOOTSTEPS, "minecraft:grass", "foliage:brush\nmessy");
+		assertEquals("grass | foliage:brush | messy",
+				snapshot.getSection(RegistrySnapshot.FOOTSTEPS).get("minecraft:grass"));
+	}
+
+	@Test
+	public void diffCounts() throws IOException {
+		final Path dir = this.folder.getRoot().toPath().resolve("old");
+		sample().write(dir);
+		final RegistrySnapshot before = RegistrySnapshot.read(dir);
+
+		final RegistrySnapshot after = new RegistrySnapshot();
+		// Stone unchanged, water changed, lava removed, sand added
+		after.put(RegistrySnapshot.BLOCKS, "minecraft:stone", "chance=0; effects=[]");
+		after.put(RegistrySnapshot.BLOCKS, "minecraft:water[level=0]", "chance=50; effects=[bubble,splash]");
+		after.put(RegistrySnapshot.BLOCKS, "minecraft:sand", "chance=0; effects=[dust]");
+		after.put(RegistrySnapshot.BIOMES, "minecraft:plains", "rain sounds=2");
+		after.addSection(RegistrySnapshot.ENTITIES);
+
+		final StringBuilder text = new StringBuilder();
+		assertEquals(3, diff(before, after, text));
+		assertTrue(text.toString(), text.toString().contains("[blocks] 1 added, 1 removed, 1 changed"));
+		assertTrue(text.toString().contains("+ minecraft:sand"));
+		assertTrue(text.toString().contains("- minecraft:lava[level=0]"));
+		assertTrue(text.toString().contains("~ minecraft:water[level=0]"));
+
+		// Sections on one side only count all of their records
+		after.put(RegistrySnapshot.DIMENSIONS, "0/overworld", "seaLevel=63");
+		after.put(RegistrySnapshot.DIMENSIONS, "-1/the_nether", "seaLevel=0");
+		text.setLength(0);
+		assertEquals(5, diff(before, after, text));
+		assertTrue(text.toString(), text.toString().contains("[dimensions] only in new dump, 2 records"));
+		text.setLength(0);
+		assertEquals(5, diff(after, before, text));
+		assertTrue(text.toString(), text.toString().contains("[dimensions] only in old dump, 2 records"));
+	}
+
+}
@@ -0,0 +1,228 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.server.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+public class SpeechRelayTest {
+
+	// Clock that only moves when the test says so
+	private static final class FakeClock {
+		long now;
+	}
+
+	// Recipients are tracked by identity so they are not strings
+	private static final class FakeRecipient {
+		final String name;
+
+		FakeRecipient(@Nonnull final String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String toString() {
+			return this.name;
+		}
+	}
+
+	// Logs each bubble as "sender: text -> [recipients]"
+	private static final class FakeOutput implements SpeechRelay.IOutput<String, FakeRecipient> {
+		final Map<String, List<FakeRecipient>> inRange = new HashMap<>();
+		final List<String> resolved = new ArrayList<>();
+		final List<String> sent = new ArrayList<>();
+
+		@Override
+		public void resolve(@Nonnull final String sender, @Nonnull final Consumer<FakeRecipient> sink) {
+			this.resolved.add(sender);
+			this.inRange.getOrDefault(sender, Collections.emptyList()).forEach(sink);
+		}
+
+		@Override
+		public void send(@Nonnull final String sender, @Nonnull final String text,
+				@Nonnull final List<FakeRecipient> recipients) {
+			this.sent.add(sender + ": " + text.replace('\n', '|') + " -> " + recipients);
+		}
+	}
+
+	private static final FakeRecipient R1 = new FakeRecipient("r1");
+	private static final FakeRecipient R2 = new FakeRecipient("r2");
+	private static final FakeRecipient R3 = new FakeRecipient("r3");
+
+	private final FakeClock clock = new FakeClock();
+	private final SpeechRelay<String, FakeRecipient> relay = new SpeechRelay<>(() -> this.clock.now);
+	private final FakeOutput output = new FakeOutput();
+
+	private void tickAt(final long now, @Nonnull final SpeechRelay.Limits limits) {
+		this.clock.now = now;
+		this.relay.tick(limits, this.output);
+	}
+
+	@Test
+	public void rateLimitDropsPastTheBurst() {
+		// One a second, two back to back, no window
+		final SpeechRelay.Limits limits = new SpeechRelay.Limits(1F, 2, 0, 10);
+		this.output.inRange.put("a", Arrays.asList(R1));
+
+		this.relay.submit("a", "m1");
+		this.relay.submit("a", "m2");
+		this.relay.submit("a", "m3");
+		tickAt(0, limits);
+		assertEquals(1, this.relay.getDropped());
+		assertEquals(Arrays.asList("a: m1|m2 -> [r1]"), this.output.sent);
+
+		// Half a token is not enough
+		this.relay.submit("a", "m4");
+		tickAt(500, limits);
+		assertEquals(2, this.relay.getDropped());
+
+		// The other half arrives a half second later
+		this.relay.submit("a", "m5");
+		tickAt(1000, limits);
+		assertEquals(2, this.relay.getDropped());
+		assertEquals(Arrays.asList("a: m1|m2 -> [r1]", "a: m5 -> [r1]"), this.output.sent);
+
+		// A long silence only refills up to the burst
+		for (int i = 6; i <= 9; i++)
+			this.relay.submit("a", "m" + i);
+		tickAt(60000, limits);
+		assertEquals(4, this.relay.getDropped());
+		assertEquals("a: m6|m7 -> [r1]", this.output.sent.get(2));
+	}
+
+	@Test
+	public void sendersHaveTheirOwnBuckets() {
+		final SpeechRelay.Limits limits = new SpeechRelay.Limits(1F, 1, 0, 10);
+		this.output.inRange.put("a", Arrays.asList(R1));
+		this.output.inRange.put("b", Arrays.asList(R1));
+
+		this.relay.submit("a", "a1");
+		this.relay.submit("b", "b1");
+		this.relay.submit("a", "a2");
+		tickAt(0, limits);
+		assertEquals(1, this.relay.getDropped());
+		assertEquals(Arrays.asList("a: a1 -> [r1]", "b: b1 -> [r1]"), this.output.sent);
+	}
+
+	@Test
+	public void coalescedWithinTheWindow() {
+		final SpeechRelay.Limits limits = new SpeechRelay.Limits(10F, 10, 200, 10);
+		this.output.inRange.put("a", Arrays.asList(R1));
+
+		this.relay.submit("a", "hi");
+		tickAt(0, limits);
+		this.relay.submit("a", "there");
+		tickAt(100, limits);
+		tickAt(199, limits);
+		assertTrue(this.output.sent.isEmpty());
+		assertTrue(this.output.resolved.isEmpty());
+
+		// The window is timed from the first message
+		tickAt(200, limits);
+		assertEquals(Arrays.asList("a: hi|there -> [r1]"), this.output.sent);
+
+		// The next message opens a new window
+		this.relay.submit("a", "again");
+		tickAt(250, limits);
+		tickAt(449, limits);
+		assertEquals(1, this.output.sent.size());
+		tickAt(450, limits);
+		assertEquals("a: again -> [r1]", this.output.sent.get(1));
+		assertEquals(0, this.relay.getDropped());
+	}
+
+	@Test
+	public void fanOutIsCappedPerRecipientPerTick() {
+		final SpeechRelay.Limits limits = new SpeechRelay.Limits(10F, 10, 0, 2);
+		this.output.inRange.put("a", Arrays.asList(R1, R2));
+		this.output.inRange.put("b", Arrays.asList(R1, R3));
+		this.output.inRange.put("c", Arrays.asList(R1, R2));
+		this.output.inRange.put("d", Arrays.asList(R1));
+
+		this.relay.submit("a", "a1");
+		this.relay.submit("b", "b1");
+		this.relay.submit("c", "c1");
+		this.relay.submit("d", "d1");
+		tickAt(0, limits);
+
+		// r1 has had its two by the time c goes out; d has nobody left to send to
+		assertEquals(Arrays.asList("a: a1 -> [r1, r2]", "b: b1 -> [r1, r3]", "c: c1 -> [r2]"), this.output.sent);
+		assertEquals(Arrays.asList("a", "b", "c", "d"), this.output.resolved);
+		assertEquals(2, this.relay.getCapped());
+
+		// The cap starts over each tick
+		this.relay.submit("d", "d2");
+		tickAt(50, limits);
+		assertEquals("d: d2 -> [r1]", this.output.sent.get(3));
+	}
+
+	@Test
+	public void quietSendersAreForgotten() {
+		final SpeechRelay.Limits limits = new SpeechRelay.Limits(1F, 2, 0, 10);
+		this.output.inRange.put("a", Arrays.asList(R1));
+		assertFalse(this.relay.hasWork());
+
+		this.relay.submit("a", "m1");
+		assertTrue(this.relay.hasWork());
+		tickAt(0, limits);
+		assertEquals(1, this.output.sent.size());
+
+		// Still owed a token so it is remembered
+		tickAt(500, limits);
+		assertTrue(this.relay.hasWork());
+		tickAt(1000, limits);
+		assertFalse(this.relay.hasWork());
+
+		// Nothing to send means nobody to resolve
+		tickAt(2000, limits);
+		assertEquals(Arrays.asList("a"), this.output.resolved);
+	}
+
+	@Test
+	public void clearDropsPendingChat() {
+		final SpeechRelay.Limits limits = new SpeechRelay.Limits(1F, 2, 1000, 10);
+		this.output.inRange.put("a", Arrays.asList(R1));
+		this.relay.submit("a", "m1");
+		tickAt(0, limits);
+		this.relay.submit("a", "m2");
+		this.relay.clear();
+		assertFalse(this.relay.hasWork());
+		tickAt(5000, limits);
+		assertTrue(this.output.sent.isEmpty());
+	}
+}
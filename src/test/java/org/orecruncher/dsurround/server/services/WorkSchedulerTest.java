@@ -0,0 +1,195 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.server.services;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class WorkSchedulerTest {
+
+	// Clock that only moves when work says so
+	private static final class FakeClock {
+		long now;
+	}
+
+	private final FakeClock clock = new FakeClock();
+	private final WorkScheduler scheduler = new WorkScheduler(() -> this.clock.now);
+	private final List<String> log = new ArrayList<>();
+
+	private Runnable work(final String name, final long cost) {
+		return () -> {
+			this.log.add(name);
+			this.clock.now += cost;
+		};
+	}
+
+	@Test
+	public void budgetCutsOffTheTick() {
+		final WorkScheduler.IWorkSink sink = this.scheduler.addQueue("q");
+		for (int i = 0; i < 10; i++)
+			sink.add(i, work("w" + i, 100));
+
+		// Checked before each unit: 0, 100, 200 and 300 are under budget
+		assertEquals(4, this.scheduler.run(350));
+		assertEquals(6, this.scheduler.getPending());
+		assertEquals(Arrays.asList("w0", "w1", "w2", "w3"), this.log);
+	}
+
+	@Test
+	public void oneUnitAlwaysRuns() {
+		final WorkScheduler.IWorkSink sink = this.scheduler.addQueue("q");
+		sink.add("a", work("a", 1000));
+		sink.add("b", work("b", 1000));
+
+		assertEquals(1, this.scheduler.run(0));
+		assertEquals(1, this.scheduler.run(0));
+		assertEquals(0, this.scheduler.run(0));
+		assertEquals(Arrays.asList("a", "b"), this.log);
+	}
+
+	@Test
+	public void unlimitedBudgetDrainsEverything() {
+		final WorkScheduler.IWorkSink a = this.scheduler.addQueue("a");
+		final WorkScheduler.IWorkSink b = this.scheduler.addQueue("b");
+		a.add(1, work("a1", 10));
+		a.add(2, work("a2", 10));
+		b.add(1, work("b1", 10));
+
+		assertEquals(3, this.scheduler.run(Long.MAX_VALUE));
+		assertEquals(0, this.scheduler.getPending());
+		assertEquals(Arrays.asList("a1", "b1", "a2"), this.log);
+	}
+
+	@Test
+	public void roundRobinAcrossQueuesAndTicks() {
+		final WorkScheduler.IWorkSink a = this.scheduler.addQueue("a");
+		final WorkScheduler.IWorkSink b = this.scheduler.addQueue("b");
+		final WorkScheduler.IWorkSink c = this.scheduler.addQueue("c");
+		for (int i = 1; i <= 2; i++) {
+			a.add(i, work("a" + i, 100));
+			b.add(i, work("b" + i, 100));
+			c.add(i, work("c" + i, 100));
+		}
+
+		// Two units a tick; each tick starts with the queue after the last one
+		// that ran.
+		assertEquals(2, this.scheduler.run(150));
+		assertEquals(2, this.scheduler.run(150));
+		assertEquals(2, this.scheduler.run(150));
+		assertEquals(Arrays.asList("a1", "b1", "c1", "a2", "b2", "c2"), this.log);
+	}
+
+	@Test
+	public void resubmitReplacesWorkAndKeepsItsPlace() {
+		final WorkScheduler.IWorkSink sink = this.scheduler.addQueue("q");
+		final Object player1 = new Object();
+		final Object player2 = new Object();
+		sink.add(player1, work("old", 0));
+		sink.add(player2, work("p2", 0));
+		sink.add(player1, work("new", 0));
+
+		assertEquals(2, this.scheduler.getPending());
+		this.scheduler.run(Long.MAX_VALUE);
+		assertEquals(Arrays.asList("new", "p2"), this.log);
+	}
+
+	@Test
+	public void starvationIsCounted() {
+		final WorkScheduler.IWorkSink a = this.scheduler.addQueue("a");
+		final WorkScheduler.IWorkSink b = this.scheduler.addQueue("b");
+		final WorkScheduler.IWorkSink c = this.scheduler.addQueue("c");
+		a.add(1, work("a", 100));
+		b.add(1, work("b", 100));
+		c.add(1, work("c", 100));
+
+		// One unit a tick. Each queue waits while the ones ahead of it run.
+		for (int i = 0; i < 3; i++)
+			assertEquals(1, this.scheduler.run(0));
+		assertEquals(Arrays.asList("a", "b", "c"), this.log);
+
+		final List<WorkScheduler.Stats> stats = this.scheduler.snapshot();
+		assertEquals(3, stats.size());
+		final int[] starved = { 0, 1, 2 };
+		for (int i = 0; i < 3; i++) {
+			final WorkScheduler.Stats s = stats.get(i);
+			assertEquals(s.name, 1, s.units);
+			assertEquals(s.name, 0, s.pending);
+			assertEquals(s.name, starved[i], s.starved);
+			assertEquals(s.name, starved[i], s.maxLatency);
+			assertEquals(s.name, starved[i], s.meanLatency, 0.0001F);
+			assertEquals(s.name, 0.1F, s.meanMicros, 0.0001F);
+		}
+
+		// The snapshot starts a new window
+		for (final WorkScheduler.Stats s : this.scheduler.snapshot()) {
+			assertEquals(0, s.units);
+			assertEquals(0, s.starved);
+			assertEquals(0, s.maxLatency);
+		}
+	}
+
+	@Test
+	public void emptyQueuesAreNotStarved() {
+		final WorkScheduler.IWorkSink a = this.scheduler.addQueue("a");
+		this.scheduler.addQueue("b");
+		a.add(1, work("a1", 100));
+		a.add(2, work("a2", 100));
+
+		this.scheduler.run(0);
+		this.scheduler.run(0);
+
+		final List<WorkScheduler.Stats> stats = this.scheduler.snapshot();
+		assertEquals(2, stats.get(0).units);
+		assertEquals(0, stats.get(0).starved);
+		assertEquals(0, stats.get(1).units);
+		assertEquals(0, stats.get(1).starved);
+	}
+
+	@Test
+	public void latencyCountsTicksWaited() {
+		final WorkScheduler.IWorkSink sink = this.scheduler.addQueue("q");
+		this.scheduler.run(0);
+		assertEquals(1, this.scheduler.getTick());
+
+		// Queued at tick 1, run one a tick
+		sink.add(1, work("a", 0));
+		sink.add(2, work("b", 0));
+		sink.add(3, work("c", 0));
+		this.scheduler.run(0);
+		this.scheduler.run(0);
+		this.scheduler.run(0);
+
+		assertEquals(Arrays.asList("a", "b", "c"), this.log);
+		final WorkScheduler.Stats s = this.scheduler.snapshot().get(0);
+		assertEquals(3, s.units);
+		assertEquals(2, s.maxLatency);
+		assertEquals(1.0F, s.meanLatency, 0.0001F);
+	}
+}